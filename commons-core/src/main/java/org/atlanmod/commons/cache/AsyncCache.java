@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A semi-persistent mapping from keys to values, that loads its values asynchronously. Values are automatically loaded
+ * by the cache, and are stored in the cache until either evicted or manually invalidated.
+ * <p>
+ * The cache stores the {@link CompletableFuture} of each value as soon as its loading starts: concurrent calls for a
+ * key that is being loaded share the same in-flight future, so the value is loaded only once. A future that completes
+ * exceptionally, or with a {@code null} value, is removed from the cache.
+ * <p>
+ * Implementations of this interface are expected to be thread-safe, and can be safely accessed by multiple concurrent
+ * threads.
+ *
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of mapped values
+ * @see CacheBuilder#buildAsync(Function)
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+public interface AsyncCache<K, V> {
+
+    /**
+     * Returns the future of the value associated with the {@code key} in this cache, or {@code null} if there is no
+     * cached future for the {@code key}.
+     *
+     * @param key the key whose associated value is to be returned
+     *
+     * @return the future of the value, or {@code null} if this cache contains no mapping for the key
+     */
+    @Nullable
+    CompletableFuture<V> getIfPresent(K key);
+
+    /**
+     * Returns the future of the value associated with the {@code key} in this cache, loading that value if necessary.
+     *
+     * @param key the key whose associated value is to be returned
+     *
+     * @return the future of the current (existing or loading) value associated with the specified key
+     */
+    @Nonnull
+    CompletableFuture<V> getAsync(K key);
+
+    /**
+     * Returns the future of the value associated with the {@code key} in this cache, obtaining that value from the
+     * {@code mappingFunction} if necessary. The function is applied asynchronously, on the executor of the cache.
+     *
+     * @param key             the key whose associated value is to be returned
+     * @param mappingFunction the function to compute a value
+     *
+     * @return the future of the current (existing or computed) value associated with the specified key
+     */
+    @Nonnull
+    CompletableFuture<V> getAsync(K key, Function<? super K, ? extends V> mappingFunction);
+
+    /**
+     * Returns the future of a map of the values associated with the {@code keys} in this cache, loading the missing
+     * values if necessary. The loads of the missing values are started at once, and run concurrently.
+     *
+     * @param keys the keys whose associated values are to be returned
+     *
+     * @return the future of the unmodifiable mapping of keys to values for the specified keys, without the keys whose
+     * value is {@code null}
+     */
+    @Nonnull
+    CompletableFuture<Map<K, V>> getAllAsync(Iterable<? extends K> keys);
+
+    /**
+     * Associates the future of a {@code value} with the {@code key} in this cache. If the cache previously contained a
+     * value associated with the {@code key}, the old value is replaced by the new {@code value}.
+     *
+     * @param key   the key with which the specified value is to be associated
+     * @param value the future of the value to be associated with the specified key
+     */
+    void put(K key, CompletableFuture<? extends V> value);
+
+    /**
+     * Returns a view of the entries stored in this cache as a synchronous {@link Cache}. Calls to the view block
+     * while the values are being loaded.
+     *
+     * @return a synchronous view of this cache
+     */
+    @Nonnull
+    Cache<K, V> synchronous();
+}
@@ -122,6 +122,9 @@ public interface Cache<K, V> {
 
     /**
      * Returns {@code true} if this map contains a mapping for the specified {@code key}.
+     * <p>
+     * This method never loads a value, even if this cache has a loader, and does not count as a lookup in the
+     * {@linkplain #stats() statistics}.
      *
      * @param key key whose presence in this map is to be tested
      *
@@ -142,6 +145,8 @@ public interface Cache<K, V> {
      * will continue to be returned by {@code get(key)} unless it is evicted. If the new value is loaded successfully it
      * will replace the previous value in the cache; if an exception is thrown while refreshing the previous value will
      * remain.
+     * <p>
+     * A cache built without a loading function has no way to load a new value, and ignores this operation.
      *
      * @param key key with which a value may be associated
      */
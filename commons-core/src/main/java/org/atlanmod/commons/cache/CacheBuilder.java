@@ -9,9 +9,20 @@
 package org.atlanmod.commons.cache;
 
 import org.atlanmod.commons.annotation.Builder;
+import org.atlanmod.commons.io.serializer.BinarySerializer;
+import org.atlanmod.commons.time.Ticker;
 
 import java.lang.ref.SoftReference;
 import java.lang.ref.WeakReference;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.ToIntBiFunction;
 
@@ -23,6 +34,8 @@ import javax.annotation.Nonnull;
  *
  * @param <K> the base key type for {@link Cache}s created by this builder
  * @param <V> the base value type for {@link Cache} created by this builder
+ *
+ * @see PrimitiveCacheBuilder
  */
 @Builder("builder")
 public interface CacheBuilder<K, V> {
@@ -62,6 +75,47 @@ public interface CacheBuilder<K, V> {
     @Nonnull
     CacheBuilder<K, V> recordStats();
 
+    /**
+     * Specifies a reporter that periodically receives the statistics of the cache, such as to alert on a collapse of
+     * the hit rate.
+     * <p>
+     * Each report contains the statistics of the last {@code period}, that is the {@linkplain CacheStats#minus
+     * difference} between the current statistics and those of the previous report. The reporter is called on a shared
+     * daemon thread, so it must return quickly. Reports stop once the cache has been garbage-collected.
+     * <p>
+     * This feature implies {@link #recordStats()}.
+     *
+     * @param period   the period between two reports
+     * @param reporter the consumer of the statistics of each period
+     *
+     * @return this builder (for chaining)
+     *
+     * @throws IllegalArgumentException if {@code period} is not positive
+     * @throws IllegalStateException    if a reporter was already set
+     */
+    @Nonnull
+    CacheBuilder<K, V> reportStats(Duration period, Consumer<? super CacheStats> reporter);
+
+    /**
+     * Specifies that each cache should be managed through JMX, by registering a {@link CacheMXBean} in the platform
+     * MBean server under the name {@code org.atlanmod.commons.cache:type=Cache,name="<name>"}.
+     * <p>
+     * The MBean exposes the size, the maximum and the statistics of the cache, and allows operators to invalidate or
+     * clean up the cache and to change its maximum at runtime. An MBean already registered with the same name is
+     * replaced. The MBean does not prevent the cache from being garbage-collected, and is unregistered afterwards.
+     * <p>
+     * This feature implies {@link #recordStats()}.
+     *
+     * @param name the name of the cache
+     *
+     * @return this builder (for chaining)
+     *
+     * @throws IllegalArgumentException if {@code name} cannot be used in an MBean name
+     * @throws IllegalStateException    if an MBean name was already set
+     */
+    @Nonnull
+    CacheBuilder<K, V> registerMBean(String name);
+
     /**
      * Sets the minimum total size for the internal data structures.
      * <p>
@@ -95,7 +149,7 @@ public interface CacheBuilder<K, V> {
      * @return this builder (for chaining)
      *
      * @throws IllegalArgumentException if {@code maximumSize} is negative
-     * @throws IllegalStateException    if a maximum size or weight was already set
+     * @throws IllegalStateException    if a maximum size or weight was already set, or if the values are stored off-heap
      */
     @Nonnull
     CacheBuilder<K, V> maximumSize(@Nonnegative long maximumSize);
@@ -125,7 +179,7 @@ public interface CacheBuilder<K, V> {
      * @return this builder (for chaining)
      *
      * @throws IllegalArgumentException if {@code maximumWeight} is negative
-     * @throws IllegalStateException    if a maximum weight or size was already set
+     * @throws IllegalStateException    if a maximum weight or size was already set, or if the values are stored off-heap
      */
     <K1 extends K, V1 extends V> CacheBuilder<K, V> maximumWeight(@Nonnegative long maximumWeight, ToIntBiFunction<? super K1, ? extends V1> weigher);
 
@@ -159,7 +213,7 @@ public interface CacheBuilder<K, V> {
      *
      * @return this builder instance
      *
-     * @throws IllegalStateException if the value strength was already set
+     * @throws IllegalStateException if the value strength was already set, or if the values are stored off-heap
      */
     @Nonnull
     CacheBuilder<K, V> weakValues();
@@ -176,11 +230,223 @@ public interface CacheBuilder<K, V> {
      *
      * @return this builder (for chaining)
      *
-     * @throws IllegalStateException if the value strength was already set
+     * @throws IllegalStateException if the value strength was already set, or if the values are stored off-heap
      */
     @Nonnull
     CacheBuilder<K, V> softValues();
 
+    /**
+     * Specifies that each entry should be automatically removed from the cache once a fixed duration has elapsed after
+     * the entry's creation, or the most recent replacement of its value.
+     * <p>
+     * Expired entries may be counted in {@link Cache#size()}, but will never be visible to read or write operations.
+     *
+     * @param duration the length of time after an entry is created that it should be automatically removed
+     *
+     * @return this builder (for chaining)
+     *
+     * @throws IllegalArgumentException if {@code duration} is negative
+     * @throws IllegalStateException    if the time to live or a variable expiry was already set, or if the values are
+     *                                  spilled to disk
+     */
+    @Nonnull
+    CacheBuilder<K, V> expireAfterWrite(Duration duration);
+
+    /**
+     * Specifies that each entry should be automatically removed from the cache once a fixed duration has elapsed after
+     * the entry's creation, the most recent replacement of its value, or its last read.
+     * <p>
+     * Expired entries may be counted in {@link Cache#size()}, but will never be visible to read or write operations.
+     *
+     * @param duration the length of time after an entry is last accessed that it should be automatically removed
+     *
+     * @return this builder (for chaining)
+     *
+     * @throws IllegalArgumentException if {@code duration} is negative
+     * @throws IllegalStateException    if the time to idle or a variable expiry was already set, or if the values are
+     *                                  spilled to disk
+     */
+    @Nonnull
+    CacheBuilder<K, V> expireAfterAccess(Duration duration);
+
+    /**
+     * Specifies that each entry should be automatically removed from the cache once a duration has elapsed, calculated
+     * for each entry by the given {@code expiry}.
+     * <p>
+     * This feature cannot be used in conjunction with {@link #expireAfterWrite}, {@link #expireAfterAccess}, {@link
+     * #offHeap} or {@link #spillToDisk}.
+     *
+     * @param expiry the expiry to use in calculating the expiration time of cache entries
+     * @param <K1>   the key type of the expiry
+     * @param <V1>   the value type of the expiry
+     *
+     * @return this builder (for chaining)
+     *
+     * @throws IllegalStateException if an expiration policy was already set, or if the values are stored off-heap or
+     *                               spilled to disk
+     */
+    @Nonnull
+    <K1 extends K, V1 extends V> CacheBuilder<K, V> expireAfter(Expiry<? super K1, ? super V1> expiry);
+
+    /**
+     * Specifies that active entries are eligible for automatic refresh once a fixed duration has elapsed after the
+     * entry's creation, or the most recent replacement of its value.
+     * <p>
+     * The entry is refreshed on the first read after this duration, by reloading its value asynchronously on the
+     * {@linkplain #executor(Executor) executor} of the cache: the read returns the current value without waiting, and
+     * the reloaded value replaces it once loaded. Unlike expiration, a refresh never blocks the readers of a frequently
+     * used entry; both can be combined so that idle entries expire while active entries stay fresh.
+     * <p>
+     * This feature requires a loading cache, built with {@link #build(Function)} or {@link #buildAsync(Function)}; it
+     * cannot be used in conjunction with {@link #offHeap} or {@link #spillToDisk}.
+     *
+     * @param duration the length of time after an entry is created that it should be considered stale
+     *
+     * @return this builder (for chaining)
+     *
+     * @throws IllegalArgumentException if {@code duration} is not positive
+     * @throws IllegalStateException    if the refresh duration was already set, or if the values are stored off-heap or
+     *                                  spilled to disk
+     */
+    @Nonnull
+    CacheBuilder<K, V> refreshAfterWrite(Duration duration);
+
+    /**
+     * Specifies the time source used by the expiration and refresh policies. By default, {@link
+     * Ticker#systemTicker()} is used.
+     * <p>
+     * A custom ticker allows testing the time-based policies deterministically.
+     *
+     * @param ticker the time source
+     *
+     * @return this builder (for chaining)
+     *
+     * @throws IllegalStateException if a ticker was already set
+     */
+    @Nonnull
+    CacheBuilder<K, V> ticker(Ticker ticker);
+
+    /**
+     * Specifies the executor to use when running asynchronous tasks, such as asynchronous loads, refreshes and removal
+     * notifications. By default, {@link ForkJoinPool#commonPool()} is used.
+     * <p>
+     * I/O-bound loaders should use a dedicated executor, to avoid starving the common pool.
+     *
+     * @param executor the executor to use for asynchronous tasks
+     *
+     * @return this builder (for chaining)
+     *
+     * @throws IllegalStateException if an executor was already set, or if the values are stored off-heap
+     */
+    @Nonnull
+    CacheBuilder<K, V> executor(Executor executor);
+
+    /**
+     * Specifies that the values should be stored in direct memory, outside of the Java heap, serialized with the given
+     * {@code serializer}.
+     * <p>
+     * The keys remain on-heap in an index, but the values do not contribute to the size of the heap, and thus to the
+     * garbage collection pauses. The cache evicts entries to keep the total size of the serialized values within
+     * {@code maximumBytes}; a single value larger than an eighth of this budget is never cached. Values are
+     * deserialized on each read, so each call returns a new instance.
+     * <p>
+     * This feature cannot be used in conjunction with {@link #maximumSize}, {@link #maximumWeight}, {@link
+     * #weakValues}, {@link #softValues}, {@link #executor}, {@link #expireAfter}, {@link #refreshAfterWrite} or {@link
+     * #spillToDisk}, and with asynchronous caches.
+     *
+     * @param maximumBytes the maximum number of bytes used by the serialized values
+     * @param serializer   the serializer used to store the values
+     * @param <V1>         the value type of the serializer
+     *
+     * @return this builder (for chaining)
+     *
+     * @throws IllegalArgumentException if {@code maximumBytes} is lower than 2 KiB
+     * @throws IllegalStateException    if the values are already stored off-heap or spilled to disk, or if a maximum
+     *                                  size or weight, a value strength, an executor, a variable expiry or a refresh
+     *                                  duration was already set
+     */
+    @Nonnull
+    <V1 extends V> CacheBuilder<K, V> offHeap(@Nonnegative long maximumBytes, BinarySerializer<V1> serializer);
+
+    /**
+     * Specifies that the values evicted because of the maximum size or weight of the cache should be spilled to disk,
+     * serialized with the given {@code serializer}, instead of being discarded.
+     * <p>
+     * The spilled values are appended to memory-mapped segment files, in a new sub-directory of {@code directory}. A
+     * cache miss looks for a spilled value before computing the value, and promotes it back into memory. Segments that
+     * are mostly made of removed values are compacted in the background; when the segments would exceed {@code
+     * maximumBytes}, the oldest segment is dropped with its values. The files are deleted when the application exits.
+     * <p>
+     * A builder with this feature can only build one cache. This feature cannot be used in conjunction with {@link
+     * #offHeap}, {@link #expireAfterWrite}, {@link #expireAfterAccess}, {@link #expireAfter} or {@link
+     * #refreshAfterWrite}, and with asynchronous caches: the spilled values do not expire.
+     *
+     * @param directory    the parent directory of the segment files
+     * @param maximumBytes the maximum number of bytes of the segment files
+     * @param serializer   the serializer used to spill the values
+     * @param <V1>         the value type of the serializer
+     *
+     * @return this builder (for chaining)
+     *
+     * @throws IllegalArgumentException if {@code maximumBytes} is lower than 16 KiB
+     * @throws IllegalStateException    if the values are already spilled to disk, or stored off-heap, or if an
+     *                                  expiration or refresh policy was already set
+     */
+    @Nonnull
+    <V1 extends V> CacheBuilder<K, V> spillToDisk(Path directory, @Nonnegative long maximumBytes, BinarySerializer<V1> serializer);
+
+    /**
+     * Specifies that the hottest keys of the cache should be saved to the {@code file} when the application exits, and
+     * reloaded when the cache is built again, so that the cache does not start cold after a restart.
+     * <p>
+     * The hottest keys are those most likely to be retained by a bounded cache, or the most recently used by a cache
+     * that expires after access; any keys otherwise. When the cache is built, the keys of an existing {@code file} are
+     * split into batches, loaded in parallel on the {@linkplain #executor(Executor) executor} with {@link
+     * Cache#getAll(Iterable)}, and the build only returns once they are all loaded. A missing or unreadable {@code
+     * file} leaves the cache cold.
+     * <p>
+     * A builder with this feature can only build one cache, which must load its values.
+     *
+     * @param file          the file that stores the snapshot
+     * @param maximumKeys   the maximum number of saved keys
+     * @param keySerializer the serializer used to save the keys
+     * @param <K1>          the key type of the serializer
+     *
+     * @return this builder (for chaining)
+     *
+     * @throws IllegalArgumentException if {@code maximumKeys} is negative
+     * @throws IllegalStateException    if a snapshot was already set
+     *
+     * @see #snapshot(Path, int, BinarySerializer, BinarySerializer)
+     */
+    @Nonnull
+    <K1 extends K> CacheBuilder<K, V> snapshot(Path file, @Nonnegative int maximumKeys, BinarySerializer<K1> keySerializer);
+
+    /**
+     * Specifies that the hottest entries of the cache should be saved to the {@code file} when the application exits,
+     * and put back when the cache is built again, so that the cache does not start cold after a restart.
+     * <p>
+     * Unlike {@link #snapshot(Path, int, BinarySerializer)}, the values are saved with their keys: restoring them does
+     * not require to load any value, at the cost of a larger {@code file} and of values that may have become stale
+     * since the previous run.
+     * <p>
+     * A builder with this feature can only build one cache.
+     *
+     * @param file            the file that stores the snapshot
+     * @param maximumKeys     the maximum number of saved entries
+     * @param keySerializer   the serializer used to save the keys
+     * @param valueSerializer the serializer used to save the values
+     * @param <K1>            the key type of the serializer
+     * @param <V1>            the value type of the serializer
+     *
+     * @return this builder (for chaining)
+     *
+     * @throws IllegalArgumentException if {@code maximumKeys} is negative
+     * @throws IllegalStateException    if a snapshot was already set
+     */
+    @Nonnull
+    <K1 extends K, V1 extends V> CacheBuilder<K, V> snapshot(Path file, @Nonnegative int maximumKeys, BinarySerializer<K1> keySerializer, BinarySerializer<V1> valueSerializer);
+
     /**
      * Builds a {@link Cache} which does not automatically load values when keys are requested.
      * <p>
@@ -190,6 +456,8 @@ public interface CacheBuilder<K, V> {
      * @param <V1> the value type of the cache
      *
      * @return a new cache
+     *
+     * @throws IllegalStateException if a refresh duration was set, or if a snapshot without values was set
      */
     @Nonnull
     <K1 extends K, V1 extends V> Cache<K1, V1> build();
@@ -208,4 +476,80 @@ public interface CacheBuilder<K, V> {
      */
     @Nonnull
     <K1 extends K, V1 extends V> Cache<K1, V1> build(Function<? super K1, ? extends V1> mappingFunction);
+
+    /**
+     * Builds a {@link Cache}, which either returns an already-loaded value for a given key or atomically computes or
+     * retrieves it using the supplied {@code mappingFunction}. Missing values requested together by {@link
+     * Cache#getAll(Iterable)} are loaded in a single call to {@code bulkMappingFunction}, instead of one call per key.
+     * <p>
+     * The bulk function may return entries for keys that were not requested: they are cached, but not returned. The
+     * requested keys that are missing from its result are not cached.
+     *
+     * @param mappingFunction     the function used to obtain a new value
+     * @param bulkMappingFunction the function used to obtain new values in batch
+     * @param <K1>                the key type of the loader
+     * @param <V1>                the value type of the loader
+     *
+     * @return a new cache
+     */
+    @Nonnull
+    <K1 extends K, V1 extends V> Cache<K1, V1> build(Function<? super K1, ? extends V1> mappingFunction, Function<? super Set<? extends K1>, ? extends Map<? extends K1, ? extends V1>> bulkMappingFunction);
+
+    /**
+     * Builds an {@link AsyncCache}, which either returns the future of an already-loaded value for a given key or
+     * computes it asynchronously using the supplied {@link Function}, on the {@linkplain #executor(Executor) executor}
+     * of the cache. If the value of this key is currently being loaded, returns the future of that load.
+     * <p>
+     * This method cannot be used if the values are stored off-heap or spilled to disk.
+     *
+     * @param mappingFunction the function used to obtain new values
+     * @param <K1>            the key type of the loader
+     * @param <V1>            the value type of the loader
+     *
+     * @return a new cache
+     *
+     * @throws IllegalStateException if the values are stored off-heap or spilled to disk
+     */
+    @Nonnull
+    <K1 extends K, V1 extends V> AsyncCache<K1, V1> buildAsync(Function<? super K1, ? extends V1> mappingFunction);
+
+    /**
+     * Builds an {@link AsyncCache}, which either returns the future of an already-loaded value for a given key or
+     * computes it asynchronously using the supplied {@code mappingFunction}, on the {@linkplain #executor(Executor)
+     * executor} of the cache. Missing values requested together by {@link AsyncCache#getAllAsync(Iterable)} are loaded
+     * in a single call to {@code bulkMappingFunction}, instead of one call per key.
+     * <p>
+     * This method cannot be used if the values are stored off-heap or spilled to disk.
+     *
+     * @param mappingFunction     the function used to obtain a new value
+     * @param bulkMappingFunction the function used to obtain new values in batch
+     * @param <K1>                the key type of the loader
+     * @param <V1>                the value type of the loader
+     *
+     * @return a new cache
+     *
+     * @throws IllegalStateException if the values are stored off-heap or spilled to disk
+     */
+    @Nonnull
+    <K1 extends K, V1 extends V> AsyncCache<K1, V1> buildAsync(Function<? super K1, ? extends V1> mappingFunction, Function<? super Set<? extends K1>, ? extends Map<? extends K1, ? extends V1>> bulkMappingFunction);
+
+    /**
+     * Builds an {@link AsyncCache}, which either returns the future of an already-loaded value for a given key or
+     * starts loading it using the supplied asynchronous {@code loader}. The loader receives the {@linkplain
+     * #executor(Executor) executor} of the cache, and returns the future of the value without blocking: this allows
+     * I/O-bound loads to overlap, instead of blocking a thread each. If the value of this key is currently being
+     * loaded, returns the future of that load.
+     * <p>
+     * This method cannot be used if the values are stored off-heap or spilled to disk.
+     *
+     * @param loader the function used to start loading new values
+     * @param <K1>   the key type of the loader
+     * @param <V1>   the value type of the loader
+     *
+     * @return a new cache
+     *
+     * @throws IllegalStateException if the values are stored off-heap or spilled to disk
+     */
+    @Nonnull
+    <K1 extends K, V1 extends V> AsyncCache<K1, V1> buildAsync(BiFunction<? super K1, ? super Executor, ? extends CompletableFuture<? extends V1>> loader);
 }
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+/**
+ * The management interface of a {@link Cache}, registered in the platform MBean server with {@link
+ * CacheBuilder#registerMBean(String)}.
+ * <p>
+ * The statistics are those of {@link Cache#stats()}, cumulative since the creation of the cache. Once the cache has
+ * been garbage-collected, its MBean is unregistered; until then, the attributes of a collected cache are all zero.
+ */
+public interface CacheMXBean {
+
+    /**
+     * The domain of the names of the cache MBeans.
+     */
+    String DOMAIN = "org.atlanmod.commons.cache";
+
+    /**
+     * Returns the approximate number of entries in the cache.
+     *
+     * @return the estimated size of the cache
+     *
+     * @see Cache#size()
+     */
+    long getSize();
+
+    /**
+     * Returns the maximum size of the cache, or its maximum weight if it is {@linkplain #isWeighted() weighted}.
+     *
+     * @return the maximum size or weight, or {@code -1} if the cache is not bounded, or if its values are stored
+     * off-heap
+     *
+     * @see CacheBuilder#maximumSize(long)
+     * @see CacheBuilder#maximumWeight
+     */
+    long getMaximumSize();
+
+    /**
+     * Changes the maximum size of the cache, or its maximum weight if it is {@linkplain #isWeighted() weighted}. If the
+     * new maximum is lower than the current size, entries are evicted until the cache fits.
+     *
+     * @param maximumSize the new maximum size or weight
+     *
+     * @throws IllegalArgumentException      if {@code maximumSize} is negative
+     * @throws UnsupportedOperationException if the cache is not bounded, or if its values are stored off-heap
+     */
+    void setMaximumSize(long maximumSize);
+
+    /**
+     * Returns whether the maximum of the cache is a weight, rather than a number of entries.
+     *
+     * @return {@code true} if the cache is bounded by weight
+     */
+    boolean isWeighted();
+
+    /**
+     * Returns the number of lookups.
+     *
+     * @return the number of lookups
+     *
+     * @see CacheStats#requestCount()
+     */
+    long getRequestCount();
+
+    /**
+     * Returns the number of lookups that returned a cached value.
+     *
+     * @return the number of hits
+     *
+     * @see CacheStats#hitCount()
+     */
+    long getHitCount();
+
+    /**
+     * Returns the ratio of lookups that returned a cached value.
+     *
+     * @return the hit rate
+     *
+     * @see CacheStats#hitRate()
+     */
+    double getHitRate();
+
+    /**
+     * Returns the number of lookups that did not return a cached value.
+     *
+     * @return the number of misses
+     *
+     * @see CacheStats#missCount()
+     */
+    long getMissCount();
+
+    /**
+     * Returns the number of values successfully loaded.
+     *
+     * @return the number of successful loads
+     *
+     * @see CacheStats#loadSuccessCount()
+     */
+    long getLoadSuccessCount();
+
+    /**
+     * Returns the number of loads that failed.
+     *
+     * @return the number of failed loads
+     *
+     * @see CacheStats#loadFailureCount()
+     */
+    long getLoadFailureCount();
+
+    /**
+     * Returns the average time spent loading a value, in nanoseconds.
+     *
+     * @return the average load time
+     *
+     * @see CacheStats#averageLoadPenalty()
+     */
+    double getAverageLoadPenalty();
+
+    /**
+     * Returns the 99th percentile of the time spent loading a value, in nanoseconds.
+     *
+     * @return the 99th percentile of the load times
+     *
+     * @see CacheStats#loadLatencies()
+     */
+    long getLoadTime99thPercentile();
+
+    /**
+     * Returns the number of evicted entries.
+     *
+     * @return the number of evictions
+     *
+     * @see CacheStats#evictionCount()
+     */
+    long getEvictionCount();
+
+    /**
+     * Returns the total weight of the evicted entries.
+     *
+     * @return the weight of the evictions
+     *
+     * @see CacheStats#evictionWeight()
+     */
+    long getEvictionWeight();
+
+    /**
+     * Discards all entries of the cache.
+     *
+     * @see Cache#invalidateAll()
+     */
+    void invalidateAll();
+
+    /**
+     * Performs any pending maintenance operations needed by the cache.
+     *
+     * @see Cache#cleanUp()
+     */
+    void cleanUp();
+}
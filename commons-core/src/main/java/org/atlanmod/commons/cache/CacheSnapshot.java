@@ -0,0 +1,329 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import com.github.benmanes.caffeine.cache.Policy;
+
+import org.atlanmod.commons.concurrent.MoreThreads;
+import org.atlanmod.commons.io.serializer.BinarySerializer;
+import org.atlanmod.commons.log.Log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.lang.ref.WeakReference;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.WillNotClose;
+
+/**
+ * A file that stores the hottest keys of a cache, and optionally their values, so that a new instance of the cache
+ * can be warmed up when the application restarts.
+ * <p>
+ * The file starts with a header, made of a magic number, a flag indicating whether the values are stored, and the
+ * number of entries. Each key, then its value if any, follows as a length-prefixed record of its {@link
+ * BinarySerializer}, from the hottest to the coldest entry.
+ *
+ * @param <K> the type of keys maintained by the cache
+ * @param <V> the type of mapped values
+ *
+ * @see CacheBuilder#snapshot(Path, int, BinarySerializer)
+ * @see CacheBuilder#snapshot(Path, int, BinarySerializer, BinarySerializer)
+ */
+@ParametersAreNonnullByDefault
+final class CacheSnapshot<K, V> {
+
+    /**
+     * The magic number of snapshot files ("CSN1").
+     */
+    private static final int MAGIC = 0x43534E31;
+
+    /**
+     * The file that stores the snapshot.
+     */
+    @Nonnull
+    private final Path file;
+
+    /**
+     * The maximum number of saved entries.
+     */
+    @Nonnegative
+    private final int maximumKeys;
+
+    /**
+     * The serializer of the keys.
+     */
+    @Nonnull
+    private final BinarySerializer<K> keySerializer;
+
+    /**
+     * The serializer of the values, or {@code null} if only the keys are saved.
+     */
+    @Nullable
+    private final BinarySerializer<V> valueSerializer;
+
+    /**
+     * Constructs a new {@code CacheSnapshot}.
+     *
+     * @param file            the file that stores the snapshot
+     * @param maximumKeys     the maximum number of saved entries
+     * @param keySerializer   the serializer of the keys
+     * @param valueSerializer the serializer of the values, or {@code null} if only the keys are saved
+     */
+    CacheSnapshot(Path file, @Nonnegative int maximumKeys, BinarySerializer<K> keySerializer, @Nullable BinarySerializer<V> valueSerializer) {
+        this.file = file;
+        this.maximumKeys = maximumKeys;
+        this.keySerializer = keySerializer;
+        this.valueSerializer = valueSerializer;
+    }
+
+    /**
+     * Returns whether the values are saved with their keys.
+     *
+     * @return {@code true} if the values are saved
+     */
+    boolean hasValues() {
+        return valueSerializer != null;
+    }
+
+    /**
+     * Warms up the {@code cache} with the entries of the snapshot file, if it exists, and blocks until they are all
+     * restored.
+     * <p>
+     * The saved values are put directly in the cache. Otherwise, the keys are split into batches that are loaded in
+     * parallel on the {@code executor}, each with a single {@link Cache#getAll(Iterable)} call. A missing, unreadable
+     * or incompatible file, or a failing load, only leaves the cache partially warm.
+     *
+     * @param cache    the cache to warm up; it must be able to load its values if only the keys are saved
+     * @param executor the executor used to load the values
+     */
+    void restore(Cache<K, V> cache, Executor executor) {
+        if (!Files.exists(file)) {
+            return;
+        }
+
+        final Map<K, V> entries;
+        try {
+            entries = read();
+        }
+        catch (IOException | RuntimeException e) {
+            Log.warn(e, "Unable to read the snapshot of a cache from {0}", file);
+            return;
+        }
+
+        if (hasValues()) {
+            cache.putAll(entries);
+            return;
+        }
+
+        final List<K> keys = new ArrayList<>(entries.keySet());
+        final int parallelism = Runtime.getRuntime().availableProcessors();
+        final int batchSize = Math.max(1, (keys.size() + parallelism - 1) / parallelism);
+
+        final List<CompletableFuture<?>> futures = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i += batchSize) {
+            final List<K> batch = keys.subList(i, Math.min(i + batchSize, keys.size()));
+            futures.add(CompletableFuture.runAsync(() -> cache.getAll(batch), executor));
+        }
+
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        }
+        catch (CompletionException e) {
+            Log.warn(e.getCause(), "Unable to reload the snapshot of a cache from {0}", file);
+        }
+    }
+
+    /**
+     * Saves the hottest entries of the {@code cache} when the application exits. The task does not prevent the cache
+     * from being garbage-collected, in which case nothing is saved.
+     *
+     * @param cache  the cache to save
+     * @param policy the policy of the internal cache, or {@code null} if the hotness of its entries is unknown
+     */
+    void saveAtExit(Cache<K, V> cache, @Nullable Policy<?, ?> policy) {
+        final WeakReference<Cache<K, V>> cacheRef = new WeakReference<>(cache);
+        final WeakReference<Policy<?, ?>> policyRef = new WeakReference<>(policy);
+
+        MoreThreads.executeAtExit(() -> {
+            final Cache<K, V> c = cacheRef.get();
+            if (c == null) {
+                return;
+            }
+
+            try {
+                save(c, policyRef.get());
+            }
+            catch (IOException | RuntimeException e) {
+                Log.warn(e, "Unable to save the snapshot of a cache to {0}", file);
+            }
+        });
+    }
+
+    /**
+     * Saves the hottest entries of the {@code cache} in the snapshot file. The file is written aside, then moved, so
+     * that a failure never leaves a truncated snapshot.
+     *
+     * @param cache  the cache to save
+     * @param policy the policy of the internal cache, or {@code null} if the hotness of its entries is unknown
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    void save(Cache<K, V> cache, @Nullable Policy<?, ?> policy) throws IOException {
+        final Map<K, V> entries = new LinkedHashMap<>();
+        for (K key : hottestKeys(cache, policy)) {
+            final V value = cache.asMap().get(key);
+            if (value != null) {
+                entries.put(key, value);
+            }
+        }
+
+        final Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        final Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeBoolean(hasValues());
+            out.writeInt(entries.size());
+
+            for (Map.Entry<K, V> e : entries.entrySet()) {
+                writeRecord(out, keySerializer.serialize(e.getKey()));
+                if (valueSerializer != null) {
+                    writeRecord(out, valueSerializer.serialize(e.getValue()));
+                }
+            }
+        }
+
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Reads the entries of the snapshot file.
+     *
+     * @return the entries, from the hottest to the coldest, mapped to {@code null} if only the keys are saved
+     *
+     * @throws IOException if an I/O error occurs, or if the file is not a snapshot of this kind
+     */
+    @Nonnull
+    Map<K, V> read() throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new StreamCorruptedException("Not a cache snapshot");
+            }
+            if (in.readBoolean() != hasValues()) {
+                throw new StreamCorruptedException(hasValues() ? "The snapshot does not contain values" : "The snapshot contains values");
+            }
+
+            final int count = in.readInt();
+            final Map<K, V> entries = new LinkedHashMap<>();
+            for (int i = 0; i < count; i++) {
+                final K key = keySerializer.deserialize(readRecord(in));
+                final V value = valueSerializer != null ? valueSerializer.deserialize(readRecord(in)) : null;
+                entries.put(key, value);
+            }
+            return entries;
+        }
+    }
+
+    /**
+     * Returns the {@link #maximumKeys} hottest keys of the {@code cache}: the most likely to be retained by a bounded
+     * cache, or the most recently used by a cache that expires after access. Otherwise, the keys are taken in the
+     * iteration order of the cache.
+     *
+     * @param cache  the cache
+     * @param policy the policy of the internal cache, or {@code null} if the hotness of its entries is unknown
+     *
+     * @return the keys, from the hottest to the coldest
+     */
+    @Nonnull
+    @SuppressWarnings("unchecked")
+    private Collection<K> hottestKeys(Cache<K, V> cache, @Nullable Policy<?, ?> policy) {
+        if (policy != null) {
+            final Optional<? extends Policy.Eviction<?, ?>> eviction = policy.eviction();
+            if (eviction.isPresent()) {
+                return (Collection<K>) eviction.get().hottest(maximumKeys).keySet();
+            }
+
+            final Optional<? extends Policy.FixedExpiration<?, ?>> expiration = policy.expireAfterAccess();
+            if (expiration.isPresent()) {
+                return (Collection<K>) expiration.get().youngest(maximumKeys).keySet();
+            }
+        }
+
+        final List<K> keys = new ArrayList<>();
+        for (K key : cache.asMap().keySet()) {
+            if (keys.size() >= maximumKeys) {
+                break;
+            }
+            keys.add(key);
+        }
+        return keys;
+    }
+
+    /**
+     * Writes a length-prefixed record.
+     *
+     * @param out    the output
+     * @param record the record
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    private static void writeRecord(@WillNotClose DataOutputStream out, byte[] record) throws IOException {
+        out.writeInt(record.length);
+        out.write(record);
+    }
+
+    /**
+     * Reads a length-prefixed record.
+     *
+     * @param in the input
+     *
+     * @return the record
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Nonnull
+    private static byte[] readRecord(@WillNotClose DataInputStream in) throws IOException {
+        final int length = in.readInt();
+        if (length < 0) {
+            throw new StreamCorruptedException(String.format("Invalid record length: %d", length));
+        }
+
+        final byte[] record = new byte[length];
+        in.readFully(record);
+        return record;
+    }
+}
@@ -9,6 +9,7 @@
 package org.atlanmod.commons.cache;
 
 import java.time.Duration;
+import java.util.Arrays;
 import java.util.Objects;
 
 import javax.annotation.Nonnegative;
@@ -17,10 +18,15 @@ import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 import javax.annotation.concurrent.Immutable;
 
+import static org.atlanmod.commons.Guards.checkArgument;
 import static org.atlanmod.commons.Guards.checkGreaterThanOrEqualTo;
+import static org.atlanmod.commons.Guards.checkNotNull;
 
 /**
  * Statistics about the performance of a {@link Cache}.
+ * <p>
+ * The statistics are cumulative since the creation of the cache: the statistics of an interval are the {@linkplain
+ * #minus(CacheStats) difference} between two snapshots, as given to a {@linkplain CacheBuilder#reportStats reporter}.
  */
 @Immutable
 @ParametersAreNonnullByDefault
@@ -62,6 +68,24 @@ public final class CacheStats {
     @Nonnegative
     private final long evictionCount;
 
+    /**
+     * The number of entries evicted from the cache, indexed by the ordinal of their {@link EvictionCause}.
+     */
+    @Nonnull
+    private final long[] evictionCounts;
+
+    /**
+     * The total weight of the entries evicted from the cache.
+     */
+    @Nonnegative
+    private final long evictionWeight;
+
+    /**
+     * The histogram of the load times (success and failure).
+     */
+    @Nonnull
+    private final LatencyHistogram loadLatencies;
+
     /**
      * Constructs a new {@code CacheStats}.
      *
@@ -73,12 +97,50 @@ public final class CacheStats {
      * @param evictionCount    the number of entries evicted from the cache
      */
     protected CacheStats(@Nonnegative long hitCount, @Nonnegative long missCount, @Nonnegative long loadSuccessCount, @Nonnegative long loadFailureCount, @Nonnegative long totalLoadTime, @Nonnegative long evictionCount) {
+        this(hitCount, missCount, loadSuccessCount, loadFailureCount, totalLoadTime, new long[EvictionCause.values().length], evictionCount, 0L, LatencyHistogram.empty());
+    }
+
+    /**
+     * Constructs a new {@code CacheStats} with the details of the evictions and of the load times.
+     *
+     * @param hitCount         the number of cache hits
+     * @param missCount        the number of cache misses
+     * @param loadSuccessCount the number of successful cache loads
+     * @param loadFailureCount the number of failed cache loads
+     * @param totalLoadTime    the total load time (success and failure) in nanoseconds
+     * @param evictionCounts   the number of entries evicted from the cache, indexed by the ordinal of their {@link
+     *                         EvictionCause}; the array is not copied
+     * @param evictionWeight   the total weight of the entries evicted from the cache
+     * @param loadLatencies    the histogram of the load times
+     */
+    CacheStats(@Nonnegative long hitCount, @Nonnegative long missCount, @Nonnegative long loadSuccessCount, @Nonnegative long loadFailureCount, @Nonnegative long totalLoadTime, long[] evictionCounts, @Nonnegative long evictionWeight, LatencyHistogram loadLatencies) {
+        this(hitCount, missCount, loadSuccessCount, loadFailureCount, totalLoadTime, evictionCounts, Arrays.stream(evictionCounts).sum(), evictionWeight, loadLatencies);
+    }
+
+    /**
+     * Constructs a new {@code CacheStats} with all its fields.
+     *
+     * @param hitCount         the number of cache hits
+     * @param missCount        the number of cache misses
+     * @param loadSuccessCount the number of successful cache loads
+     * @param loadFailureCount the number of failed cache loads
+     * @param totalLoadTime    the total load time (success and failure) in nanoseconds
+     * @param evictionCounts   the number of entries evicted from the cache, indexed by the ordinal of their {@link
+     *                         EvictionCause}; the array is not copied
+     * @param evictionCount    the number of entries evicted from the cache
+     * @param evictionWeight   the total weight of the entries evicted from the cache
+     * @param loadLatencies    the histogram of the load times
+     */
+    private CacheStats(@Nonnegative long hitCount, @Nonnegative long missCount, @Nonnegative long loadSuccessCount, @Nonnegative long loadFailureCount, @Nonnegative long totalLoadTime, long[] evictionCounts, @Nonnegative long evictionCount, @Nonnegative long evictionWeight, LatencyHistogram loadLatencies) {
         checkGreaterThanOrEqualTo(hitCount, 0L, "hitCount (%d) must not be negative", hitCount);
         checkGreaterThanOrEqualTo(missCount, 0L, "missCount (%d) must not be negative", missCount);
         checkGreaterThanOrEqualTo(loadSuccessCount, 0L, "loadSuccessCount (%d) must not be negative", loadSuccessCount);
         checkGreaterThanOrEqualTo(loadFailureCount, 0L, "loadFailureCount (%d) must not be negative", loadFailureCount);
         checkGreaterThanOrEqualTo(totalLoadTime, 0L, "totalLoadTime (%d) must not be negative", totalLoadTime);
         checkGreaterThanOrEqualTo(evictionCount, 0L, "evictionCount (%d) must not be negative", evictionCount);
+        checkArgument(evictionCounts.length == EvictionCause.values().length, "evictionCounts must have a count for each cause");
+        checkGreaterThanOrEqualTo(evictionWeight, 0L, "evictionWeight (%d) must not be negative", evictionWeight);
+        checkNotNull(loadLatencies, "loadLatencies");
 
         this.hitCount = hitCount;
         this.missCount = missCount;
@@ -86,6 +148,19 @@ public final class CacheStats {
         this.loadFailureCount = loadFailureCount;
         this.totalLoadTime = totalLoadTime;
         this.evictionCount = evictionCount;
+        this.evictionCounts = evictionCounts;
+        this.evictionWeight = evictionWeight;
+        this.loadLatencies = loadLatencies;
+    }
+
+    /**
+     * Returns an instance with zero for all statistics.
+     *
+     * @return empty statistics
+     */
+    @Nonnull
+    public static CacheStats empty() {
+        return new CacheStats(0, 0, 0, 0, 0, 0);
     }
 
     /**
@@ -235,6 +310,42 @@ public final class CacheStats {
         return evictionCount;
     }
 
+    /**
+     * Returns the number of times an entry has been evicted for the given {@code cause}.
+     *
+     * @param cause the cause of the evictions
+     *
+     * @return the number of times an entry has been evicted for {@code cause}
+     */
+    @Nonnegative
+    public long evictionCount(EvictionCause cause) {
+        checkNotNull(cause, "cause");
+
+        return evictionCounts[cause.ordinal()];
+    }
+
+    /**
+     * Returns the sum of the weights of the evicted entries. This total does not include manual {@link
+     * Cache#invalidate}. Without a {@linkplain CacheBuilder#maximumWeight weigher}, each entry weighs {@code 1}.
+     *
+     * @return the sum of the weights of the evicted entries
+     */
+    @Nonnegative
+    public long evictionWeight() {
+        return evictionWeight;
+    }
+
+    /**
+     * Returns the histogram of the time spent loading new values, successfully or not. Unlike {@link
+     * #averageLoadPenalty()}, it gives the tail latencies of the loads.
+     *
+     * @return the histogram of the load times
+     */
+    @Nonnull
+    public LatencyHistogram loadLatencies() {
+        return loadLatencies;
+    }
+
     /**
      * Returns a new {@code CacheStats} representing the difference between this {@code CacheStats} and {@code other}.
      * Negative values, which aren't supported by {@code CacheStats} will be rounded up to zero.
@@ -245,13 +356,21 @@ public final class CacheStats {
      */
     @Nonnull
     public CacheStats minus(CacheStats other) {
+        final long[] counts = new long[evictionCounts.length];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = Math.max(0L, evictionCounts[i] - other.evictionCounts[i]);
+        }
+
         return new CacheStats(
                 Math.max(0L, hitCount - other.hitCount),
                 Math.max(0L, missCount - other.missCount),
                 Math.max(0L, loadSuccessCount - other.loadSuccessCount),
                 Math.max(0L, loadFailureCount - other.loadFailureCount),
                 Math.max(0L, totalLoadTime - other.totalLoadTime),
-                Math.max(0L, evictionCount - other.evictionCount));
+                counts,
+                Math.max(0L, evictionCount - other.evictionCount),
+                Math.max(0L, evictionWeight - other.evictionWeight),
+                loadLatencies.minus(other.loadLatencies));
     }
 
     /**
@@ -263,18 +382,26 @@ public final class CacheStats {
      */
     @Nonnull
     public CacheStats plus(CacheStats other) {
+        final long[] counts = new long[evictionCounts.length];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = evictionCounts[i] + other.evictionCounts[i];
+        }
+
         return new CacheStats(
                 hitCount + other.hitCount,
                 missCount + other.missCount,
                 loadSuccessCount + other.loadSuccessCount,
                 loadFailureCount + other.loadFailureCount,
                 totalLoadTime + other.totalLoadTime,
-                evictionCount + other.evictionCount);
+                counts,
+                evictionCount + other.evictionCount,
+                evictionWeight + other.evictionWeight,
+                loadLatencies.plus(other.loadLatencies));
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(hitCount, missCount, loadSuccessCount, loadFailureCount, totalLoadTime, evictionCount);
+        return Objects.hash(hitCount, missCount, loadSuccessCount, loadFailureCount, totalLoadTime, evictionCount, Arrays.hashCode(evictionCounts), evictionWeight, loadLatencies);
     }
 
     @Override
@@ -292,7 +419,10 @@ public final class CacheStats {
                 && loadSuccessCount == that.loadSuccessCount
                 && loadFailureCount == that.loadFailureCount
                 && totalLoadTime == that.totalLoadTime
-                && evictionCount == that.evictionCount;
+                && evictionCount == that.evictionCount
+                && Arrays.equals(evictionCounts, that.evictionCounts)
+                && evictionWeight == that.evictionWeight
+                && Objects.equals(loadLatencies, that.loadLatencies);
     }
 
     @Override
@@ -300,12 +430,14 @@ public final class CacheStats {
         return String.format("CacheStats {"
                         + "Hit = %d (%.0f%%), "
                         + "Miss = %d (%.0f%%), "
-                        + "Eviction Count = %d"
+                        + "Eviction Count = %d, "
+                        + "Load P99 = %s"
                         + '}',
                 hitCount(),
                 hitRate() * 100,
                 missCount(),
                 missRate() * 100,
-                evictionCount());
+                evictionCount(),
+                loadLatencies.percentile(99));
     }
 }
@@ -8,16 +8,38 @@
 
 package org.atlanmod.commons.cache;
 
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.CacheLoader;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import org.atlanmod.commons.cache.OffHeapStore.Slot;
+import org.atlanmod.commons.concurrent.MoreThreads;
+import org.atlanmod.commons.io.serializer.BinarySerializer;
+import org.atlanmod.commons.time.Ticker;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.ToIntBiFunction;
 
+import static org.atlanmod.commons.Guards.checkArgument;
 import static org.atlanmod.commons.Guards.checkGreaterThanOrEqualTo;
 import static org.atlanmod.commons.Guards.checkNotNull;
+import static org.atlanmod.commons.Guards.checkState;
 
 /**
  * A Caffeine {@link CacheBuilder} implementation.
@@ -28,12 +50,134 @@ import static org.atlanmod.commons.Guards.checkNotNull;
 @ParametersAreNonnullByDefault
 final class CaffeineCacheBuilder<K, V> implements CacheBuilder<K, V> {
 
+    /**
+     * The minimum number of blocks of an off-heap store; a single value cannot use more than this fraction of the
+     * store.
+     */
+    private static final int MINIMUM_OFF_HEAP_BLOCKS = 8;
+
     /**
      * The internal cache builder implementation.
      */
     @Nonnull
     private final Caffeine<Object, Object> builder;
 
+    /**
+     * The executor of the asynchronous tasks, or {@code null} if the default executor is used.
+     */
+    @Nullable
+    private Executor executor;
+
+    /**
+     * Whether an expiration policy has been set.
+     */
+    private boolean expiring;
+
+    /**
+     * Whether a variable expiry has been set.
+     */
+    private boolean variableExpiry;
+
+    /**
+     * Whether a refresh duration has been set.
+     */
+    private boolean refreshing;
+
+    /**
+     * Whether a ticker has been set.
+     */
+    private boolean customTicker;
+
+    /**
+     * Whether a maximum size or weight has been set.
+     */
+    private boolean bounded;
+
+    /**
+     * Whether the entries are evicted according to their weight.
+     */
+    private boolean weighted;
+
+    /**
+     * Whether the statistics are recorded.
+     */
+    private boolean recordingStats;
+
+    /**
+     * The recorder of the statistics of the cache being built, given to the internal cache builder.
+     */
+    @Nullable
+    private StatsRecorder pendingStatsRecorder;
+
+    /**
+     * The period between two reports of the statistics.
+     */
+    @Nullable
+    private Duration statsReportPeriod;
+
+    /**
+     * The consumer of the statistics of each period, or {@code null} if the statistics are not reported.
+     */
+    @Nullable
+    private Consumer<? super CacheStats> statsReporter;
+
+    /**
+     * The name of the MBean of the caches, or {@code null} if they are not managed through JMX.
+     */
+    @Nullable
+    private String mbeanName;
+
+    /**
+     * Whether the value strength has been set.
+     */
+    private boolean referenceValues;
+
+    /**
+     * The maximum number of bytes of the off-heap values, if they are stored off-heap.
+     */
+    @Nonnegative
+    private long offHeapBytes;
+
+    /**
+     * The serializer of the off-heap values, or {@code null} if the values are stored on-heap.
+     */
+    @Nullable
+    private BinarySerializer<?> offHeapSerializer;
+
+    /**
+     * The parent directory of the spilled values, or {@code null} if the evicted values are discarded.
+     */
+    @Nullable
+    private Path spillDirectory;
+
+    /**
+     * The maximum number of bytes of the spilled values.
+     */
+    @Nonnegative
+    private long spillBytes;
+
+    /**
+     * The serializer of the spilled values.
+     */
+    @Nullable
+    private BinarySerializer<?> spillSerializer;
+
+    /**
+     * Whether a cache spilling to disk has already been built.
+     */
+    private boolean spillBuilt;
+
+    /**
+     * The snapshot used to warm up the cache, or {@code null} if the cache starts cold.
+     */
+    @Nullable
+    private CacheSnapshot<?, ?> snapshot;
+
+    /**
+     * Whether a cache with a snapshot has already been built.
+     */
+    private boolean snapshotBuilt;
+
     /**
      * Constructs a new {@code CacheBuilder}.
      */
@@ -44,7 +188,36 @@ final class CaffeineCacheBuilder<K, V> implements CacheBuilder<K, V> {
     @Nonnull
     @Override
     public CacheBuilder<K, V> recordStats() {
-        builder.recordStats();
+        if (!recordingStats) {
+            builder.recordStats(() -> pendingStatsRecorder);
+            recordingStats = true;
+        }
+        return this;
+    }
+
+    @Nonnull
+    @Override
+    public CacheBuilder<K, V> reportStats(Duration period, Consumer<? super CacheStats> reporter) {
+        checkNotNull(period, "period");
+        checkArgument(!period.isNegative() && !period.isZero(), "period (%s) must be positive", period);
+        checkNotNull(reporter, "reporter");
+        checkState(statsReporter == null, "reportStats was already set");
+
+        recordStats();
+        statsReportPeriod = period;
+        statsReporter = reporter;
+        return this;
+    }
+
+    @Nonnull
+    @Override
+    public CacheBuilder<K, V> registerMBean(String name) {
+        checkNotNull(name, "name");
+        checkState(mbeanName == null, "registerMBean was already set");
+        ManagedCache.objectName(name);
+
+        recordStats();
+        mbeanName = name;
         return this;
     }
 
@@ -59,17 +232,22 @@ final class CaffeineCacheBuilder<K, V> implements CacheBuilder<K, V> {
     @Override
     public CacheBuilder<K, V> maximumSize(@Nonnegative long maximumSize) {
         checkGreaterThanOrEqualTo(maximumSize, 0L, "maximumSize (%d) must not be negative", maximumSize);
+        checkOnHeap();
 
         builder.maximumSize(maximumSize);
+        bounded = true;
         return this;
     }
 
     @Override
     public <K1 extends K, V1 extends V> CacheBuilder<K, V> maximumWeight(@Nonnegative long maximumWeight, ToIntBiFunction<? super K1, ? extends V1> weigher) {
         checkGreaterThanOrEqualTo(maximumWeight, 0L, "maximumWeight (%d) must not be negative", maximumWeight);
+        checkOnHeap();
 
         builder.maximumWeight(maximumWeight);
         builder.weigher(weigher::applyAsInt);
+        bounded = true;
+        weighted = true;
         return this;
     }
 
@@ -83,21 +261,198 @@ final class CaffeineCacheBuilder<K, V> implements CacheBuilder<K, V> {
     @Nonnull
     @Override
     public CacheBuilder<K, V> weakValues() {
+        checkOnHeap();
+
         builder.weakValues();
+        referenceValues = true;
         return this;
     }
 
     @Nonnull
     @Override
     public CacheBuilder<K, V> softValues() {
+        checkOnHeap();
+
         builder.softValues();
+        referenceValues = true;
+        return this;
+    }
+
+    @Nonnull
+    @Override
+    public CacheBuilder<K, V> executor(Executor executor) {
+        checkNotNull(executor, "executor");
+        checkState(this.executor == null, "executor was already set");
+        checkOnHeap();
+
+        builder.executor(executor);
+        this.executor = executor;
+        return this;
+    }
+
+    @Nonnull
+    @Override
+    public CacheBuilder<K, V> expireAfterWrite(Duration duration) {
+        checkNotNull(duration, "duration");
+        checkArgument(!duration.isNegative(), "duration (%s) must not be negative", duration);
+        checkState(!variableExpiry, "expireAfterWrite cannot be combined with a variable expiry");
+        checkState(spillDirectory == null, "expiration cannot be combined with spilling to disk");
+
+        builder.expireAfterWrite(duration);
+        expiring = true;
+        return this;
+    }
+
+    @Nonnull
+    @Override
+    public CacheBuilder<K, V> expireAfterAccess(Duration duration) {
+        checkNotNull(duration, "duration");
+        checkArgument(!duration.isNegative(), "duration (%s) must not be negative", duration);
+        checkState(!variableExpiry, "expireAfterAccess cannot be combined with a variable expiry");
+        checkState(spillDirectory == null, "expiration cannot be combined with spilling to disk");
+
+        builder.expireAfterAccess(duration);
+        expiring = true;
+        return this;
+    }
+
+    @Nonnull
+    @Override
+    public <K1 extends K, V1 extends V> CacheBuilder<K, V> expireAfter(Expiry<? super K1, ? super V1> expiry) {
+        checkNotNull(expiry, "expiry");
+        checkState(!expiring, "an expiration policy was already set");
+        checkState(spillDirectory == null, "expiration cannot be combined with spilling to disk");
+        checkOnHeap();
+
+        builder.expireAfter(new com.github.benmanes.caffeine.cache.Expiry<K1, V1>() {
+            @Override
+            public long expireAfterCreate(K1 key, V1 value, long currentTime) {
+                return expiry.expireAfterCreate(key, value, currentTime);
+            }
+
+            @Override
+            public long expireAfterUpdate(K1 key, V1 value, long currentTime, long currentDuration) {
+                return expiry.expireAfterUpdate(key, value, currentTime, currentDuration);
+            }
+
+            @Override
+            public long expireAfterRead(K1 key, V1 value, long currentTime, long currentDuration) {
+                return expiry.expireAfterRead(key, value, currentTime, currentDuration);
+            }
+        });
+        expiring = true;
+        variableExpiry = true;
+        return this;
+    }
+
+    @Nonnull
+    @Override
+    public CacheBuilder<K, V> refreshAfterWrite(Duration duration) {
+        checkNotNull(duration, "duration");
+        checkArgument(!duration.isNegative() && !duration.isZero(), "duration (%s) must be positive", duration);
+        checkState(!refreshing, "refreshAfterWrite was already set");
+        checkState(spillDirectory == null, "refresh cannot be combined with spilling to disk");
+        checkOnHeap();
+
+        builder.refreshAfterWrite(duration);
+        refreshing = true;
+        return this;
+    }
+
+    @Nonnull
+    @Override
+    public CacheBuilder<K, V> ticker(Ticker ticker) {
+        checkNotNull(ticker, "ticker");
+        checkState(!customTicker, "ticker was already set");
+
+        builder.ticker(ticker::read);
+        customTicker = true;
+        return this;
+    }
+
+    @Nonnull
+    @Override
+    public <V1 extends V> CacheBuilder<K, V> offHeap(@Nonnegative long maximumBytes, BinarySerializer<V1> serializer) {
+        checkArgument(maximumBytes >= MINIMUM_OFF_HEAP_BLOCKS * OffHeapStore.DEFAULT_BLOCK_SIZE, "maximumBytes (%d) must be at least %d", maximumBytes, MINIMUM_OFF_HEAP_BLOCKS * OffHeapStore.DEFAULT_BLOCK_SIZE);
+        checkNotNull(serializer, "serializer");
+        checkOnHeap();
+        checkState(spillDirectory == null, "off-heap values cannot be combined with spilling to disk");
+        checkState(!bounded, "off-heap values cannot be combined with a maximum size or weight");
+        checkState(!referenceValues, "off-heap values cannot be combined with weak or soft values");
+        checkState(executor == null, "off-heap values cannot be combined with an executor");
+        checkState(!variableExpiry, "off-heap values cannot be combined with a variable expiry");
+        checkState(!refreshing, "off-heap values cannot be combined with refreshAfterWrite");
+
+        offHeapBytes = maximumBytes;
+        offHeapSerializer = serializer;
+
+        // The index is weighted in blocks, and keeps enough free blocks to store a new value before evicting
+        final long capacity = maximumBytes / OffHeapStore.DEFAULT_BLOCK_SIZE;
+        builder.maximumWeight(capacity - maximumBlocksPerValue(capacity));
+        builder.weigher((k, slot) -> ((Slot) slot).blockCount());
+        weighted = true;
+
+        // Free the blocks as soon as an entry is removed
+        builder.executor(Runnable::run);
+        builder.removalListener((k, slot, cause) -> {
+            if (slot != null) {
+                ((Slot) slot).release();
+            }
+        });
+        return this;
+    }
+
+    @Nonnull
+    @Override
+    public <V1 extends V> CacheBuilder<K, V> spillToDisk(Path directory, @Nonnegative long maximumBytes, BinarySerializer<V1> serializer) {
+        checkNotNull(directory, "directory");
+        checkArgument(maximumBytes >= DiskStore.MINIMUM_SEGMENTS * DiskStore.MINIMUM_SEGMENT_SIZE, "maximumBytes (%d) must be at least %d", maximumBytes, DiskStore.MINIMUM_SEGMENTS * DiskStore.MINIMUM_SEGMENT_SIZE);
+        checkNotNull(serializer, "serializer");
+        checkState(spillDirectory == null, "spilling to disk was already set");
+        checkState(!expiring && !refreshing, "spilling to disk cannot be combined with expiration or refresh");
+        checkOnHeap();
+
+        spillDirectory = directory;
+        spillBytes = maximumBytes;
+        spillSerializer = serializer;
         return this;
     }
 
+    @Nonnull
+    @Override
+    public <K1 extends K> CacheBuilder<K, V> snapshot(Path file, @Nonnegative int maximumKeys, BinarySerializer<K1> keySerializer) {
+        return setSnapshot(file, maximumKeys, keySerializer, null);
+    }
+
+    @Nonnull
+    @Override
+    public <K1 extends K, V1 extends V> CacheBuilder<K, V> snapshot(Path file, @Nonnegative int maximumKeys, BinarySerializer<K1> keySerializer, BinarySerializer<V1> valueSerializer) {
+        checkNotNull(valueSerializer, "valueSerializer");
+
+        return setSnapshot(file, maximumKeys, keySerializer, valueSerializer);
+    }
+
     @Nonnull
     @Override
     public <K1 extends K, V1 extends V> Cache<K1, V1> build() {
-        return new CaffeineManualCache<>(builder.build());
+        checkState(!refreshing, "refreshAfterWrite requires a loading cache");
+        checkState(snapshot == null || snapshot.hasValues(), "a snapshot without values requires a loading cache");
+
+        final StatsRecorder statsRecorder = newStatsRecorder();
+
+        if (offHeapSerializer != null) {
+            final OffHeapStore store = new OffHeapStore(offHeapBytes, OffHeapStore.DEFAULT_BLOCK_SIZE);
+            return monitor(new OffHeapCache<>(builder.build(), statsRecorder, store, offHeapSerializer(), maximumBlocksPerValue(store.capacity())), statsRecorder, null);
+        }
+
+        if (spillDirectory != null) {
+            final DiskStore<K1, V1> disk = newDiskStore();
+            final com.github.benmanes.caffeine.cache.Cache<K1, V1> cache = builder.build();
+            return monitor(new SpillingCache<>(cache, statsRecorder, disk), statsRecorder, cache.policy());
+        }
+
+        final com.github.benmanes.caffeine.cache.Cache<K1, V1> cache = builder.build();
+        return monitor(new CaffeineManualCache<>(cache, statsRecorder), statsRecorder, cache.policy());
     }
 
     @Nonnull
@@ -105,6 +460,284 @@ final class CaffeineCacheBuilder<K, V> implements CacheBuilder<K, V> {
     public <K1 extends K, V1 extends V> Cache<K1, V1> build(Function<? super K1, ? extends V1> mappingFunction) {
         checkNotNull(mappingFunction, "mappingFunction");
 
-        return new CaffeineLoadingCache<>(builder.build(mappingFunction::apply));
+        return buildLoading(mappingFunction, null);
+    }
+
+    @Nonnull
+    @Override
+    public <K1 extends K, V1 extends V> Cache<K1, V1> build(Function<? super K1, ? extends V1> mappingFunction, Function<? super Set<? extends K1>, ? extends Map<? extends K1, ? extends V1>> bulkMappingFunction) {
+        checkNotNull(mappingFunction, "mappingFunction");
+        checkNotNull(bulkMappingFunction, "bulkMappingFunction");
+
+        return buildLoading(mappingFunction, bulkMappingFunction);
+    }
+
+    @Nonnull
+    @Override
+    public <K1 extends K, V1 extends V> AsyncCache<K1, V1> buildAsync(Function<? super K1, ? extends V1> mappingFunction) {
+        checkNotNull(mappingFunction, "mappingFunction");
+        checkInMemory();
+
+        final CacheLoader<K1, V1> loader = mappingFunction::apply;
+        return newAsyncCache(loader);
+    }
+
+    @Nonnull
+    @Override
+    public <K1 extends K, V1 extends V> AsyncCache<K1, V1> buildAsync(Function<? super K1, ? extends V1> mappingFunction, Function<? super Set<? extends K1>, ? extends Map<? extends K1, ? extends V1>> bulkMappingFunction) {
+        checkNotNull(mappingFunction, "mappingFunction");
+        checkNotNull(bulkMappingFunction, "bulkMappingFunction");
+        checkInMemory();
+
+        return newAsyncCache(newLoader(mappingFunction, bulkMappingFunction));
+    }
+
+    @Nonnull
+    @Override
+    public <K1 extends K, V1 extends V> AsyncCache<K1, V1> buildAsync(BiFunction<? super K1, ? super Executor, ? extends CompletableFuture<? extends V1>> loader) {
+        checkNotNull(loader, "loader");
+        checkInMemory();
+
+        final AsyncCacheLoader<K1, V1> asyncLoader = loader::apply;
+        return newAsyncCache(asyncLoader);
+    }
+
+    /**
+     * Builds an {@link AsyncCache}.
+     *
+     * @param loader the Caffeine loader used to obtain new values
+     * @param <K1>   the key type of the loader
+     * @param <V1>   the value type of the loader
+     *
+     * @return a new cache
+     */
+    @Nonnull
+    private <K1 extends K, V1 extends V> AsyncCache<K1, V1> newAsyncCache(AsyncCacheLoader<K1, V1> loader) {
+        final StatsRecorder statsRecorder = newStatsRecorder();
+        final com.github.benmanes.caffeine.cache.AsyncLoadingCache<K1, V1> cache = builder.buildAsync(loader);
+        final CaffeineAsyncCache<K1, V1> result = new CaffeineAsyncCache<>(cache, statsRecorder);
+
+        if (statsReporter != null) {
+            StatsReporter.schedule(result, statsRecorder, statsReportPeriod, statsReporter);
+        }
+        if (mbeanName != null) {
+            ManagedCache.register(mbeanName, result, result.synchronous(), statsRecorder, cache.synchronous().policy().eviction().orElse(null));
+        }
+        if (snapshot != null) {
+            warmUp(result.synchronous(), cache.synchronous().policy());
+        }
+        return result;
+    }
+
+    /**
+     * Builds a loading {@link Cache}.
+     *
+     * @param mappingFunction     the function used to obtain a new value
+     * @param bulkMappingFunction the function used to obtain new values in batch, or {@code null} to load them one by
+     *                            one
+     * @param <K1>                the key type of the loader
+     * @param <V1>                the value type of the loader
+     *
+     * @return a new cache
+     */
+    @Nonnull
+    private <K1 extends K, V1 extends V> Cache<K1, V1> buildLoading(Function<? super K1, ? extends V1> mappingFunction, @Nullable Function<? super Set<? extends K1>, ? extends Map<? extends K1, ? extends V1>> bulkMappingFunction) {
+        final StatsRecorder statsRecorder = newStatsRecorder();
+
+        if (offHeapSerializer != null) {
+            final OffHeapStore store = new OffHeapStore(offHeapBytes, OffHeapStore.DEFAULT_BLOCK_SIZE);
+            return monitor(new OffHeapLoadingCache<>(builder.build(), statsRecorder, store, offHeapSerializer(), maximumBlocksPerValue(store.capacity()), mappingFunction, bulkMappingFunction), statsRecorder, null);
+        }
+
+        if (spillDirectory != null) {
+            final DiskStore<K1, V1> disk = newDiskStore();
+            final com.github.benmanes.caffeine.cache.Cache<K1, V1> cache = builder.build();
+            return monitor(new SpillingLoadingCache<>(cache, statsRecorder, disk, mappingFunction, bulkMappingFunction, executor != null ? executor : ForkJoinPool.commonPool()), statsRecorder, cache.policy());
+        }
+
+        final CacheLoader<K1, V1> loader = bulkMappingFunction != null
+                ? newLoader(mappingFunction, bulkMappingFunction)
+                : mappingFunction::apply;
+
+        final LoadingCache<K1, V1> cache = builder.build(loader);
+        return monitor(new CaffeineLoadingCache<>(cache, statsRecorder), statsRecorder, cache.policy());
+    }
+
+    /**
+     * Creates the recorder of the statistics of a new cache. The recorder is given to the internal cache builder when
+     * it builds the cache.
+     *
+     * @return a new recorder, or the disabled recorder if the statistics are not recorded
+     */
+    @Nonnull
+    private StatsRecorder newStatsRecorder() {
+        pendingStatsRecorder = recordingStats ? new StatsRecorder(weighted) : StatsRecorder.disabled();
+        return pendingStatsRecorder;
+    }
+
+    /**
+     * Schedules the periodic reports of the statistics of the {@code cache}, registers its MBean, and warms it up, if
+     * requested.
+     *
+     * @param cache         the new cache
+     * @param statsRecorder the recorder of the statistics of the cache
+     * @param policy        the policy of the internal cache, or {@code null} if its maximum cannot be managed
+     * @param <K1>          the key type of the cache
+     * @param <V1>          the value type of the cache
+     *
+     * @return the {@code cache}
+     */
+    @Nonnull
+    private <K1, V1> Cache<K1, V1> monitor(Cache<K1, V1> cache, StatsRecorder statsRecorder, @Nullable Policy<?, ?> policy) {
+        if (statsReporter != null) {
+            StatsReporter.schedule(cache, statsRecorder, statsReportPeriod, statsReporter);
+        }
+        if (mbeanName != null) {
+            ManagedCache.register(mbeanName, cache, cache, statsRecorder, policy != null ? policy.eviction().orElse(null) : null);
+        }
+        if (snapshot != null) {
+            warmUp(cache, policy);
+        }
+        return cache;
+    }
+
+    /**
+     * Restores the snapshot of the {@code cache}, and saves it when the application exits.
+     *
+     * @param cache  the new cache
+     * @param policy the policy of the internal cache, or {@code null} if the hotness of its entries is unknown
+     * @param <K1>   the key type of the cache
+     * @param <V1>   the value type of the cache
+     *
+     * @throws IllegalStateException if a cache with a snapshot has already been built
+     */
+    @SuppressWarnings("unchecked")
+    private <K1, V1> void warmUp(Cache<K1, V1> cache, @Nullable Policy<?, ?> policy) {
+        checkState(!snapshotBuilt, "a builder with a snapshot can only build one cache");
+        snapshotBuilt = true;
+
+        final CacheSnapshot<K1, V1> s = (CacheSnapshot<K1, V1>) snapshot;
+        s.restore(cache, executor != null ? executor : ForkJoinPool.commonPool());
+        s.saveAtExit(cache, policy);
+    }
+
+    /**
+     * Defines the snapshot used to warm up the cache.
+     *
+     * @param file            the file that stores the snapshot
+     * @param maximumKeys     the maximum number of saved entries
+     * @param keySerializer   the serializer used to save the keys
+     * @param valueSerializer the serializer used to save the values, or {@code null} if only the keys are saved
+     *
+     * @return this builder (for chaining)
+     */
+    @Nonnull
+    @SuppressWarnings("unchecked")
+    private CacheBuilder<K, V> setSnapshot(Path file, int maximumKeys, BinarySerializer<?> keySerializer, @Nullable BinarySerializer<?> valueSerializer) {
+        checkNotNull(file, "file");
+        checkGreaterThanOrEqualTo(maximumKeys, 0, "maximumKeys (%d) must not be negative", maximumKeys);
+        checkNotNull(keySerializer, "keySerializer");
+        checkState(snapshot == null, "snapshot was already set");
+
+        snapshot = new CacheSnapshot<>(file, maximumKeys, (BinarySerializer<Object>) keySerializer, (BinarySerializer<Object>) valueSerializer);
+        return this;
+    }
+
+    /**
+     * Creates a new Caffeine loader that loads the values in batch with the {@code bulkMappingFunction}.
+     *
+     * @param mappingFunction     the function used to obtain a new value
+     * @param bulkMappingFunction the function used to obtain new values in batch
+     * @param <K1>                the key type of the loader
+     * @param <V1>                the value type of the loader
+     *
+     * @return a new loader
+     */
+    @Nonnull
+    private static <K1, V1> CacheLoader<K1, V1> newLoader(Function<? super K1, ? extends V1> mappingFunction, Function<? super Set<? extends K1>, ? extends Map<? extends K1, ? extends V1>> bulkMappingFunction) {
+        return new CacheLoader<K1, V1>() {
+            @Override
+            public V1 load(K1 key) {
+                return mappingFunction.apply(key);
+            }
+
+            @Nonnull
+            @Override
+            public Map<? extends K1, ? extends V1> loadAll(Set<? extends K1> keys) {
+                return bulkMappingFunction.apply(keys);
+            }
+        };
+    }
+
+    /**
+     * Checks that the values are neither stored off-heap nor spilled to disk.
+     *
+     * @throws IllegalStateException if the values are stored off-heap or spilled to disk
+     */
+    private void checkInMemory() {
+        checkState(offHeapSerializer == null, "asynchronous caches cannot store their values off-heap");
+        checkState(spillDirectory == null, "asynchronous caches cannot spill their values to disk");
+    }
+
+    /**
+     * Checks that the values are not stored off-heap.
+     *
+     * @throws IllegalStateException if the values are stored off-heap
+     */
+    private void checkOnHeap() {
+        checkState(offHeapSerializer == null, "off-heap values were already set");
+    }
+
+    /**
+     * Returns the serializer of the off-heap values.
+     *
+     * @param <V1> the value type of the serializer
+     *
+     * @return the serializer
+     */
+    @Nonnull
+    @SuppressWarnings("unchecked")
+    private <V1 extends V> BinarySerializer<V1> offHeapSerializer() {
+        return (BinarySerializer<V1>) offHeapSerializer;
+    }
+
+    /**
+     * Creates the disk store of a cache spilling to disk, and registers its evictions.
+     *
+     * @param <K1> the key type of the cache
+     * @param <V1> the value type of the cache
+     *
+     * @return a new disk store
+     *
+     * @throws IllegalStateException if a cache spilling to disk has already been built
+     */
+    @Nonnull
+    @SuppressWarnings("unchecked")
+    private <K1 extends K, V1 extends V> DiskStore<K1, V1> newDiskStore() {
+        checkState(!spillBuilt, "a builder spilling to disk can only build one cache");
+        spillBuilt = true;
+
+        final DiskStore<K1, V1> disk = new DiskStore<>(spillDirectory, spillBytes, (BinarySerializer<V1>) spillSerializer);
+        MoreThreads.executeAtExit(disk::close);
+
+        // Only spill the values evicted by the size policy: expired or collected values must not be read again
+        builder.evictionListener((k, v, cause) -> {
+            if (cause == RemovalCause.SIZE && v != null) {
+                disk.put((K1) k, (V1) v);
+            }
+        });
+        return disk;
+    }
+
+    /**
+     * Returns the maximum number of blocks of a single off-heap value.
+     *
+     * @param capacity the total number of blocks
+     *
+     * @return the maximum number of blocks of a value
+     */
+    @Nonnegative
+    private static int maximumBlocksPerValue(@Nonnegative long capacity) {
+        return (int) Math.max(1, capacity / MINIMUM_OFF_HEAP_BLOCKS);
     }
 }
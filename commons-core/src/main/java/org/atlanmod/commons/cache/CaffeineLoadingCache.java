@@ -29,10 +29,11 @@ class CaffeineLoadingCache<C extends com.github.benmanes.caffeine.cache.LoadingC
     /**
      * Constructs a new {@code CaffeineLoadingCache}.
      *
-     * @param cache the internal cache implementation
+     * @param cache         the internal cache implementation
+     * @param statsRecorder the recorder of the statistics of the internal cache
      */
-    protected CaffeineLoadingCache(C cache) {
-        super(cache);
+    protected CaffeineLoadingCache(C cache, StatsRecorder statsRecorder) {
+        super(cache, statsRecorder);
     }
 
     @Nullable
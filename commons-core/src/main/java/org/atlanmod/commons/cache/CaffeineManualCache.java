@@ -16,7 +16,6 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 
-import static java.util.Objects.nonNull;
 import static org.atlanmod.commons.Guards.checkNotNull;
 
 /**
@@ -34,13 +33,21 @@ class CaffeineManualCache<C extends com.github.benmanes.caffeine.cache.Cache<K,
     @Nonnull
     protected final C cache;
 
+    /**
+     * The recorder of the statistics of the internal cache.
+     */
+    @Nonnull
+    protected final StatsRecorder statsRecorder;
+
     /**
      * Constructs a new {@code CaffeineManualCache}.
      *
-     * @param cache the internal cache implementation
+     * @param cache         the internal cache implementation
+     * @param statsRecorder the recorder of the statistics of the internal cache
      */
-    protected CaffeineManualCache(C cache) {
+    protected CaffeineManualCache(C cache, StatsRecorder statsRecorder) {
         this.cache = cache;
+        this.statsRecorder = statsRecorder;
     }
 
     @Nullable
@@ -108,7 +115,10 @@ class CaffeineManualCache<C extends com.github.benmanes.caffeine.cache.Cache<K,
 
     @Override
     public boolean contains(K key) {
-        return nonNull(get(key));
+        checkNotNull(key, "key");
+
+        // Neither loads the value, nor records a lookup
+        return cache.asMap().containsKey(key);
     }
 
     @Override
@@ -118,7 +128,7 @@ class CaffeineManualCache<C extends com.github.benmanes.caffeine.cache.Cache<K,
 
     @Override
     public void refresh(K key) {
-        // Do nothing
+        // Do nothing: there is no loader to obtain a new value
     }
 
     @Override
@@ -135,14 +145,6 @@ class CaffeineManualCache<C extends com.github.benmanes.caffeine.cache.Cache<K,
     @Nonnull
     @Override
     public CacheStats stats() {
-        com.github.benmanes.caffeine.cache.stats.CacheStats stats = cache.stats();
-
-        return new CacheStats(
-                stats.hitCount(),
-                stats.missCount(),
-                stats.loadSuccessCount(),
-                stats.loadFailureCount(),
-                stats.totalLoadTime(),
-                stats.evictionCount());
+        return statsRecorder.stats();
     }
 }
@@ -0,0 +1,694 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.io.serializer.BinarySerializer;
+import org.atlanmod.commons.log.Log;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import static org.atlanmod.commons.Guards.checkArgument;
+
+/**
+ * A second-level store of serialized values, appended to memory-mapped segment files.
+ * <p>
+ * Records are appended to the active segment; when it is full, a new segment is created, and the oldest segment is
+ * dropped if the number of segments would exceed the byte budget. The location of each record is kept in an on-heap
+ * index, so a read is a single copy from the mapped segment. A segment whose live records fall below half of its size
+ * is compacted in the background: its live records are read without holding the lock of this store, then appended to
+ * the active segment, and its file is deleted.
+ * <p>
+ * The mapping of a segment is released as soon as the segment is dropped, rather than when its buffer is garbage
+ * collected, so that the address space and the disk space of the deleted files are reclaimed promptly.
+ * <p>
+ * The files of this store are temporary: they are deleted when this store is {@linkplain #close() closed}.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+final class DiskStore<K, V> implements AutoCloseable {
+
+    /**
+     * The minimum size of a segment, in bytes.
+     */
+    static final int MINIMUM_SEGMENT_SIZE = 4 * 1024;
+
+    /**
+     * The maximum size of a segment, in bytes.
+     */
+    static final int MAXIMUM_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * The minimum number of segments within the byte budget.
+     */
+    static final int MINIMUM_SEGMENTS = 4;
+
+    /**
+     * The method that releases the mapping of a direct buffer, or {@code null} if the running JVM does not expose it.
+     */
+    @Nullable
+    private static final MethodHandle INVOKE_CLEANER = findCleaner();
+
+    /**
+     * The directory of the segment files.
+     */
+    @Nonnull
+    private final Path directory;
+
+    /**
+     * The serializer of the values.
+     */
+    @Nonnull
+    private final BinarySerializer<V> serializer;
+
+    /**
+     * The size of a segment, in bytes.
+     */
+    @Nonnegative
+    private final int segmentSize;
+
+    /**
+     * The maximum number of segments.
+     */
+    @Nonnegative
+    private final int maximumSegments;
+
+    /**
+     * The location of each stored record.
+     */
+    @Nonnull
+    @GuardedBy("this")
+    private final Map<K, Location> index = new HashMap<>();
+
+    /**
+     * The segments, from the oldest to the active one.
+     */
+    @Nonnull
+    @GuardedBy("this")
+    private final Deque<Segment> segments = new ArrayDeque<>();
+
+    /**
+     * The identifier of the next segment file.
+     */
+    @GuardedBy("this")
+    private long nextSegmentId;
+
+    /**
+     * Whether a compaction is pending.
+     */
+    @GuardedBy("this")
+    private boolean compactionScheduled;
+
+    /**
+     * The number of segments being compacted.
+     */
+    @GuardedBy("this")
+    private int compactions;
+
+    /**
+     * Whether this store has been closed.
+     */
+    @GuardedBy("this")
+    private boolean closed;
+
+    /**
+     * Constructs a new {@code DiskStore}, with its files in a new sub-directory of the given {@code directory}.
+     *
+     * @param directory    the parent directory of the segment files
+     * @param maximumBytes the maximum number of bytes of the segment files
+     * @param serializer   the serializer of the values
+     *
+     * @throws UncheckedIOException if the directory cannot be created
+     */
+    DiskStore(Path directory, @Nonnegative long maximumBytes, BinarySerializer<V> serializer) {
+        checkArgument(maximumBytes >= MINIMUM_SEGMENTS * MINIMUM_SEGMENT_SIZE, "maximumBytes (%d) must be at least %d", maximumBytes, MINIMUM_SEGMENTS * MINIMUM_SEGMENT_SIZE);
+
+        try {
+            this.directory = Files.createTempDirectory(Files.createDirectories(directory), "cache-");
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        this.serializer = serializer;
+        this.segmentSize = (int) Math.min(MAXIMUM_SEGMENT_SIZE, maximumBytes / MINIMUM_SEGMENTS);
+        this.maximumSegments = (int) Math.min(Integer.MAX_VALUE, maximumBytes / segmentSize);
+    }
+
+    /**
+     * Returns the directory of the segment files.
+     *
+     * @return the directory
+     */
+    @Nonnull
+    public Path directory() {
+        return directory;
+    }
+
+    /**
+     * Returns the size of a segment, in bytes.
+     *
+     * @return the size of a segment
+     */
+    @Nonnegative
+    public int segmentSize() {
+        return segmentSize;
+    }
+
+    /**
+     * Returns the number of stored records.
+     *
+     * @return the number of records
+     */
+    @Nonnegative
+    public synchronized int size() {
+        return index.size();
+    }
+
+    /**
+     * Returns the number of bytes of the segment files.
+     *
+     * @return the number of bytes
+     */
+    @Nonnegative
+    public synchronized long bytes() {
+        return (long) segments.size() * segmentSize;
+    }
+
+    /**
+     * Returns the number of segment files.
+     *
+     * @return the number of segments
+     */
+    @Nonnegative
+    public synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Returns whether this store contains a record for the given {@code key}.
+     *
+     * @param key the key to look for
+     *
+     * @return {@code true} if a record is stored
+     */
+    public synchronized boolean contains(K key) {
+        return index.containsKey(key);
+    }
+
+    /**
+     * Serializes and stores the given {@code value}, replacing the previous record of the {@code key}.
+     * <p>
+     * The value is not stored if its serialized form is larger than a segment, or if the segment file cannot be
+     * created; an I/O error is logged, since the value can still be recomputed.
+     *
+     * @param key   the key of the value
+     * @param value the value to store
+     *
+     * @return {@code true} if the value has been stored
+     */
+    public boolean put(K key, V value) {
+        final byte[] data = serializer.convert(value);
+        if (data.length > segmentSize) {
+            remove(key);
+            return false;
+        }
+
+        synchronized (this) {
+            if (closed) {
+                return false;
+            }
+
+            unlink(key, index.remove(key));
+            try {
+                index.put(key, append(key, data));
+                return true;
+            }
+            catch (IOException e) {
+                Log.warn(e, "Unable to spill a value to {0}", directory);
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Removes and returns the value of the given {@code key}.
+     *
+     * @param key the key of the value
+     *
+     * @return the value, or {@code null} if this store contains no record for the key
+     */
+    @Nullable
+    public V take(K key) {
+        final byte[] data;
+        synchronized (this) {
+            final Location location = index.remove(key);
+            if (location == null) {
+                return null;
+            }
+
+            data = location.segment.read(location.offset, location.length);
+            unlink(key, location);
+        }
+        return serializer.revert(data);
+    }
+
+    /**
+     * Removes the record of the given {@code key}.
+     *
+     * @param key the key of the record
+     */
+    public synchronized void remove(K key) {
+        unlink(key, index.remove(key));
+    }
+
+    /**
+     * Removes all records, and deletes all segment files.
+     */
+    public synchronized void clear() {
+        index.clear();
+        segments.forEach(Segment::release);
+        segments.clear();
+    }
+
+    /**
+     * Compacts all the sparse segments in the calling thread.
+     */
+    public void compact() {
+        Segment sparse;
+        while ((sparse = nextSparseSegment()) != null) {
+            compact(sparse);
+        }
+    }
+
+    /**
+     * Removes all records, and deletes the directory of this store. Later writes are ignored.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        clear();
+        if (compactions == 0) {
+            deleteDirectory();
+        }
+    }
+
+    /**
+     * Deletes the directory of this store.
+     */
+    @GuardedBy("this")
+    private void deleteDirectory() {
+        try {
+            Files.deleteIfExists(directory);
+        }
+        catch (IOException e) {
+            Log.warn(e, "Unable to delete {0}", directory);
+        }
+    }
+
+    /**
+     * Appends the given {@code data} to the active segment, rolling to a new segment if needed.
+     *
+     * @param key  the key of the record
+     * @param data the data to append
+     *
+     * @return the location of the record
+     *
+     * @throws IOException if a new segment file cannot be created
+     */
+    @Nonnull
+    @GuardedBy("this")
+    private Location append(K key, byte[] data) throws IOException {
+        Segment active = segments.peekLast();
+        if (active == null || active.remaining() < data.length) {
+            active = roll();
+        }
+
+        final Location location = new Location(active, active.append(data), data.length);
+        active.live += data.length;
+        active.keys.add(key);
+        return location;
+    }
+
+    /**
+     * Creates a new active segment, and drops the oldest segments to stay within the byte budget.
+     *
+     * @return the new active segment
+     *
+     * @throws IOException if the segment file cannot be created
+     */
+    @Nonnull
+    @GuardedBy("this")
+    private Segment roll() throws IOException {
+        while (segments.size() >= maximumSegments) {
+            drop(segments.removeFirst());
+        }
+
+        final Segment segment = new Segment(directory.resolve(String.format("segment-%08d", nextSegmentId++)), segmentSize);
+        segments.addLast(segment);
+        return segment;
+    }
+
+    /**
+     * Drops a segment and all its records.
+     *
+     * @param segment the segment to drop
+     */
+    @GuardedBy("this")
+    private void drop(Segment segment) {
+        for (K key : segment.keys) {
+            index.remove(key);
+        }
+        segment.keys.clear();
+        segment.live = 0;
+        segment.release();
+    }
+
+    /**
+     * Marks the record at the given {@code location} as dead, and schedules a compaction if its segment becomes sparse.
+     *
+     * @param key      the key of the removed record
+     * @param location the location of the removed record, or {@code null} if there is no record
+     */
+    @GuardedBy("this")
+    private void unlink(K key, @Nullable Location location) {
+        if (location == null) {
+            return;
+        }
+
+        final Segment segment = location.segment;
+        segment.live -= location.length;
+        segment.keys.remove(key);
+
+        if (segment != segments.peekLast() && segment.isSparse() && !compactionScheduled) {
+            compactionScheduled = true;
+            CompletableFuture.runAsync(this::compact);
+        }
+    }
+
+    /**
+     * Returns the next segment to compact.
+     *
+     * @return the oldest sparse segment, or {@code null} if there is none
+     */
+    @Nullable
+    private synchronized Segment nextSparseSegment() {
+        for (Segment segment : segments) {
+            if (segment != segments.peekLast() && segment.isSparse() && !segment.compacting) {
+                return segment;
+            }
+        }
+
+        compactionScheduled = false;
+        return null;
+    }
+
+    /**
+     * Copies the live records of the given {@code segment} to the active segment, and deletes it.
+     * <p>
+     * The records are read without holding the lock of this store: the segment is marked as compacting, so that it is
+     * not unmapped in the meantime, and only the records that have not been replaced or removed during the copy are
+     * appended to the active segment.
+     *
+     * @param segment the segment to compact
+     */
+    private void compact(Segment segment) {
+        final List<K> keys = new ArrayList<>();
+        final List<Location> locations = new ArrayList<>();
+        synchronized (this) {
+            if (segment.compacting || !segments.contains(segment)) {
+                return;
+            }
+
+            segment.compacting = true;
+            compactions++;
+            for (K key : segment.keys) {
+                keys.add(key);
+                locations.add(index.get(key));
+            }
+        }
+
+        final List<byte[]> records = new ArrayList<>(locations.size());
+        for (Location location : locations) {
+            records.add(segment.read(location.offset, location.length));
+        }
+
+        synchronized (this) {
+            segment.compacting = false;
+            compactions--;
+            if (!segments.remove(segment)) {
+                segment.release();
+                if (closed && compactions == 0) {
+                    deleteDirectory();
+                }
+                return;
+            }
+
+            try {
+                for (int i = 0; i < keys.size(); i++) {
+                    final K key = keys.get(i);
+                    if (index.get(key) == locations.get(i)) {
+                        segment.keys.remove(key);
+                        index.put(key, append(key, records.get(i)));
+                    }
+                }
+            }
+            catch (IOException e) {
+                Log.warn(e, "Unable to compact a segment of {0}", directory);
+            }
+            drop(segment);
+        }
+    }
+
+    /**
+     * Looks up the method that releases the mapping of a direct buffer.
+     *
+     * @return the method, bound to its receiver, or {@code null} if the running JVM does not expose it
+     */
+    @Nullable
+    private static MethodHandle findCleaner() {
+        try {
+            final Class<?> type = Class.forName("sun.misc.Unsafe");
+            final Field field = type.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+
+            return MethodHandles.lookup()
+                    .findVirtual(type, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+                    .bindTo(field.get(null));
+        }
+        catch (ReflectiveOperationException | RuntimeException e) {
+            Log.debug(e, "Mapped segments will be released by the garbage collector");
+            return null;
+        }
+    }
+
+    /**
+     * The location of a record in a segment.
+     */
+    private final class Location {
+
+        /**
+         * The segment containing the record.
+         */
+        @Nonnull
+        final Segment segment;
+
+        /**
+         * The offset of the record in the segment.
+         */
+        @Nonnegative
+        final int offset;
+
+        /**
+         * The length of the record.
+         */
+        @Nonnegative
+        final int length;
+
+        /**
+         * Constructs a new {@code Location}.
+         *
+         * @param segment the segment containing the record
+         * @param offset  the offset of the record in the segment
+         * @param length  the length of the record
+         */
+        Location(Segment segment, @Nonnegative int offset, @Nonnegative int length) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    /**
+     * A memory-mapped segment file, that records are appended to.
+     * <p>
+     * This class is not thread-safe: it is guarded by its {@link DiskStore}. Only the records of a segment that is
+     * {@linkplain #compacting compacting} can be read without holding the lock of the store.
+     */
+    private final class Segment {
+
+        /**
+         * The segment file.
+         */
+        @Nonnull
+        private final Path file;
+
+        /**
+         * The mapped content of the file.
+         */
+        @Nonnull
+        private final MappedByteBuffer buffer;
+
+        /**
+         * The number of bytes of the live records.
+         */
+        @Nonnegative
+        long live;
+
+        /**
+         * The keys of the live records.
+         */
+        @Nonnull
+        final Set<K> keys = new HashSet<>();
+
+        /**
+         * Whether the live records are being copied; the mapping must not be released until then.
+         */
+        boolean compacting;
+
+        /**
+         * Whether the mapping has been released and the file deleted.
+         */
+        boolean released;
+
+        /**
+         * Creates and maps a new segment file.
+         *
+         * @param file the file to create
+         * @param size the size of the file, in bytes
+         *
+         * @throws IOException if the file cannot be created or mapped
+         */
+        Segment(Path file, @Nonnegative int size) throws IOException {
+            this.file = file;
+
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            }
+            catch (IOException e) {
+                Files.deleteIfExists(file);
+                throw e;
+            }
+        }
+
+        /**
+         * Returns the number of bytes that can still be appended.
+         *
+         * @return the number of remaining bytes
+         */
+        @Nonnegative
+        int remaining() {
+            return buffer.remaining();
+        }
+
+        /**
+         * Returns whether the live records use less than half of this segment.
+         *
+         * @return {@code true} if this segment should be compacted
+         */
+        boolean isSparse() {
+            return live < buffer.capacity() / 2;
+        }
+
+        /**
+         * Appends the given {@code data}.
+         *
+         * @param data the data to append
+         *
+         * @return the offset of the data
+         */
+        @Nonnegative
+        int append(byte[] data) {
+            final int offset = buffer.position();
+            buffer.put(data);
+            return offset;
+        }
+
+        /**
+         * Reads a record.
+         *
+         * @param offset the offset of the record
+         * @param length the length of the record
+         *
+         * @return a new array containing the record
+         */
+        @Nonnull
+        byte[] read(@Nonnegative int offset, @Nonnegative int length) {
+            final byte[] data = new byte[length];
+            buffer.duplicate().position(offset).get(data);
+            return data;
+        }
+
+        /**
+         * Releases the mapping and deletes the file of this segment, unless it is being compacted: in that case, the
+         * compaction releases it once the copy is complete.
+         */
+        void release() {
+            if (compacting || released) {
+                return;
+            }
+
+            released = true;
+            if (INVOKE_CLEANER != null) {
+                try {
+                    INVOKE_CLEANER.invokeExact((ByteBuffer) buffer);
+                }
+                catch (Throwable e) {
+                    Log.warn(e, "Unable to unmap {0}", file);
+                }
+            }
+
+            try {
+                Files.deleteIfExists(file);
+            }
+            catch (IOException e) {
+                Log.warn(e, "Unable to delete {0}", file);
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+/**
+ * The reason why an entry has been automatically removed from a {@link Cache}. Manual invalidations are not
+ * evictions.
+ *
+ * @see CacheStats#evictionCount(EvictionCause)
+ */
+public enum EvictionCause {
+
+    /**
+     * The entry was evicted because the cache exceeded its {@linkplain CacheBuilder#maximumSize(long) maximum size}.
+     */
+    SIZE,
+
+    /**
+     * The entry was evicted because the cache exceeded its {@linkplain CacheBuilder#maximumWeight maximum weight}, or
+     * the byte budget of its {@linkplain CacheBuilder#offHeap off-heap} values.
+     */
+    WEIGHT,
+
+    /**
+     * The entry's expiration time has passed.
+     */
+    EXPIRED,
+
+    /**
+     * The entry's key or value was garbage-collected, because of {@link CacheBuilder#weakKeys()}, {@link
+     * CacheBuilder#weakValues()} or {@link CacheBuilder#softValues()}.
+     */
+    COLLECTED
+}
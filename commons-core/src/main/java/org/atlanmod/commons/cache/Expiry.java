@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import java.time.Duration;
+import java.util.function.BiFunction;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.atlanmod.commons.Guards.checkNotNull;
+
+/**
+ * A policy that calculates when an entry of a {@link Cache} should expire.
+ * <p>
+ * Each method returns the duration, in nanoseconds, after which the entry expires, counted from the current time. The
+ * current time is read from the {@linkplain CacheBuilder#ticker(org.atlanmod.commons.time.Ticker) ticker} of the
+ * cache. These methods are called while the entry is locked, so they must be fast and must not access the cache.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ * @see CacheBuilder#expireAfter(Expiry)
+ */
+@ParametersAreNonnullByDefault
+public interface Expiry<K, V> {
+
+    /**
+     * Creates an expiry where each entry expires after a duration calculated from its key and its value, when it is
+     * created or updated. Reads do not change the expiration time.
+     *
+     * @param function the function that calculates the duration of an entry
+     * @param <K>      the type of keys
+     * @param <V>      the type of values
+     *
+     * @return a new expiry
+     */
+    @Nonnull
+    static <K, V> Expiry<K, V> afterWrite(BiFunction<? super K, ? super V, Duration> function) {
+        checkNotNull(function, "function");
+
+        return (key, value, currentTime) -> saturatedNanos(function.apply(key, value));
+    }
+
+    /**
+     * Returns the duration of the given {@code duration}, in nanoseconds, saturated to {@link Long#MAX_VALUE}.
+     *
+     * @param duration the duration to convert
+     *
+     * @return the number of nanoseconds
+     */
+    @Nonnegative
+    private static long saturatedNanos(Duration duration) {
+        try {
+            return Math.max(0, duration.toNanos());
+        }
+        catch (ArithmeticException e) {
+            return duration.isNegative() ? 0 : Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Returns the duration after which the entry expires, once it has been created.
+     *
+     * @param key         the key of the entry
+     * @param value       the value of the entry
+     * @param currentTime the current time, in nanoseconds
+     *
+     * @return the duration until the entry expires, in nanoseconds
+     */
+    long expireAfterCreate(K key, V value, long currentTime);
+
+    /**
+     * Returns the duration after which the entry expires, once its value has been replaced. By default, the entry
+     * expires as if it was created.
+     *
+     * @param key             the key of the entry
+     * @param value           the new value of the entry
+     * @param currentTime     the current time, in nanoseconds
+     * @param currentDuration the remaining duration of the entry, in nanoseconds
+     *
+     * @return the duration until the entry expires, in nanoseconds
+     */
+    default long expireAfterUpdate(K key, V value, long currentTime, @Nonnegative long currentDuration) {
+        return expireAfterCreate(key, value, currentTime);
+    }
+
+    /**
+     * Returns the duration after which the entry expires, once it has been read. By default, the expiration time does
+     * not change.
+     *
+     * @param key             the key of the entry
+     * @param value           the value of the entry
+     * @param currentTime     the current time, in nanoseconds
+     * @param currentDuration the remaining duration of the entry, in nanoseconds
+     *
+     * @return the duration until the entry expires, in nanoseconds
+     */
+    default long expireAfterRead(K key, V value, long currentTime, @Nonnegative long currentDuration) {
+        return currentDuration;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import java.util.function.IntFunction;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A semi-persistent mapping from {@code int} keys to values, specialized to avoid boxing the keys.
+ * <p>
+ * Unlike a {@link Cache}{@code <Integer, V>}, lookups do not allocate, and entries are stored in primitive arrays rather
+ * than in a node per entry. Cache entries are added using {@link #get(int, IntFunction)} or {@link #put(int,
+ * Object)}, and are stored in the cache until either evicted or manually invalidated.
+ * <p>
+ * Implementations of this interface are expected to be thread-safe, and can be safely accessed by multiple concurrent
+ * threads.
+ *
+ * @param <V> the type of mapped values
+ *
+ * @see PrimitiveCacheBuilder#buildInt()
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+public interface IntCache<V> {
+
+    /**
+     * Returns the value associated with the {@code key} in this cache, or {@code null} if there is no cached value for
+     * the {@code key}. If this cache has been built with a loading function, a missing value is loaded.
+     *
+     * @param key the key whose associated value is to be returned
+     *
+     * @return the value to which the specified key is mapped, or {@code null} if this cache contains no mapping for
+     * the key
+     */
+    @Nullable
+    V get(int key);
+
+    /**
+     * Returns the value associated with the {@code key} in this cache, obtaining that value from the {@code
+     * mappingFunction} if necessary.
+     * <p>
+     * The function is called without holding any lock: if concurrent threads miss the same key, the function may be
+     * applied more than once, and the first computed value is kept. A {@code null} value is not stored.
+     *
+     * @param key             the key with which the specified value is to be associated
+     * @param mappingFunction the function to compute a value
+     *
+     * @return the current (existing or computed) value associated with the specified key, or {@code null} if the
+     * computed value is {@code null}
+     *
+     * @throws RuntimeException if the mappingFunction does so, in which case the mapping is left unestablished
+     */
+    @Nullable
+    V get(int key, IntFunction<? extends V> mappingFunction);
+
+    /**
+     * Associates the {@code value} with the {@code key} in this cache. If the cache previously contained a value
+     * associated with the {@code key}, the old value is replaced by the new {@code value}.
+     *
+     * @param key   the key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     */
+    void put(int key, V value);
+
+    /**
+     * Associates the {@code value} with the {@code key} in this cache, only if the {@code key} does not already exist.
+     * If the cache previously contained a value associated with the {@code key}, then the call does nothing.
+     *
+     * @param key   the key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     */
+    void putIfAbsent(int key, V value);
+
+    /**
+     * Discards any cached value for the {@code key}.
+     *
+     * @param key the key whose mapping is to be removed from the cache
+     */
+    void invalidate(int key);
+
+    /**
+     * Discards all entries in the cache.
+     */
+    void invalidateAll();
+
+    /**
+     * Returns {@code true} if this cache contains a mapping for the specified {@code key}.
+     *
+     * @param key key whose presence in this cache is to be tested
+     *
+     * @return {@code true} if this cache contains a mapping for the specified {@code key}
+     */
+    boolean contains(int key);
+
+    /**
+     * Returns the approximate number of entries in this cache.
+     *
+     * @return the estimated number of mappings
+     */
+    @Nonnegative
+    long size();
+
+    /**
+     * Performs any pending maintenance operations needed by the cache.
+     */
+    void cleanUp();
+
+    /**
+     * Returns a current snapshot of this cache's cumulative statistics. All statistics are initialized to zero, and are
+     * monotonically increasing over the lifetime of the cache.
+     * <p>
+     * <b>Warning:</b> this cache only records statistical data if the {@link PrimitiveCacheBuilder#recordStats()}
+     * method was called. If statistics are not being recorded, a {@link CacheStats} instance with zero for all values
+     * is returned.
+     *
+     * @return the current snapshot of the statistics of this cache
+     */
+    @Nonnull
+    CacheStats stats();
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+
+import static org.atlanmod.commons.Guards.checkArgument;
+import static org.atlanmod.commons.Guards.checkNotNull;
+
+/**
+ * A histogram of latencies, in nanoseconds, such as the load times of a {@link Cache}.
+ * <p>
+ * Latencies are counted in log-linear buckets: each power of two is split into {@value #SUB_BUCKETS} buckets of equal
+ * width, so a percentile is estimated with a relative error of at most {@code 1/}{@value #SUB_BUCKETS}, whatever the
+ * magnitude of the latencies. The memory used by a histogram is constant.
+ *
+ * @see CacheStats#loadLatencies()
+ */
+@Immutable
+@ParametersAreNonnullByDefault
+public final class LatencyHistogram {
+
+    /**
+     * The number of bits used to index a bucket within a power of two.
+     */
+    private static final int SUB_BUCKET_BITS = 3;
+
+    /**
+     * The number of buckets within a power of two.
+     */
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * The number of buckets, enough to count any positive {@code long}.
+     */
+    static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    /**
+     * The empty histogram.
+     */
+    @Nonnull
+    private static final LatencyHistogram EMPTY = new LatencyHistogram(new long[BUCKETS]);
+
+    /**
+     * The number of latencies of each bucket.
+     */
+    @Nonnull
+    private final long[] counts;
+
+    /**
+     * The total number of latencies.
+     */
+    @Nonnegative
+    private final long count;
+
+    /**
+     * Constructs a new {@code LatencyHistogram}.
+     *
+     * @param counts the number of latencies of each bucket; the array is not copied
+     */
+    LatencyHistogram(long[] counts) {
+        checkArgument(counts.length == BUCKETS, "counts must have %d buckets", BUCKETS);
+
+        this.counts = counts;
+        this.count = Arrays.stream(counts).sum();
+    }
+
+    /**
+     * Returns an empty histogram.
+     *
+     * @return the empty histogram
+     */
+    @Nonnull
+    public static LatencyHistogram empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Returns the index of the bucket counting the {@code latency}.
+     *
+     * @param latency the latency, in nanoseconds; a negative latency is counted as {@code 0}
+     *
+     * @return the index of the bucket
+     */
+    @Nonnegative
+    static int bucketOf(long latency) {
+        if (latency < SUB_BUCKETS) {
+            return (int) Math.max(0, latency);
+        }
+
+        final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(latency);
+        final int subBucket = (int) (latency >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Returns the lowest latency counted by the bucket at the given {@code index}.
+     *
+     * @param index the index of the bucket
+     *
+     * @return the lowest latency of the bucket, in nanoseconds
+     */
+    @Nonnegative
+    static long lowerBoundOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+
+        final int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        final long subBucket = index % SUB_BUCKETS;
+        return (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    /**
+     * Returns the highest latency counted by the bucket at the given {@code index}.
+     *
+     * @param index the index of the bucket
+     *
+     * @return the highest latency of the bucket, in nanoseconds
+     */
+    @Nonnegative
+    static long upperBoundOf(int index) {
+        return index == BUCKETS - 1 ? Long.MAX_VALUE : lowerBoundOf(index + 1) - 1;
+    }
+
+    /**
+     * Returns the number of latencies counted by this histogram.
+     *
+     * @return the number of latencies
+     */
+    @Nonnegative
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Returns the latency below which the given {@code percentile} of the latencies fall. The returned value is the
+     * upper bound of the bucket containing this percentile, so it never underestimates the latency.
+     *
+     * @param percentile the percentile, between {@code 0} (exclusive) and {@code 100} (inclusive)
+     *
+     * @return the latency of the percentile, or {@link Duration#ZERO} if this histogram is empty
+     *
+     * @throws IllegalArgumentException if {@code percentile} is not in {@code (0, 100]}
+     */
+    @Nonnull
+    public Duration percentile(double percentile) {
+        checkArgument(percentile > 0 && percentile <= 100, "percentile (%s) must be in (0, 100]", percentile);
+
+        if (count == 0) {
+            return Duration.ZERO;
+        }
+
+        final long rank = (long) Math.ceil(count * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Duration.ofNanos(upperBoundOf(i));
+            }
+        }
+        return Duration.ofNanos(Long.MAX_VALUE);
+    }
+
+    /**
+     * Returns the highest latency counted by this histogram. As for percentiles, the returned value is the upper bound
+     * of the highest non-empty bucket.
+     *
+     * @return the highest latency, or {@link Duration#ZERO} if this histogram is empty
+     */
+    @Nonnull
+    public Duration max() {
+        return percentile(100);
+    }
+
+    /**
+     * Returns a new {@code LatencyHistogram} representing the difference between this histogram and {@code other}.
+     * Negative counts, that would result from subtracting a more recent histogram, are rounded up to zero.
+     *
+     * @param other the histogram to subtract with
+     *
+     * @return the difference between this instance and {@code other}
+     */
+    @Nonnull
+    public LatencyHistogram minus(LatencyHistogram other) {
+        checkNotNull(other, "other");
+
+        final long[] result = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            result[i] = Math.max(0L, counts[i] - other.counts[i]);
+        }
+        return new LatencyHistogram(result);
+    }
+
+    /**
+     * Returns a new {@code LatencyHistogram} representing the sum of this histogram and {@code other}.
+     *
+     * @param other the histogram to add with
+     *
+     * @return the sum of the histograms
+     */
+    @Nonnull
+    public LatencyHistogram plus(LatencyHistogram other) {
+        checkNotNull(other, "other");
+
+        final long[] result = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            result[i] = counts[i] + other.counts[i];
+        }
+        return new LatencyHistogram(result);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(counts);
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        LatencyHistogram that = (LatencyHistogram) o;
+        return Arrays.equals(counts, that.counts);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LatencyHistogram {"
+                        + "Count = %d, "
+                        + "P50 = %s, "
+                        + "P99 = %s, "
+                        + "Max = %s"
+                        + '}',
+                count(),
+                percentile(50),
+                percentile(99),
+                max());
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import com.github.benmanes.caffeine.cache.Policy;
+
+import org.atlanmod.commons.concurrent.MoreThreads;
+import org.atlanmod.commons.log.Log;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Cleaner;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+import static org.atlanmod.commons.Guards.checkGreaterThanOrEqualTo;
+
+/**
+ * The {@link CacheMXBean} of a cache, that holds the cache weakly and unregisters itself once the cache has been
+ * garbage-collected.
+ */
+@ParametersAreNonnullByDefault
+final class ManagedCache implements CacheMXBean {
+
+    /**
+     * The cleaner that unregisters the MBeans of the collected caches.
+     */
+    @Nonnull
+    private static final Cleaner CLEANER = Cleaner.create(MoreThreads.newThreadFactory("cache-mbean-cleaner"));
+
+    /**
+     * The MBeans registered by this class, by name.
+     */
+    @Nonnull
+    private static final Map<ObjectName, ManagedCache> REGISTERED = new ConcurrentHashMap<>();
+
+    /**
+     * The managed cache, or a view of it.
+     */
+    @Nonnull
+    private final WeakReference<Cache<?, ?>> cache;
+
+    /**
+     * The recorder of the statistics of the cache.
+     */
+    @Nonnull
+    private final StatsRecorder statsRecorder;
+
+    /**
+     * The size-based eviction policy of the cache, or {@code null} if its maximum cannot be managed.
+     */
+    @Nullable
+    private final Policy.Eviction<?, ?> eviction;
+
+    /**
+     * Constructs a new {@code ManagedCache}.
+     *
+     * @param cache         the managed cache, or a view of it
+     * @param statsRecorder the recorder of the statistics of the cache
+     * @param eviction      the size-based eviction policy of the cache, or {@code null} if its maximum cannot be
+     *                      managed
+     */
+    private ManagedCache(Cache<?, ?> cache, StatsRecorder statsRecorder, @Nullable Policy.Eviction<?, ?> eviction) {
+        this.cache = new WeakReference<>(cache);
+        this.statsRecorder = statsRecorder;
+        this.eviction = eviction;
+    }
+
+    /**
+     * Returns the name of the MBean of the cache named {@code name}.
+     *
+     * @param name the name of the cache
+     *
+     * @return the name of the MBean
+     *
+     * @throws IllegalArgumentException if {@code name} cannot be used in an MBean name
+     */
+    @Nonnull
+    static ObjectName objectName(String name) {
+        try {
+            return new ObjectName(DOMAIN + ":type=Cache,name=" + ObjectName.quote(name));
+        }
+        catch (MalformedObjectNameException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * Registers the MBean of a cache in the platform MBean server, replacing the MBean already registered with the
+     * same name, if any.
+     *
+     * @param name          the name of the cache
+     * @param owner         the cache returned to the caller; its MBean is unregistered once it has been collected
+     * @param view          the managed cache, or a view of it that lives as long as the {@code owner}
+     * @param statsRecorder the recorder of the statistics of the cache
+     * @param eviction      the size-based eviction policy of the cache, or {@code null} if its maximum cannot be
+     *                      managed
+     *
+     * @throws IllegalStateException if the MBean cannot be registered
+     */
+    static void register(String name, Object owner, Cache<?, ?> view, StatsRecorder statsRecorder, @Nullable Policy.Eviction<?, ?> eviction) {
+        final ObjectName objectName = objectName(name);
+        final ManagedCache bean = new ManagedCache(view, statsRecorder, eviction);
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+        synchronized (REGISTERED) {
+            try {
+                if (server.isRegistered(objectName)) {
+                    server.unregisterMBean(objectName);
+                }
+                server.registerMBean(bean, objectName);
+                REGISTERED.put(objectName, bean);
+            }
+            catch (JMException e) {
+                throw new IllegalStateException("unable to register the MBean of cache " + name, e);
+            }
+        }
+
+        CLEANER.register(owner, () -> unregister(objectName, bean));
+    }
+
+    /**
+     * Unregisters the {@code bean}, unless it has been replaced by another MBean with the same name.
+     *
+     * @param objectName the name of the MBean
+     * @param bean       the MBean to unregister
+     */
+    private static void unregister(ObjectName objectName, ManagedCache bean) {
+        synchronized (REGISTERED) {
+            if (REGISTERED.remove(objectName, bean)) {
+                try {
+                    ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+                }
+                catch (JMException e) {
+                    Log.warn(e, "Unable to unregister {0}", objectName);
+                }
+            }
+        }
+    }
+
+    @Override
+    public long getSize() {
+        final Cache<?, ?> c = cache.get();
+        return c != null ? c.size() : 0;
+    }
+
+    @Override
+    public long getMaximumSize() {
+        return eviction != null ? eviction.getMaximum() : -1;
+    }
+
+    @Override
+    public void setMaximumSize(long maximumSize) {
+        checkGreaterThanOrEqualTo(maximumSize, 0L, "maximumSize (%d) must not be negative", maximumSize);
+        if (eviction == null) {
+            throw new UnsupportedOperationException("the maximum of this cache cannot be changed");
+        }
+
+        eviction.setMaximum(maximumSize);
+    }
+
+    @Override
+    public boolean isWeighted() {
+        return eviction != null && eviction.isWeighted();
+    }
+
+    @Override
+    public long getRequestCount() {
+        return statsRecorder.stats().requestCount();
+    }
+
+    @Override
+    public long getHitCount() {
+        return statsRecorder.stats().hitCount();
+    }
+
+    @Override
+    public double getHitRate() {
+        return statsRecorder.stats().hitRate();
+    }
+
+    @Override
+    public long getMissCount() {
+        return statsRecorder.stats().missCount();
+    }
+
+    @Override
+    public long getLoadSuccessCount() {
+        return statsRecorder.stats().loadSuccessCount();
+    }
+
+    @Override
+    public long getLoadFailureCount() {
+        return statsRecorder.stats().loadFailureCount();
+    }
+
+    @Override
+    public double getAverageLoadPenalty() {
+        return statsRecorder.stats().averageLoadPenalty();
+    }
+
+    @Override
+    public long getLoadTime99thPercentile() {
+        return statsRecorder.stats().loadLatencies().percentile(99).toNanos();
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return statsRecorder.stats().evictionCount();
+    }
+
+    @Override
+    public long getEvictionWeight() {
+        return statsRecorder.stats().evictionWeight();
+    }
+
+    @Override
+    public void invalidateAll() {
+        final Cache<?, ?> c = cache.get();
+        if (c != null) {
+            c.invalidateAll();
+        }
+    }
+
+    @Override
+    public void cleanUp() {
+        final Cache<?, ?> c = cache.get();
+        if (c != null) {
+            c.cleanUp();
+        }
+    }
+}
@@ -0,0 +1,551 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.cache.OffHeapStore.Slot;
+import org.atlanmod.commons.io.serializer.BinarySerializer;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.atlanmod.commons.Guards.checkNotNull;
+import static org.atlanmod.commons.Guards.checkState;
+
+/**
+ * A {@link Cache} that stores its values in direct memory, serialized with a {@link BinarySerializer}.
+ * <p>
+ * Keys are indexed on-heap by a Caffeine cache, that maps each key to the {@link Slot} of its serialized value in an
+ * {@link OffHeapStore}. Each slot is weighted by its number of blocks, so the index evicts entries to stay within the
+ * byte budget of the store, with the same admission and eviction policy as on-heap caches; the blocks of a removed
+ * entry are freed by a removal listener. Values are deserialized on each read, so they are never shared between
+ * callers.
+ *
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of mapped values
+ * @see CacheBuilder#offHeap(long, BinarySerializer)
+ */
+@ParametersAreNonnullByDefault
+class OffHeapCache<K, V> implements Cache<K, V> {
+
+    /**
+     * The index of the stored values.
+     */
+    @Nonnull
+    protected final com.github.benmanes.caffeine.cache.Cache<K, Slot> index;
+
+    /**
+     * The recorder of the statistics of the index.
+     */
+    @Nonnull
+    private final StatsRecorder statsRecorder;
+
+    /**
+     * The store of the serialized values.
+     */
+    @Nonnull
+    protected final OffHeapStore store;
+
+    /**
+     * The serializer of the values.
+     */
+    @Nonnull
+    protected final BinarySerializer<V> serializer;
+
+    /**
+     * The maximum number of blocks of a single value; larger values are not cached.
+     */
+    @Nonnegative
+    private final int maximumBlocksPerValue;
+
+    /**
+     * The map view of this cache.
+     */
+    @Nonnull
+    private final ConcurrentMap<K, V> mapView;
+
+    /**
+     * Constructs a new {@code OffHeapCache}.
+     *
+     * @param index                 the index of the stored values
+     * @param statsRecorder         the recorder of the statistics of the index
+     * @param store                 the store of the serialized values
+     * @param serializer            the serializer of the values
+     * @param maximumBlocksPerValue the maximum number of blocks of a single value
+     */
+    protected OffHeapCache(com.github.benmanes.caffeine.cache.Cache<K, Slot> index, StatsRecorder statsRecorder, OffHeapStore store, BinarySerializer<V> serializer, @Nonnegative int maximumBlocksPerValue) {
+        this.index = index;
+        this.statsRecorder = statsRecorder;
+        this.store = store;
+        this.serializer = serializer;
+        this.maximumBlocksPerValue = maximumBlocksPerValue;
+        this.mapView = new MapView();
+    }
+
+    @Nullable
+    @Override
+    public V get(K key) {
+        checkNotNull(key, "key");
+
+        return getIfPresent(key);
+    }
+
+    @Override
+    public V get(K key, Function<? super K, ? extends V> mappingFunction) {
+        checkNotNull(key, "key");
+        checkNotNull(mappingFunction, "mappingFunction");
+
+        final V present = getIfPresent(key);
+        if (present != null) {
+            return present;
+        }
+
+        // Keep the computed value, to avoid deserializing it again, or if it cannot be stored
+        final Object[] computed = new Object[1];
+        final Slot slot = index.get(key, k -> {
+            final V value = mappingFunction.apply(k);
+            computed[0] = value;
+            return value != null ? tryWrite(value) : null;
+        });
+
+        if (computed[0] != null) {
+            @SuppressWarnings("unchecked") final V value = (V) computed[0];
+            if (slot == null) {
+                // The store was full: try again after the pending evictions
+                put(key, value);
+            }
+            return value;
+        }
+        return slot != null ? read(slot) : null;
+    }
+
+    @Nonnull
+    @Override
+    public Map<K, V> getAll(Iterable<? extends K> keys) {
+        checkNotNull(keys, "keys");
+
+        return readAll(index.getAllPresent(keys));
+    }
+
+    @Override
+    public void put(K key, V value) {
+        checkNotNull(key, "key");
+        checkNotNull(value, "value");
+
+        final Slot slot = write(value);
+        if (slot != null) {
+            index.put(key, slot);
+        }
+        else {
+            // The previous value must not remain
+            index.invalidate(key);
+        }
+    }
+
+    @Override
+    public void putIfAbsent(K key, V value) {
+        get(key, k -> value);
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> map) {
+        checkNotNull(map, "map");
+
+        map.forEach(this::put);
+    }
+
+    @Override
+    public void invalidate(K key) {
+        checkNotNull(key, "key");
+
+        index.invalidate(key);
+    }
+
+    @Override
+    public void invalidateAll(Iterable<? extends K> keys) {
+        checkNotNull(keys, "keys");
+
+        index.invalidateAll(keys);
+    }
+
+    @Override
+    public void invalidateAll() {
+        index.invalidateAll();
+    }
+
+    @Override
+    public boolean contains(K key) {
+        checkNotNull(key, "key");
+
+        return index.asMap().containsKey(key);
+    }
+
+    @Override
+    public long size() {
+        return index.estimatedSize();
+    }
+
+    @Override
+    public void refresh(K key) {
+        // Do nothing
+    }
+
+    @Override
+    public void cleanUp() {
+        index.cleanUp();
+    }
+
+    @Nonnull
+    @Override
+    public ConcurrentMap<K, V> asMap() {
+        return mapView;
+    }
+
+    @Nonnull
+    @Override
+    public CacheStats stats() {
+        return statsRecorder.stats();
+    }
+
+    /**
+     * Returns the value associated with the {@code key} in this cache, without loading it.
+     *
+     * @param key the key whose associated value is to be returned
+     *
+     * @return the value, or {@code null} if this cache contains no mapping for the key
+     */
+    @Nullable
+    protected V getIfPresent(K key) {
+        final Slot slot = index.getIfPresent(key);
+        return slot != null ? read(slot) : null;
+    }
+
+    /**
+     * Serializes and stores the given {@code value}.
+     * <p>
+     * If the store is full, the pending evictions of the index are performed before trying again.
+     *
+     * @param value the value to store
+     *
+     * @return the slot of the stored value, or {@code null} if it cannot be stored
+     */
+    @Nullable
+    protected Slot write(V value) {
+        final byte[] data = serializer.convert(value);
+        if (store.blocksFor(data.length) > maximumBlocksPerValue) {
+            return null;
+        }
+
+        Slot slot = store.store(data);
+        if (slot == null) {
+            index.cleanUp();
+            slot = store.store(data);
+        }
+        return slot;
+    }
+
+    /**
+     * Serializes and stores the given {@code value}, without performing the pending evictions of the index. This
+     * method can be called while computing an entry of the index.
+     *
+     * @param value the value to store
+     *
+     * @return the slot of the stored value, or {@code null} if it cannot be stored
+     */
+    @Nullable
+    protected Slot tryWrite(V value) {
+        final byte[] data = serializer.convert(value);
+        return store.blocksFor(data.length) <= maximumBlocksPerValue ? store.store(data) : null;
+    }
+
+    /**
+     * Reads and deserializes the value of the given {@code slot}.
+     *
+     * @param slot the slot to read
+     *
+     * @return the value, or {@code null} if the slot has been concurrently removed
+     */
+    @Nullable
+    protected V read(Slot slot) {
+        final byte[] data = slot.read();
+        return data != null ? serializer.revert(data) : null;
+    }
+
+    /**
+     * Reads and deserializes the values of the given {@code slots}.
+     *
+     * @param slots the slots to read
+     *
+     * @return an unmodifiable map of the values that have not been concurrently removed
+     */
+    @Nonnull
+    protected Map<K, V> readAll(Map<K, Slot> slots) {
+        Map<K, V> result = new LinkedHashMap<>(slots.size());
+        slots.forEach((k, slot) -> {
+            final V value = read(slot);
+            if (value != null) {
+                result.put(k, value);
+            }
+        });
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * A {@link ConcurrentMap} view of this cache, that (de)serializes the values on the fly.
+     * <p>
+     * Conditional operations are performed atomically on the index; previous values are read before their slot is
+     * released.
+     */
+    @ParametersAreNonnullByDefault
+    private final class MapView extends AbstractMap<K, V> implements ConcurrentMap<K, V> {
+
+        /**
+         * The map view of the index.
+         */
+        @Nonnull
+        private final ConcurrentMap<K, Slot> slots = index.asMap();
+
+        @Override
+        public int size() {
+            return slots.size();
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return slots.containsKey(key);
+        }
+
+        @Override
+        public V get(Object key) {
+            final Slot slot = slots.get(key);
+            return slot != null ? read(slot) : null;
+        }
+
+        @Override
+        public V put(K key, V value) {
+            checkNotNull(key, "key");
+            checkNotNull(value, "value");
+
+            final Slot slot = write(value);
+            final Object[] previous = new Object[1];
+            slots.compute(key, (k, old) -> {
+                previous[0] = old != null ? read(old) : null;
+                return slot;
+            });
+            return cast(previous[0]);
+        }
+
+        @Override
+        public V putIfAbsent(K key, V value) {
+            checkNotNull(key, "key");
+            checkNotNull(value, "value");
+
+            final Object[] previous = new Object[1];
+            slots.compute(key, (k, old) -> {
+                previous[0] = old != null ? read(old) : null;
+                return previous[0] != null ? old : tryWrite(value);
+            });
+            return cast(previous[0]);
+        }
+
+        @Override
+        public V remove(Object key) {
+            @SuppressWarnings("unchecked") final K k = (K) checkNotNull(key, "key");
+
+            final Object[] previous = new Object[1];
+            slots.computeIfPresent(k, (ignored, old) -> {
+                previous[0] = read(old);
+                return null;
+            });
+            return cast(previous[0]);
+        }
+
+        @Override
+        public boolean remove(Object key, Object value) {
+            @SuppressWarnings("unchecked") final K k = (K) checkNotNull(key, "key");
+
+            final boolean[] removed = new boolean[1];
+            slots.computeIfPresent(k, (ignored, old) -> {
+                removed[0] = Objects.equals(read(old), value);
+                return removed[0] ? null : old;
+            });
+            return removed[0];
+        }
+
+        @Override
+        public V replace(K key, V value) {
+            checkNotNull(key, "key");
+            checkNotNull(value, "value");
+
+            final Object[] previous = new Object[1];
+            slots.computeIfPresent(key, (k, old) -> {
+                previous[0] = read(old);
+                return previous[0] != null ? tryWrite(value) : null;
+            });
+            return cast(previous[0]);
+        }
+
+        @Override
+        public boolean replace(K key, V oldValue, V newValue) {
+            checkNotNull(key, "key");
+            checkNotNull(oldValue, "oldValue");
+            checkNotNull(newValue, "newValue");
+
+            final boolean[] replaced = new boolean[1];
+            slots.computeIfPresent(key, (k, old) -> {
+                replaced[0] = Objects.equals(read(old), oldValue);
+                return replaced[0] ? tryWrite(newValue) : old;
+            });
+            return replaced[0];
+        }
+
+        @Override
+        public void clear() {
+            invalidateAll();
+        }
+
+        @Nonnull
+        @Override
+        public Set<Entry<K, V>> entrySet() {
+            return new AbstractSet<Entry<K, V>>() {
+                @Override
+                public int size() {
+                    return slots.size();
+                }
+
+                @Override
+                public void clear() {
+                    invalidateAll();
+                }
+
+                @Nonnull
+                @Override
+                public Iterator<Entry<K, V>> iterator() {
+                    return new EntryIterator(slots.entrySet().iterator());
+                }
+            };
+        }
+
+        /**
+         * Casts a value read from a slot.
+         *
+         * @param value the value to cast
+         *
+         * @return the value
+         */
+        @SuppressWarnings("unchecked")
+        private V cast(@Nullable Object value) {
+            return (V) value;
+        }
+
+        /**
+         * An iterator over the entries of the index, that deserializes the values and skips the entries removed during
+         * the iteration.
+         */
+        private final class EntryIterator implements Iterator<Entry<K, V>> {
+
+            /**
+             * The iterator over the entries of the index.
+             */
+            @Nonnull
+            private final Iterator<Entry<K, Slot>> delegate;
+
+            /**
+             * The next entry to return, or {@code null} if it has not been read yet.
+             */
+            @Nullable
+            private Entry<K, V> next;
+
+            /**
+             * The key of the last returned entry, or {@code null} if it has been removed.
+             */
+            @Nullable
+            private K lastKey;
+
+            /**
+             * Constructs a new {@code EntryIterator}.
+             *
+             * @param delegate the iterator over the entries of the index
+             */
+            EntryIterator(Iterator<Entry<K, Slot>> delegate) {
+                this.delegate = delegate;
+            }
+
+            @Override
+            public boolean hasNext() {
+                while (next == null && delegate.hasNext()) {
+                    final Entry<K, Slot> e = delegate.next();
+                    final V value = read(e.getValue());
+                    if (value != null) {
+                        next = new WriteThroughEntry(e.getKey(), value);
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public Entry<K, V> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                final Entry<K, V> result = next;
+                next = null;
+                lastKey = result.getKey();
+                return result;
+            }
+
+            @Override
+            public void remove() {
+                checkState(lastKey != null, "next() has not been called, or remove() has already been called");
+
+                slots.remove(lastKey);
+                lastKey = null;
+            }
+        }
+
+        /**
+         * An entry that writes its new values through this map.
+         */
+        private final class WriteThroughEntry extends SimpleEntry<K, V> {
+
+            @SuppressWarnings("JavaDoc")
+            private static final long serialVersionUID = -2467581264107395027L;
+
+            /**
+             * Constructs a new {@code WriteThroughEntry}.
+             *
+             * @param key   the key of the entry
+             * @param value the value of the entry
+             */
+            WriteThroughEntry(K key, V value) {
+                super(key, value);
+            }
+
+            @Override
+            public V setValue(V value) {
+                put(getKey(), value);
+                return super.setValue(value);
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.cache.OffHeapStore.Slot;
+import org.atlanmod.commons.io.serializer.BinarySerializer;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.atlanmod.commons.Guards.checkNotNull;
+
+/**
+ * An {@link OffHeapCache} which either returns an already-loaded value for a given key or atomically computes or
+ * retrieves it.
+ *
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of mapped values
+ */
+@ParametersAreNonnullByDefault
+class OffHeapLoadingCache<K, V> extends OffHeapCache<K, V> {
+
+    /**
+     * The function used to obtain new values.
+     */
+    @Nonnull
+    private final Function<? super K, ? extends V> mappingFunction;
+
+    /**
+     * The function used to obtain new values in batch, or {@code null} if the values are loaded one by one.
+     */
+    @Nullable
+    private final Function<? super Set<? extends K>, ? extends Map<? extends K, ? extends V>> bulkMappingFunction;
+
+    /**
+     * Constructs a new {@code OffHeapLoadingCache}.
+     *
+     * @param index                 the index of the stored values
+     * @param statsRecorder         the recorder of the statistics of the index
+     * @param store                 the store of the serialized values
+     * @param serializer            the serializer of the values
+     * @param maximumBlocksPerValue the maximum number of blocks of a single value
+     * @param mappingFunction       the function used to obtain new values
+     * @param bulkMappingFunction   the function used to obtain new values in batch, or {@code null} to load them one
+     *                              by one
+     */
+    protected OffHeapLoadingCache(com.github.benmanes.caffeine.cache.Cache<K, Slot> index, StatsRecorder statsRecorder, OffHeapStore store, BinarySerializer<V> serializer, @Nonnegative int maximumBlocksPerValue, Function<? super K, ? extends V> mappingFunction, @Nullable Function<? super Set<? extends K>, ? extends Map<? extends K, ? extends V>> bulkMappingFunction) {
+        super(index, statsRecorder, store, serializer, maximumBlocksPerValue);
+        this.mappingFunction = mappingFunction;
+        this.bulkMappingFunction = bulkMappingFunction;
+    }
+
+    @Nullable
+    @Override
+    public V get(K key) {
+        return get(key, mappingFunction);
+    }
+
+    @Nonnull
+    @Override
+    public Map<K, V> getAll(Iterable<? extends K> keys) {
+        checkNotNull(keys, "keys");
+
+        if (bulkMappingFunction == null) {
+            Map<K, V> result = new LinkedHashMap<>();
+            for (K key : keys) {
+                final V value = get(key);
+                if (value != null) {
+                    result.put(key, value);
+                }
+            }
+            return Collections.unmodifiableMap(result);
+        }
+
+        Map<K, V> result = new LinkedHashMap<>(readAll(index.getAllPresent(keys)));
+        Set<K> missing = new LinkedHashSet<>();
+        for (K key : keys) {
+            if (!result.containsKey(key)) {
+                missing.add(key);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            bulkMappingFunction.apply(Collections.unmodifiableSet(missing)).forEach((k, v) -> {
+                put(k, v);
+                if (missing.contains(k)) {
+                    result.put(k, v);
+                }
+            });
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    @Override
+    public void refresh(K key) {
+        checkNotNull(key, "key");
+
+        CompletableFuture.runAsync(() -> {
+            final V value = mappingFunction.apply(key);
+            if (value != null) {
+                put(key, value);
+            }
+        });
+    }
+}
@@ -0,0 +1,452 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import static org.atlanmod.commons.Guards.checkArgument;
+import static org.atlanmod.commons.Guards.checkGreaterThan;
+
+/**
+ * A store of {@code byte} arrays in direct memory, outside of the Java heap.
+ * <p>
+ * The memory is divided into fixed-size blocks, carved from direct slabs that are allocated lazily up to the capacity
+ * of the store. Each stored array occupies as many blocks as needed, not necessarily contiguous, so the store never
+ * fragments. The only on-heap structures are a {@link Slot} per stored array, referencing its blocks, and a stack of
+ * free block indices: neither contains references that the garbage collector has to trace.
+ * <p>
+ * A slot can be read concurrently with its release: its blocks are only returned to the free stack when the last
+ * reader has completed, so a reader never observes blocks that have been reused.
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+final class OffHeapStore {
+
+    /**
+     * The default size of a block, in bytes.
+     */
+    static final int DEFAULT_BLOCK_SIZE = 256;
+
+    /**
+     * The maximum size of a slab, in bytes.
+     */
+    private static final int MAX_SLAB_SIZE = 1 << 30;
+
+    /**
+     * The view used to copy 8 bytes at once from and to {@code byte} arrays.
+     */
+    private static final VarHandle ARRAY_WORDS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    /**
+     * The view used to copy 8 bytes at once from and to slabs.
+     */
+    private static final VarHandle SLAB_WORDS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    /**
+     * The size of a block, in bytes.
+     */
+    @Nonnegative
+    private final int blockSize;
+
+    /**
+     * The maximum number of blocks.
+     */
+    @Nonnegative
+    private final int capacity;
+
+    /**
+     * The number of bits to shift a block index to get the index of its slab.
+     */
+    @Nonnegative
+    private final int slabShift;
+
+    /**
+     * The slabs allocated so far; the array is allocated at once, the slabs are not.
+     */
+    @Nonnull
+    private final ByteBuffer[] slabs;
+
+    /**
+     * The stack of free block indices.
+     */
+    @Nonnull
+    @GuardedBy("this")
+    private int[] freeBlocks = new int[64];
+
+    /**
+     * The number of free block indices in {@link #freeBlocks}.
+     */
+    @GuardedBy("this")
+    private int freeCount;
+
+    /**
+     * The number of blocks in the allocated slabs.
+     */
+    @GuardedBy("this")
+    private int allocatedBlocks;
+
+    /**
+     * Constructs a new {@code OffHeapStore}.
+     *
+     * @param maximumBytes the maximum number of bytes allocated by this store
+     * @param blockSize    the size of a block, in bytes; must be a multiple of 8
+     */
+    OffHeapStore(@Nonnegative long maximumBytes, @Nonnegative int blockSize) {
+        checkGreaterThan(blockSize, 0, "blockSize (%d) must be positive", blockSize);
+        checkArgument(blockSize % Long.BYTES == 0 && blockSize <= MAX_SLAB_SIZE, "blockSize (%d) must be a multiple of 8", blockSize);
+        checkArgument(maximumBytes >= blockSize, "maximumBytes (%d) must not be lower than a block (%d)", maximumBytes, blockSize);
+        checkArgument(maximumBytes / blockSize <= Integer.MAX_VALUE, "maximumBytes (%d) must not exceed %d blocks", maximumBytes, Integer.MAX_VALUE);
+
+        this.blockSize = blockSize;
+        this.capacity = (int) (maximumBytes / blockSize);
+
+        final int blocksPerSlab = Integer.highestOneBit(Math.min(MAX_SLAB_SIZE / blockSize, capacity));
+        this.slabShift = Integer.numberOfTrailingZeros(blocksPerSlab);
+        this.slabs = new ByteBuffer[(int) ((capacity + (long) blocksPerSlab - 1) >>> slabShift)];
+    }
+
+    /**
+     * Returns the size of a block, in bytes.
+     *
+     * @return the size of a block
+     */
+    @Nonnegative
+    public int blockSize() {
+        return blockSize;
+    }
+
+    /**
+     * Returns the maximum number of blocks of this store.
+     *
+     * @return the capacity, in blocks
+     */
+    @Nonnegative
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of blocks required to store {@code length} bytes.
+     *
+     * @param length the number of bytes
+     *
+     * @return the number of blocks
+     */
+    @Nonnegative
+    public int blocksFor(@Nonnegative int length) {
+        return (int) ((length + (long) blockSize - 1) / blockSize);
+    }
+
+    /**
+     * Returns the number of bytes allocated in direct memory so far.
+     *
+     * @return the number of allocated bytes
+     */
+    @Nonnegative
+    public synchronized long allocatedBytes() {
+        return (long) allocatedBlocks * blockSize;
+    }
+
+    /**
+     * Returns the number of blocks currently used by stored arrays.
+     *
+     * @return the number of used blocks
+     */
+    @Nonnegative
+    public synchronized int usedBlocks() {
+        return allocatedBlocks - freeCount;
+    }
+
+    /**
+     * Copies the given {@code data} into this store.
+     *
+     * @param data the data to store
+     *
+     * @return the slot of the stored data, or {@code null} if there is not enough free blocks
+     */
+    @Nullable
+    public Slot store(byte[] data) {
+        final int[] blocks = allocate(blocksFor(data.length));
+        if (blocks == null) {
+            return null;
+        }
+
+        for (int i = 0, offset = 0; i < blocks.length; i++, offset += blockSize) {
+            copyToSlab(data, offset, blocks[i], Math.min(blockSize, data.length - offset));
+        }
+        return new Slot(this, data.length, blocks);
+    }
+
+    /**
+     * Allocates the given number of blocks.
+     *
+     * @param count the number of blocks to allocate
+     *
+     * @return the indices of the allocated blocks, or {@code null} if there is not enough free blocks
+     */
+    @Nullable
+    private synchronized int[] allocate(@Nonnegative int count) {
+        while (freeCount < count && allocatedBlocks < capacity) {
+            allocateSlab();
+        }
+
+        if (freeCount < count) {
+            return null;
+        }
+
+        freeCount -= count;
+        return Arrays.copyOfRange(freeBlocks, freeCount, freeCount + count);
+    }
+
+    /**
+     * Allocates the next slab, and pushes its blocks on the free stack.
+     */
+    @GuardedBy("this")
+    private void allocateSlab() {
+        final int first = allocatedBlocks;
+        final int count = Math.min(1 << slabShift, capacity - first);
+
+        slabs[first >>> slabShift] = ByteBuffer.allocateDirect(count * blockSize).order(ByteOrder.nativeOrder());
+        allocatedBlocks += count;
+
+        ensureFreeCapacity(freeCount + count);
+        for (int i = first + count - 1; i >= first; i--) {
+            freeBlocks[freeCount++] = i;
+        }
+    }
+
+    /**
+     * Returns the given blocks to the free stack.
+     *
+     * @param blocks the indices of the blocks to free
+     */
+    private synchronized void free(int[] blocks) {
+        ensureFreeCapacity(freeCount + blocks.length);
+        System.arraycopy(blocks, 0, freeBlocks, freeCount, blocks.length);
+        freeCount += blocks.length;
+    }
+
+    /**
+     * Grows the free stack, if necessary, to hold {@code minCapacity} indices.
+     *
+     * @param minCapacity the minimum number of indices
+     */
+    @GuardedBy("this")
+    private void ensureFreeCapacity(@Nonnegative int minCapacity) {
+        if (minCapacity > freeBlocks.length) {
+            freeBlocks = Arrays.copyOf(freeBlocks, (int) Math.min(capacity, Math.max(minCapacity, freeBlocks.length * 2L)));
+        }
+    }
+
+    /**
+     * Copies {@code length} bytes of {@code data}, starting at {@code offset}, to the beginning of a block.
+     *
+     * @param data   the data to copy
+     * @param offset the index of the first byte to copy
+     * @param block  the index of the destination block
+     * @param length the number of bytes to copy; lower than or equal to the size of a block
+     */
+    private void copyToSlab(byte[] data, @Nonnegative int offset, @Nonnegative int block, @Nonnegative int length) {
+        final ByteBuffer slab = slabOf(block);
+        final int base = blockOffset(block);
+
+        int i = 0;
+        for (; i + Long.BYTES <= length; i += Long.BYTES) {
+            SLAB_WORDS.set(slab, base + i, (long) ARRAY_WORDS.get(data, offset + i));
+        }
+        for (; i < length; i++) {
+            slab.put(base + i, data[offset + i]);
+        }
+    }
+
+    /**
+     * Copies {@code length} bytes from the beginning of a block to {@code data}, starting at {@code offset}.
+     *
+     * @param block  the index of the source block
+     * @param data   the destination array
+     * @param offset the index of the first byte to write
+     * @param length the number of bytes to copy; lower than or equal to the size of a block
+     */
+    private void copyFromSlab(@Nonnegative int block, byte[] data, @Nonnegative int offset, @Nonnegative int length) {
+        final ByteBuffer slab = slabOf(block);
+        final int base = blockOffset(block);
+
+        int i = 0;
+        for (; i + Long.BYTES <= length; i += Long.BYTES) {
+            ARRAY_WORDS.set(data, offset + i, (long) SLAB_WORDS.get(slab, base + i));
+        }
+        for (; i < length; i++) {
+            data[offset + i] = slab.get(base + i);
+        }
+    }
+
+    /**
+     * Returns the slab that contains the given {@code block}.
+     * <p>
+     * The slab has been published to the current thread by the synchronized allocation of the block.
+     *
+     * @param block the index of the block
+     *
+     * @return the slab
+     */
+    @Nonnull
+    private ByteBuffer slabOf(@Nonnegative int block) {
+        return slabs[block >>> slabShift];
+    }
+
+    /**
+     * Returns the offset of the given {@code block} in its slab.
+     *
+     * @param block the index of the block
+     *
+     * @return the offset, in bytes
+     */
+    @Nonnegative
+    private int blockOffset(@Nonnegative int block) {
+        return (block & ((1 << slabShift) - 1)) * blockSize;
+    }
+
+    /**
+     * A handle on a {@code byte} array stored in an {@link OffHeapStore}.
+     * <p>
+     * The state of a slot counts its current readers, and is marked as released once the slot has been removed: the
+     * blocks are freed by the last of the releaser and the readers.
+     */
+    @ThreadSafe
+    static final class Slot {
+
+        /**
+         * The flag of the {@link #state} indicating that this slot has been released.
+         */
+        private static final int RELEASED = 1 << 31;
+
+        /**
+         * The handle used to update the {@link #state} atomically.
+         */
+        private static final VarHandle STATE;
+
+        static {
+            try {
+                STATE = MethodHandles.lookup().findVarHandle(Slot.class, "state", int.class);
+            }
+            catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        /**
+         * The store that owns the blocks.
+         */
+        @Nonnull
+        private final OffHeapStore store;
+
+        /**
+         * The number of stored bytes.
+         */
+        @Nonnegative
+        private final int length;
+
+        /**
+         * The indices of the blocks, in order.
+         */
+        @Nonnull
+        private final int[] blocks;
+
+        /**
+         * The number of current readers, and the {@link #RELEASED} flag.
+         */
+        @SuppressWarnings("unused") // Accessed through STATE
+        private volatile int state;
+
+        /**
+         * Constructs a new {@code Slot}.
+         *
+         * @param store  the store that owns the blocks
+         * @param length the number of stored bytes
+         * @param blocks the indices of the blocks, in order
+         */
+        private Slot(OffHeapStore store, @Nonnegative int length, int[] blocks) {
+            this.store = store;
+            this.length = length;
+            this.blocks = blocks;
+        }
+
+        /**
+         * Returns the number of stored bytes.
+         *
+         * @return the length of the stored array
+         */
+        @Nonnegative
+        public int length() {
+            return length;
+        }
+
+        /**
+         * Returns the number of blocks used by this slot.
+         *
+         * @return the number of blocks
+         */
+        @Nonnegative
+        public int blockCount() {
+            return blocks.length;
+        }
+
+        /**
+         * Copies the stored bytes into a new array.
+         *
+         * @return a new array, or {@code null} if this slot has been released
+         */
+        @Nullable
+        public byte[] read() {
+            int current;
+            do {
+                current = state;
+                if ((current & RELEASED) != 0) {
+                    return null;
+                }
+            }
+            while (!STATE.compareAndSet(this, current, current + 1));
+
+            try {
+                byte[] data = new byte[length];
+                for (int i = 0, offset = 0; i < blocks.length; i++, offset += store.blockSize) {
+                    store.copyFromSlab(blocks[i], data, offset, Math.min(store.blockSize, length - offset));
+                }
+                return data;
+            }
+            finally {
+                if ((int) STATE.getAndAdd(this, -1) == (RELEASED | 1)) {
+                    store.free(blocks);
+                }
+            }
+        }
+
+        /**
+         * Releases this slot: its blocks are freed as soon as there is no more reader. Releasing a slot several times
+         * has no effect.
+         */
+        public void release() {
+            final int previous = (int) STATE.getAndBitwiseOr(this, RELEASED);
+            if (previous == 0) {
+                store.free(blocks);
+            }
+        }
+    }
+}
@@ -0,0 +1,298 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.annotation.Builder;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.LongFunction;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.atlanmod.commons.Guards.checkArgument;
+import static org.atlanmod.commons.Guards.checkGreaterThanOrEqualTo;
+import static org.atlanmod.commons.Guards.checkNotNull;
+import static org.atlanmod.commons.Guards.checkState;
+
+/**
+ * A builder of {@link LongCache} and {@link IntCache} instances, whose keys are not boxed.
+ * <p>
+ * Each entry is stored in primitive arrays rather than in a node, which makes these caches smaller than a {@link
+ * Cache} built by {@link CacheBuilder}; in return, they only support a maximum size, evicted with an approximation of
+ * LRU, and no expiration nor reference-based eviction.
+ */
+@Builder("builder")
+@ParametersAreNonnullByDefault
+public final class PrimitiveCacheBuilder {
+
+    /**
+     * The default number of segments.
+     */
+    private static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+    /**
+     * The expected number of entries, or {@code -1} if not set.
+     */
+    private int initialCapacity = -1;
+
+    /**
+     * The maximum number of entries, or {@code -1} if the caches are not bounded.
+     */
+    private long maximumSize = -1;
+
+    /**
+     * The expected number of threads concurrently updating the caches, or {@code -1} if not set.
+     */
+    private int concurrencyLevel = -1;
+
+    /**
+     * Whether the statistics are recorded.
+     */
+    private boolean recordingStats;
+
+    /**
+     * The period between two reports of the statistics, or {@code null} if the statistics are not reported.
+     */
+    @Nullable
+    private Duration statsReportPeriod;
+
+    /**
+     * The consumer of the reported statistics, or {@code null} if the statistics are not reported.
+     */
+    @Nullable
+    private Consumer<? super CacheStats> statsReporter;
+
+    /**
+     * Constructs a new {@code PrimitiveCacheBuilder}.
+     */
+    private PrimitiveCacheBuilder() {
+    }
+
+    /**
+     * Creates a new {@code PrimitiveCacheBuilder} with default settings, including no automatic eviction of any kind.
+     *
+     * @return a new builder
+     */
+    @Nonnull
+    public static PrimitiveCacheBuilder builder() {
+        return new PrimitiveCacheBuilder();
+    }
+
+    /**
+     * Enables the accumulation of {@link CacheStats} during the operation of the cache.
+     *
+     * @return this builder (for chaining)
+     *
+     * @see CacheBuilder#recordStats()
+     */
+    @Nonnull
+    public PrimitiveCacheBuilder recordStats() {
+        recordingStats = true;
+        return this;
+    }
+
+    /**
+     * Specifies a reporter that periodically receives the statistics of the cache.
+     * <p>
+     * This feature implies {@link #recordStats()}.
+     *
+     * @param period   the period between two reports
+     * @param reporter the consumer of the statistics of each period
+     *
+     * @return this builder (for chaining)
+     *
+     * @throws IllegalArgumentException if {@code period} is not positive
+     * @throws IllegalStateException    if a reporter was already set
+     *
+     * @see CacheBuilder#reportStats(Duration, Consumer)
+     */
+    @Nonnull
+    public PrimitiveCacheBuilder reportStats(Duration period, Consumer<? super CacheStats> reporter) {
+        checkNotNull(period, "period");
+        checkArgument(!period.isNegative() && !period.isZero(), "period (%s) must be positive", period);
+        checkNotNull(reporter, "reporter");
+        checkState(statsReporter == null, "reportStats was already set");
+
+        recordStats();
+        statsReportPeriod = period;
+        statsReporter = reporter;
+        return this;
+    }
+
+    /**
+     * Sets the expected number of entries, to avoid resizing the internal arrays while the cache grows.
+     *
+     * @param initialCapacity the expected number of entries
+     *
+     * @return this builder (for chaining)
+     *
+     * @throws IllegalArgumentException if {@code initialCapacity} is negative
+     * @throws IllegalStateException    if an initial capacity was already set
+     */
+    @Nonnull
+    public PrimitiveCacheBuilder initialCapacity(@Nonnegative int initialCapacity) {
+        checkGreaterThanOrEqualTo(initialCapacity, 0, "initialCapacity (%d) must not be negative", initialCapacity);
+        checkState(this.initialCapacity == -1, "initialCapacity was already set");
+
+        this.initialCapacity = initialCapacity;
+        return this;
+    }
+
+    /**
+     * Specifies the maximum number of entries the cache may contain.
+     * <p>
+     * The entries are distributed over independent segments, each bounded by its share of {@code maximumSize}, so the
+     * cache may evict an entry before this limit is reached. A segment evicts the entries that have not been used since
+     * the previous pass of its CLOCK hand. When {@code maximumSize} is zero, the entries are evicted immediately.
+     *
+     * @param maximumSize the maximum size of the cache
+     *
+     * @return this builder (for chaining)
+     *
+     * @throws IllegalArgumentException if {@code maximumSize} is negative
+     * @throws IllegalStateException    if a maximum size was already set
+     */
+    @Nonnull
+    public PrimitiveCacheBuilder maximumSize(@Nonnegative long maximumSize) {
+        checkGreaterThanOrEqualTo(maximumSize, 0L, "maximumSize (%d) must not be negative", maximumSize);
+        checkState(this.maximumSize == -1, "maximumSize was already set");
+
+        this.maximumSize = maximumSize;
+        return this;
+    }
+
+    /**
+     * Specifies the expected number of threads concurrently updating the cache, which determines the number of
+     * independently locked segments. Lookups never wait for each other, whatever the concurrency level.
+     *
+     * @param concurrencyLevel the expected number of updating threads
+     *
+     * @return this builder (for chaining)
+     *
+     * @throws IllegalArgumentException if {@code concurrencyLevel} is not positive
+     * @throws IllegalStateException    if a concurrency level was already set
+     */
+    @Nonnull
+    public PrimitiveCacheBuilder concurrencyLevel(@Nonnegative int concurrencyLevel) {
+        checkArgument(concurrencyLevel > 0, "concurrencyLevel (%d) must be positive", concurrencyLevel);
+        checkState(this.concurrencyLevel == -1, "concurrencyLevel was already set");
+
+        this.concurrencyLevel = concurrencyLevel;
+        return this;
+    }
+
+    /**
+     * Builds a {@link LongCache} which does not automatically load values when keys are requested.
+     *
+     * @param <V> the value type of the cache
+     *
+     * @return a new cache
+     */
+    @Nonnull
+    public <V> LongCache<V> buildLong() {
+        final StatsRecorder statsRecorder = newStatsRecorder();
+        return monitor(new StripedLongCache<>(newTable(statsRecorder), null), statsRecorder);
+    }
+
+    /**
+     * Builds a {@link LongCache} which loads the missing values with the {@code mappingFunction} when keys are
+     * requested with {@link LongCache#get(long)}.
+     *
+     * @param mappingFunction the function used to obtain new values
+     * @param <V>             the value type of the cache
+     *
+     * @return a new cache
+     */
+    @Nonnull
+    public <V> LongCache<V> buildLong(LongFunction<? extends V> mappingFunction) {
+        checkNotNull(mappingFunction, "mappingFunction");
+
+        final StatsRecorder statsRecorder = newStatsRecorder();
+        return monitor(new StripedLongCache<>(newTable(statsRecorder), mappingFunction), statsRecorder);
+    }
+
+    /**
+     * Builds an {@link IntCache} which does not automatically load values when keys are requested.
+     *
+     * @param <V> the value type of the cache
+     *
+     * @return a new cache
+     */
+    @Nonnull
+    public <V> IntCache<V> buildInt() {
+        final StatsRecorder statsRecorder = newStatsRecorder();
+        return monitor(new StripedIntCache<>(newTable(statsRecorder), null), statsRecorder);
+    }
+
+    /**
+     * Builds an {@link IntCache} which loads the missing values with the {@code mappingFunction} when keys are
+     * requested with {@link IntCache#get(int)}.
+     *
+     * @param mappingFunction the function used to obtain new values
+     * @param <V>             the value type of the cache
+     *
+     * @return a new cache
+     */
+    @Nonnull
+    public <V> IntCache<V> buildInt(IntFunction<? extends V> mappingFunction) {
+        checkNotNull(mappingFunction, "mappingFunction");
+
+        final StatsRecorder statsRecorder = newStatsRecorder();
+        return monitor(new StripedIntCache<>(newTable(statsRecorder), mappingFunction), statsRecorder);
+    }
+
+    /**
+     * Creates the recorder of the statistics of a new cache.
+     *
+     * @return a new recorder, or the disabled recorder if the statistics are not recorded
+     */
+    @Nonnull
+    private StatsRecorder newStatsRecorder() {
+        return recordingStats ? new StatsRecorder(false) : StatsRecorder.disabled();
+    }
+
+    /**
+     * Creates the table of a new cache.
+     *
+     * @param statsRecorder the recorder of the statistics of the cache
+     * @param <V>           the value type of the cache
+     *
+     * @return a new table
+     */
+    @Nonnull
+    private <V> StripedLongTable<V> newTable(StatsRecorder statsRecorder) {
+        return new StripedLongTable<>(
+                Math.max(initialCapacity, 0),
+                maximumSize,
+                concurrencyLevel == -1 ? DEFAULT_CONCURRENCY_LEVEL : concurrencyLevel,
+                statsRecorder);
+    }
+
+    /**
+     * Schedules the periodic reports of the statistics of the {@code cache}, if requested.
+     *
+     * @param cache         the new cache
+     * @param statsRecorder the recorder of the statistics of the cache
+     * @param <C>           the type of the cache
+     *
+     * @return the {@code cache}
+     */
+    @Nonnull
+    private <C> C monitor(C cache, StatsRecorder statsRecorder) {
+        if (statsReporter != null && statsReportPeriod != null) {
+            StatsReporter.schedule(cache, statsRecorder, statsReportPeriod, statsReporter);
+        }
+        return cache;
+    }
+}
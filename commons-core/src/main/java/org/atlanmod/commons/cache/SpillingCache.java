@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.atlanmod.commons.Guards.checkNotNull;
+
+/**
+ * A Caffeine {@link Cache} implementation whose evicted values are spilled to a {@link DiskStore}.
+ * <p>
+ * A key is stored in at most one level: a value read from the disk is removed from it, and promoted to the first level.
+ * Writes remove the spilled value of their key while updating the first level, in the same atomic operation, so
+ * that a value evicted concurrently cannot be read after being replaced.
+ *
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of mapped values
+ * @see CacheBuilder#spillToDisk(java.nio.file.Path, long, org.atlanmod.commons.io.serializer.BinarySerializer)
+ */
+@ParametersAreNonnullByDefault
+class SpillingCache<K, V> extends CaffeineManualCache<com.github.benmanes.caffeine.cache.Cache<K, V>, K, V> {
+
+    /**
+     * The second level of this cache.
+     */
+    @Nonnull
+    protected final DiskStore<K, V> disk;
+
+    /**
+     * The map view of this cache.
+     */
+    @Nonnull
+    private final ConcurrentMap<K, V> mapView;
+
+    /**
+     * Constructs a new {@code SpillingCache}.
+     *
+     * @param cache         the first level of this cache
+     * @param statsRecorder the recorder of the statistics of the first level
+     * @param disk          the second level of this cache
+     */
+    protected SpillingCache(com.github.benmanes.caffeine.cache.Cache<K, V> cache, StatsRecorder statsRecorder, DiskStore<K, V> disk) {
+        super(cache, statsRecorder);
+        this.disk = disk;
+        this.mapView = new MapView(cache.asMap());
+    }
+
+    @Nullable
+    @Override
+    public V get(K key) {
+        checkNotNull(key, "key");
+
+        return promote(key);
+    }
+
+    @Override
+    public V get(K key, Function<? super K, ? extends V> mappingFunction) {
+        checkNotNull(key, "key");
+        checkNotNull(mappingFunction, "mappingFunction");
+
+        return cache.get(key, k -> {
+            final V value = disk.take(k);
+            return value != null ? value : mappingFunction.apply(k);
+        });
+    }
+
+    @Nonnull
+    @Override
+    public Map<K, V> getAll(Iterable<? extends K> keys) {
+        checkNotNull(keys, "keys");
+
+        return cache.getAll(keys, this::takeAll);
+    }
+
+    @Override
+    public void put(K key, V value) {
+        checkNotNull(key, "key");
+        checkNotNull(value, "value");
+
+        mapView.put(key, value);
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> map) {
+        checkNotNull(map, "map");
+
+        map.forEach(this::put);
+    }
+
+    @Override
+    public void invalidate(K key) {
+        checkNotNull(key, "key");
+
+        mapView.remove(key);
+    }
+
+    @Override
+    public void invalidateAll(Iterable<? extends K> keys) {
+        checkNotNull(keys, "keys");
+
+        keys.forEach(this::invalidate);
+    }
+
+    @Override
+    public void invalidateAll() {
+        super.invalidateAll();
+        disk.clear();
+    }
+
+    @Override
+    public boolean contains(K key) {
+        checkNotNull(key, "key");
+
+        return cache.asMap().containsKey(key) || disk.contains(key);
+    }
+
+    @Override
+    public long size() {
+        return super.size() + disk.size();
+    }
+
+    @Override
+    public void cleanUp() {
+        super.cleanUp();
+        disk.compact();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The returned map only contains the values of the first level; writes also remove the spilled values, and
+     * conditional operations promote the spilled value of their key before being performed.
+     */
+    @Nonnull
+    @Override
+    public ConcurrentMap<K, V> asMap() {
+        return mapView;
+    }
+
+    /**
+     * Returns the value of the given {@code key} from the first level, or promotes its spilled value to the first
+     * level.
+     *
+     * @param key the key of the value
+     *
+     * @return the value, or {@code null} if this cache contains no mapping for the key
+     */
+    @Nullable
+    protected V promote(K key) {
+        return cache.get(key, disk::take);
+    }
+
+    /**
+     * Removes and returns the spilled values of the given {@code keys}.
+     *
+     * @param keys the keys of the values
+     *
+     * @return a map of the spilled values
+     */
+    @Nonnull
+    protected Map<K, V> takeAll(Set<? extends K> keys) {
+        Map<K, V> result = new HashMap<>(keys.size());
+        for (K key : keys) {
+            final V value = disk.take(key);
+            if (value != null) {
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * A {@link ConcurrentMap} view of the first level of this cache, that keeps the second level consistent.
+     */
+    @ParametersAreNonnullByDefault
+    private final class MapView extends AbstractMap<K, V> implements ConcurrentMap<K, V> {
+
+        /**
+         * The map view of the first level.
+         */
+        @Nonnull
+        private final ConcurrentMap<K, V> delegate;
+
+        /**
+         * Constructs a new {@code MapView}.
+         *
+         * @param delegate the map view of the first level
+         */
+        MapView(ConcurrentMap<K, V> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int size() {
+            return delegate.size();
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return delegate.containsKey(key);
+        }
+
+        @Override
+        public V get(Object key) {
+            return delegate.get(key);
+        }
+
+        @Override
+        public V put(K key, V value) {
+            checkNotNull(value, "value");
+
+            return write(key, value);
+        }
+
+        @Override
+        public V remove(Object key) {
+            @SuppressWarnings("unchecked") final K k = (K) checkNotNull(key, "key");
+
+            return write(k, null);
+        }
+
+        @Override
+        public V putIfAbsent(K key, V value) {
+            promote(key);
+            return delegate.putIfAbsent(key, value);
+        }
+
+        @Override
+        public boolean remove(Object key, Object value) {
+            @SuppressWarnings("unchecked") final K k = (K) key;
+            promote(k);
+            return delegate.remove(key, value);
+        }
+
+        @Override
+        public boolean replace(K key, V oldValue, V newValue) {
+            promote(key);
+            return delegate.replace(key, oldValue, newValue);
+        }
+
+        @Override
+        public V replace(K key, V value) {
+            promote(key);
+            return delegate.replace(key, value);
+        }
+
+        @Override
+        public void clear() {
+            invalidateAll();
+        }
+
+        @Nonnull
+        @Override
+        public Set<Entry<K, V>> entrySet() {
+            return delegate.entrySet();
+        }
+
+        /**
+         * Replaces the value of the given {@code key} in the first level, and removes its spilled value. Both levels
+         * are updated while the entry of the key is locked, so the previous value cannot be spilled concurrently.
+         *
+         * @param key   the key of the value
+         * @param value the new value, or {@code null} to remove the key
+         *
+         * @return the previous value in the first level, or {@code null} if there was none
+         */
+        @Nullable
+        private V write(K key, @Nullable V value) {
+            final Object[] previous = new Object[1];
+            delegate.compute(key, (k, old) -> {
+                previous[0] = old;
+                disk.remove(k);
+                return value;
+            });
+
+            @SuppressWarnings("unchecked") final V result = (V) previous[0];
+            return result;
+        }
+    }
+}
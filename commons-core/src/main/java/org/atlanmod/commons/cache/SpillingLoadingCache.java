@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.atlanmod.commons.Guards.checkNotNull;
+
+/**
+ * A {@link SpillingCache} which either returns an already-loaded value for a given key or atomically retrieves it from
+ * the disk, or computes it.
+ *
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of mapped values
+ */
+@ParametersAreNonnullByDefault
+class SpillingLoadingCache<K, V> extends SpillingCache<K, V> {
+
+    /**
+     * The function used to obtain new values.
+     */
+    @Nonnull
+    private final Function<? super K, ? extends V> mappingFunction;
+
+    /**
+     * The function used to obtain new values in batch, or {@code null} if the values are loaded one by one.
+     */
+    @Nullable
+    private final Function<? super Set<? extends K>, ? extends Map<? extends K, ? extends V>> bulkMappingFunction;
+
+    /**
+     * The executor of the refreshes.
+     */
+    @Nonnull
+    private final Executor executor;
+
+    /**
+     * Constructs a new {@code SpillingLoadingCache}.
+     *
+     * @param cache               the first level of this cache
+     * @param statsRecorder       the recorder of the statistics of the first level
+     * @param disk                the second level of this cache
+     * @param mappingFunction     the function used to obtain new values
+     * @param bulkMappingFunction the function used to obtain new values in batch, or {@code null} to load them one by
+     *                            one
+     * @param executor            the executor of the refreshes
+     */
+    protected SpillingLoadingCache(com.github.benmanes.caffeine.cache.Cache<K, V> cache, StatsRecorder statsRecorder, DiskStore<K, V> disk, Function<? super K, ? extends V> mappingFunction, @Nullable Function<? super Set<? extends K>, ? extends Map<? extends K, ? extends V>> bulkMappingFunction, Executor executor) {
+        super(cache, statsRecorder, disk);
+        this.mappingFunction = mappingFunction;
+        this.bulkMappingFunction = bulkMappingFunction;
+        this.executor = executor;
+    }
+
+    @Nullable
+    @Override
+    public V get(K key) {
+        return get(key, mappingFunction);
+    }
+
+    @Override
+    public void refresh(K key) {
+        checkNotNull(key, "key");
+
+        CompletableFuture.runAsync(() -> {
+            final V value = mappingFunction.apply(key);
+            if (value != null) {
+                put(key, value);
+            }
+        }, executor);
+    }
+
+    @Nonnull
+    @Override
+    protected Map<K, V> takeAll(Set<? extends K> keys) {
+        Map<K, V> result = super.takeAll(keys);
+
+        Set<K> missing = new LinkedHashSet<>();
+        for (K key : keys) {
+            if (!result.containsKey(key)) {
+                missing.add(key);
+            }
+        }
+
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        if (bulkMappingFunction != null) {
+            // Entries of keys that were not requested are cached too
+            result.putAll(bulkMappingFunction.apply(Collections.unmodifiableSet(missing)));
+        }
+        else {
+            for (K key : missing) {
+                final V value = mappingFunction.apply(key);
+                if (value != null) {
+                    result.put(key, value);
+                }
+            }
+        }
+        return result;
+    }
+}
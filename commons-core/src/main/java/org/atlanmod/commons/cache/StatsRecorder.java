@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.StatsCounter;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A Caffeine {@link StatsCounter} that accumulates the {@link CacheStats} of a single cache, including the histogram
+ * of the load times and the evictions of each cause.
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+class StatsRecorder implements StatsCounter {
+
+    /**
+     * The recorder of the caches that do not record their statistics.
+     */
+    @Nonnull
+    private static final StatsRecorder DISABLED = new StatsRecorder(false) {
+        @Nonnull
+        @Override
+        CacheStats stats() {
+            return CacheStats.empty();
+        }
+    };
+
+    /**
+     * Whether the size evictions are caused by a maximum weight.
+     */
+    private final boolean weighted;
+
+    /**
+     * The number of cache hits.
+     */
+    @Nonnull
+    private final LongAdder hitCount = new LongAdder();
+
+    /**
+     * The number of cache misses.
+     */
+    @Nonnull
+    private final LongAdder missCount = new LongAdder();
+
+    /**
+     * The number of successful cache loads.
+     */
+    @Nonnull
+    private final LongAdder loadSuccessCount = new LongAdder();
+
+    /**
+     * The number of failed cache loads.
+     */
+    @Nonnull
+    private final LongAdder loadFailureCount = new LongAdder();
+
+    /**
+     * The total load time (success and failure) in nanoseconds.
+     */
+    @Nonnull
+    private final LongAdder totalLoadTime = new LongAdder();
+
+    /**
+     * The total weight of the evicted entries.
+     */
+    @Nonnull
+    private final LongAdder evictionWeight = new LongAdder();
+
+    /**
+     * The number of evicted entries, indexed by the ordinal of their {@link EvictionCause}.
+     */
+    @Nonnull
+    private final AtomicLongArray evictionCounts = new AtomicLongArray(EvictionCause.values().length);
+
+    /**
+     * The number of load times in each bucket of the {@link LatencyHistogram}.
+     */
+    @Nonnull
+    private final AtomicLongArray loadLatencies = new AtomicLongArray(LatencyHistogram.BUCKETS);
+
+    /**
+     * Constructs a new {@code StatsRecorder}.
+     *
+     * @param weighted whether the size evictions are caused by a maximum weight
+     */
+    StatsRecorder(boolean weighted) {
+        this.weighted = weighted;
+    }
+
+    /**
+     * Returns the recorder of the caches that do not record their statistics. Its statistics are always empty.
+     *
+     * @return the disabled recorder
+     */
+    @Nonnull
+    static StatsRecorder disabled() {
+        return DISABLED;
+    }
+
+    @Override
+    public void recordHits(@Nonnegative int count) {
+        hitCount.add(count);
+    }
+
+    @Override
+    public void recordMisses(@Nonnegative int count) {
+        missCount.add(count);
+    }
+
+    @Override
+    public void recordLoadSuccess(@Nonnegative long loadTime) {
+        loadSuccessCount.increment();
+        recordLoadTime(loadTime);
+    }
+
+    @Override
+    public void recordLoadFailure(@Nonnegative long loadTime) {
+        loadFailureCount.increment();
+        recordLoadTime(loadTime);
+    }
+
+    @Override
+    public void recordEviction(@Nonnegative int weight, RemovalCause cause) {
+        final EvictionCause evictionCause;
+        switch (cause) {
+            case SIZE:
+                evictionCause = weighted ? EvictionCause.WEIGHT : EvictionCause.SIZE;
+                break;
+            case EXPIRED:
+                evictionCause = EvictionCause.EXPIRED;
+                break;
+            case COLLECTED:
+                evictionCause = EvictionCause.COLLECTED;
+                break;
+            default:
+                // Not an eviction
+                return;
+        }
+
+        evictionCounts.incrementAndGet(evictionCause.ordinal());
+        evictionWeight.add(weight);
+    }
+
+    /**
+     * Records the duration of a load, successful or not.
+     *
+     * @param loadTime the duration of the load, in nanoseconds
+     */
+    private void recordLoadTime(long loadTime) {
+        totalLoadTime.add(loadTime);
+        loadLatencies.incrementAndGet(LatencyHistogram.bucketOf(loadTime));
+    }
+
+    /**
+     * Returns a snapshot of the statistics recorded so far. The counters are read one by one, so the snapshot may
+     * slightly mix the states before and after the concurrent operations.
+     *
+     * @return the statistics
+     */
+    @Nonnull
+    CacheStats stats() {
+        final long[] evictions = new long[evictionCounts.length()];
+        for (int i = 0; i < evictions.length; i++) {
+            evictions[i] = evictionCounts.get(i);
+        }
+
+        final long[] latencies = new long[loadLatencies.length()];
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = loadLatencies.get(i);
+        }
+
+        return new CacheStats(
+                hitCount.sum(),
+                missCount.sum(),
+                loadSuccessCount.sum(),
+                loadFailureCount.sum(),
+                totalLoadTime.sum(),
+                evictions,
+                evictionWeight.sum(),
+                new LatencyHistogram(latencies));
+    }
+
+    @Nonnull
+    @Override
+    public com.github.benmanes.caffeine.cache.stats.CacheStats snapshot() {
+        final CacheStats stats = stats();
+
+        return com.github.benmanes.caffeine.cache.stats.CacheStats.of(
+                stats.hitCount(),
+                stats.missCount(),
+                stats.loadSuccessCount(),
+                stats.loadFailureCount(),
+                stats.totalLoadTime().toNanos(),
+                stats.evictionCount(),
+                stats.evictionWeight());
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.concurrent.MoreThreads;
+import org.atlanmod.commons.log.Log;
+
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * A periodic task that reports the statistics of a cache, until the cache is garbage-collected.
+ *
+ * @see CacheBuilder#reportStats(Duration, Consumer)
+ */
+@ParametersAreNonnullByDefault
+final class StatsReporter implements Runnable {
+
+    /**
+     * The scheduler shared by all reporters.
+     */
+    @Nonnull
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(MoreThreads.newThreadFactory("cache-stats-reporter"));
+
+    /**
+     * The reported cache; the reporter must not prevent its collection.
+     */
+    @Nonnull
+    private final WeakReference<Object> cache;
+
+    /**
+     * The recorder of the statistics of the cache.
+     */
+    @Nonnull
+    private final StatsRecorder statsRecorder;
+
+    /**
+     * The consumer of the statistics of each period.
+     */
+    @Nonnull
+    private final Consumer<? super CacheStats> reporter;
+
+    /**
+     * The statistics at the time of the previous report.
+     */
+    @Nonnull
+    private CacheStats previous = CacheStats.empty();
+
+    /**
+     * The scheduled execution of this task, or {@code null} if not scheduled yet.
+     */
+    @Nullable
+    private volatile ScheduledFuture<?> future;
+
+    /**
+     * Constructs a new {@code StatsReporter}.
+     *
+     * @param cache         the reported cache
+     * @param statsRecorder the recorder of the statistics of the cache
+     * @param reporter      the consumer of the statistics of each period
+     */
+    private StatsReporter(Object cache, StatsRecorder statsRecorder, Consumer<? super CacheStats> reporter) {
+        this.cache = new WeakReference<>(cache);
+        this.statsRecorder = statsRecorder;
+        this.reporter = reporter;
+    }
+
+    /**
+     * Schedules the periodic reports of the statistics of the {@code cache}.
+     *
+     * @param cache         the reported cache
+     * @param statsRecorder the recorder of the statistics of the cache
+     * @param period        the period between two reports
+     * @param reporter      the consumer of the statistics of each period
+     */
+    static void schedule(Object cache, StatsRecorder statsRecorder, Duration period, Consumer<? super CacheStats> reporter) {
+        final StatsReporter task = new StatsReporter(cache, statsRecorder, reporter);
+        final long nanos = period.toNanos();
+        task.future = SCHEDULER.scheduleAtFixedRate(task, nanos, nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void run() {
+        if (cache.get() == null) {
+            final ScheduledFuture<?> f = future;
+            if (f != null) {
+                f.cancel(false);
+            }
+            return;
+        }
+
+        final CacheStats current = statsRecorder.stats();
+        try {
+            reporter.accept(current.minus(previous));
+        }
+        catch (RuntimeException e) {
+            // An exception would cancel the next reports
+            Log.warn(e, "Unable to report the statistics of a cache");
+        }
+        previous = current;
+    }
+}
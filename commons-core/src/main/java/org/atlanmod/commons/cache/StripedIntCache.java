@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import java.util.function.IntFunction;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.atlanmod.commons.Guards.checkNotNull;
+
+/**
+ * An {@link IntCache} backed by a {@link StripedLongTable}, whose keys are widened to {@code long}.
+ *
+ * @param <V> the type of mapped values
+ */
+@ParametersAreNonnullByDefault
+final class StripedIntCache<V> implements IntCache<V> {
+
+    /**
+     * The table that stores the entries.
+     */
+    @Nonnull
+    private final StripedLongTable<V> table;
+
+    /**
+     * The function used to load the missing values, or {@code null} if the values are not loaded.
+     */
+    @Nullable
+    private final IntFunction<? extends V> loader;
+
+    /**
+     * Constructs a new {@code StripedIntCache}.
+     *
+     * @param table  the table that stores the entries
+     * @param loader the function used to load the missing values, or {@code null} if the values are not loaded
+     */
+    StripedIntCache(StripedLongTable<V> table, @Nullable IntFunction<? extends V> loader) {
+        this.table = table;
+        this.loader = loader;
+    }
+
+    @Override
+    public V get(int key) {
+        return loader != null
+                ? table.get(key, loader, (f, k) -> f.apply((int) k))
+                : table.getIfPresent(key);
+    }
+
+    @Override
+    public V get(int key, IntFunction<? extends V> mappingFunction) {
+        checkNotNull(mappingFunction, "mappingFunction");
+
+        return table.get(key, mappingFunction, (f, k) -> f.apply((int) k));
+    }
+
+    @Override
+    public void put(int key, V value) {
+        checkNotNull(value, "value");
+
+        table.put(key, value, false);
+    }
+
+    @Override
+    public void putIfAbsent(int key, V value) {
+        checkNotNull(value, "value");
+
+        table.put(key, value, true);
+    }
+
+    @Override
+    public void invalidate(int key) {
+        table.remove(key);
+    }
+
+    @Override
+    public void invalidateAll() {
+        table.clear();
+    }
+
+    @Override
+    public boolean contains(int key) {
+        return table.contains(key);
+    }
+
+    @Nonnegative
+    @Override
+    public long size() {
+        return table.size();
+    }
+
+    @Override
+    public void cleanUp() {
+        // Evictions are performed on insertion
+    }
+
+    @Nonnull
+    @Override
+    public CacheStats stats() {
+        return table.stats();
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import java.util.function.LongFunction;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.atlanmod.commons.Guards.checkNotNull;
+
+/**
+ * A {@link LongCache} backed by a {@link StripedLongTable}.
+ *
+ * @param <V> the type of mapped values
+ */
+@ParametersAreNonnullByDefault
+final class StripedLongCache<V> implements LongCache<V> {
+
+    /**
+     * The table that stores the entries.
+     */
+    @Nonnull
+    private final StripedLongTable<V> table;
+
+    /**
+     * The function used to load the missing values, or {@code null} if the values are not loaded.
+     */
+    @Nullable
+    private final LongFunction<? extends V> loader;
+
+    /**
+     * Constructs a new {@code StripedLongCache}.
+     *
+     * @param table  the table that stores the entries
+     * @param loader the function used to load the missing values, or {@code null} if the values are not loaded
+     */
+    StripedLongCache(StripedLongTable<V> table, @Nullable LongFunction<? extends V> loader) {
+        this.table = table;
+        this.loader = loader;
+    }
+
+    @Override
+    public V get(long key) {
+        return loader != null
+                ? table.get(key, loader, LongFunction::apply)
+                : table.getIfPresent(key);
+    }
+
+    @Override
+    public V get(long key, LongFunction<? extends V> mappingFunction) {
+        checkNotNull(mappingFunction, "mappingFunction");
+
+        return table.get(key, mappingFunction, LongFunction::apply);
+    }
+
+    @Override
+    public void put(long key, V value) {
+        checkNotNull(value, "value");
+
+        table.put(key, value, false);
+    }
+
+    @Override
+    public void putIfAbsent(long key, V value) {
+        checkNotNull(value, "value");
+
+        table.put(key, value, true);
+    }
+
+    @Override
+    public void invalidate(long key) {
+        table.remove(key);
+    }
+
+    @Override
+    public void invalidateAll() {
+        table.clear();
+    }
+
+    @Override
+    public boolean contains(long key) {
+        return table.contains(key);
+    }
+
+    @Nonnegative
+    @Override
+    public long size() {
+        return table.size();
+    }
+
+    @Override
+    public void cleanUp() {
+        // Evictions are performed on insertion
+    }
+
+    @Nonnull
+    @Override
+    public CacheStats stats() {
+        return table.stats();
+    }
+}
@@ -0,0 +1,645 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A concurrent hash table from {@code long} keys to values, used by the primitive-keyed caches.
+ * <p>
+ * The table is split into segments, each guarded by its own {@link StampedLock}. A segment stores its entries in
+ * parallel arrays with open addressing and linear probing, so an entry costs a key, a reference and a byte, without
+ * any node nor boxed key. Lookups are optimistic reads that do not allocate, and only take the read lock when they
+ * race with a write.
+ * <p>
+ * When a segment is full, an entry is evicted with the CLOCK algorithm: each hit sets the reference bit of the entry,
+ * and the eviction hand clears the bits until it reaches an entry that has not been used since its last pass.
+ *
+ * @param <V> the type of mapped values
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+final class StripedLongTable<V> {
+
+    /**
+     * The minimum number of entries of a segment of a bounded table, below which the table uses fewer segments.
+     */
+    private static final int MINIMUM_SEGMENT_SIZE = 16;
+
+    /**
+     * The minimum number of slots of a segment.
+     */
+    private static final int MINIMUM_CAPACITY = 8;
+
+    /**
+     * The maximum number of slots of a segment.
+     */
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /**
+     * The maximum number of entries of a segment, with a load factor of 3/4.
+     */
+    private static final int MAXIMUM_SEGMENT_SIZE = MAXIMUM_CAPACITY / 4 * 3;
+
+    /**
+     * The segments of this table.
+     */
+    @Nonnull
+    private final Segment<V>[] segments;
+
+    /**
+     * The recorder of the statistics of this table.
+     */
+    @Nonnull
+    private final StatsRecorder statsRecorder;
+
+    /**
+     * Whether the statistics are recorded.
+     */
+    private final boolean recordingStats;
+
+    /**
+     * Constructs a new {@code StripedLongTable}.
+     *
+     * @param initialCapacity  the expected number of entries
+     * @param maximumSize      the maximum number of entries, or {@code -1} if the table is not bounded
+     * @param concurrencyLevel the expected number of threads concurrently updating the table
+     * @param statsRecorder    the recorder of the statistics of this table
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    StripedLongTable(@Nonnegative int initialCapacity, long maximumSize, @Nonnegative int concurrencyLevel, StatsRecorder statsRecorder) {
+        this.statsRecorder = statsRecorder;
+        this.recordingStats = statsRecorder != StatsRecorder.disabled();
+
+        int count = 1;
+        while (count < concurrencyLevel) {
+            count <<= 1;
+        }
+        while (count > 1 && maximumSize >= 0 && maximumSize / count < MINIMUM_SEGMENT_SIZE) {
+            count >>= 1;
+        }
+
+        segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            final int maximum = maximumSize >= 0
+                    ? (int) Math.min(maximumSize / count + (i < maximumSize % count ? 1 : 0), MAXIMUM_SEGMENT_SIZE)
+                    : MAXIMUM_SEGMENT_SIZE;
+
+            final int expected = Math.min(initialCapacity / count + 1, maximum);
+            segments[i] = new Segment<>(capacityFor(expected), maximum, recordingStats ? statsRecorder : null);
+        }
+    }
+
+    /**
+     * Returns the number of slots needed to store the {@code size} entries with a load factor of 3/4.
+     *
+     * @param size the number of entries
+     *
+     * @return a power of two
+     */
+    private static int capacityFor(@Nonnegative int size) {
+        int capacity = MINIMUM_CAPACITY;
+        while (capacity < MAXIMUM_CAPACITY && capacity / 4 * 3 < size) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * Spreads the bits of the {@code key}, so that close keys are distributed over the segments and the slots.
+     *
+     * @param key the key
+     *
+     * @return the hash of the key
+     */
+    private static long spread(long key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Returns the segment that stores the key of the {@code hash}.
+     *
+     * @param hash the hash of the key
+     *
+     * @return the segment
+     */
+    @Nonnull
+    private Segment<V> segmentFor(long hash) {
+        return segments[(int) (hash >>> 32) & (segments.length - 1)];
+    }
+
+    /**
+     * Returns the value associated with the {@code key}, and records a hit or a miss.
+     *
+     * @param key the key
+     *
+     * @return the value, or {@code null} if the key is not present
+     */
+    @Nullable
+    V getIfPresent(long key) {
+        final long hash = spread(key);
+        final V value = segmentFor(hash).get(key, hash, true);
+
+        if (recordingStats) {
+            if (value != null) {
+                statsRecorder.recordHits(1);
+            }
+            else {
+                statsRecorder.recordMisses(1);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Returns the value associated with the {@code key}, loading it with the {@code function} if necessary.
+     * <p>
+     * The {@code function} is applied through the {@code mapper}, rather than adapted to a {@code long} function, so
+     * that a lookup does not allocate any adapter.
+     *
+     * @param key      the key
+     * @param function the function that computes the value
+     * @param mapper   the way to apply the {@code function} to a key
+     * @param <F>      the type of the function
+     *
+     * @return the existing or computed value, or {@code null} if the computed value is {@code null}
+     */
+    @Nullable
+    <F> V get(long key, F function, Mapper<F, ? extends V> mapper) {
+        final long hash = spread(key);
+        final Segment<V> segment = segmentFor(hash);
+
+        final V value = segment.get(key, hash, true);
+        if (value != null) {
+            if (recordingStats) {
+                statsRecorder.recordHits(1);
+            }
+            return value;
+        }
+
+        if (!recordingStats) {
+            final V loaded = mapper.apply(function, key);
+            return loaded != null ? segment.put(key, hash, loaded, true) : null;
+        }
+
+        statsRecorder.recordMisses(1);
+        final long start = System.nanoTime();
+        final V loaded;
+        try {
+            loaded = mapper.apply(function, key);
+        }
+        catch (RuntimeException | Error e) {
+            statsRecorder.recordLoadFailure(System.nanoTime() - start);
+            throw e;
+        }
+
+        if (loaded == null) {
+            statsRecorder.recordLoadFailure(System.nanoTime() - start);
+            return null;
+        }
+        statsRecorder.recordLoadSuccess(System.nanoTime() - start);
+        return segment.put(key, hash, loaded, true);
+    }
+
+    /**
+     * Associates the {@code value} with the {@code key}.
+     *
+     * @param key          the key
+     * @param value        the value
+     * @param onlyIfAbsent {@code true} if an existing value must be kept
+     */
+    void put(long key, V value, boolean onlyIfAbsent) {
+        final long hash = spread(key);
+        segmentFor(hash).put(key, hash, value, onlyIfAbsent);
+    }
+
+    /**
+     * Removes the value associated with the {@code key}, if any.
+     *
+     * @param key the key
+     */
+    void remove(long key) {
+        final long hash = spread(key);
+        segmentFor(hash).remove(key, hash);
+    }
+
+    /**
+     * Removes all entries.
+     */
+    void clear() {
+        for (Segment<V> segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Returns whether the {@code key} is present, without recording a hit or a miss.
+     *
+     * @param key the key
+     *
+     * @return {@code true} if the key is present
+     */
+    boolean contains(long key) {
+        final long hash = spread(key);
+        return segmentFor(hash).get(key, hash, false) != null;
+    }
+
+    /**
+     * Returns the approximate number of entries.
+     *
+     * @return the number of entries
+     */
+    @Nonnegative
+    long size() {
+        long size = 0;
+        for (Segment<V> segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    /**
+     * Returns the statistics of this table.
+     *
+     * @return the statistics
+     */
+    @Nonnull
+    CacheStats stats() {
+        return statsRecorder.stats();
+    }
+
+    /**
+     * A function that applies a function of another type to a {@code long} key.
+     *
+     * @param <F> the type of the applied function
+     * @param <V> the type of the computed value
+     */
+    @FunctionalInterface
+    interface Mapper<F, V> {
+
+        /**
+         * Applies the {@code function} to the {@code key}.
+         *
+         * @param function the function
+         * @param key      the key
+         *
+         * @return the computed value, or {@code null}
+         */
+        @Nullable
+        V apply(F function, long key);
+    }
+
+    /**
+     * A segment of the table, with its own lock and its own CLOCK.
+     *
+     * @param <V> the type of mapped values
+     */
+    @ParametersAreNonnullByDefault
+    private static final class Segment<V> {
+
+        /**
+         * The lock that guards the arrays of this segment.
+         */
+        @Nonnull
+        private final StampedLock lock = new StampedLock();
+
+        /**
+         * The maximum number of entries of this segment.
+         */
+        @Nonnegative
+        private final int maximum;
+
+        /**
+         * The recorder of the evictions, or {@code null} if the statistics are not recorded.
+         */
+        @Nullable
+        private final StatsRecorder statsRecorder;
+
+        /**
+         * The key of each slot.
+         */
+        @Nonnull
+        private long[] keys;
+
+        /**
+         * The value of each slot, or {@code null} if the slot is free.
+         */
+        @Nonnull
+        private Object[] values;
+
+        /**
+         * The reference bit of each slot, set when the entry is used.
+         */
+        @Nonnull
+        private byte[] marks;
+
+        /**
+         * The number of entries.
+         */
+        private int size;
+
+        /**
+         * The position of the eviction hand.
+         */
+        private int hand;
+
+        /**
+         * Constructs a new {@code Segment}.
+         *
+         * @param capacity      the initial number of slots, as a power of two
+         * @param maximum       the maximum number of entries
+         * @param statsRecorder the recorder of the evictions, or {@code null} if the statistics are not recorded
+         */
+        Segment(@Nonnegative int capacity, @Nonnegative int maximum, @Nullable StatsRecorder statsRecorder) {
+            this.maximum = maximum;
+            this.statsRecorder = statsRecorder;
+            this.keys = new long[capacity];
+            this.values = new Object[capacity];
+            this.marks = new byte[capacity];
+        }
+
+        /**
+         * Returns the slot of the {@code key}.
+         *
+         * @param keys   the keys of the slots
+         * @param values the values of the slots
+         * @param key    the key
+         * @param hash   the hash of the key
+         *
+         * @return the slot, or {@code -1} if the key is not present
+         */
+        private static int indexOf(long[] keys, Object[] values, long key, long hash) {
+            final int mask = keys.length - 1;
+
+            // The bound only matters for the optimistic reads, which may see a table being modified
+            for (int i = (int) hash & mask, n = 0; n <= mask; i = (i + 1) & mask, n++) {
+                if (values[i] == null) {
+                    return -1;
+                }
+                if (keys[i] == key) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Returns the value associated with the {@code key}.
+         *
+         * @param key   the key
+         * @param hash  the hash of the key
+         * @param touch {@code true} if the entry must be marked as used
+         *
+         * @return the value, or {@code null} if the key is not present
+         */
+        @Nullable
+        @SuppressWarnings("unchecked")
+        V get(long key, long hash, boolean touch) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0L) {
+                final long[] k = keys;
+                final Object[] v = values;
+                final byte[] m = marks;
+
+                // The arrays may belong to different generations if a resize is in progress
+                if (k.length == v.length && k.length == m.length) {
+                    final int i = indexOf(k, v, key, hash);
+                    final Object value = i >= 0 ? v[i] : null;
+
+                    if (lock.validate(stamp)) {
+                        // A lost update of the reference bit only affects the choice of the next victim
+                        if (touch && value != null && m[i] == 0) {
+                            m[i] = 1;
+                        }
+                        return (V) value;
+                    }
+                }
+            }
+
+            stamp = lock.readLock();
+            try {
+                final int i = indexOf(keys, values, key, hash);
+                if (i < 0) {
+                    return null;
+                }
+                if (touch && marks[i] == 0) {
+                    marks[i] = 1;
+                }
+                return (V) values[i];
+            }
+            finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        /**
+         * Associates the {@code value} with the {@code key}, evicting an entry if the segment is full.
+         *
+         * @param key          the key
+         * @param hash         the hash of the key
+         * @param value        the value
+         * @param onlyIfAbsent {@code true} if an existing value must be kept
+         *
+         * @return the current value associated with the {@code key}
+         */
+        @Nonnull
+        @SuppressWarnings("unchecked")
+        V put(long key, long hash, V value, boolean onlyIfAbsent) {
+            final long stamp = lock.writeLock();
+            try {
+                final int i = indexOf(keys, values, key, hash);
+                if (i >= 0) {
+                    marks[i] = 1;
+                    if (onlyIfAbsent) {
+                        return (V) values[i];
+                    }
+                    values[i] = value;
+                    return value;
+                }
+
+                if (maximum == 0) {
+                    // The entry is evicted immediately
+                    recordEviction();
+                    return value;
+                }
+
+                while (size >= maximum) {
+                    evict();
+                }
+                if (size >= keys.length / 4 * 3 && keys.length < MAXIMUM_CAPACITY) {
+                    resize(keys.length << 1);
+                }
+
+                final int mask = keys.length - 1;
+                int j = (int) hash & mask;
+                while (values[j] != null) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = key;
+                values[j] = value;
+                size++;
+                return value;
+            }
+            finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * Removes the value associated with the {@code key}, if any.
+         *
+         * @param key  the key
+         * @param hash the hash of the key
+         */
+        void remove(long key, long hash) {
+            final long stamp = lock.writeLock();
+            try {
+                final int i = indexOf(keys, values, key, hash);
+                if (i >= 0) {
+                    removeAt(i);
+                }
+            }
+            finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * Removes all entries.
+         */
+        void clear() {
+            final long stamp = lock.writeLock();
+            try {
+                Arrays.fill(values, null);
+                Arrays.fill(marks, (byte) 0);
+                size = 0;
+                hand = 0;
+            }
+            finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * Evicts the first entry found by the hand whose reference bit is not set, clearing the bits on its way.
+         */
+        private void evict() {
+            final int mask = keys.length - 1;
+
+            while (true) {
+                final int i = hand;
+                hand = (i + 1) & mask;
+
+                if (values[i] == null) {
+                    continue;
+                }
+                if (marks[i] != 0) {
+                    marks[i] = 0;
+                    continue;
+                }
+
+                removeAt(i);
+                recordEviction();
+
+                // Another entry may have been shifted into the slot
+                hand = i;
+                return;
+            }
+        }
+
+        /**
+         * Removes the entry of the slot {@code i}, and shifts back the next entries of its cluster so that they remain
+         * reachable without tombstones.
+         *
+         * @param i the slot
+         */
+        private void removeAt(int i) {
+            final int mask = keys.length - 1;
+
+            int j = i;
+            while (true) {
+                j = (j + 1) & mask;
+                if (values[j] == null) {
+                    break;
+                }
+
+                // The entry stays if its home slot is cyclically in (i, j]
+                final int home = (int) spread(keys[j]) & mask;
+                final boolean stays = i <= j
+                        ? i < home && home <= j
+                        : i < home || home <= j;
+
+                if (!stays) {
+                    keys[i] = keys[j];
+                    values[i] = values[j];
+                    marks[i] = marks[j];
+                    i = j;
+                }
+            }
+
+            keys[i] = 0L;
+            values[i] = null;
+            marks[i] = 0;
+            size--;
+        }
+
+        /**
+         * Moves all entries to new arrays of the given {@code capacity}.
+         *
+         * @param capacity the new number of slots, as a power of two
+         */
+        private void resize(int capacity) {
+            final long[] newKeys = new long[capacity];
+            final Object[] newValues = new Object[capacity];
+            final byte[] newMarks = new byte[capacity];
+            final int mask = capacity - 1;
+
+            for (int i = 0; i < keys.length; i++) {
+                if (values[i] != null) {
+                    int j = (int) spread(keys[i]) & mask;
+                    while (newValues[j] != null) {
+                        j = (j + 1) & mask;
+                    }
+                    newKeys[j] = keys[i];
+                    newValues[j] = values[i];
+                    newMarks[j] = marks[i];
+                }
+            }
+
+            keys = newKeys;
+            values = newValues;
+            marks = newMarks;
+            hand = 0;
+        }
+
+        /**
+         * Records the eviction of an entry because of the size of the segment.
+         */
+        private void recordEviction() {
+            if (statsRecorder != null) {
+                statsRecorder.recordEviction(1, RemovalCause.SIZE);
+            }
+        }
+    }
+}
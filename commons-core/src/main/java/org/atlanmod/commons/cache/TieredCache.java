@@ -0,0 +1,723 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.log.Log;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.atlanmod.commons.Guards.checkNotNull;
+
+/**
+ * A {@link Cache} composed of several tiers.
+ * <p>
+ * Writes are applied from the last tier to the nearest. Each write is tracked by a stamp of its key, from the time it
+ * starts until it has been applied to all tiers: a lookup does not promote a value while a write of its key is in
+ * progress, and removes the value it has promoted if a write of its key has started in the meantime, so that a
+ * promotion never overwrites a newer value or resurrects an invalidated one. With write-behind, a lookup that misses
+ * the nearest tier applies the pending writes of its key before reading the lower tiers.
+ *
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of mapped values
+ * @see TieredCacheBuilder
+ */
+@ParametersAreNonnullByDefault
+class TieredCache<K, V> implements Cache<K, V> {
+
+    /**
+     * The number of stripes of the write stamps; must be a power of two.
+     */
+    private static final int STRIPES = 64;
+
+    /**
+     * The increment of a write stamp when a write starts: it counts the started writes in the high bits, and the
+     * writes in progress in the low bits.
+     */
+    private static final long WRITE_STARTED = (1L << Integer.SIZE) + 1;
+
+    /**
+     * The tiers of this cache, from the nearest to the last.
+     */
+    @Nonnull
+    private final Cache<K, V>[] tiers;
+
+    /**
+     * The queue of the writes to the lower tiers, or {@code null} if they are written through.
+     */
+    @Nullable
+    private final WriteBehindQueue writeBehind;
+
+    /**
+     * The write stamps of the keys, by stripe.
+     */
+    @Nonnull
+    private final AtomicLongArray stamps = new AtomicLongArray(STRIPES);
+
+    /**
+     * The recorder of the statistics of this cache.
+     */
+    @Nonnull
+    private final StatsRecorder statsRecorder;
+
+    /**
+     * Whether the statistics are recorded.
+     */
+    private final boolean recordingStats;
+
+    /**
+     * The map view of this cache.
+     */
+    @Nonnull
+    private final ConcurrentMap<K, V> mapView;
+
+    /**
+     * Constructs a new {@code TieredCache}.
+     *
+     * @param tiers               the tiers of this cache, from the nearest to the last
+     * @param writeBehindExecutor the executor of the writes to the lower tiers, or {@code null} if they are written
+     *                            through
+     * @param statsRecorder       the recorder of the statistics of this cache
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    TieredCache(List<Cache<K, V>> tiers, @Nullable Executor writeBehindExecutor, StatsRecorder statsRecorder) {
+        this.tiers = tiers.toArray(new Cache[0]);
+        this.writeBehind = writeBehindExecutor != null ? new WriteBehindQueue(writeBehindExecutor) : null;
+        this.statsRecorder = statsRecorder;
+        this.recordingStats = statsRecorder != StatsRecorder.disabled();
+        this.mapView = new MapView(this.tiers[this.tiers.length - 1].asMap());
+    }
+
+    @Nullable
+    @Override
+    public V get(K key) {
+        checkNotNull(key, "key");
+
+        long stamp = stamp(key);
+        for (int i = 0; i < tiers.length; i++) {
+            if (i == 1) {
+                stamp = settle(key);
+            }
+
+            final V value = tiers[i].get(key);
+            if (value != null) {
+                promote(key, value, i, stamp);
+                recordLookup(i);
+                return value;
+            }
+        }
+
+        recordLookup(-1);
+        return null;
+    }
+
+    @Override
+    public V get(K key, Function<? super K, ? extends V> mappingFunction) {
+        checkNotNull(key, "key");
+        checkNotNull(mappingFunction, "mappingFunction");
+
+        long stamp = stamp(key);
+        final int last = tiers.length - 1;
+        for (int i = 0; i < last; i++) {
+            if (i == 1) {
+                stamp = settle(key);
+            }
+
+            final V value = tiers[i].get(key);
+            if (value != null) {
+                promote(key, value, i, stamp);
+                recordLookup(i);
+                return value;
+            }
+        }
+
+        if (last == 1) {
+            stamp = settle(key);
+        }
+
+        final V value = tiers[last].get(key, mappingFunction);
+        if (value != null) {
+            promote(key, value, last, stamp);
+            recordLookup(last);
+        }
+        else {
+            recordLookup(-1);
+        }
+        return value;
+    }
+
+    @Nonnull
+    @Override
+    public Map<K, V> getAll(Iterable<? extends K> keys) {
+        checkNotNull(keys, "keys");
+
+        final Set<K> remaining = new LinkedHashSet<>();
+        keys.forEach(remaining::add);
+        final int requested = remaining.size();
+
+        final Map<K, Long> lookupStamps = new HashMap<>(requested);
+        remaining.forEach(k -> lookupStamps.put(k, stamp(k)));
+
+        final Map<K, V> result = new HashMap<>(requested);
+        int hits = 0;
+        for (int i = 0; i < tiers.length && !remaining.isEmpty(); i++) {
+            if (i == 1) {
+                remaining.forEach(k -> lookupStamps.put(k, settle(k)));
+            }
+
+            final Map<K, V> found = tiers[i].getAll(remaining);
+            for (Map.Entry<K, V> e : found.entrySet()) {
+                promote(e.getKey(), e.getValue(), i, lookupStamps.get(e.getKey()));
+                result.put(e.getKey(), e.getValue());
+                remaining.remove(e.getKey());
+            }
+
+            if (i == 0) {
+                hits = found.size();
+            }
+        }
+
+        if (recordingStats) {
+            statsRecorder.recordHits(hits);
+            statsRecorder.recordMisses(requested - hits);
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    @Override
+    public void put(K key, V value) {
+        checkNotNull(key, "key");
+        checkNotNull(value, "value");
+
+        write(Collections.singleton(key), t -> t.put(key, value));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The value is written atomically to the last tier, and the key is removed from the other tiers, which promote the
+     * value on the next lookup. This write is never deferred.
+     */
+    @Override
+    public void putIfAbsent(K key, V value) {
+        checkNotNull(key, "key");
+        checkNotNull(value, "value");
+
+        mapView.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> map) {
+        checkNotNull(map, "map");
+
+        final Map<K, V> copy = new HashMap<>(map);
+        write(copy.keySet(), t -> t.putAll(copy));
+    }
+
+    @Override
+    public void invalidate(K key) {
+        checkNotNull(key, "key");
+
+        write(Collections.singleton(key), t -> t.invalidate(key));
+    }
+
+    @Override
+    public void invalidateAll(Iterable<? extends K> keys) {
+        checkNotNull(keys, "keys");
+
+        final List<K> copy = new ArrayList<>();
+        keys.forEach(copy::add);
+        write(copy, t -> t.invalidateAll(copy));
+    }
+
+    @Override
+    public void invalidateAll() {
+        write(null, Cache::invalidateAll);
+    }
+
+    @Override
+    public boolean contains(K key) {
+        checkNotNull(key, "key");
+
+        for (int i = 0; i < tiers.length; i++) {
+            if (i == 1) {
+                settle(key);
+            }
+
+            if (tiers[i].contains(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This is the size of the last tier, which holds all the entries written through this cache.
+     */
+    @Nonnegative
+    @Override
+    public long size() {
+        return tiers[tiers.length - 1].size();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The value is refreshed by the last tier, and removed from the other tiers, which promote the new value once
+     * loaded.
+     */
+    @Override
+    public void refresh(K key) {
+        checkNotNull(key, "key");
+
+        settle(key);
+        begin(key);
+        try {
+            tiers[tiers.length - 1].refresh(key);
+            for (int i = tiers.length - 2; i >= 0; i--) {
+                tiers[i].invalidate(key);
+            }
+        }
+        finally {
+            end(key);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The pending writes to the lower tiers are applied before returning.
+     */
+    @Override
+    public void cleanUp() {
+        if (writeBehind != null) {
+            writeBehind.flush();
+        }
+        for (Cache<K, V> tier : tiers) {
+            tier.cleanUp();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The returned map reads the last tier without promoting its values, once the pending writes of the key have been
+     * applied. Its writes are applied to all tiers, and its conditional operations are applied to the last tier, then
+     * remove the key from the other tiers; they are never deferred.
+     */
+    @Nonnull
+    @Override
+    public ConcurrentMap<K, V> asMap() {
+        return mapView;
+    }
+
+    @Nonnull
+    @Override
+    public CacheStats stats() {
+        return statsRecorder.stats();
+    }
+
+    /**
+     * Copies the {@code value} found in the tier {@code index} to all the tiers above it.
+     * <p>
+     * The value is not copied if a write of the key was in progress when the lookup started, and the copies are removed
+     * if a write of the key has started since then: the value may be outdated, and the next lookup reads it again.
+     *
+     * @param key   the key
+     * @param value the value found
+     * @param index the index of the tier where the value has been found
+     * @param stamp the write stamp of the key before the tier {@code index} has been read
+     */
+    private void promote(K key, V value, int index, long stamp) {
+        if (index == 0 || (int) stamp != 0) {
+            return;
+        }
+
+        for (int i = index - 1; i >= 0; i--) {
+            tiers[i].put(key, value);
+        }
+
+        if (stamp(key) != stamp) {
+            for (int i = index - 1; i >= 0; i--) {
+                tiers[i].invalidate(key);
+            }
+        }
+    }
+
+    /**
+     * Returns the write stamp of the given {@code key}.
+     *
+     * @param key the key
+     *
+     * @return the stamp, whose low bits are the number of writes in progress
+     */
+    private long stamp(K key) {
+        return stamps.get(stripe(key));
+    }
+
+    /**
+     * Returns the stripe of the write stamp of the given {@code key}.
+     *
+     * @param key the key
+     *
+     * @return the index of the stripe
+     */
+    private static int stripe(Object key) {
+        final int h = key.hashCode();
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+
+    /**
+     * Marks the start of a write of the given {@code key}.
+     *
+     * @param key the key
+     */
+    private void begin(K key) {
+        stamps.getAndAdd(stripe(key), WRITE_STARTED);
+    }
+
+    /**
+     * Marks the end of a write of the given {@code key}.
+     *
+     * @param key the key
+     */
+    private void end(K key) {
+        stamps.getAndDecrement(stripe(key));
+    }
+
+    /**
+     * Marks the start of a write of the given {@code keys}.
+     *
+     * @param keys the keys, or {@code null} if the write affects all keys
+     */
+    private void begin(@Nullable Collection<? extends K> keys) {
+        if (keys == null) {
+            for (int i = 0; i < STRIPES; i++) {
+                stamps.getAndAdd(i, WRITE_STARTED);
+            }
+        }
+        else {
+            keys.forEach(this::begin);
+        }
+    }
+
+    /**
+     * Marks the end of a write of the given {@code keys}.
+     *
+     * @param keys the keys, or {@code null} if the write affects all keys
+     */
+    private void end(@Nullable Collection<? extends K> keys) {
+        if (keys == null) {
+            for (int i = 0; i < STRIPES; i++) {
+                stamps.getAndDecrement(i);
+            }
+        }
+        else {
+            keys.forEach(this::end);
+        }
+    }
+
+    /**
+     * Applies the pending writes to the lower tiers if one of them may concern the given {@code key}, so that the lower
+     * tiers are not read while they hold an outdated value.
+     *
+     * @param key the key
+     *
+     * @return the write stamp of the key, once the pending writes have been applied
+     */
+    private long settle(K key) {
+        final long stamp = stamp(key);
+        if (writeBehind == null || (int) stamp == 0) {
+            return stamp;
+        }
+
+        writeBehind.flush();
+        return stamp(key);
+    }
+
+    /**
+     * Records a lookup answered by the tier {@code index}: a hit for the nearest tier, and a miss otherwise.
+     *
+     * @param index the index of the tier, or {@code -1} if no tier has answered
+     */
+    private void recordLookup(int index) {
+        if (recordingStats) {
+            if (index == 0) {
+                statsRecorder.recordHits(1);
+            }
+            else {
+                statsRecorder.recordMisses(1);
+            }
+        }
+    }
+
+    /**
+     * Applies the {@code write} to all tiers, from the last to the nearest. With write-behind, only the nearest tier
+     * is written immediately.
+     * <p>
+     * The write is in progress for its keys until it has been applied to all tiers.
+     *
+     * @param keys  the keys affected by the write, or {@code null} if it affects all keys
+     * @param write the write to apply to each tier
+     */
+    private void write(@Nullable Collection<? extends K> keys, Consumer<Cache<K, V>> write) {
+        begin(keys);
+        if (writeBehind == null) {
+            try {
+                for (int i = tiers.length - 1; i >= 0; i--) {
+                    write.accept(tiers[i]);
+                }
+            }
+            finally {
+                end(keys);
+            }
+            return;
+        }
+
+        try {
+            write.accept(tiers[0]);
+        }
+        catch (RuntimeException e) {
+            end(keys);
+            throw e;
+        }
+
+        writeBehind.submit(() -> {
+            try {
+                for (int i = tiers.length - 1; i > 0; i--) {
+                    write.accept(tiers[i]);
+                }
+            }
+            finally {
+                end(keys);
+            }
+        });
+    }
+
+    /**
+     * A queue of the writes to the lower tiers, applied in order on an executor.
+     */
+    @ParametersAreNonnullByDefault
+    private static final class WriteBehindQueue implements Runnable {
+
+        /**
+         * The executor of the writes.
+         */
+        @Nonnull
+        private final Executor executor;
+
+        /**
+         * The pending writes.
+         */
+        @Nonnull
+        private final ConcurrentLinkedQueue<Runnable> writes = new ConcurrentLinkedQueue<>();
+
+        /**
+         * Whether a task applying the pending writes has been submitted to the executor, and has not started yet.
+         */
+        @Nonnull
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        /**
+         * Constructs a new {@code WriteBehindQueue}.
+         *
+         * @param executor the executor of the writes
+         */
+        WriteBehindQueue(Executor executor) {
+            this.executor = executor;
+        }
+
+        /**
+         * Adds a write to this queue, and schedules its application.
+         *
+         * @param write the write
+         */
+        void submit(Runnable write) {
+            writes.add(write);
+
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this);
+                }
+                catch (RejectedExecutionException e) {
+                    // The writes must not be lost
+                    scheduled.set(false);
+                    flush();
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            scheduled.set(false);
+            flush();
+        }
+
+        /**
+         * Applies the pending writes in the current thread. The writes are applied by one thread at a time, to preserve
+         * their order.
+         */
+        synchronized void flush() {
+            Runnable write;
+            while ((write = writes.poll()) != null) {
+                try {
+                    write.run();
+                }
+                catch (RuntimeException e) {
+                    Log.warn(e, "Unable to write to a lower tier of a cache");
+                }
+            }
+        }
+    }
+
+    /**
+     * A {@link ConcurrentMap} view of the last tier of this cache, that keeps the other tiers consistent.
+     */
+    @ParametersAreNonnullByDefault
+    private final class MapView extends AbstractMap<K, V> implements ConcurrentMap<K, V> {
+
+        /**
+         * The map view of the last tier.
+         */
+        @Nonnull
+        private final ConcurrentMap<K, V> delegate;
+
+        /**
+         * Constructs a new {@code MapView}.
+         *
+         * @param delegate the map view of the last tier
+         */
+        MapView(ConcurrentMap<K, V> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int size() {
+            return delegate.size();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean containsKey(Object key) {
+            settle((K) checkNotNull(key, "key"));
+            return delegate.containsKey(key);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V get(Object key) {
+            settle((K) checkNotNull(key, "key"));
+            return delegate.get(key);
+        }
+
+        @Override
+        public V put(K key, V value) {
+            settle(key);
+            final V previous = delegate.get(key);
+            TieredCache.this.put(key, value);
+            return previous;
+        }
+
+        @Override
+        public V remove(Object key) {
+            @SuppressWarnings("unchecked") final K k = (K) checkNotNull(key, "key");
+
+            settle(k);
+            final V previous = delegate.get(k);
+            invalidate(k);
+            return previous;
+        }
+
+        @Override
+        public V putIfAbsent(K key, V value) {
+            return conditionally(key, () -> delegate.putIfAbsent(key, value), Objects::isNull);
+        }
+
+        @Override
+        public boolean remove(Object key, Object value) {
+            @SuppressWarnings("unchecked") final K k = (K) checkNotNull(key, "key");
+
+            return conditionally(k, () -> delegate.remove(k, value), r -> r);
+        }
+
+        @Override
+        public boolean replace(K key, V oldValue, V newValue) {
+            return conditionally(key, () -> delegate.replace(key, oldValue, newValue), r -> r);
+        }
+
+        @Override
+        public V replace(K key, V value) {
+            return conditionally(key, () -> delegate.replace(key, value), Objects::nonNull);
+        }
+
+        @Override
+        public void clear() {
+            invalidateAll();
+        }
+
+        @Nonnull
+        @Override
+        public Set<Entry<K, V>> entrySet() {
+            return delegate.entrySet();
+        }
+
+        /**
+         * Applies a conditional write of the {@code key} to the last tier, then removes the key from all the tiers above
+         * it if the write has been applied.
+         *
+         * @param key     the key
+         * @param write   the conditional write to the last tier
+         * @param applied the predicate that tells whether the write has been applied, from its result
+         * @param <R>     the type of the result of the write
+         *
+         * @return the result of the write
+         */
+        private <R> R conditionally(K key, Supplier<R> write, Predicate<R> applied) {
+            settle(key);
+            begin(key);
+            try {
+                final R result = write.get();
+                if (applied.test(result)) {
+                    for (int i = tiers.length - 2; i >= 0; i--) {
+                        tiers[i].invalidate(key);
+                    }
+                }
+                return result;
+            }
+            finally {
+                end(key);
+            }
+        }
+    }
+}
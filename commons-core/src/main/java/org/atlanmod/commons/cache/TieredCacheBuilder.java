@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.annotation.Builder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.atlanmod.commons.Guards.checkArgument;
+import static org.atlanmod.commons.Guards.checkNotNull;
+import static org.atlanmod.commons.Guards.checkState;
+
+/**
+ * A builder of {@link Cache} instances composed of several tiers, such as a small near cache in front of a large
+ * shared cache.
+ * <p>
+ * The tiers are ordered from the nearest, which should be the smallest and cheapest, to the last, which holds all the
+ * entries and should be the only one to load its values. A lookup queries the tiers in order, and promotes the value
+ * found in a lower tier to all the tiers above it. Writes and invalidations are propagated to all tiers, from the last
+ * to the nearest, either immediately (write-through) or, for the lower tiers, in the background (write-behind).
+ * <p>
+ * Composing tiers is cheap: a builder can build a new cache for each request in front of the same shared tier.
+ * Writes made directly to a tier, rather than through the composed cache, are not propagated; in particular, the
+ * nearest tiers keep the values invalidated in a shared tier by another composed cache, until they evict them.
+ *
+ * @param <K> the type of keys maintained by the built caches
+ * @param <V> the type of mapped values
+ */
+@Builder("builder")
+@ParametersAreNonnullByDefault
+public final class TieredCacheBuilder<K, V> {
+
+    /**
+     * The tiers, from the nearest to the last.
+     */
+    @Nonnull
+    private final List<Cache<K, V>> tiers = new ArrayList<>();
+
+    /**
+     * The executor of the writes to the lower tiers, or {@code null} if they are written through.
+     */
+    @Nullable
+    private Executor writeBehindExecutor;
+
+    /**
+     * Whether the statistics are recorded.
+     */
+    private boolean recordingStats;
+
+    /**
+     * Constructs a new {@code TieredCacheBuilder}.
+     */
+    private TieredCacheBuilder() {
+    }
+
+    /**
+     * Creates a new {@code TieredCacheBuilder} without any tier, whose writes are written through.
+     *
+     * @param <K> the type of keys maintained by the built caches
+     * @param <V> the type of mapped values
+     *
+     * @return a new builder
+     */
+    @Nonnull
+    public static <K, V> TieredCacheBuilder<K, V> builder() {
+        return new TieredCacheBuilder<>();
+    }
+
+    /**
+     * Adds a tier below the tiers already added.
+     *
+     * @param tier the cache to add as a tier
+     *
+     * @return this builder (for chaining)
+     *
+     * @throws IllegalArgumentException if {@code tier} was already added
+     */
+    @Nonnull
+    public TieredCacheBuilder<K, V> tier(Cache<K, V> tier) {
+        checkNotNull(tier, "tier");
+        checkArgument(tiers.stream().noneMatch(t -> t == tier), "tier was already added");
+
+        tiers.add(tier);
+        return this;
+    }
+
+    /**
+     * Specifies that the writes and the invalidations should only be applied immediately to the nearest tier, and
+     * applied to the lower tiers in the background, in the order they were made.
+     * <p>
+     * Until they are applied, a lookup that misses the nearest tier may read a previous value from a lower tier. {@link
+     * Cache#cleanUp()} applies the pending writes before returning. A write that fails is logged and dropped.
+     *
+     * @param executor the executor used to write to the lower tiers
+     *
+     * @return this builder (for chaining)
+     *
+     * @throws IllegalStateException if write-behind was already set
+     */
+    @Nonnull
+    public TieredCacheBuilder<K, V> writeBehind(Executor executor) {
+        checkNotNull(executor, "executor");
+        checkState(writeBehindExecutor == null, "writeBehind was already set");
+
+        writeBehindExecutor = executor;
+        return this;
+    }
+
+    /**
+     * Enables the accumulation of {@link CacheStats} during the operation of the cache.
+     * <p>
+     * A hit is a lookup answered by the nearest tier, and a miss is a lookup answered by a lower tier, or not at all,
+     * so the hit rate measures how well the nearest tier holds the working set. The statistics of each tier remain
+     * available from the tier itself.
+     *
+     * @return this builder (for chaining)
+     */
+    @Nonnull
+    public TieredCacheBuilder<K, V> recordStats() {
+        recordingStats = true;
+        return this;
+    }
+
+    /**
+     * Builds a {@link Cache} composed of the tiers of this builder.
+     *
+     * @return a new cache
+     *
+     * @throws IllegalStateException if less than two tiers were added
+     */
+    @Nonnull
+    public Cache<K, V> build() {
+        checkState(tiers.size() >= 2, "a tiered cache requires at least two tiers");
+
+        final StatsRecorder statsRecorder = recordingStats ? new StatsRecorder(false) : StatsRecorder.disabled();
+        return new TieredCache<>(tiers, writeBehindExecutor, statsRecorder);
+    }
+}
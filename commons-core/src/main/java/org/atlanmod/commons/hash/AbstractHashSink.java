@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import java.nio.ByteBuffer;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import static org.atlanmod.commons.Guards.checkNotNull;
+import static org.atlanmod.commons.Guards.checkPositionIndex;
+
+/**
+ * An abstract {@link HashSink} that encodes all values to bytes, without intermediate allocation.
+ * <p>
+ * Strings are encoded in {@code UTF-8}, or as their {@code UTF-16} code units in little-endian order for the hashers
+ * that hash strings this way.
+ */
+@NotThreadSafe
+@ParametersAreNonnullByDefault
+abstract class AbstractHashSink implements HashSink {
+
+    /**
+     * A reusable buffer used to encode primitive values.
+     */
+    @Nonnull
+    private final byte[] scratch = new byte[Long.BYTES];
+
+    /**
+     * Whether strings are written as their {@code UTF-16} code units in little-endian order, instead of {@code UTF-8}.
+     */
+    private final boolean utf16;
+
+    /**
+     * Constructs a new {@code AbstractHashSink} that encodes strings in {@code UTF-8}.
+     */
+    protected AbstractHashSink() {
+        this(false);
+    }
+
+    /**
+     * Constructs a new {@code AbstractHashSink}.
+     *
+     * @param utf16 {@code true} if strings are written as their {@code UTF-16} code units in little-endian order,
+     *              {@code false} if they are encoded in {@code UTF-8}
+     */
+    protected AbstractHashSink(boolean utf16) {
+        this.utf16 = utf16;
+    }
+
+    /**
+     * Writes a single {@code byte} to the underlying hash function.
+     *
+     * @param data the {@code byte} to write
+     */
+    protected abstract void update(byte data);
+
+    /**
+     * Writes {@code length} bytes of {@code data} to the underlying hash function, starting at {@code offset}.
+     *
+     * @param data   the {@code byte} array to write
+     * @param offset the index of the first byte to write
+     * @param length the number of bytes to write
+     */
+    protected abstract void update(byte[] data, @Nonnegative int offset, @Nonnegative int length);
+
+    /**
+     * Writes the remaining bytes of {@code data} to the underlying hash function, without modifying its position.
+     *
+     * @param data the buffer to write
+     */
+    protected abstract void update(ByteBuffer data);
+
+    @Nonnull
+    @Override
+    public HashSink putByte(byte data) {
+        update(data);
+        return this;
+    }
+
+    @Nonnull
+    @Override
+    public HashSink putBytes(byte[] data, int offset, int length) {
+        checkNotNull(data, "data");
+        checkPositionIndex(offset, data.length);
+        checkPositionIndex(length, data.length - offset);
+
+        update(data, offset, length);
+        return this;
+    }
+
+    @Nonnull
+    @Override
+    public HashSink putBytes(ByteBuffer data) {
+        checkNotNull(data, "data");
+
+        update(data);
+        return this;
+    }
+
+    @Nonnull
+    @Override
+    public HashSink putBoolean(boolean data) {
+        return putByte(data ? (byte) 1 : (byte) 0);
+    }
+
+    @Nonnull
+    @Override
+    public HashSink putChar(char data) {
+        return putShort((short) data);
+    }
+
+    @Nonnull
+    @Override
+    public HashSink putShort(short data) {
+        return putBigEndian(data, Short.BYTES);
+    }
+
+    @Nonnull
+    @Override
+    public HashSink putInt(int data) {
+        return putBigEndian(data, Integer.BYTES);
+    }
+
+    @Nonnull
+    @Override
+    public HashSink putLong(long data) {
+        return putBigEndian(data, Long.BYTES);
+    }
+
+    @Nonnull
+    @Override
+    public HashSink putFloat(float data) {
+        return putInt(Float.floatToIntBits(data));
+    }
+
+    @Nonnull
+    @Override
+    public HashSink putDouble(double data) {
+        return putLong(Double.doubleToLongBits(data));
+    }
+
+    @Nonnull
+    @Override
+    public HashSink putString(String data) {
+        checkNotNull(data, "data");
+
+        if (utf16) {
+            putUtf16(data);
+        }
+        else {
+            putUtf8(data);
+        }
+        return this;
+    }
+
+    /**
+     * Writes the {@code UTF-16} code units of {@code data} to the underlying hash function, in little-endian order.
+     *
+     * @param data the string to write
+     */
+    private void putUtf16(String data) {
+        final int length = data.length();
+        for (int i = 0; i < length; i++) {
+            char c = data.charAt(i);
+            scratch[0] = (byte) c;
+            scratch[1] = (byte) (c >>> 8);
+            update(scratch, 0, Character.BYTES);
+        }
+    }
+
+    /**
+     * Writes {@code data} encoded in {@code UTF-8} to the underlying hash function.
+     *
+     * @param data the string to write
+     */
+    private void putUtf8(String data) {
+        final int length = data.length();
+        for (int i = 0; i < length; i++) {
+            char c = data.charAt(i);
+
+            if (c < 0x80) {
+                update((byte) c);
+            }
+            else if (c < 0x800) {
+                update((byte) (0xc0 | (c >>> 6)));
+                update((byte) (0x80 | (c & 0x3f)));
+            }
+            else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(data.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, data.charAt(++i));
+                update((byte) (0xf0 | (codePoint >>> 18)));
+                update((byte) (0x80 | ((codePoint >>> 12) & 0x3f)));
+                update((byte) (0x80 | ((codePoint >>> 6) & 0x3f)));
+                update((byte) (0x80 | (codePoint & 0x3f)));
+            }
+            else if (Character.isSurrogate(c)) {
+                // Malformed surrogate: replaced by '?', as done by String#getBytes(Charset)
+                update((byte) '?');
+            }
+            else {
+                update((byte) (0xe0 | (c >>> 12)));
+                update((byte) (0x80 | ((c >>> 6) & 0x3f)));
+                update((byte) (0x80 | (c & 0x3f)));
+            }
+        }
+    }
+
+    /**
+     * Writes the {@code length} lowest bytes of {@code value} to the underlying hash function, in big-endian order.
+     *
+     * @param value  the value to write
+     * @param length the number of bytes to write
+     *
+     * @return this sink (for chaining)
+     */
+    @Nonnull
+    private HashSink putBigEndian(long value, @Nonnegative int length) {
+        final int last = length - 1;
+        for (int i = last; i >= 0; i--) {
+            scratch[i] = (byte) (value >> Byte.SIZE * (last - i));
+        }
+
+        update(scratch, 0, length);
+        return this;
+    }
+}
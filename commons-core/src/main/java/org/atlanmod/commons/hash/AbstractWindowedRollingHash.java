@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import static org.atlanmod.commons.Guards.checkGreaterThan;
+
+/**
+ * A {@link RollingHash} that keeps the bytes of its window, in order to explicitly remove the oldest byte each time a new
+ * byte is added.
+ */
+@NotThreadSafe
+@ParametersAreNonnullByDefault
+abstract class AbstractWindowedRollingHash implements RollingHash {
+
+    /**
+     * The bytes of the window, as a circular buffer.
+     */
+    @Nonnull
+    private final byte[] window;
+
+    /**
+     * The index in {@link #window} where to write the next byte.
+     */
+    @Nonnegative
+    private int next;
+
+    /**
+     * Whether the window is full, i.e. whether adding a byte removes the oldest one.
+     */
+    private boolean full;
+
+    /**
+     * The current value of this hash.
+     */
+    protected long value;
+
+    /**
+     * Constructs a new {@code AbstractWindowedRollingHash}.
+     *
+     * @param windowSize the number of bytes in the window
+     */
+    protected AbstractWindowedRollingHash(@Nonnegative int windowSize) {
+        checkGreaterThan(windowSize, 0, "windowSize (%d) must be positive", windowSize);
+        this.window = new byte[windowSize];
+    }
+
+    @Nonnegative
+    @Override
+    public final int windowSize() {
+        return window.length;
+    }
+
+    @Override
+    public final long update(byte data) {
+        if (full) {
+            roll(window[next], data);
+        }
+        else {
+            append(data);
+        }
+
+        window[next] = data;
+        if (++next == window.length) {
+            next = 0;
+            full = true;
+        }
+
+        return value;
+    }
+
+    @Override
+    public final long value() {
+        return value;
+    }
+
+    @Override
+    public final void reset() {
+        next = 0;
+        full = false;
+        value = 0;
+    }
+
+    /**
+     * Updates the {@link #value} when a byte is added to a window that is not full yet.
+     *
+     * @param in the added byte
+     */
+    protected abstract void append(byte in);
+
+    /**
+     * Updates the {@link #value} when a byte is added to a full window, and the oldest byte is removed.
+     *
+     * @param out the removed byte
+     * @param in  the added byte
+     */
+    protected abstract void roll(byte out, byte in);
+}
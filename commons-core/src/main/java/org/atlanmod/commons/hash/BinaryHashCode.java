@@ -57,9 +57,22 @@ final class BinaryHashCode implements HashCode {
         return bytes.clone();
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The value is decoded from the first 8 bytes of this hash code (or less if this hash code is shorter), in
+     * big-endian order.
+     */
     @Override
     public long toLong() {
-        return Bytes.toLong(bytes);
+        long value = 0L;
+
+        final int length = Math.min(bytes.length, Long.BYTES);
+        for (int i = 0; i < length; i++) {
+            value = (value << Byte.SIZE) | (bytes[i] & 0xffL);
+        }
+
+        return value;
     }
 
     @Nonnull
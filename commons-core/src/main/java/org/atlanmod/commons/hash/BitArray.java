@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.ThreadSafe;
+
+import static org.atlanmod.commons.Guards.checkArgument;
+
+/**
+ * A fixed-size array of bits, stored in 64-bit words, that can be updated concurrently without locking.
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+abstract class BitArray {
+
+    /**
+     * The number of bits in this array.
+     */
+    @Nonnegative
+    private final long bitSize;
+
+    /**
+     * Constructs a new {@code BitArray}.
+     *
+     * @param bitSize the number of bits in this array; a multiple of 64
+     */
+    protected BitArray(@Nonnegative long bitSize) {
+        this.bitSize = bitSize;
+    }
+
+    /**
+     * Creates a new bit array of at least {@code bitSize} bits, stored on the heap.
+     *
+     * @param bitSize the minimum number of bits
+     *
+     * @return a new bit array
+     */
+    @Nonnull
+    public static BitArray onHeap(@Nonnegative long bitSize) {
+        return new HeapBitArray(wordCount(bitSize, Integer.MAX_VALUE - 8));
+    }
+
+    /**
+     * Creates a new bit array of at least {@code bitSize} bits, stored in direct memory, outside of the heap.
+     *
+     * @param bitSize the minimum number of bits
+     *
+     * @return a new bit array
+     */
+    @Nonnull
+    public static BitArray offHeap(@Nonnegative long bitSize) {
+        return new DirectBitArray(wordCount(bitSize, (Integer.MAX_VALUE - Long.BYTES) / Long.BYTES));
+    }
+
+    /**
+     * Returns the number of 64-bit words needed to store {@code bitSize} bits.
+     *
+     * @param bitSize  the number of bits
+     * @param maxWords the maximum number of words supported by the storage
+     *
+     * @return the number of words
+     *
+     * @throws IllegalArgumentException if {@code bitSize} is not positive, or if the storage cannot contain all bits
+     */
+    @Nonnegative
+    private static int wordCount(@Nonnegative long bitSize, @Nonnegative int maxWords) {
+        checkArgument(bitSize > 0, "bitSize (%d) must be positive", bitSize);
+
+        final long words = (bitSize + Long.SIZE - 1) >>> 6;
+        checkArgument(words <= maxWords, "bitSize (%d) is too large", bitSize);
+        return (int) words;
+    }
+
+    /**
+     * Returns the number of bits in this array.
+     *
+     * @return the number of bits
+     */
+    @Nonnegative
+    public final long bitSize() {
+        return bitSize;
+    }
+
+    /**
+     * Returns the number of 64-bit words in this array.
+     *
+     * @return the number of words
+     */
+    @Nonnegative
+    public final int wordCount() {
+        return (int) (bitSize >>> 6);
+    }
+
+    /**
+     * Returns the number of bits set to {@code 1} in this array.
+     *
+     * @return the number of set bits
+     */
+    @Nonnegative
+    public final long cardinality() {
+        long count = 0;
+        for (int i = 0, words = wordCount(); i < words; i++) {
+            count += Long.bitCount(word(i));
+        }
+        return count;
+    }
+
+    /**
+     * Returns the value of the bit at the specified {@code index}.
+     *
+     * @param index the index of the bit
+     *
+     * @return {@code true} if the bit is set
+     */
+    public final boolean get(@Nonnegative long index) {
+        return (word((int) (index >>> 6)) & (1L << index)) != 0;
+    }
+
+    /**
+     * Atomically sets the bit at the specified {@code index}.
+     *
+     * @param index the index of the bit
+     *
+     * @return {@code true} if the bit has changed
+     */
+    public final boolean set(@Nonnegative long index) {
+        final long mask = 1L << index;
+        return (or((int) (index >>> 6), mask) & mask) == 0;
+    }
+
+    /**
+     * Returns the word at the specified {@code index}.
+     *
+     * @param index the index of the word
+     *
+     * @return the value of the word
+     */
+    public abstract long word(@Nonnegative int index);
+
+    /**
+     * Atomically applies a bitwise OR between the word at the specified {@code index} and the {@code mask}.
+     *
+     * @param index the index of the word
+     * @param mask  the bits to set
+     *
+     * @return the previous value of the word
+     */
+    public abstract long or(@Nonnegative int index, long mask);
+
+    /**
+     * Returns {@code true} if this array is stored in direct memory.
+     *
+     * @return {@code true} if this array is stored outside of the heap
+     */
+    public abstract boolean isOffHeap();
+
+    /**
+     * A {@link BitArray} backed by a {@code long} array.
+     */
+    @ThreadSafe
+    private static final class HeapBitArray extends BitArray {
+
+        /**
+         * The handle used to atomically update the words.
+         */
+        private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+        /**
+         * The words of this array.
+         */
+        @Nonnull
+        private final long[] words;
+
+        /**
+         * Constructs a new {@code HeapBitArray}.
+         *
+         * @param wordCount the number of 64-bit words
+         */
+        HeapBitArray(@Nonnegative int wordCount) {
+            super((long) wordCount << 6);
+            this.words = new long[wordCount];
+        }
+
+        @Override
+        public long word(int index) {
+            return (long) WORDS.getVolatile(words, index);
+        }
+
+        @Override
+        public long or(int index, long mask) {
+            return (long) WORDS.getAndBitwiseOr(words, index, mask);
+        }
+
+        @Override
+        public boolean isOffHeap() {
+            return false;
+        }
+    }
+
+    /**
+     * A {@link BitArray} backed by a direct {@link ByteBuffer}.
+     */
+    @ThreadSafe
+    private static final class DirectBitArray extends BitArray {
+
+        /**
+         * The handle used to atomically update the words.
+         */
+        private static final VarHandle WORDS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+        /**
+         * The words of this array, aligned on 8 bytes to allow atomic accesses.
+         */
+        @Nonnull
+        private final ByteBuffer words;
+
+        /**
+         * Constructs a new {@code DirectBitArray}.
+         *
+         * @param wordCount the number of 64-bit words
+         */
+        DirectBitArray(@Nonnegative int wordCount) {
+            super((long) wordCount << 6);
+            this.words = ByteBuffer.allocateDirect((wordCount + 1) * Long.BYTES).alignedSlice(Long.BYTES);
+        }
+
+        @Override
+        public long word(int index) {
+            return (long) WORDS.getVolatile(words, index * Long.BYTES);
+        }
+
+        @Override
+        public long or(int index, long mask) {
+            return (long) WORDS.getAndBitwiseOr(words, index * Long.BYTES, mask);
+        }
+
+        @Override
+        public boolean isOffHeap() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,511 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import org.atlanmod.commons.io.serializer.AbstractBinarySerializer;
+import org.atlanmod.commons.io.serializer.BinarySerializer;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.WillNotClose;
+import javax.annotation.concurrent.ThreadSafe;
+
+import static org.atlanmod.commons.Guards.checkArgument;
+import static org.atlanmod.commons.Guards.checkNotNull;
+
+/**
+ * A probabilistic set, that can tell if an element has certainly not been added, or if it has probably been added.
+ * <p>
+ * The {@code k} positions of an element in the bit array are all derived from a single hash code (Kirsch-Mitzenmacher
+ * double hashing): each element is hashed only once, whatever the number of hash functions. 128-bit hash codes provide
+ * both halves of the double hashing directly; 64-bit hash codes are mixed to obtain the second half. Adding elements
+ * from their {@code long} value with a 64-bit {@link Hasher} is therefore allocation-free.
+ * <p>
+ * The bits are stored either in a {@code long} array, or in direct memory outside of the heap; in both cases, they are
+ * updated atomically, so that elements can be added concurrently without locking.
+ * <pre>{@code
+ * BloomFilter filter = BloomFilter.create(StandardHashers.XX, 1_000_000, 0.01);
+ * filter.put("foo");
+ *
+ * filter.mightContain("foo"); // true
+ * filter.mightContain("bar"); // false, with a probability of 99%
+ * }</pre>
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+public final class BloomFilter {
+
+    /**
+     * The maximum number of hash functions.
+     */
+    private static final int MAX_HASH_FUNCTIONS = 255;
+
+    /**
+     * The hasher used to hash the elements.
+     */
+    @Nonnull
+    private final Hasher hasher;
+
+    /**
+     * The bits of this filter.
+     */
+    @Nonnull
+    private final BitArray bits;
+
+    /**
+     * The number of hash functions, i.e. the number of bits per element.
+     */
+    @Nonnegative
+    private final int hashFunctions;
+
+    /**
+     * Constructs a new {@code BloomFilter}.
+     *
+     * @param hasher        the hasher used to hash the elements
+     * @param bits          the bits of this filter
+     * @param hashFunctions the number of hash functions
+     */
+    private BloomFilter(Hasher hasher, BitArray bits, @Nonnegative int hashFunctions) {
+        this.hasher = checkNotNull(hasher, "hasher");
+        this.bits = bits;
+        this.hashFunctions = hashFunctions;
+    }
+
+    /**
+     * Creates a new {@code BloomFilter}, stored on the heap, sized to hold {@code expectedInsertions} elements with the
+     * desired false positive probability.
+     *
+     * @param hasher             the hasher used to hash the elements
+     * @param expectedInsertions the number of elements expected to be added
+     * @param fpp                the desired false positive probability, between {@code 0} and {@code 1} exclusive
+     *
+     * @return a new filter
+     *
+     * @throws IllegalArgumentException if {@code expectedInsertions} is not positive, or if {@code fpp} is out of
+     *                                  range
+     */
+    @Nonnull
+    public static BloomFilter create(Hasher hasher, @Nonnegative long expectedInsertions, double fpp) {
+        return create(hasher, expectedInsertions, fpp, false);
+    }
+
+    /**
+     * Creates a new {@code BloomFilter}, stored in direct memory, outside of the heap, sized to hold {@code
+     * expectedInsertions} elements with the desired false positive probability.
+     *
+     * @param hasher             the hasher used to hash the elements
+     * @param expectedInsertions the number of elements expected to be added
+     * @param fpp                the desired false positive probability, between {@code 0} and {@code 1} exclusive
+     *
+     * @return a new filter
+     *
+     * @throws IllegalArgumentException if {@code expectedInsertions} is not positive, or if {@code fpp} is out of
+     *                                  range
+     */
+    @Nonnull
+    public static BloomFilter createOffHeap(Hasher hasher, @Nonnegative long expectedInsertions, double fpp) {
+        return create(hasher, expectedInsertions, fpp, true);
+    }
+
+    /**
+     * Creates a new {@code BloomFilter}.
+     *
+     * @param hasher             the hasher used to hash the elements
+     * @param expectedInsertions the number of elements expected to be added
+     * @param fpp                the desired false positive probability
+     * @param offHeap            {@code true} if the bits must be stored outside of the heap
+     *
+     * @return a new filter
+     */
+    @Nonnull
+    private static BloomFilter create(Hasher hasher, @Nonnegative long expectedInsertions, double fpp, boolean offHeap) {
+        checkNotNull(hasher, "hasher");
+        checkArgument(expectedInsertions > 0, "expectedInsertions (%d) must be positive", expectedInsertions);
+        checkArgument(fpp > 0 && fpp < 1, "fpp (%s) must be between 0 and 1", fpp);
+
+        final double ln2 = Math.log(2);
+        final long bitSize = (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (ln2 * ln2));
+        final int hashFunctions = (int) Math.max(1, Math.min(MAX_HASH_FUNCTIONS, Math.round((double) bitSize / expectedInsertions * ln2)));
+
+        return new BloomFilter(hasher, offHeap ? BitArray.offHeap(bitSize) : BitArray.onHeap(bitSize), hashFunctions);
+    }
+
+    /**
+     * Returns a serializer of filters that use the given {@code hasher}. The hasher is not serialized: a filter must be
+     * deserialized with the same hasher it has been created with.
+     *
+     * @param hasher the hasher used to hash the elements of the deserialized filters
+     *
+     * @return a serializer
+     */
+    @Nonnull
+    public static BinarySerializer<BloomFilter> serializer(Hasher hasher) {
+        return new BloomFilterSerializer(hasher);
+    }
+
+    /**
+     * Adds an element, from its pre-calculated hash code.
+     *
+     * @param hashCode the hash code of the element
+     *
+     * @return {@code true} if the bits of this filter have changed, i.e. if the element has certainly never been added
+     * before
+     */
+    public boolean putHash(HashCode hashCode) {
+        checkNotNull(hashCode, "hashCode");
+
+        if (hashCode instanceof LongPairHashCode) {
+            LongPairHashCode pair = (LongPairHashCode) hashCode;
+            return put(pair.high(), pair.low());
+        }
+        else if (hashCode.bits() > Long.SIZE) {
+            final byte[] bytes = hashCode.toBytes();
+            return put(hashCode.toLong(), decodeSecondLong(bytes));
+        }
+        else {
+            return putHash(hashCode.toLong());
+        }
+    }
+
+    /**
+     * Adds an element, from its pre-calculated 64-bit hash value.
+     *
+     * @param hash the hash value of the element
+     *
+     * @return {@code true} if the bits of this filter have changed, i.e. if the element has certainly never been added
+     * before
+     */
+    public boolean putHash(long hash) {
+        return put(hash, Mixers.mix(hash));
+    }
+
+    /**
+     * Adds an element.
+     *
+     * @param data the element to add
+     *
+     * @return {@code true} if the bits of this filter have changed
+     */
+    public boolean put(int data) {
+        return putHash(hasher.hashToLong(data));
+    }
+
+    /**
+     * Adds an element.
+     *
+     * @param data the element to add
+     *
+     * @return {@code true} if the bits of this filter have changed
+     */
+    public boolean put(long data) {
+        return putHash(hasher.hashToLong(data));
+    }
+
+    /**
+     * Adds an element.
+     *
+     * @param data the element to add
+     *
+     * @return {@code true} if the bits of this filter have changed
+     */
+    public boolean put(String data) {
+        return putHash(hasher.hashToLong(data));
+    }
+
+    /**
+     * Adds an element.
+     *
+     * @param data the element to add
+     *
+     * @return {@code true} if the bits of this filter have changed
+     */
+    public boolean put(byte[] data) {
+        return putHash(hasher.hashToLong(data));
+    }
+
+    /**
+     * Checks whether an element might have been added, from its pre-calculated hash code.
+     *
+     * @param hashCode the hash code of the element
+     *
+     * @return {@code false} if the element has certainly not been added, {@code true} if it has probably been added
+     */
+    public boolean mightContainHash(HashCode hashCode) {
+        checkNotNull(hashCode, "hashCode");
+
+        if (hashCode instanceof LongPairHashCode) {
+            LongPairHashCode pair = (LongPairHashCode) hashCode;
+            return mightContain(pair.high(), pair.low());
+        }
+        else if (hashCode.bits() > Long.SIZE) {
+            final byte[] bytes = hashCode.toBytes();
+            return mightContain(hashCode.toLong(), decodeSecondLong(bytes));
+        }
+        else {
+            return mightContainHash(hashCode.toLong());
+        }
+    }
+
+    /**
+     * Checks whether an element might have been added, from its pre-calculated 64-bit hash value.
+     *
+     * @param hash the hash value of the element
+     *
+     * @return {@code false} if the element has certainly not been added, {@code true} if it has probably been added
+     */
+    public boolean mightContainHash(long hash) {
+        return mightContain(hash, Mixers.mix(hash));
+    }
+
+    /**
+     * Checks whether an element might have been added.
+     *
+     * @param data the element to look for
+     *
+     * @return {@code false} if the element has certainly not been added, {@code true} if it has probably been added
+     */
+    public boolean mightContain(int data) {
+        return mightContainHash(hasher.hashToLong(data));
+    }
+
+    /**
+     * Checks whether an element might have been added.
+     *
+     * @param data the element to look for
+     *
+     * @return {@code false} if the element has certainly not been added, {@code true} if it has probably been added
+     */
+    public boolean mightContain(long data) {
+        return mightContainHash(hasher.hashToLong(data));
+    }
+
+    /**
+     * Checks whether an element might have been added.
+     *
+     * @param data the element to look for
+     *
+     * @return {@code false} if the element has certainly not been added, {@code true} if it has probably been added
+     */
+    public boolean mightContain(String data) {
+        return mightContainHash(hasher.hashToLong(data));
+    }
+
+    /**
+     * Checks whether an element might have been added.
+     *
+     * @param data the element to look for
+     *
+     * @return {@code false} if the element has certainly not been added, {@code true} if it has probably been added
+     */
+    public boolean mightContain(byte[] data) {
+        return mightContainHash(hasher.hashToLong(data));
+    }
+
+    /**
+     * Returns the number of bits of this filter.
+     *
+     * @return the number of bits
+     */
+    @Nonnegative
+    public long bitSize() {
+        return bits.bitSize();
+    }
+
+    /**
+     * Returns the number of hash functions, i.e. the number of bits set for each element.
+     *
+     * @return the number of hash functions
+     */
+    @Nonnegative
+    public int hashFunctions() {
+        return hashFunctions;
+    }
+
+    /**
+     * Returns {@code true} if the bits of this filter are stored in direct memory, outside of the heap.
+     *
+     * @return {@code true} if this filter is stored off-heap
+     */
+    public boolean isOffHeap() {
+        return bits.isOffHeap();
+    }
+
+    /**
+     * Returns the probability that {@link #mightContain(String)} returns {@code true} for an element that has not been
+     * added, according to the current state of this filter.
+     *
+     * @return the expected false positive probability
+     */
+    public double expectedFpp() {
+        return Math.pow((double) bits.cardinality() / bits.bitSize(), hashFunctions);
+    }
+
+    /**
+     * Returns an estimation of the number of distinct elements that have been added to this filter.
+     *
+     * @return the approximate number of elements
+     */
+    @Nonnegative
+    public long approximateElementCount() {
+        final double fractionOfBitsSet = (double) bits.cardinality() / bits.bitSize();
+        return Math.round(-Math.log1p(-fractionOfBitsSet) * bits.bitSize() / hashFunctions);
+    }
+
+    /**
+     * Checks whether this filter can be merged with {@code other}, i.e. whether they have the same number of bits and
+     * hash functions. Their hasher must also be the same, but this cannot be checked.
+     *
+     * @param other the filter to compare with
+     *
+     * @return {@code true} if both filters are compatible
+     */
+    public boolean isCompatible(BloomFilter other) {
+        checkNotNull(other, "other");
+
+        return this != other
+                && bits.bitSize() == other.bits.bitSize()
+                && hashFunctions == other.hashFunctions;
+    }
+
+    /**
+     * Adds all elements of {@code other} to this filter, by combining their bits. The {@code other} filter is not
+     * modified.
+     *
+     * @param other the filter to merge into this one
+     *
+     * @throws IllegalArgumentException if the filters are not compatible
+     * @see #isCompatible(BloomFilter)
+     */
+    public void merge(BloomFilter other) {
+        checkArgument(isCompatible(other), "Cannot merge incompatible filters");
+
+        for (int i = 0, words = bits.wordCount(); i < words; i++) {
+            final long word = other.bits.word(i);
+            if (word != 0) {
+                bits.or(i, word);
+            }
+        }
+    }
+
+    /**
+     * Sets the bits of an element from the two halves of its hash code.
+     *
+     * @param hash1 the first half of the hash code
+     * @param hash2 the second half of the hash code
+     *
+     * @return {@code true} if at least one bit has changed
+     */
+    private boolean put(long hash1, long hash2) {
+        final long bitSize = bits.bitSize();
+
+        boolean changed = false;
+        long combinedHash = hash1;
+        for (int i = 0; i < hashFunctions; i++) {
+            changed |= bits.set((combinedHash & Long.MAX_VALUE) % bitSize);
+            combinedHash += hash2;
+        }
+        return changed;
+    }
+
+    /**
+     * Checks the bits of an element from the two halves of its hash code.
+     *
+     * @param hash1 the first half of the hash code
+     * @param hash2 the second half of the hash code
+     *
+     * @return {@code true} if all bits are set
+     */
+    private boolean mightContain(long hash1, long hash2) {
+        final long bitSize = bits.bitSize();
+
+        long combinedHash = hash1;
+        for (int i = 0; i < hashFunctions; i++) {
+            if (!bits.get((combinedHash & Long.MAX_VALUE) % bitSize)) {
+                return false;
+            }
+            combinedHash += hash2;
+        }
+        return true;
+    }
+
+    /**
+     * Decodes the second 64-bit value of a hash code, in big-endian order.
+     *
+     * @param bytes the bytes of a hash code of at least 128 bits
+     *
+     * @return the decoded value
+     */
+    private static long decodeSecondLong(byte[] bytes) {
+        long value = 0;
+        for (int i = Long.BYTES; i < Long.BYTES * 2; i++) {
+            value = (value << Byte.SIZE) | (bytes[i] & 0xff);
+        }
+        return value;
+    }
+
+    /**
+     * A {@link BinarySerializer} of {@link BloomFilter}s, that writes their parameters followed by their bits.
+     */
+    private static final class BloomFilterSerializer extends AbstractBinarySerializer<BloomFilter> {
+
+        @SuppressWarnings("JavaDoc")
+        private static final long serialVersionUID = 4619364101827764185L;
+
+        /**
+         * The hasher used to hash the elements of the deserialized filters.
+         */
+        @Nonnull
+        private final transient Hasher hasher;
+
+        /**
+         * Constructs a new {@code BloomFilterSerializer}.
+         *
+         * @param hasher the hasher used to hash the elements of the deserialized filters
+         */
+        BloomFilterSerializer(Hasher hasher) {
+            this.hasher = checkNotNull(hasher, "hasher");
+        }
+
+        @Override
+        public void serialize(BloomFilter filter, @WillNotClose DataOutput out) throws IOException {
+            final BitArray bits = filter.bits;
+
+            out.writeByte(filter.hashFunctions);
+            out.writeBoolean(bits.isOffHeap());
+            out.writeInt(bits.wordCount());
+            for (int i = 0, words = bits.wordCount(); i < words; i++) {
+                out.writeLong(bits.word(i));
+            }
+        }
+
+        @Nonnull
+        @Override
+        public BloomFilter deserialize(@WillNotClose DataInput in) throws IOException {
+            final int hashFunctions = in.readUnsignedByte();
+            final boolean offHeap = in.readBoolean();
+            final int words = in.readInt();
+
+            final long bitSize = (long) words * Long.SIZE;
+            BitArray bits = offHeap ? BitArray.offHeap(bitSize) : BitArray.onHeap(bitSize);
+            for (int i = 0; i < words; i++) {
+                final long word = in.readLong();
+                if (word != 0) {
+                    bits.or(i, word);
+                }
+            }
+
+            return new BloomFilter(hasher, bits, hashFunctions);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import static org.atlanmod.commons.Guards.checkNotNull;
+
+/**
+ * A {@link HashSink} that accumulates all written data in a reusable buffer, and hashes it at once with a {@link
+ * Hasher}.
+ * <p>
+ * The buffer grows on demand, and is kept between two calls of {@link #hash()}: once it has reached the size of the
+ * largest hashed sequence, the sink does not allocate anymore.
+ */
+@NotThreadSafe
+@ParametersAreNonnullByDefault
+final class BufferedHashSink extends AbstractHashSink {
+
+    /**
+     * The initial size of the buffer.
+     */
+    private static final int DEFAULT_CAPACITY = 64;
+
+    /**
+     * The hasher used to hash the content of the buffer.
+     */
+    @Nonnull
+    private final Hasher hasher;
+
+    /**
+     * The buffer that contains the written data.
+     */
+    @Nonnull
+    private byte[] buffer = new byte[DEFAULT_CAPACITY];
+
+    /**
+     * The number of bytes written in {@link #buffer}.
+     */
+    @Nonnegative
+    private int size;
+
+    /**
+     * Constructs a new {@code BufferedHashSink} that encodes strings in {@code UTF-8}.
+     *
+     * @param hasher the hasher used to hash the content of the buffer
+     */
+    public BufferedHashSink(Hasher hasher) {
+        this(hasher, false);
+    }
+
+    /**
+     * Constructs a new {@code BufferedHashSink}.
+     *
+     * @param hasher the hasher used to hash the content of the buffer
+     * @param utf16  {@code true} if strings are written as their {@code UTF-16} code units in little-endian order,
+     *               {@code false} if they are encoded in {@code UTF-8}
+     */
+    public BufferedHashSink(Hasher hasher, boolean utf16) {
+        super(utf16);
+        this.hasher = checkNotNull(hasher, "hasher");
+    }
+
+    @Override
+    protected void update(byte data) {
+        ensureCapacity(1);
+        buffer[size++] = data;
+    }
+
+    @Override
+    protected void update(byte[] data, int offset, int length) {
+        ensureCapacity(length);
+        System.arraycopy(data, offset, buffer, size, length);
+        size += length;
+    }
+
+    @Override
+    protected void update(ByteBuffer data) {
+        final int position = data.position();
+        final int length = data.remaining();
+
+        ensureCapacity(length);
+        data.get(buffer, size, length);
+        data.position(position);
+        size += length;
+    }
+
+    @Nonnull
+    @Override
+    public Hasher hasher() {
+        return hasher;
+    }
+
+    @Nonnull
+    @Override
+    public HashCode hash() {
+        try {
+            return hasher.hash(buffer, 0, size);
+        }
+        finally {
+            size = 0;
+        }
+    }
+
+    /**
+     * Ensures that the buffer can receive {@code length} more bytes, and grows it if necessary.
+     *
+     * @param length the number of bytes to write
+     */
+    private void ensureCapacity(@Nonnegative int length) {
+        final int minCapacity = size + length;
+        if (minCapacity > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(minCapacity, buffer.length << 1));
+        }
+    }
+}
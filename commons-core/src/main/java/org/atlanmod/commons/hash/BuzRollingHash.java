@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * A buzhash {@link RollingHash}: a cyclic polynomial hash, where each byte is substituted by a random value, and the
+ * oldest byte is removed by XOR-ing its rotated value.
+ */
+@NotThreadSafe
+@ParametersAreNonnullByDefault
+final class BuzRollingHash extends AbstractWindowedRollingHash {
+
+    /**
+     * The random value of each byte.
+     */
+    private static final long[] TABLE = new long[256];
+
+    static {
+        for (int i = 0; i < TABLE.length; i++) {
+            TABLE[i] = Mixers.mix(0x62757a68L + i * 0x9e3779b97f4a7c15L);
+        }
+    }
+
+    /**
+     * The rotation of the oldest byte of a full window.
+     */
+    @Nonnegative
+    private final int outRotation;
+
+    /**
+     * Constructs a new {@code BuzRollingHash}.
+     *
+     * @param windowSize the number of bytes in the window
+     */
+    BuzRollingHash(@Nonnegative int windowSize) {
+        super(windowSize);
+        this.outRotation = windowSize % Long.SIZE;
+    }
+
+    @Override
+    protected void append(byte in) {
+        value = Long.rotateLeft(value, 1) ^ TABLE[in & 0xff];
+    }
+
+    @Override
+    protected void roll(byte out, byte in) {
+        value = Long.rotateLeft(value, 1) ^ Long.rotateLeft(TABLE[out & 0xff], outRotation) ^ TABLE[in & 0xff];
+    }
+}
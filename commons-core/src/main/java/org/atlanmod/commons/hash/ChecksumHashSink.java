@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import java.nio.ByteBuffer;
+import java.util.zip.Checksum;
+
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import static org.atlanmod.commons.Guards.checkNotNull;
+
+/**
+ * A {@link HashSink} that streams its data to a 32-bit {@link Checksum}.
+ */
+@NotThreadSafe
+@ParametersAreNonnullByDefault
+final class ChecksumHashSink extends AbstractHashSink {
+
+    /**
+     * The hasher that creates this sink.
+     */
+    @Nonnull
+    private final Hasher hasher;
+
+    /**
+     * The delegated checksum.
+     */
+    @Nonnull
+    private final Checksum checksum;
+
+    /**
+     * Constructs a new {@code ChecksumHashSink}.
+     *
+     * @param hasher   the hasher that creates this sink
+     * @param checksum the delegated checksum
+     */
+    public ChecksumHashSink(Hasher hasher, Checksum checksum) {
+        this.hasher = checkNotNull(hasher, "hasher");
+        this.checksum = checkNotNull(checksum, "checksum");
+    }
+
+    @Override
+    protected void update(byte data) {
+        checksum.update(data);
+    }
+
+    @Override
+    protected void update(byte[] data, int offset, int length) {
+        checksum.update(data, offset, length);
+    }
+
+    @Override
+    protected void update(ByteBuffer data) {
+        final int position = data.position();
+
+        checksum.update(data);
+        data.position(position);
+    }
+
+    @Nonnull
+    @Override
+    public Hasher hasher() {
+        return hasher;
+    }
+
+    @Nonnull
+    @Override
+    public HashCode hash() {
+        final HashCode hashCode = ChecksumHasher.createHashCode(checksum.getValue());
+        checksum.reset();
+        return hashCode;
+    }
+}
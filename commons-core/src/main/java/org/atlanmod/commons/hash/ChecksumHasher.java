@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import org.atlanmod.commons.primitive.Strings;
+
+import java.nio.ByteBuffer;
+import java.util.function.Supplier;
+import java.util.zip.Checksum;
+
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.ThreadSafe;
+
+import static org.atlanmod.commons.Guards.checkNotNull;
+import static org.atlanmod.commons.Guards.checkPositionIndex;
+
+/**
+ * A {@link Hasher} that delegates its calls to a 32-bit {@link Checksum}, such as {@link java.util.zip.CRC32C}.
+ * <p>
+ * The checksums of the JDK are intrinsified on most platforms, and process heap and direct buffers in place. A new
+ * {@link Checksum} is created for each calculation: it only holds a single {@code int}, and never escapes.
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+final class ChecksumHasher implements Hasher {
+
+    /**
+     * The factory of the delegated checksums.
+     */
+    @Nonnull
+    private final Supplier<? extends Checksum> factory;
+
+    /**
+     * Constructs a new {@code ChecksumHasher}.
+     *
+     * @param factory the factory of the delegated checksums
+     */
+    public ChecksumHasher(Supplier<? extends Checksum> factory) {
+        this.factory = checkNotNull(factory, "factory");
+    }
+
+    /**
+     * Creates a new {@link HashCode} from the value of a 32-bit checksum.
+     *
+     * @param value the value of the checksum
+     *
+     * @return a new hash code, whose {@link HashCode#toLong()} is {@code value}
+     */
+    @Nonnull
+    static HashCode createHashCode(long value) {
+        return new BinaryHashCode(new byte[]{
+                (byte) (value >>> 24),
+                (byte) (value >>> 16),
+                (byte) (value >>> 8),
+                (byte) value
+        });
+    }
+
+    @Nonnull
+    @Override
+    public HashCode hash(byte[] data) {
+        return createHashCode(hashToLong(data));
+    }
+
+    @Nonnull
+    @Override
+    public HashCode hash(byte[] data, int offset, int length) {
+        checkPositionIndex(offset, data.length);
+        checkPositionIndex(length, data.length - offset);
+
+        Checksum checksum = factory.get();
+        checksum.update(data, offset, length);
+        return createHashCode(checksum.getValue());
+    }
+
+    @Nonnull
+    @Override
+    public HashCode hash(ByteBuffer data) {
+        return createHashCode(hashToLong(data));
+    }
+
+    @Override
+    public long hashToLong(String data) {
+        return hashToLong(Strings.toBytes(data));
+    }
+
+    @Override
+    public long hashToLong(byte[] data) {
+        Checksum checksum = factory.get();
+        checksum.update(data, 0, data.length);
+        return checksum.getValue();
+    }
+
+    @Override
+    public long hashToLong(ByteBuffer data) {
+        final int position = data.position();
+
+        Checksum checksum = factory.get();
+        checksum.update(data);
+        data.position(position);
+        return checksum.getValue();
+    }
+
+    @Nonnull
+    @Override
+    public HashSink newSink() {
+        return new ChecksumHashSink(this, factory.get());
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+
+import static org.atlanmod.commons.Guards.checkElementIndex;
+import static org.atlanmod.commons.Guards.checkNotNull;
+
+/**
+ * An immutable hash code calculated by a {@link ChunkedHasher}: the root of a hash tree, whose leaves are the hash codes
+ * of each fixed-size chunk of the hashed data.
+ * <p>
+ * This hash code behaves as its {@link #root()}, and also keeps the hash codes of all chunks, in order to detect which
+ * parts of the data have changed between two versions, or to resume an interrupted calculation.
+ *
+ * @see ChunkedHasher
+ */
+@Immutable
+@ParametersAreNonnullByDefault
+public final class ChunkedHashCode implements HashCode {
+
+    @SuppressWarnings("JavaDoc")
+    private static final long serialVersionUID = 2741983216043718207L;
+
+    /**
+     * The root of the hash tree.
+     */
+    @Nonnull
+    private final HashCode root;
+
+    /**
+     * The hash codes of each chunk, in order.
+     */
+    @Nonnull
+    private final HashCode[] chunks;
+
+    /**
+     * The size of each chunk, in bytes; the last one can be smaller.
+     */
+    @Nonnegative
+    private final int chunkSize;
+
+    /**
+     * The total number of hashed bytes.
+     */
+    @Nonnegative
+    private final long length;
+
+    /**
+     * Constructs a new {@code ChunkedHashCode}.
+     *
+     * @param root      the root of the hash tree
+     * @param chunks    the hash codes of each chunk, in order
+     * @param chunkSize the size of each chunk, in bytes
+     * @param length    the total number of hashed bytes
+     */
+    ChunkedHashCode(HashCode root, HashCode[] chunks, @Nonnegative int chunkSize, @Nonnegative long length) {
+        this.root = checkNotNull(root, "root");
+        this.chunks = checkNotNull(chunks, "chunks");
+        this.chunkSize = chunkSize;
+        this.length = length;
+    }
+
+    /**
+     * Returns the root of the hash tree, calculated from the hash codes of all chunks.
+     *
+     * @return the root hash code
+     */
+    @Nonnull
+    public HashCode root() {
+        return root;
+    }
+
+    /**
+     * Returns the size of each chunk, in bytes. The last chunk can be smaller.
+     *
+     * @return the size of each chunk
+     */
+    @Nonnegative
+    public int chunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Returns the total number of hashed bytes.
+     *
+     * @return the number of hashed bytes
+     */
+    @Nonnegative
+    public long length() {
+        return length;
+    }
+
+    /**
+     * Returns the number of chunks.
+     *
+     * @return the number of chunks
+     */
+    @Nonnegative
+    public int chunkCount() {
+        return chunks.length;
+    }
+
+    /**
+     * Returns the hash code of the chunk at the specified {@code index}.
+     *
+     * @param index the index of the chunk
+     *
+     * @return the hash code of the chunk
+     *
+     * @throws IndexOutOfBoundsException if {@code index} is out of range
+     */
+    @Nonnull
+    public HashCode chunk(@Nonnegative int index) {
+        return chunks[checkElementIndex(index, chunks.length)];
+    }
+
+    /**
+     * Returns the hash codes of all chunks, in order.
+     *
+     * @return an unmodifiable list of hash codes
+     */
+    @Nonnull
+    public List<HashCode> chunks() {
+        return Collections.unmodifiableList(Arrays.asList(chunks));
+    }
+
+    /**
+     * Returns the indices of the chunks that differ between this hash code and {@code other}. Chunks that only exist in
+     * one of them are considered as different.
+     *
+     * @param other the hash code to compare with; must have the same chunk size
+     *
+     * @return the ordered list of indices of the different chunks
+     *
+     * @throws IllegalArgumentException if {@code other} does not have the same chunk size
+     */
+    @Nonnull
+    public List<Integer> diff(ChunkedHashCode other) {
+        checkNotNull(other, "other");
+        if (other.chunkSize != chunkSize) {
+            throw new IllegalArgumentException(String.format("Cannot compare chunks of different sizes (%d != %d)", chunkSize, other.chunkSize));
+        }
+
+        final int max = Math.max(chunks.length, other.chunks.length);
+        final int min = Math.min(chunks.length, other.chunks.length);
+
+        List<Integer> indices = new ArrayList<>();
+        for (int i = 0; i < max; i++) {
+            if (i >= min || !chunks[i].equals(other.chunks[i])) {
+                indices.add(i);
+            }
+        }
+        return indices;
+    }
+
+    @Nonnegative
+    @Override
+    public int bits() {
+        return root.bits();
+    }
+
+    @Nonnull
+    @Override
+    public byte[] toBytes() {
+        return root.toBytes();
+    }
+
+    @Override
+    public long toLong() {
+        return root.toLong();
+    }
+
+    @Nonnull
+    @Override
+    public String toHexString() {
+        return root.toHexString();
+    }
+
+    @Override
+    public int hashCode() {
+        return root.hashCode();
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        ChunkedHashCode that = (ChunkedHashCode) o;
+        return chunkSize == that.chunkSize
+                && length == that.length
+                && root.equals(that.root);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("HashCode {%s, %d chunks}", toHexString(), chunks.length);
+    }
+}
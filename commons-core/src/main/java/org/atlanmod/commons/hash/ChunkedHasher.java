@@ -0,0 +1,396 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.ThreadSafe;
+
+import static org.atlanmod.commons.Guards.checkArgument;
+import static org.atlanmod.commons.Guards.checkGreaterThan;
+import static org.atlanmod.commons.Guards.checkNotNull;
+
+/**
+ * A hash function that splits large data into fixed-size chunks, hashes them in parallel on a {@link ForkJoinPool}, and
+ * combines their hash codes into the root of a binary hash tree.
+ * <p>
+ * Each chunk is hashed with the delegated {@link Hasher}, directly from the memory where it is stored: files are
+ * memory-mapped chunk by chunk, so they are never copied on the heap. Each leaf of the tree is the hash of a marker
+ * byte followed by the hash code of its chunk, and each inner node is the hash of another marker byte followed by the
+ * hash codes of its two children, so that a leaf can never be taken for an inner node, as in RFC 6962. When the number
+ * of nodes at a level is odd, the last one is promoted as is.
+ * <p>
+ * The resulting {@link ChunkedHashCode} keeps the hash code of each chunk, so that the changes between two versions of
+ * the same data can be located with {@link ChunkedHashCode#diff(ChunkedHashCode)}, and an interrupted calculation can
+ * be resumed with {@link #hash(Path, List)}.
+ * <p>
+ * Note that the root depends on the chunk size: two instances with a different chunk size produce different hash codes
+ * for the same data.
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+public final class ChunkedHasher {
+
+    /**
+     * The default size of a chunk, in bytes (4 MiB).
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+
+    /**
+     * The byte that precedes the hash code of a chunk in each leaf of the tree.
+     */
+    private static final byte LEAF_MARKER = 0;
+
+    /**
+     * The byte that precedes the children of each inner node of the tree.
+     */
+    private static final byte NODE_MARKER = 1;
+
+    /**
+     * The hasher used for chunks and nodes.
+     */
+    @Nonnull
+    private final Hasher hasher;
+
+    /**
+     * The size of each chunk, in bytes.
+     */
+    @Nonnegative
+    private final int chunkSize;
+
+    /**
+     * The pool where chunks are hashed.
+     */
+    @Nonnull
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructs a new {@code ChunkedHasher}.
+     *
+     * @param hasher    the hasher used for chunks and nodes
+     * @param chunkSize the size of each chunk, in bytes
+     * @param pool      the pool where chunks are hashed
+     */
+    private ChunkedHasher(Hasher hasher, @Nonnegative int chunkSize, ForkJoinPool pool) {
+        this.hasher = checkNotNull(hasher, "hasher");
+        this.chunkSize = checkGreaterThan(chunkSize, 0, "chunkSize (%d) must be positive", chunkSize);
+        this.pool = checkNotNull(pool, "pool");
+    }
+
+    /**
+     * Creates a new {@code ChunkedHasher} with the {@link #DEFAULT_CHUNK_SIZE}, that uses the common {@link
+     * ForkJoinPool}.
+     *
+     * @param hasher the hasher used for chunks and nodes
+     *
+     * @return a new chunked hasher
+     */
+    @Nonnull
+    public static ChunkedHasher of(Hasher hasher) {
+        return of(hasher, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Creates a new {@code ChunkedHasher} that uses the common {@link ForkJoinPool}.
+     *
+     * @param hasher    the hasher used for chunks and nodes
+     * @param chunkSize the size of each chunk, in bytes
+     *
+     * @return a new chunked hasher
+     *
+     * @throws IllegalArgumentException if {@code chunkSize} is not positive
+     */
+    @Nonnull
+    public static ChunkedHasher of(Hasher hasher, @Nonnegative int chunkSize) {
+        return of(hasher, chunkSize, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a new {@code ChunkedHasher}.
+     *
+     * @param hasher    the hasher used for chunks and nodes
+     * @param chunkSize the size of each chunk, in bytes
+     * @param pool      the pool where chunks are hashed
+     *
+     * @return a new chunked hasher
+     *
+     * @throws IllegalArgumentException if {@code chunkSize} is not positive
+     */
+    @Nonnull
+    public static ChunkedHasher of(Hasher hasher, @Nonnegative int chunkSize, ForkJoinPool pool) {
+        return new ChunkedHasher(hasher, chunkSize, pool);
+    }
+
+    /**
+     * Returns the size of each chunk, in bytes.
+     *
+     * @return the size of each chunk
+     */
+    @Nonnegative
+    public int chunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Calculates the {@link ChunkedHashCode} of the remaining bytes of the given {@code buffer}, i.e. the bytes between
+     * its position and its limit. The position, limit and content of the {@code buffer} are not modified.
+     *
+     * @param data the buffer to hash; can be a heap, direct or memory-mapped buffer
+     *
+     * @return a new hash code
+     */
+    @Nonnull
+    public ChunkedHashCode hash(ByteBuffer data) {
+        checkNotNull(data, "data");
+
+        final int position = data.position();
+        final int length = data.remaining();
+
+        HashCode[] chunks = new HashCode[chunkCount(length)];
+        pool.invoke(new ChunkTask(chunks, 0, chunks.length, i -> {
+            final int offset = i * chunkSize;
+            return hasher.hash(data, position + offset, Math.min(chunkSize, length - offset));
+        }));
+
+        return new ChunkedHashCode(root(chunks), chunks, chunkSize, length);
+    }
+
+    /**
+     * Calculates the {@link ChunkedHashCode} of the content of the given {@code file}.
+     *
+     * @param file the file to hash
+     *
+     * @return a new hash code
+     *
+     * @throws IOException if an I/O error occurs when reading the file
+     */
+    @Nonnull
+    public ChunkedHashCode hash(Path file) throws IOException {
+        return hash(file, Collections.emptyList());
+    }
+
+    /**
+     * Calculates the {@link ChunkedHashCode} of the content of the given {@code file}, by reusing the hash codes of the
+     * first chunks when they are already known. This allows to resume an interrupted calculation, without reading again
+     * the chunks that have already been hashed.
+     *
+     * @param file        the file to hash
+     * @param knownChunks the hash codes of the first chunks of the file, as returned by {@link
+     *                    ChunkedHashCode#chunks()}
+     *
+     * @return a new hash code
+     *
+     * @throws IOException              if an I/O error occurs when reading the file
+     * @throws IllegalArgumentException if the file has less chunks than {@code knownChunks}
+     */
+    @Nonnull
+    public ChunkedHashCode hash(Path file, List<HashCode> knownChunks) throws IOException {
+        checkNotNull(file, "file");
+        checkNotNull(knownChunks, "knownChunks");
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long length = channel.size();
+
+            HashCode[] chunks = new HashCode[chunkCount(length)];
+            checkArgument(knownChunks.size() <= chunks.length, "knownChunks (%d) must not exceed the number of chunks (%d)", knownChunks.size(), chunks.length);
+
+            final int first = knownChunks.size();
+            for (int i = 0; i < first; i++) {
+                chunks[i] = checkNotNull(knownChunks.get(i), "knownChunks must not contain null");
+            }
+
+            try {
+                pool.invoke(new ChunkTask(chunks, first, chunks.length, i -> {
+                    final long offset = (long) i * chunkSize;
+                    try {
+                        return hasher.hash(channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(chunkSize, length - offset)));
+                    }
+                    catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+            }
+            catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            return new ChunkedHashCode(root(chunks), chunks, chunkSize, length);
+        }
+    }
+
+    /**
+     * Returns the number of chunks needed to hash {@code length} bytes.
+     *
+     * @param length the number of bytes to hash
+     *
+     * @return the number of chunks
+     *
+     * @throws IllegalArgumentException if the number of chunks exceeds {@link Integer#MAX_VALUE}
+     */
+    @Nonnegative
+    private int chunkCount(@Nonnegative long length) {
+        final long count = (length + chunkSize - 1) / chunkSize;
+        checkArgument(count <= Integer.MAX_VALUE, "Too many chunks (%d): use a larger chunk size", count);
+        return (int) count;
+    }
+
+    /**
+     * Calculates the root of the hash tree whose leaves are the {@code chunks}.
+     *
+     * @param chunks the hash codes of each chunk
+     *
+     * @return the root hash code
+     */
+    @Nonnull
+    private HashCode root(HashCode[] chunks) {
+        if (chunks.length == 0) {
+            return hasher.hash(new byte[0]);
+        }
+
+        HashCode[] level = new HashCode[chunks.length];
+        for (int i = 0; i < chunks.length; i++) {
+            level[i] = leaf(chunks[i]);
+        }
+
+        while (level.length > 1) {
+            HashCode[] parents = new HashCode[(level.length + 1) / 2];
+
+            for (int i = 0; i < parents.length; i++) {
+                final int left = i * 2;
+                parents[i] = left + 1 < level.length
+                        ? node(level[left], level[left + 1])
+                        : level[left];
+            }
+            level = parents;
+        }
+        return level[0];
+    }
+
+    /**
+     * Calculates the hash code of a leaf of the tree from the hash code of its chunk.
+     *
+     * @param chunk the hash code of the chunk
+     *
+     * @return the hash code of the leaf
+     */
+    @Nonnull
+    private HashCode leaf(HashCode chunk) {
+        return hasher.newSink()
+                .putByte(LEAF_MARKER)
+                .putBytes(chunk.toBytes())
+                .hash();
+    }
+
+    /**
+     * Calculates the hash code of an inner node of the tree from the hash codes of its children.
+     *
+     * @param left  the hash code of the left child
+     * @param right the hash code of the right child
+     *
+     * @return the hash code of the node
+     */
+    @Nonnull
+    private HashCode node(HashCode left, HashCode right) {
+        return hasher.newSink()
+                .putByte(NODE_MARKER)
+                .putBytes(left.toBytes())
+                .putBytes(right.toBytes())
+                .hash();
+    }
+
+    /**
+     * A function that calculates the hash code of a chunk from its index.
+     */
+    @FunctionalInterface
+    private interface ChunkFunction {
+
+        /**
+         * Calculates the hash code of the chunk at the specified {@code index}.
+         *
+         * @param index the index of the chunk
+         *
+         * @return the hash code of the chunk
+         */
+        @Nonnull
+        HashCode hash(@Nonnegative int index);
+    }
+
+    /**
+     * A task that hashes a range of chunks, by recursively splitting it in halves.
+     */
+    private static final class ChunkTask extends RecursiveAction {
+
+        @SuppressWarnings("JavaDoc")
+        private static final long serialVersionUID = -3386411025413434620L;
+
+        /**
+         * The array where to store the hash code of each chunk.
+         */
+        @Nonnull
+        private final HashCode[] chunks;
+
+        /**
+         * The index of the first chunk to hash, inclusive.
+         */
+        @Nonnegative
+        private final int from;
+
+        /**
+         * The index of the last chunk to hash, exclusive.
+         */
+        @Nonnegative
+        private final int to;
+
+        /**
+         * The function used to hash a single chunk.
+         */
+        @Nonnull
+        private final transient ChunkFunction function;
+
+        /**
+         * Constructs a new {@code ChunkTask}.
+         *
+         * @param chunks   the array where to store the hash code of each chunk
+         * @param from     the index of the first chunk to hash, inclusive
+         * @param to       the index of the last chunk to hash, exclusive
+         * @param function the function used to hash a single chunk
+         */
+        ChunkTask(HashCode[] chunks, @Nonnegative int from, @Nonnegative int to, ChunkFunction function) {
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+            this.function = function;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                if (from < to) {
+                    chunks[from] = function.hash(from);
+                }
+            }
+            else {
+                final int middle = (from + to) >>> 1;
+                invokeAll(new ChunkTask(chunks, from, middle, function), new ChunkTask(chunks, middle, to, function));
+            }
+        }
+    }
+}
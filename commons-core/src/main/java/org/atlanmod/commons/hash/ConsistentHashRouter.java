@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import static org.atlanmod.commons.Guards.checkGreaterThan;
+import static org.atlanmod.commons.Guards.checkNotNull;
+import static org.atlanmod.commons.Guards.checkState;
+
+/**
+ * A {@link ShardRouter} based on a consistent-hash ring with virtual nodes.
+ * <p>
+ * The ring is an immutable snapshot of sorted positions, replaced on each membership update (copy-on-write): lookups
+ * are a lock-free binary search, and updates are serialized.
+ *
+ * @param <N> the type of nodes
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+final class ConsistentHashRouter<N> implements ShardRouter<N> {
+
+    /**
+     * The hasher used to hash the keys and the nodes.
+     */
+    @Nonnull
+    private final Hasher hasher;
+
+    /**
+     * The number of positions of each node on the ring.
+     */
+    @Nonnegative
+    private final int virtualNodes;
+
+    /**
+     * The current ring.
+     */
+    @Nonnull
+    private volatile Ring<N> ring;
+
+    /**
+     * Constructs a new {@code ConsistentHashRouter}.
+     *
+     * @param hasher       the hasher used to hash the keys and the nodes
+     * @param virtualNodes the number of positions of each node on the ring
+     */
+    ConsistentHashRouter(Hasher hasher, @Nonnegative int virtualNodes) {
+        this.hasher = checkNotNull(hasher, "hasher");
+        this.virtualNodes = checkGreaterThan(virtualNodes, 0, "virtualNodes (%d) must be positive", virtualNodes);
+        this.ring = new Ring<>(Collections.emptyList(), new long[0], new Object[0]);
+    }
+
+    @Nonnull
+    @Override
+    public Hasher hasher() {
+        return hasher;
+    }
+
+    @Nonnull
+    @Override
+    @SuppressWarnings("unchecked")
+    public N routeHash(long hash) {
+        final Ring<N> current = ring;
+        checkState(current.positions.length > 0, "No node to route to");
+
+        int index = Arrays.binarySearch(current.positions, hash);
+        if (index < 0) {
+            index = -index - 1;
+            if (index == current.positions.length) {
+                index = 0;
+            }
+        }
+        return (N) current.owners[index];
+    }
+
+    @Override
+    public synchronized boolean add(N node) {
+        checkNotNull(node, "node");
+
+        if (ring.nodes.contains(node)) {
+            return false;
+        }
+
+        List<N> nodes = new ArrayList<>(ring.nodes);
+        nodes.add(node);
+        ring = build(nodes);
+        return true;
+    }
+
+    @Override
+    public synchronized boolean remove(N node) {
+        checkNotNull(node, "node");
+
+        if (!ring.nodes.contains(node)) {
+            return false;
+        }
+
+        List<N> nodes = new ArrayList<>(ring.nodes);
+        nodes.remove(node);
+        ring = build(nodes);
+        return true;
+    }
+
+    @Nonnull
+    @Override
+    public List<N> nodes() {
+        return ring.nodes;
+    }
+
+    /**
+     * Builds a new ring with the given {@code nodes}.
+     *
+     * @param nodes the nodes of the ring
+     *
+     * @return a new ring
+     */
+    @Nonnull
+    private Ring<N> build(List<N> nodes) {
+        final int size = nodes.size() * virtualNodes;
+
+        // Sort the positions along with their owner, through an array of indices
+        long[] positions = new long[size];
+        Integer[] order = new Integer[size];
+        for (int n = 0; n < nodes.size(); n++) {
+            final String name = nodes.get(n).toString();
+            for (int v = 0; v < virtualNodes; v++) {
+                final int i = n * virtualNodes + v;
+                positions[i] = hasher.newSink().putString(name).putInt(v).hash().toLong();
+                order[i] = i;
+            }
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(positions[a], positions[b]));
+
+        long[] sortedPositions = new long[size];
+        Object[] owners = new Object[size];
+        for (int i = 0; i < size; i++) {
+            sortedPositions[i] = positions[order[i]];
+            owners[i] = nodes.get(order[i] / virtualNodes);
+        }
+
+        return new Ring<>(Collections.unmodifiableList(nodes), sortedPositions, owners);
+    }
+
+    /**
+     * An immutable snapshot of the ring.
+     *
+     * @param <N> the type of nodes
+     */
+    @Immutable
+    private static final class Ring<N> {
+
+        /**
+         * The nodes of the ring, in insertion order.
+         */
+        @Nonnull
+        final List<N> nodes;
+
+        /**
+         * The sorted positions on the ring.
+         */
+        @Nonnull
+        final long[] positions;
+
+        /**
+         * The owner of each position.
+         */
+        @Nonnull
+        final Object[] owners;
+
+        /**
+         * Constructs a new {@code Ring}.
+         *
+         * @param nodes     the nodes of the ring
+         * @param positions the sorted positions on the ring
+         * @param owners    the owner of each position
+         */
+        Ring(List<N> nodes, long[] positions, Object[] owners) {
+            this.nodes = nodes;
+            this.positions = positions;
+            this.owners = owners;
+        }
+    }
+}
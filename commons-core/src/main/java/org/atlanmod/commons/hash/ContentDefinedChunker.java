@@ -0,0 +1,439 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.WillNotClose;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import static org.atlanmod.commons.Guards.checkArgument;
+import static org.atlanmod.commons.Guards.checkGreaterThan;
+import static org.atlanmod.commons.Guards.checkNotNull;
+
+/**
+ * A splitter of data into variable-size chunks, whose boundaries only depend on the local content (content-defined
+ * chunking).
+ * <p>
+ * A boundary is declared each time the high bits of a {@link RollingHash} are all zeros, which happens on average every
+ * {@code averageSize} bytes; chunks are never smaller than {@code minSize} bytes (except the last one), nor larger than
+ * {@code maxSize} bytes. Since boundaries only depend on the surrounding bytes, inserting or removing bytes in data only
+ * changes the chunks around the modification: the other chunks, and their hash code, are unchanged. This makes it
+ * possible to deduplicate large, slowly changing files.
+ * <p>
+ * Each chunk is hashed with the given {@link Hasher}, directly from the memory where it is stored: buffers and
+ * memory-mapped files are never copied on the heap. The rolling hash is not computed over the first {@code minSize}
+ * bytes of each chunk, since they cannot contain a boundary.
+ * <pre>{@code
+ * ContentDefinedChunker chunker = ContentDefinedChunker.of(StandardHashers.XX);
+ * for (ContentDefinedChunker.Chunk chunk : chunker.split(file)) {
+ *     store.putIfAbsent(chunk.hash(), chunk.offset(), chunk.length());
+ * }
+ * }</pre>
+ *
+ * @see RollingHash
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+public final class ContentDefinedChunker {
+
+    /**
+     * The default minimum size of a chunk, in bytes (2 KiB).
+     */
+    public static final int DEFAULT_MIN_SIZE = 2 * 1024;
+
+    /**
+     * The default average size of a chunk, in bytes (8 KiB).
+     */
+    public static final int DEFAULT_AVERAGE_SIZE = 8 * 1024;
+
+    /**
+     * The default maximum size of a chunk, in bytes (64 KiB).
+     */
+    public static final int DEFAULT_MAX_SIZE = 64 * 1024;
+
+    /**
+     * The minimum size of the regions of a file that are mapped at once, in bytes (64 MiB).
+     */
+    private static final int MIN_MAPPED_REGION = 64 * 1024 * 1024;
+
+    /**
+     * The hasher used to hash each chunk.
+     */
+    @Nonnull
+    private final Hasher hasher;
+
+    /**
+     * The factory of rolling hashes used to find the boundaries.
+     */
+    @Nonnull
+    private final Supplier<? extends RollingHash> rollingHashes;
+
+    /**
+     * The minimum size of a chunk.
+     */
+    @Nonnegative
+    private final int minSize;
+
+    /**
+     * The maximum size of a chunk.
+     */
+    @Nonnegative
+    private final int maxSize;
+
+    /**
+     * The mask of the high bits of the rolling hash that must be zeros at a boundary.
+     */
+    private final long mask;
+
+    /**
+     * Constructs a new {@code ContentDefinedChunker}.
+     *
+     * @param hasher        the hasher used to hash each chunk
+     * @param rollingHashes the factory of rolling hashes used to find the boundaries
+     * @param minSize       the minimum size of a chunk
+     * @param averageSize   the average size of a chunk; a power of two
+     * @param maxSize       the maximum size of a chunk
+     */
+    private ContentDefinedChunker(Hasher hasher, Supplier<? extends RollingHash> rollingHashes, @Nonnegative int minSize, @Nonnegative int averageSize, @Nonnegative int maxSize) {
+        this.hasher = checkNotNull(hasher, "hasher");
+        this.rollingHashes = checkNotNull(rollingHashes, "rollingHashes");
+
+        checkGreaterThan(minSize, 0, "minSize (%d) must be positive", minSize);
+        checkArgument(Integer.bitCount(averageSize) == 1, "averageSize (%d) must be a power of two", averageSize);
+        checkArgument(minSize <= averageSize && averageSize <= maxSize, "sizes must be ordered: minSize (%d) <= averageSize (%d) <= maxSize (%d)", minSize, averageSize, maxSize);
+
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.mask = -1L << (Long.SIZE - Integer.numberOfTrailingZeros(averageSize));
+    }
+
+    /**
+     * Creates a new {@code ContentDefinedChunker} with the default sizes, that uses a {@linkplain RollingHash#gear()
+     * Gear} rolling hash.
+     *
+     * @param hasher the hasher used to hash each chunk
+     *
+     * @return a new chunker
+     */
+    @Nonnull
+    public static ContentDefinedChunker of(Hasher hasher) {
+        return of(hasher, RollingHash::gear, DEFAULT_MIN_SIZE, DEFAULT_AVERAGE_SIZE, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Creates a new {@code ContentDefinedChunker}.
+     *
+     * @param hasher        the hasher used to hash each chunk
+     * @param rollingHashes the factory of rolling hashes used to find the boundaries; called for each split data
+     * @param minSize       the minimum size of a chunk, in bytes
+     * @param averageSize   the average size of a chunk, in bytes; must be a power of two
+     * @param maxSize       the maximum size of a chunk, in bytes
+     *
+     * @return a new chunker
+     *
+     * @throws IllegalArgumentException if {@code minSize} is not positive, if {@code averageSize} is not a power of two,
+     *                                  or if the sizes are not ordered
+     */
+    @Nonnull
+    public static ContentDefinedChunker of(Hasher hasher, Supplier<? extends RollingHash> rollingHashes, @Nonnegative int minSize, @Nonnegative int averageSize, @Nonnegative int maxSize) {
+        return new ContentDefinedChunker(hasher, rollingHashes, minSize, averageSize, maxSize);
+    }
+
+    /**
+     * Splits the remaining bytes of the given {@code buffer}, i.e. the bytes between its position and its limit. The
+     * position, limit and content of the {@code buffer} are not modified.
+     *
+     * @param data the buffer to split; can be a heap, direct or memory-mapped buffer
+     *
+     * @return the ordered list of chunks
+     */
+    @Nonnull
+    public List<Chunk> split(ByteBuffer data) {
+        List<Chunk> chunks = new ArrayList<>();
+        split(data, chunks::add);
+        return chunks;
+    }
+
+    /**
+     * Splits the remaining bytes of the given {@code buffer}, i.e. the bytes between its position and its limit, and
+     * passes each chunk to the {@code action}, in order. The position, limit and content of the {@code buffer} are not
+     * modified.
+     *
+     * @param data   the buffer to split; can be a heap, direct or memory-mapped buffer
+     * @param action the action to perform on each chunk
+     */
+    public void split(ByteBuffer data, Consumer<? super Chunk> action) {
+        checkNotNull(data, "data");
+        checkNotNull(action, "action");
+
+        final int base = data.position();
+        splitRegion(rollingHashes.get(), data, base, data.limit(), true, -base, action);
+    }
+
+    /**
+     * Splits the content of the given {@code file}, by mapping it in memory.
+     *
+     * @param file the file to split
+     *
+     * @return the ordered list of chunks
+     *
+     * @throws IOException if an I/O error occurs when reading the file
+     */
+    @Nonnull
+    public List<Chunk> split(Path file) throws IOException {
+        checkNotNull(file, "file");
+
+        List<Chunk> chunks = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            split(channel, chunks::add);
+        }
+        return chunks;
+    }
+
+    /**
+     * Splits the content of the given {@code channel}, from its beginning, by mapping it in memory region by region,
+     * and passes each chunk to the {@code action}, in order.
+     *
+     * @param channel the channel to split
+     * @param action  the action to perform on each chunk
+     *
+     * @throws IOException if an I/O error occurs when reading the channel
+     */
+    public void split(@WillNotClose FileChannel channel, Consumer<? super Chunk> action) throws IOException {
+        checkNotNull(channel, "channel");
+        checkNotNull(action, "action");
+
+        final RollingHash rollingHash = rollingHashes.get();
+        final long size = channel.size();
+        final long regionSize = Math.max(MIN_MAPPED_REGION, maxSize);
+
+        long position = 0;
+        while (position < size) {
+            final long length = Math.min(regionSize, size - position);
+            final boolean last = position + length == size;
+
+            ByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            position += splitRegion(rollingHash, region, 0, region.limit(), last, position, action);
+        }
+    }
+
+    /**
+     * Splits the content of the given {@code stream}, and passes each chunk to the {@code action}, in order. The stream
+     * is read through a buffer of {@code 2 * maxSize} bytes, which is the only copy of the data.
+     *
+     * @param in     the stream to split
+     * @param action the action to perform on each chunk
+     *
+     * @throws IOException if an I/O error occurs when reading the stream
+     */
+    public void split(@WillNotClose InputStream in, Consumer<? super Chunk> action) throws IOException {
+        checkNotNull(in, "in");
+        checkNotNull(action, "action");
+
+        final RollingHash rollingHash = rollingHashes.get();
+        final byte[] buffer = new byte[maxSize * 2];
+        final ByteBuffer wrapper = ByteBuffer.wrap(buffer);
+
+        long offset = 0;
+        int size = 0;
+        boolean eof = false;
+        while (!eof || size > 0) {
+            // Fill the buffer
+            while (!eof && size < buffer.length) {
+                final int read = in.read(buffer, size, buffer.length - size);
+                if (read < 0) {
+                    eof = true;
+                }
+                else {
+                    size += read;
+                }
+            }
+
+            final int consumed = splitRegion(rollingHash, wrapper, 0, size, eof, offset, action);
+
+            // Keep the remaining bytes for the next chunk
+            System.arraycopy(buffer, consumed, buffer, 0, size - consumed);
+            size -= consumed;
+            offset += consumed;
+        }
+    }
+
+    /**
+     * Splits the bytes of {@code data} from {@code from} to {@code to}, and passes each complete chunk to the {@code
+     * action}. A chunk is complete if it ends with a boundary, if it reaches the maximum size, or if it ends at {@code
+     * to} when {@code last} is {@code true}.
+     *
+     * @param rollingHash the rolling hash used to find the boundaries
+     * @param data        the buffer to split
+     * @param from        the index of the first byte to split, inclusive
+     * @param to          the index of the last byte to split, exclusive
+     * @param last        {@code true} if there is no more data after {@code to}
+     * @param offset      the offset to add to indices in {@code data} to get the offset of a chunk in the whole data
+     * @param action      the action to perform on each chunk
+     *
+     * @return the number of bytes that have been passed as chunks
+     */
+    @Nonnegative
+    private int splitRegion(RollingHash rollingHash, ByteBuffer data, @Nonnegative int from, @Nonnegative int to, boolean last, long offset, Consumer<? super Chunk> action) {
+        int start = from;
+        while (start < to) {
+            final int length = nextBoundary(rollingHash, data, start, to, last);
+            if (length < 0) {
+                break;
+            }
+
+            action.accept(new Chunk(offset + start, length, hasher.hash(data, start, length)));
+            start += length;
+        }
+        return start - from;
+    }
+
+    /**
+     * Finds the length of the chunk starting at {@code start}.
+     *
+     * @param rollingHash the rolling hash used to find the boundaries
+     * @param data        the buffer to read
+     * @param start       the index of the first byte of the chunk
+     * @param to          the index of the last available byte, exclusive
+     * @param last        {@code true} if there is no more data after {@code to}
+     *
+     * @return the length of the chunk, or {@code -1} if more data is needed to find its end
+     */
+    private int nextBoundary(RollingHash rollingHash, ByteBuffer data, @Nonnegative int start, @Nonnegative int to, boolean last) {
+        final int available = to - start;
+        if (available <= minSize) {
+            return last || available == maxSize ? available : -1;
+        }
+
+        final int end = start + Math.min(available, maxSize);
+
+        // The first bytes of a chunk cannot contain a boundary: only fill the window before the minimum size
+        rollingHash.reset();
+        for (int i = Math.max(start, start + minSize - rollingHash.windowSize()); i < start + minSize; i++) {
+            rollingHash.update(data.get(i));
+        }
+
+        for (int i = start + minSize; i < end; i++) {
+            if ((rollingHash.update(data.get(i)) & mask) == 0) {
+                return i + 1 - start;
+            }
+        }
+
+        return end - start == maxSize || last ? end - start : -1;
+    }
+
+    /**
+     * A chunk of data, identified by its position and its hash code.
+     */
+    @Immutable
+    public static final class Chunk {
+
+        /**
+         * The offset of this chunk in the split data.
+         */
+        @Nonnegative
+        private final long offset;
+
+        /**
+         * The length of this chunk, in bytes.
+         */
+        @Nonnegative
+        private final int length;
+
+        /**
+         * The hash code of the content of this chunk.
+         */
+        @Nonnull
+        private final HashCode hash;
+
+        /**
+         * Constructs a new {@code Chunk}.
+         *
+         * @param offset the offset of this chunk in the split data
+         * @param length the length of this chunk, in bytes
+         * @param hash   the hash code of the content of this chunk
+         */
+        Chunk(@Nonnegative long offset, @Nonnegative int length, HashCode hash) {
+            this.offset = offset;
+            this.length = length;
+            this.hash = hash;
+        }
+
+        /**
+         * Returns the offset of this chunk in the split data.
+         *
+         * @return the offset
+         */
+        @Nonnegative
+        public long offset() {
+            return offset;
+        }
+
+        /**
+         * Returns the length of this chunk, in bytes.
+         *
+         * @return the length
+         */
+        @Nonnegative
+        public int length() {
+            return length;
+        }
+
+        /**
+         * Returns the hash code of the content of this chunk.
+         *
+         * @return the hash code
+         */
+        @Nonnull
+        public HashCode hash() {
+            return hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(offset, length, hash);
+        }
+
+        @Override
+        public boolean equals(@Nullable Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+
+            Chunk that = (Chunk) o;
+            return offset == that.offset
+                    && length == that.length
+                    && hash.equals(that.hash);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Chunk {offset=%d, length=%d, hash=%s}", offset, length, hash.toHexString());
+        }
+    }
+}
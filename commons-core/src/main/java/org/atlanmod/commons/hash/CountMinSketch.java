@@ -0,0 +1,490 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.ThreadSafe;
+
+import static org.atlanmod.commons.Guards.checkArgument;
+import static org.atlanmod.commons.Guards.checkGreaterThan;
+import static org.atlanmod.commons.Guards.checkGreaterThanOrEqualTo;
+import static org.atlanmod.commons.Guards.checkNotNull;
+
+/**
+ * A Count-Min sketch, that estimates the frequency of elements in a stream with a fixed amount of memory.
+ * <p>
+ * The sketch is a matrix of {@code depth} rows of {@code width} counters: each element increments one counter per row,
+ * and its frequency is estimated as the minimum of these counters. Estimations are never lower than the actual
+ * frequency, and exceed it by at most {@code epsilon * totalCount} with a probability of {@code confidence}. The sketch
+ * uses <i>conservative update</i>: only the counters that are lower than the new estimation are increased, which
+ * significantly reduces the over-estimation.
+ * <p>
+ * Each element is hashed only once, with {@link Hasher#hashToLong(String)}; the counter of each row is derived from this
+ * hash value by double hashing. Counters are updated with atomic compare-and-set operations, without locking: an
+ * addition only raises the counters that hold the estimation if they have not changed since it was read, and starts
+ * over otherwise, so that concurrent additions of the same element are never merged into one.
+ * <p>
+ * To run permanently, e.g. on hot paths, a sketch can be aged: {@link #decay()} halves all counters, so that old
+ * occurrences progressively lose their weight. A sketch created with a {@code decayPeriod} decays automatically each
+ * time this number of occurrences has been added.
+ *
+ * @see HeavyHitters
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+public final class CountMinSketch {
+
+    /**
+     * The handle used to atomically update the counters.
+     */
+    private static final VarHandle COUNTERS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    /**
+     * The maximum number of rows, so that the rows holding an estimation fit in a {@code long} bit set.
+     */
+    private static final int MAXIMUM_DEPTH = Long.SIZE;
+
+    /**
+     * The hasher used to hash the elements.
+     */
+    @Nonnull
+    private final Hasher hasher;
+
+    /**
+     * The number of rows.
+     */
+    @Nonnegative
+    private final int depth;
+
+    /**
+     * The number of counters per row.
+     */
+    @Nonnegative
+    private final int width;
+
+    /**
+     * The counters, row by row.
+     */
+    @Nonnull
+    private final long[] counters;
+
+    /**
+     * The number of occurrences between two automatic decays, or {@code 0} if this sketch never decays automatically.
+     */
+    @Nonnegative
+    private final long decayPeriod;
+
+    /**
+     * The total number of occurrences that have been added, halved on each decay.
+     */
+    @Nonnull
+    private final AtomicLong totalCount = new AtomicLong();
+
+    /**
+     * The number of occurrences added since the last automatic decay.
+     */
+    @Nonnull
+    private final AtomicLong sinceDecay = new AtomicLong();
+
+    /**
+     * The number of decays applied to this sketch.
+     */
+    @Nonnull
+    private final AtomicLong decays = new AtomicLong();
+
+    /**
+     * Constructs a new {@code CountMinSketch}.
+     *
+     * @param hasher      the hasher used to hash the elements
+     * @param depth       the number of rows
+     * @param width       the number of counters per row
+     * @param decayPeriod the number of occurrences between two automatic decays, or {@code 0}
+     */
+    private CountMinSketch(Hasher hasher, @Nonnegative int depth, @Nonnegative int width, @Nonnegative long decayPeriod) {
+        this.hasher = checkNotNull(hasher, "hasher");
+        this.depth = checkGreaterThan(depth, 0, "depth (%d) must be positive", depth);
+        checkArgument(depth <= MAXIMUM_DEPTH, "depth (%d) must not exceed %d", depth, MAXIMUM_DEPTH);
+        this.width = checkGreaterThan(width, 0, "width (%d) must be positive", width);
+        this.decayPeriod = checkGreaterThanOrEqualTo(decayPeriod, 0L, "decayPeriod (%d) must not be negative", decayPeriod);
+
+        checkArgument((long) depth * width <= Integer.MAX_VALUE - 8, "depth * width (%d) is too large", (long) depth * width);
+        this.counters = new long[depth * width];
+    }
+
+    /**
+     * Creates a new {@code CountMinSketch} with the given dimensions, that never decays automatically.
+     *
+     * @param hasher the hasher used to hash the elements; must produce well-distributed 64-bit values
+     * @param depth  the number of rows
+     * @param width  the number of counters per row
+     *
+     * @return a new sketch
+     *
+     * @throws IllegalArgumentException if {@code depth} or {@code width} is not positive, or if {@code depth} exceeds
+     *                                  {@code 64}
+     */
+    @Nonnull
+    public static CountMinSketch create(Hasher hasher, @Nonnegative int depth, @Nonnegative int width) {
+        return new CountMinSketch(hasher, depth, width, 0);
+    }
+
+    /**
+     * Creates a new {@code CountMinSketch} sized for the given error bounds, that never decays automatically.
+     *
+     * @param hasher     the hasher used to hash the elements; must produce well-distributed 64-bit values
+     * @param epsilon    the maximum over-estimation, relative to the total count
+     * @param confidence the probability that an estimation respects the {@code epsilon} bound
+     *
+     * @return a new sketch
+     *
+     * @throws IllegalArgumentException if {@code epsilon} or {@code confidence} is not between {@code 0} and {@code 1}
+     *                                  exclusive
+     */
+    @Nonnull
+    public static CountMinSketch create(Hasher hasher, double epsilon, double confidence) {
+        return create(hasher, epsilon, confidence, 0);
+    }
+
+    /**
+     * Creates a new {@code CountMinSketch} sized for the given error bounds, that decays automatically each time {@code
+     * decayPeriod} occurrences have been added.
+     *
+     * @param hasher      the hasher used to hash the elements; must produce well-distributed 64-bit values
+     * @param epsilon     the maximum over-estimation, relative to the total count
+     * @param confidence  the probability that an estimation respects the {@code epsilon} bound
+     * @param decayPeriod the number of occurrences between two automatic decays, or {@code 0} to never decay
+     *                    automatically
+     *
+     * @return a new sketch
+     *
+     * @throws IllegalArgumentException if {@code epsilon} or {@code confidence} is not between {@code 0} and {@code 1}
+     *                                  exclusive, or if {@code decayPeriod} is negative
+     * @see #decay()
+     */
+    @Nonnull
+    public static CountMinSketch create(Hasher hasher, double epsilon, double confidence, @Nonnegative long decayPeriod) {
+        checkArgument(epsilon > 0 && epsilon < 1, "epsilon (%s) must be between 0 and 1", epsilon);
+        checkArgument(confidence > 0 && confidence < 1, "confidence (%s) must be between 0 and 1", confidence);
+
+        final int width = (int) Math.min(Integer.MAX_VALUE, Math.ceil(Math.E / epsilon));
+        final int depth = (int) Math.ceil(-Math.log(1 - confidence));
+
+        return new CountMinSketch(hasher, depth, width, decayPeriod);
+    }
+
+    /**
+     * Adds {@code count} occurrences of an element, from its pre-calculated 64-bit hash value.
+     *
+     * @param hash  the hash value of the element
+     * @param count the number of occurrences to add
+     *
+     * @return the new estimated frequency of the element
+     *
+     * @throws IllegalArgumentException if {@code count} is negative
+     */
+    @Nonnegative
+    public long addHash(long hash, @Nonnegative long count) {
+        checkGreaterThanOrEqualTo(count, 0L, "count (%d) must not be negative", count);
+
+        final long hash2 = Mixers.mix(hash);
+
+        long target;
+        attempt:
+        while (true) {
+            // Read the estimation, and the rows that hold it
+            long min = Long.MAX_VALUE;
+            long minRows = 0L;
+
+            long combinedHash = hash;
+            for (int row = 0; row < depth; row++) {
+                final long current = (long) COUNTERS.getVolatile(counters, index(row, combinedHash));
+                if (current < min) {
+                    min = current;
+                    minRows = 1L << row;
+                }
+                else if (current == min) {
+                    minRows |= 1L << row;
+                }
+                combinedHash += hash2;
+            }
+
+            // Conservative update: raise each counter to the new estimation, but never above
+            target = min + count;
+
+            combinedHash = hash;
+            for (int row = 0; row < depth; row++) {
+                final int index = index(row, combinedHash);
+
+                if ((minRows & 1L << row) != 0) {
+                    // A concurrent addition of the same element raised this counter from the same estimation: the
+                    // occurrences would be merged, so start over from the new estimation
+                    if (!COUNTERS.compareAndSet(counters, index, min, target)) {
+                        continue attempt;
+                    }
+                }
+                else {
+                    long current;
+                    do {
+                        current = (long) COUNTERS.getVolatile(counters, index);
+                    }
+                    while (current < target && !COUNTERS.compareAndSet(counters, index, current, target));
+                }
+
+                combinedHash += hash2;
+            }
+            break;
+        }
+
+        totalCount.addAndGet(count);
+        if (decayPeriod > 0 && count > 0) {
+            sinceDecay.addAndGet(count);
+
+            // Each elapsed period is consumed by a single thread, which decays the sketch once for it
+            long added;
+            while ((added = sinceDecay.get()) >= decayPeriod) {
+                if (sinceDecay.compareAndSet(added, added - decayPeriod)) {
+                    decay();
+                }
+            }
+        }
+
+        return target;
+    }
+
+    /**
+     * Adds one occurrence of an element, from its pre-calculated 64-bit hash value.
+     *
+     * @param hash the hash value of the element
+     *
+     * @return the new estimated frequency of the element
+     */
+    @Nonnegative
+    public long addHash(long hash) {
+        return addHash(hash, 1);
+    }
+
+    /**
+     * Adds one occurrence of an element.
+     *
+     * @param data the element to add
+     *
+     * @return the new estimated frequency of the element
+     */
+    @Nonnegative
+    public long add(int data) {
+        return addHash(hasher.hashToLong(data));
+    }
+
+    /**
+     * Adds one occurrence of an element.
+     *
+     * @param data the element to add
+     *
+     * @return the new estimated frequency of the element
+     */
+    @Nonnegative
+    public long add(long data) {
+        return addHash(hasher.hashToLong(data));
+    }
+
+    /**
+     * Adds one occurrence of an element.
+     *
+     * @param data the element to add
+     *
+     * @return the new estimated frequency of the element
+     */
+    @Nonnegative
+    public long add(String data) {
+        return addHash(hasher.hashToLong(data));
+    }
+
+    /**
+     * Adds one occurrence of an element.
+     *
+     * @param data the element to add
+     *
+     * @return the new estimated frequency of the element
+     */
+    @Nonnegative
+    public long add(byte[] data) {
+        return addHash(hasher.hashToLong(data));
+    }
+
+    /**
+     * Estimates the frequency of an element, from its pre-calculated 64-bit hash value.
+     *
+     * @param hash the hash value of the element
+     *
+     * @return the estimated frequency, never lower than the actual one
+     */
+    @Nonnegative
+    public long estimateHash(long hash) {
+        return estimate(hash, Mixers.mix(hash));
+    }
+
+    /**
+     * Estimates the frequency of an element.
+     *
+     * @param data the element to look for
+     *
+     * @return the estimated frequency, never lower than the actual one
+     */
+    @Nonnegative
+    public long estimate(int data) {
+        return estimateHash(hasher.hashToLong(data));
+    }
+
+    /**
+     * Estimates the frequency of an element.
+     *
+     * @param data the element to look for
+     *
+     * @return the estimated frequency, never lower than the actual one
+     */
+    @Nonnegative
+    public long estimate(long data) {
+        return estimateHash(hasher.hashToLong(data));
+    }
+
+    /**
+     * Estimates the frequency of an element.
+     *
+     * @param data the element to look for
+     *
+     * @return the estimated frequency, never lower than the actual one
+     */
+    @Nonnegative
+    public long estimate(String data) {
+        return estimateHash(hasher.hashToLong(data));
+    }
+
+    /**
+     * Estimates the frequency of an element.
+     *
+     * @param data the element to look for
+     *
+     * @return the estimated frequency, never lower than the actual one
+     */
+    @Nonnegative
+    public long estimate(byte[] data) {
+        return estimateHash(hasher.hashToLong(data));
+    }
+
+    /**
+     * Halves all counters of this sketch, so that old occurrences progressively lose their weight compared to new
+     * ones.
+     */
+    public void decay() {
+        for (int i = 0; i < counters.length; i++) {
+            long current;
+            do {
+                current = (long) COUNTERS.getVolatile(counters, i);
+            }
+            while (current != 0 && !COUNTERS.compareAndSet(counters, i, current, current >>> 1));
+        }
+
+        long current;
+        do {
+            current = totalCount.get();
+        }
+        while (!totalCount.compareAndSet(current, current >>> 1));
+
+        decays.incrementAndGet();
+    }
+
+    /**
+     * Returns the total number of occurrences that have been added to this sketch, halved on each decay.
+     *
+     * @return the total count
+     */
+    @Nonnegative
+    public long totalCount() {
+        return totalCount.get();
+    }
+
+    /**
+     * Returns the number of decays that have been applied to this sketch.
+     *
+     * @return the number of decays
+     */
+    @Nonnegative
+    public long decayCount() {
+        return decays.get();
+    }
+
+    /**
+     * Returns the number of rows of this sketch.
+     *
+     * @return the depth
+     */
+    @Nonnegative
+    public int depth() {
+        return depth;
+    }
+
+    /**
+     * Returns the number of counters per row of this sketch.
+     *
+     * @return the width
+     */
+    @Nonnegative
+    public int width() {
+        return width;
+    }
+
+    /**
+     * Returns the hasher used to hash the elements.
+     *
+     * @return the hasher
+     */
+    @Nonnull
+    public Hasher hasher() {
+        return hasher;
+    }
+
+    /**
+     * Returns the minimum of the counters of an element.
+     *
+     * @param hash1 the hash value of the element
+     * @param hash2 the mixed hash value of the element
+     *
+     * @return the estimated frequency
+     */
+    @Nonnegative
+    private long estimate(long hash1, long hash2) {
+        long min = Long.MAX_VALUE;
+
+        long combinedHash = hash1;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, (long) COUNTERS.getVolatile(counters, index(row, combinedHash)));
+            combinedHash += hash2;
+        }
+        return min;
+    }
+
+    /**
+     * Returns the index of the counter of the given {@code row} for a hash value.
+     *
+     * @param row  the row
+     * @param hash the hash value of the element for this row
+     *
+     * @return the index of the counter
+     */
+    @Nonnegative
+    private int index(@Nonnegative int row, long hash) {
+        return row * width + (int) ((hash & Long.MAX_VALUE) % width);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import static org.atlanmod.commons.Guards.checkNotNull;
+
+/**
+ * A {@link HashSink} that streams all written data to a {@link MessageDigest}, without buffering.
+ */
+@NotThreadSafe
+@ParametersAreNonnullByDefault
+final class DigestHashSink extends AbstractHashSink {
+
+    /**
+     * The hasher that creates this sink.
+     */
+    @Nonnull
+    private final Hasher hasher;
+
+    /**
+     * The digest that receives the written data; owned by this sink.
+     */
+    @Nonnull
+    private final MessageDigest digest;
+
+    /**
+     * Constructs a new {@code DigestHashSink}.
+     *
+     * @param hasher the hasher that creates this sink
+     * @param digest the digest that receives the written data
+     */
+    public DigestHashSink(Hasher hasher, MessageDigest digest) {
+        this.hasher = checkNotNull(hasher, "hasher");
+        this.digest = checkNotNull(digest, "digest");
+    }
+
+    @Override
+    protected void update(byte data) {
+        digest.update(data);
+    }
+
+    @Override
+    protected void update(byte[] data, int offset, int length) {
+        digest.update(data, offset, length);
+    }
+
+    @Override
+    protected void update(ByteBuffer data) {
+        final int position = data.position();
+
+        digest.update(data);
+        data.position(position);
+    }
+
+    @Nonnull
+    @Override
+    public Hasher hasher() {
+        return hasher;
+    }
+
+    @Nonnull
+    @Override
+    public HashCode hash() {
+        return new BinaryHashCode(digest.digest());
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import org.atlanmod.commons.reflect.ReflectionException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+
+import static org.atlanmod.commons.Guards.checkNotNull;
+
+/**
+ * A {@link Funnel} that streams a list of fields of an object, through {@link MethodHandle} accessors.
+ * <p>
+ * Each accessor is adapted to return the exact primitive type of its field, so reading a primitive field does not box
+ * its value. The accessors are stored in instance fields, so the JIT compiler does not inline them as constants: this
+ * funnel trades some speed for not having to write a dedicated one.
+ *
+ * @param <T> the type of funneled objects
+ * @see Funnels#fields(Class)
+ */
+@Immutable
+@ParametersAreNonnullByDefault
+final class FieldFunnel<T> implements Funnel<T> {
+
+    /**
+     * The type of funneled objects.
+     */
+    @Nonnull
+    private final Class<?> type;
+
+    /**
+     * The writer of each field, in order.
+     */
+    @Nonnull
+    private final FieldWriter[] writers;
+
+    /**
+     * Constructs a new {@code FieldFunnel}.
+     *
+     * @param type   the type of funneled objects
+     * @param fields the fields to stream, in order
+     *
+     * @throws ReflectionException if a field cannot be accessed
+     */
+    FieldFunnel(Class<?> type, List<Field> fields) {
+        this.type = type;
+        this.writers = fields.stream().map(FieldFunnel::writerOf).toArray(FieldWriter[]::new);
+    }
+
+    @Override
+    public void funnel(T from, HashSink into) {
+        checkNotNull(from, "from");
+
+        try {
+            for (FieldWriter writer : writers) {
+                writer.write(from, into);
+            }
+        }
+        catch (RuntimeException | Error e) {
+            throw e;
+        }
+        catch (Throwable e) {
+            throw new ReflectionException(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("FieldFunnel {%s, %d fields}", type.getName(), writers.length);
+    }
+
+    /**
+     * Creates the writer of the given {@code field}, according to its declared type.
+     *
+     * @param field the field to write
+     *
+     * @return a new writer
+     *
+     * @throws ReflectionException if the field cannot be accessed
+     */
+    @Nonnull
+    private static FieldWriter writerOf(Field field) {
+        final Class<?> fieldType = field.getType();
+        final MethodHandle getter = getterOf(field).asType(MethodType.methodType(fieldType.isPrimitive() ? fieldType : Object.class, Object.class));
+
+        if (fieldType == boolean.class) {
+            return (o, s) -> s.putBoolean((boolean) getter.invokeExact(o));
+        }
+        else if (fieldType == byte.class) {
+            return (o, s) -> s.putByte((byte) getter.invokeExact(o));
+        }
+        else if (fieldType == char.class) {
+            return (o, s) -> s.putChar((char) getter.invokeExact(o));
+        }
+        else if (fieldType == short.class) {
+            return (o, s) -> s.putShort((short) getter.invokeExact(o));
+        }
+        else if (fieldType == int.class) {
+            return (o, s) -> s.putInt((int) getter.invokeExact(o));
+        }
+        else if (fieldType == long.class) {
+            return (o, s) -> s.putLong((long) getter.invokeExact(o));
+        }
+        else if (fieldType == float.class) {
+            return (o, s) -> s.putFloat((float) getter.invokeExact(o));
+        }
+        else if (fieldType == double.class) {
+            return (o, s) -> s.putDouble((double) getter.invokeExact(o));
+        }
+        else if (fieldType == String.class) {
+            return (o, s) -> {
+                final String value = (String) (Object) getter.invokeExact(o);
+                if (value == null) {
+                    s.putBoolean(false);
+                }
+                else {
+                    Funnels.putString(value, s.putBoolean(true));
+                }
+            };
+        }
+        else {
+            return (o, s) -> Funnels.putValue((Object) getter.invokeExact(o), s);
+        }
+    }
+
+    /**
+     * Creates a getter of the given {@code field}, bypassing the access checks.
+     *
+     * @param field the field to read
+     *
+     * @return a method handle of type {@code (DeclaringClass) -> FieldType}
+     *
+     * @throws ReflectionException if the field cannot be accessed
+     */
+    @Nonnull
+    private static MethodHandle getterOf(Field field) {
+        try {
+            field.setAccessible(true);
+            return MethodHandles.lookup().unreflectGetter(field);
+        }
+        catch (IllegalAccessException | RuntimeException e) {
+            throw new ReflectionException(String.format("Unable to access %s.%s: provide a dedicated Funnel", field.getDeclaringClass().getName(), field.getName()), e);
+        }
+    }
+
+    /**
+     * A writer of a single field.
+     */
+    @FunctionalInterface
+    private interface FieldWriter {
+
+        /**
+         * Reads the field of {@code object}, and writes its value to the {@code sink}.
+         *
+         * @param object the object to read
+         * @param sink   the sink where to write the value
+         *
+         * @throws Throwable if the field cannot be read
+         */
+        void write(Object object, HashSink sink) throws Throwable;
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * An object that streams the content of instances of a type into a {@link HashSink}, without converting them to a
+ * {@code byte} array first.
+ * <p>
+ * Two instances that are considered equal must be funneled to the same sequence of values. The funnels returned by
+ * {@link Funnels#fields(Class)} stream all the fields of an object, through accessors that are generated once per class.
+ * <pre>{@code
+ * Funnel<Person> funnel = (person, sink) -> sink.putString(person.name()).putInt(person.age());
+ * HashCode hashCode = StandardHashers.XX.hash(person, funnel);
+ * }</pre>
+ *
+ * @param <T> the type of funneled objects
+ * @see Funnels
+ * @see Hasher#hash(Object, Funnel)
+ * @see HashSink#putObject(Object, Funnel)
+ */
+@FunctionalInterface
+@ParametersAreNonnullByDefault
+public interface Funnel<T> {
+
+    /**
+     * Writes the content of {@code from} into the given {@code sink}.
+     *
+     * @param from the object to funnel
+     * @param into the sink where to write the content of the object
+     */
+    void funnel(T from, HashSink into);
+}
@@ -0,0 +1,383 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import org.atlanmod.commons.Throwables;
+import org.atlanmod.commons.annotation.Static;
+import org.atlanmod.commons.reflect.ReflectionException;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.atlanmod.commons.Guards.checkArgument;
+import static org.atlanmod.commons.Guards.checkNotNull;
+
+/**
+ * Static utility methods related to {@link Funnel}s.
+ */
+@Static
+@ParametersAreNonnullByDefault
+public final class Funnels {
+
+    /**
+     * The funnels that stream all the fields of a class, generated once per class.
+     */
+    @Nonnull
+    private static final ClassValue<Funnel<?>> FIELD_FUNNELS = new ClassValue<Funnel<?>>() {
+        @Override
+        protected Funnel<?> computeValue(Class<?> type) {
+            return new FieldFunnel<>(type, fieldsOf(type));
+        }
+    };
+
+    private Funnels() {
+        throw Throwables.notInstantiableClass(getClass());
+    }
+
+    /**
+     * Returns a {@link Funnel} that streams all the instance fields of {@code type} and of its superclasses, except the
+     * {@code transient} fields.
+     * <p>
+     * The fields are written from the top of the hierarchy, and by name within each class, so the result does not
+     * depend on the declaration order. Primitive and {@link String} fields are read through {@link
+     * java.lang.invoke.MethodHandle}s created once per class, and written without boxing. Other reference fields are
+     * written according to their runtime type:
+     * <ul>
+     * <li>boxed primitives as their primitive value, enums by name, {@link UUID}s as their two {@code long}s, and
+     * other {@link CharSequence}s as their string;</li>
+     * <li>arrays, lists and other collections element by element, in their iteration order;</li>
+     * <li>sets and maps as the sorted hash values of their elements, calculated by the hasher of the sink, so that
+     * equal sets and maps are written the same way, independently of their iteration order; they are the only values
+     * that allocate while being funneled;</li>
+     * <li>any other object recursively with the funnel of its class.</li>
+     * </ul>
+     * Variable-length values are prefixed by their length, and {@code null} values are written as a distinct marker,
+     * so that different objects produce different streams. The other classes of the JDK are rejected, since their
+     * fields are implementation details that may not be accessible.
+     * <p>
+     * The funnel of an object must not reach this object again through its fields, otherwise the funneling never
+     * ends. A dedicated {@link Funnel} is faster than this one on hot paths.
+     *
+     * @param type the type of funneled objects
+     * @param <T>  the type of funneled objects
+     *
+     * @return the funnel of {@code type}
+     *
+     * @throws IllegalArgumentException if {@code type} is not a concrete class, or is or extends a class of the JDK
+     * @throws ReflectionException      if the fields of {@code type} cannot be accessed
+     */
+    @Nonnull
+    @SuppressWarnings("unchecked")
+    public static <T> Funnel<T> fields(Class<T> type) {
+        checkNotNull(type, "type");
+        checkArgument(!type.isPrimitive() && !type.isArray() && !type.isInterface(), "%s must be a concrete class", type.getName());
+        checkFunneledClass(type);
+
+        return (Funnel<T>) FIELD_FUNNELS.get(type);
+    }
+
+    /**
+     * Returns a {@link Funnel} that only streams the given fields of {@code type}, in the given order. This is
+     * useful to keep the hash code consistent with {@link Object#equals(Object)}, when it does not compare all
+     * the fields.
+     * <p>
+     * Unlike {@link #fields(Class)}, the returned funnel is not cached: it should be stored once created.
+     *
+     * @param type  the type of funneled objects
+     * @param names the names of the fields to stream, declared by {@code type} or by one of its superclasses
+     * @param <T>   the type of funneled objects
+     *
+     * @return a new funnel
+     *
+     * @throws IllegalArgumentException if a field does not exist, or if {@code type} is or extends a class of the JDK
+     * @throws ReflectionException      if a field cannot be accessed
+     * @see #fields(Class)
+     */
+    @Nonnull
+    public static <T> Funnel<T> fields(Class<T> type, String... names) {
+        checkNotNull(type, "type");
+        checkNotNull(names, "names");
+        checkFunneledClass(type);
+
+        List<Field> fields = new ArrayList<>(names.length);
+        for (String name : names) {
+            fields.add(findField(type, name));
+        }
+        return new FieldFunnel<>(type, fields);
+    }
+
+    /**
+     * Writes the given {@code value} to the {@code sink}, according to its runtime type.
+     *
+     * @param value the value to write; may be {@code null}
+     * @param sink  the sink where to write the value
+     *
+     * @throws IllegalArgumentException if {@code value}, or one of the values it contains, is an instance of a class
+     *                                  of the JDK that cannot be funneled
+     * @see #fields(Class)
+     */
+    @SuppressWarnings("unchecked")
+    static void putValue(Object value, HashSink sink) {
+        if (value == null) {
+            sink.putBoolean(false);
+            return;
+        }
+
+        sink.putBoolean(true);
+
+        if (value instanceof String) {
+            putString((String) value, sink);
+        }
+        else if (value instanceof Integer) {
+            sink.putInt((Integer) value);
+        }
+        else if (value instanceof Long) {
+            sink.putLong((Long) value);
+        }
+        else if (value instanceof Boolean) {
+            sink.putBoolean((Boolean) value);
+        }
+        else if (value instanceof Double) {
+            sink.putDouble((Double) value);
+        }
+        else if (value instanceof Float) {
+            sink.putFloat((Float) value);
+        }
+        else if (value instanceof Short) {
+            sink.putShort((Short) value);
+        }
+        else if (value instanceof Byte) {
+            sink.putByte((Byte) value);
+        }
+        else if (value instanceof Character) {
+            sink.putChar((Character) value);
+        }
+        else if (value instanceof Enum) {
+            putString(((Enum<?>) value).name(), sink);
+        }
+        else if (value instanceof UUID) {
+            final UUID uuid = (UUID) value;
+            sink.putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits());
+        }
+        else if (value instanceof CharSequence) {
+            putString(value.toString(), sink);
+        }
+        else if (value.getClass().isArray()) {
+            putArray(value, sink);
+        }
+        else if (value instanceof Set) {
+            putUnordered((Set<?>) value, Funnels::putValue, sink);
+        }
+        else if (value instanceof Map) {
+            putUnordered(((Map<?, ?>) value).entrySet(), (e, s) -> {
+                putValue(e.getKey(), s);
+                putValue(e.getValue(), s);
+            }, sink);
+        }
+        else if (value instanceof Collection) {
+            final Collection<?> collection = (Collection<?>) value;
+            sink.putInt(collection.size());
+            for (Object e : collection) {
+                putValue(e, sink);
+            }
+        }
+        else {
+            checkFunneledClass(value.getClass());
+            ((Funnel<Object>) FIELD_FUNNELS.get(value.getClass())).funnel(value, sink);
+        }
+    }
+
+    /**
+     * Writes a string to the {@code sink}, prefixed by its length.
+     *
+     * @param value the string to write
+     * @param sink  the sink where to write the string
+     */
+    static void putString(String value, HashSink sink) {
+        sink.putInt(value.length()).putString(value);
+    }
+
+    /**
+     * Writes a {@code byte} array to the {@code sink}, prefixed by its length.
+     *
+     * @param value the array to write
+     * @param sink  the sink where to write the array
+     */
+    static void putBytes(byte[] value, HashSink sink) {
+        sink.putInt(value.length).putBytes(value);
+    }
+
+    /**
+     * Writes an array to the {@code sink}, prefixed by its length.
+     *
+     * @param array the array to write
+     * @param sink  the sink where to write the array
+     */
+    private static void putArray(Object array, HashSink sink) {
+        if (array instanceof byte[]) {
+            putBytes((byte[]) array, sink);
+            return;
+        }
+
+        final int length = Array.getLength(array);
+        sink.putInt(length);
+
+        if (array instanceof int[]) {
+            for (int e : (int[]) array) {
+                sink.putInt(e);
+            }
+        }
+        else if (array instanceof long[]) {
+            for (long e : (long[]) array) {
+                sink.putLong(e);
+            }
+        }
+        else if (array instanceof boolean[]) {
+            for (boolean e : (boolean[]) array) {
+                sink.putBoolean(e);
+            }
+        }
+        else if (array instanceof char[]) {
+            for (char e : (char[]) array) {
+                sink.putChar(e);
+            }
+        }
+        else if (array instanceof short[]) {
+            for (short e : (short[]) array) {
+                sink.putShort(e);
+            }
+        }
+        else if (array instanceof float[]) {
+            for (float e : (float[]) array) {
+                sink.putFloat(e);
+            }
+        }
+        else if (array instanceof double[]) {
+            for (double e : (double[]) array) {
+                sink.putDouble(e);
+            }
+        }
+        else {
+            for (Object e : (Object[]) array) {
+                putValue(e, sink);
+            }
+        }
+    }
+
+    /**
+     * Writes the elements of an unordered collection to the {@code sink}, independently of their iteration order: each
+     * element is hashed separately with the {@linkplain HashSink#hasher() hasher of the sink}, and their hash values
+     * are written in ascending order after the number of elements. The result is then as strong as the hasher of the
+     * sink, and keyed with the same key, if any.
+     *
+     * @param elements the elements to write
+     * @param funnel   the funnel that streams each element
+     * @param sink     the sink where to write the elements
+     * @param <E>      the type of elements
+     */
+    private static <E> void putUnordered(Collection<E> elements, Funnel<? super E> funnel, HashSink sink) {
+        final HashSink elementSink = sink.hasher().newSink();
+
+        final List<byte[]> hashes = new ArrayList<>(elements.size());
+        for (E e : elements) {
+            funnel.funnel(e, elementSink);
+            hashes.add(elementSink.hash().toBytes());
+        }
+        hashes.sort(Arrays::compareUnsigned);
+
+        sink.putInt(hashes.size());
+        for (byte[] hash : hashes) {
+            sink.putBytes(hash);
+        }
+    }
+
+    /**
+     * Checks that the fields of {@code type} can be funneled: classes of the JDK, or that extend one of them, must be
+     * handled by {@link #putValue(Object, HashSink)} or by a dedicated {@link Funnel}, since their fields are
+     * implementation details that may not be accessible.
+     *
+     * @param type the class to check
+     *
+     * @throws IllegalArgumentException if {@code type} is or extends a class of the JDK
+     */
+    private static void checkFunneledClass(Class<?> type) {
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            final Module module = c.getModule();
+            final boolean isJdkClass = module.isNamed() && (module.getName().startsWith("java.") || module.getName().startsWith("jdk."));
+            checkArgument(!isJdkClass, "%s cannot be funneled by its fields, since %s is a class of the JDK: provide a dedicated Funnel", type.getName(), c.getName());
+        }
+    }
+
+    /**
+     * Returns the instance fields of {@code type} to funnel, from the top of its hierarchy.
+     *
+     * @param type the class to look up
+     *
+     * @return a list of fields
+     */
+    @Nonnull
+    private static List<Field> fieldsOf(Class<?> type) {
+        Deque<Class<?>> hierarchy = new ArrayDeque<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            hierarchy.push(c);
+        }
+
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> c : hierarchy) {
+            Arrays.stream(c.getDeclaredFields())
+                    .filter(f -> !f.isSynthetic())
+                    .filter(f -> (f.getModifiers() & (Modifier.STATIC | Modifier.TRANSIENT)) == 0)
+                    .sorted(Comparator.comparing(Field::getName))
+                    .forEachOrdered(fields::add);
+        }
+        return fields;
+    }
+
+    /**
+     * Finds the instance field named {@code name} in {@code type} or in its superclasses.
+     *
+     * @param type the class to look up
+     * @param name the name of the field
+     *
+     * @return the field
+     *
+     * @throws IllegalArgumentException if the field does not exist
+     */
+    @Nonnull
+    private static Field findField(Class<?> type, String name) {
+        checkNotNull(name, "name");
+
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            try {
+                Field field = c.getDeclaredField(name);
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    return field;
+                }
+            }
+            catch (NoSuchFieldException ignored) {
+                // Look in the superclass
+            }
+        }
+        throw new IllegalArgumentException(String.format("%s has no instance field named '%s'", type.getName(), name));
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * A Gear {@link RollingHash}, as defined by FastCDC: the value is shifted by one bit before adding the random value of
+ * each byte, so each byte only influences the value for {@value Long#SIZE} updates. The high bits of the value depend on
+ * the whole window, whereas the low bits only depend on the latest bytes.
+ *
+ * @see <a href="https://www.usenix.org/conference/atc16/technical-sessions/presentation/xia">FastCDC</a>
+ */
+@NotThreadSafe
+@ParametersAreNonnullByDefault
+final class GearRollingHash implements RollingHash {
+
+    /**
+     * The random value of each byte.
+     */
+    private static final long[] TABLE = new long[256];
+
+    static {
+        for (int i = 0; i < TABLE.length; i++) {
+            TABLE[i] = Mixers.mix(0x67656172L + i * 0x9e3779b97f4a7c15L);
+        }
+    }
+
+    /**
+     * The current value of this hash.
+     */
+    private long value;
+
+    @Nonnegative
+    @Override
+    public int windowSize() {
+        return Long.SIZE;
+    }
+
+    @Override
+    public long update(byte data) {
+        value = (value << 1) + TABLE[data & 0xff];
+        return value;
+    }
+
+    @Override
+    public long value() {
+        return value;
+    }
+
+    @Override
+    public void reset() {
+        value = 0;
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import java.nio.ByteBuffer;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * An incremental sink of data, that calculates a single {@link HashCode} from a sequence of values, without having to
+ * concatenate them first.
+ * <p>
+ * Primitive values are written with their big-endian binary representation, as defined in the {@code primitive}
+ * package, and strings with the encoding used by {@link Hasher#hash(String)}: the result of {@link #hash()} is equal to
+ * the result of {@link Hasher#hash(byte[])} on the concatenation of all written representations.
+ * <p>
+ * A sink is created by {@link Hasher#newSink()}, and can be reused after each call to {@link #hash()}. Instances of
+ * this interface are not thread-safe.
+ *
+ * @see Hasher#newSink()
+ */
+@NotThreadSafe
+@ParametersAreNonnullByDefault
+public interface HashSink {
+
+    /**
+     * Writes the given {@code data} to this sink.
+     *
+     * @param data the {@code byte} to write
+     *
+     * @return this sink (for chaining)
+     */
+    @Nonnull
+    HashSink putByte(byte data);
+
+    /**
+     * Writes the given {@code data} to this sink.
+     *
+     * @param data the {@code byte} array to write
+     *
+     * @return this sink (for chaining)
+     */
+    @Nonnull
+    default HashSink putBytes(byte[] data) {
+        return putBytes(data, 0, data.length);
+    }
+
+    /**
+     * Writes {@code length} bytes of the given {@code data} to this sink, starting at {@code offset}.
+     *
+     * @param data   the {@code byte} array to write
+     * @param offset the index of the first byte to write
+     * @param length the number of bytes to write
+     *
+     * @return this sink (for chaining)
+     *
+     * @throws IndexOutOfBoundsException if {@code offset} or {@code length} are out of the bounds of {@code data}
+     */
+    @Nonnull
+    HashSink putBytes(byte[] data, @Nonnegative int offset, @Nonnegative int length);
+
+    /**
+     * Writes the remaining bytes of the given {@code data} to this sink, i.e. the bytes between its position and its
+     * limit. The position, limit and content of the {@code data} are not modified.
+     *
+     * @param data the buffer to write
+     *
+     * @return this sink (for chaining)
+     */
+    @Nonnull
+    HashSink putBytes(ByteBuffer data);
+
+    /**
+     * Writes the given {@code data} to this sink.
+     *
+     * @param data the {@code boolean} to write
+     *
+     * @return this sink (for chaining)
+     */
+    @Nonnull
+    HashSink putBoolean(boolean data);
+
+    /**
+     * Writes the given {@code data} to this sink.
+     *
+     * @param data the {@code char} to write
+     *
+     * @return this sink (for chaining)
+     */
+    @Nonnull
+    HashSink putChar(char data);
+
+    /**
+     * Writes the given {@code data} to this sink.
+     *
+     * @param data the {@code short} to write
+     *
+     * @return this sink (for chaining)
+     */
+    @Nonnull
+    HashSink putShort(short data);
+
+    /**
+     * Writes the given {@code data} to this sink.
+     *
+     * @param data the {@code int} to write
+     *
+     * @return this sink (for chaining)
+     */
+    @Nonnull
+    HashSink putInt(int data);
+
+    /**
+     * Writes the given {@code data} to this sink.
+     *
+     * @param data the {@code long} to write
+     *
+     * @return this sink (for chaining)
+     */
+    @Nonnull
+    HashSink putLong(long data);
+
+    /**
+     * Writes the given {@code data} to this sink.
+     *
+     * @param data the {@code float} to write
+     *
+     * @return this sink (for chaining)
+     */
+    @Nonnull
+    HashSink putFloat(float data);
+
+    /**
+     * Writes the given {@code data} to this sink.
+     *
+     * @param data the {@code double} to write
+     *
+     * @return this sink (for chaining)
+     */
+    @Nonnull
+    HashSink putDouble(double data);
+
+    /**
+     * Writes the given {@code data} to this sink, encoded as by {@link Hasher#hash(String)}: a single string written
+     * to a new sink has the same hash code as the string itself.
+     *
+     * @param data the string to write
+     *
+     * @return this sink (for chaining)
+     */
+    @Nonnull
+    HashSink putString(String data);
+
+    /**
+     * Writes the content of the given {@code object} to this sink, by using the {@code funnel}.
+     *
+     * @param object the object to write
+     * @param funnel the funnel that streams the content of the object
+     * @param <T>    the type of the object
+     *
+     * @return this sink (for chaining)
+     */
+    @Nonnull
+    default <T> HashSink putObject(T object, Funnel<? super T> funnel) {
+        funnel.funnel(object, this);
+        return this;
+    }
+
+    /**
+     * Calculates the {@link HashCode} of all data written to this sink since its creation, or since the last call of
+     * this method. The sink is then reset, and can be reused.
+     *
+     * @return a new hash code
+     */
+    @Nonnull
+    HashCode hash();
+
+    /**
+     * Returns the hasher that calculates the {@link HashCode} of this sink. It can be used to hash the parts of a value
+     * separately with the same function, e.g. to combine them independently of their order.
+     *
+     * @return the hasher of this sink
+     */
+    @Nonnull
+    Hasher hasher();
+}
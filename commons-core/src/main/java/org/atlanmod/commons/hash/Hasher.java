@@ -17,11 +17,21 @@ import org.atlanmod.commons.primitive.Longs;
 import org.atlanmod.commons.primitive.Shorts;
 import org.atlanmod.commons.primitive.Strings;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.ParametersAreNonnullByDefault;
 
+import static org.atlanmod.commons.Guards.checkArgument;
+import static org.atlanmod.commons.Guards.checkPositionIndex;
+
 /**
  * A hash function producing a {@link HashCode} from byte sequences of arbitrary length.
+ * <p>
+ * All instances defined in {@link StandardHashers} are thread-safe, and can be safely accessed by multiple concurrent
+ * threads without external synchronization.
  */
 @FunctionalInterface
 @ParametersAreNonnullByDefault
@@ -125,6 +135,11 @@ public interface Hasher {
 
     /**
      * Calculates the {@link HashCode} of the given {@code data}.
+     * <p>
+     * The string is encoded in {@code UTF-8}, except by the hashers of the {@code Zero-Allocation-Hashing} family
+     * ({@link StandardHashers#MURMUR3}, {@link StandardHashers#XX}, {@link StandardHashers#CITY}, the {@code FARM}
+     * and the 128-bit variants, seeded or not) that hash its {@code UTF-16} code units in little-endian order. A
+     * hasher uses the same encoding in {@link #hashToLong(String)} and {@link HashSink#putString(String)}.
      *
      * @param data the string to hash
      *
@@ -144,4 +159,230 @@ public interface Hasher {
      */
     @Nonnull
     HashCode hash(byte[] data);
+
+    /**
+     * Calculates the {@link HashCode} of {@code length} bytes of the given {@code byte} array, starting at {@code
+     * offset}. The result is equal to the result of {@link #hash(byte[])} on a copy of this range.
+     * <p>
+     * The default implementation copies the range before hashing it; the standard hashers read it in place.
+     *
+     * @param data   the {@code byte} array to hash
+     * @param offset the index of the first byte to hash
+     * @param length the number of bytes to hash
+     *
+     * @return a new hash code
+     *
+     * @throws IndexOutOfBoundsException if {@code offset} or {@code length} are out of the bounds of {@code data}
+     */
+    @Nonnull
+    default HashCode hash(byte[] data, @Nonnegative int offset, @Nonnegative int length) {
+        checkPositionIndex(offset, data.length);
+        checkPositionIndex(length, data.length - offset);
+
+        return hash(Arrays.copyOfRange(data, offset, offset + length));
+    }
+
+    /**
+     * Calculates the {@link HashCode} of the remaining bytes of the given {@code buffer}, i.e. the bytes between its
+     * position and its limit. The result is equal to the result of {@link #hash(byte[])} on a copy of these bytes.
+     * <p>
+     * The position, limit and content of the {@code buffer} are not modified. Heap, direct and memory-mapped buffers
+     * are supported; the standard hashers read them in place, without copying their content on the heap.
+     *
+     * @param data the buffer to hash
+     *
+     * @return a new hash code
+     */
+    @Nonnull
+    default HashCode hash(ByteBuffer data) {
+        if (data.hasArray()) {
+            return hash(data.array(), data.arrayOffset() + data.position(), data.remaining());
+        }
+
+        byte[] bytes = new byte[data.remaining()];
+        data.duplicate().get(bytes);
+        return hash(bytes);
+    }
+
+    /**
+     * Calculates the {@link HashCode} of {@code length} bytes of the given {@code buffer}, starting at the absolute
+     * {@code offset}, regardless of its current position and limit.
+     * <p>
+     * The position, limit and content of the {@code buffer} are not modified.
+     *
+     * @param data   the buffer to hash
+     * @param offset the absolute index of the first byte to hash
+     * @param length the number of bytes to hash
+     *
+     * @return a new hash code
+     *
+     * @throws IndexOutOfBoundsException if {@code offset} or {@code length} are out of the capacity of {@code data}
+     */
+    @Nonnull
+    default HashCode hash(ByteBuffer data, @Nonnegative int offset, @Nonnegative int length) {
+        checkPositionIndex(offset, data.capacity());
+        checkPositionIndex(length, data.capacity() - offset);
+
+        ByteBuffer range = data.duplicate();
+        range.clear().position(offset).limit(offset + length);
+        return hash(range);
+    }
+
+    /**
+     * Calculates the {@link HashCode} of the given {@code object}, from the values written by the {@code funnel}. This
+     * is equivalent to {@code newSink().putObject(object, funnel).hash()}.
+     *
+     * @param object the object to hash
+     * @param funnel the funnel that streams the content of the object
+     * @param <T>    the type of the object
+     *
+     * @return a new hash code
+     *
+     * @see Funnels#fields(Class)
+     */
+    @Nonnull
+    default <T> HashCode hash(T object, Funnel<? super T> funnel) {
+        return newSink().putObject(object, funnel).hash();
+    }
+
+    /**
+     * Calculates the {@link HashCode} of the given {@code data}, and returns its {@code long} representation. This is
+     * equivalent to {@code hash(data).toLong()}, but the standard 64-bit hashers do not allocate any {@link HashCode}.
+     *
+     * @param data the {@code int} to hash
+     *
+     * @return the long representation of the hash code
+     *
+     * @see HashCode#toLong()
+     */
+    default long hashToLong(int data) {
+        return hash(data).toLong();
+    }
+
+    /**
+     * Calculates the {@link HashCode} of the given {@code data}, and returns its {@code long} representation. This is
+     * equivalent to {@code hash(data).toLong()}, but the standard 64-bit hashers do not allocate any {@link HashCode}.
+     *
+     * @param data the {@code long} to hash
+     *
+     * @return the long representation of the hash code
+     *
+     * @see HashCode#toLong()
+     */
+    default long hashToLong(long data) {
+        return hash(data).toLong();
+    }
+
+    /**
+     * Calculates the {@link HashCode} of the given {@code data}, and returns its {@code long} representation. This is
+     * equivalent to {@code hash(data).toLong()}, but the standard 64-bit hashers do not allocate any {@link HashCode}.
+     * The string is encoded as by {@link #hash(String)}.
+     *
+     * @param data the string to hash
+     *
+     * @return the long representation of the hash code
+     *
+     * @see HashCode#toLong()
+     */
+    default long hashToLong(String data) {
+        return hash(data).toLong();
+    }
+
+    /**
+     * Calculates the {@link HashCode} of the given {@code byte} array, and returns its {@code long} representation.
+     * This is equivalent to {@code hash(data).toLong()}, but the standard 64-bit hashers do not allocate any {@link
+     * HashCode}.
+     *
+     * @param data the {@code byte} array to hash
+     *
+     * @return the long representation of the hash code
+     *
+     * @see HashCode#toLong()
+     */
+    default long hashToLong(byte[] data) {
+        return hash(data).toLong();
+    }
+
+    /**
+     * Calculates the {@link HashCode} of the remaining bytes of the given {@code buffer}, and returns its {@code long}
+     * representation. This is equivalent to {@code hash(data).toLong()}, but the standard 64-bit hashers do not
+     * allocate any {@link HashCode}.
+     *
+     * @param data the buffer to hash
+     *
+     * @return the long representation of the hash code
+     *
+     * @see #hash(ByteBuffer)
+     * @see HashCode#toLong()
+     */
+    default long hashToLong(ByteBuffer data) {
+        return hash(data).toLong();
+    }
+
+    /**
+     * Calculates the {@code long} representation of the {@link HashCode} of each element of {@code data}, and stores
+     * it at the same index in {@code results}.
+     *
+     * @param data    the values to hash
+     * @param results the array where to store the hashes; must be at least as long as {@code data}
+     *
+     * @throws IllegalArgumentException if {@code results} is shorter than {@code data}
+     * @see #hashToLong(int)
+     */
+    default void hashAllToLong(int[] data, long[] results) {
+        checkArgument(results.length >= data.length, "results (%d) must not be shorter than data (%d)", results.length, data.length);
+
+        for (int i = 0; i < data.length; i++) {
+            results[i] = hashToLong(data[i]);
+        }
+    }
+
+    /**
+     * Calculates the {@code long} representation of the {@link HashCode} of each element of {@code data}, and stores
+     * it at the same index in {@code results}.
+     *
+     * @param data    the values to hash
+     * @param results the array where to store the hashes; must be at least as long as {@code data}
+     *
+     * @throws IllegalArgumentException if {@code results} is shorter than {@code data}
+     * @see #hashToLong(long)
+     */
+    default void hashAllToLong(long[] data, long[] results) {
+        checkArgument(results.length >= data.length, "results (%d) must not be shorter than data (%d)", results.length, data.length);
+
+        for (int i = 0; i < data.length; i++) {
+            results[i] = hashToLong(data[i]);
+        }
+    }
+
+    /**
+     * Calculates the {@code long} representation of the {@link HashCode} of each element of {@code data}, and stores
+     * it at the same index in {@code results}.
+     *
+     * @param data    the values to hash
+     * @param results the array where to store the hashes; must be at least as long as {@code data}
+     *
+     * @throws IllegalArgumentException if {@code results} is shorter than {@code data}
+     * @see #hashToLong(String)
+     */
+    default void hashAllToLong(String[] data, long[] results) {
+        checkArgument(results.length >= data.length, "results (%d) must not be shorter than data (%d)", results.length, data.length);
+
+        for (int i = 0; i < data.length; i++) {
+            results[i] = hashToLong(data[i]);
+        }
+    }
+
+    /**
+     * Creates a new {@link HashSink} that calculates a single {@link HashCode} with this hasher from a sequence of
+     * values, without concatenating them first.
+     * <p>
+     * The default implementation buffers all written data, and hashes it with {@link #hash(byte[], int, int)}.
+     *
+     * @return a new sink
+     */
+    @Nonnull
+    default HashSink newSink() {
+        return new BufferedHashSink(this);
+    }
 }
@@ -0,0 +1,251 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.ThreadSafe;
+
+import static org.atlanmod.commons.Guards.checkGreaterThan;
+import static org.atlanmod.commons.Guards.checkNotNull;
+
+/**
+ * A tracker of the {@code k} most frequent elements of a stream (the heavy hitters), that estimates their frequency with
+ * a {@link CountMinSketch}.
+ * <p>
+ * Only the current candidates are kept in memory. Adding an element that is already a candidate, or whose estimated
+ * frequency is lower than the least frequent candidate, only updates the sketch, without locking; the set of candidates
+ * is only locked when it must be updated. Frequencies are always read from the sketch, so they follow its decays.
+ * <pre>{@code
+ * CountMinSketch sketch = CountMinSketch.create(StandardHashers.XX, 0.001, 0.99);
+ * HeavyHitters<String> hotKeys = HeavyHitters.create(sketch, 10, (key, sink) -> sink.putString(key));
+ * requests.forEach(r -> hotKeys.add(r.key()));
+ *
+ * hotKeys.top().forEach(e -> System.out.println(e.getKey() + ": " + e.getValue()));
+ * }</pre>
+ *
+ * @param <K> the type of tracked elements
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+public final class HeavyHitters<K> {
+
+    /**
+     * The sketch used to estimate the frequencies.
+     */
+    @Nonnull
+    private final CountMinSketch sketch;
+
+    /**
+     * The maximum number of tracked elements.
+     */
+    @Nonnegative
+    private final int k;
+
+    /**
+     * The function used to calculate the 64-bit hash value of an element.
+     */
+    @Nonnull
+    private final ToLongFunction<? super K> hashFunction;
+
+    /**
+     * The current candidates, associated with their hash value.
+     */
+    @Nonnull
+    private final Map<K, Long> candidates = new ConcurrentHashMap<>();
+
+    /**
+     * The estimated frequency of the least frequent candidate when the candidates were last updated; new elements
+     * with a lower frequency are not considered.
+     */
+    private volatile long threshold;
+
+    /**
+     * The number of decays of the sketch when the {@link #threshold} was calculated.
+     */
+    private volatile long thresholdDecays;
+
+    /**
+     * Constructs a new {@code HeavyHitters}.
+     *
+     * @param sketch       the sketch used to estimate the frequencies
+     * @param k            the maximum number of tracked elements
+     * @param hashFunction the function used to calculate the 64-bit hash value of an element
+     */
+    private HeavyHitters(CountMinSketch sketch, @Nonnegative int k, ToLongFunction<? super K> hashFunction) {
+        this.sketch = checkNotNull(sketch, "sketch");
+        this.k = checkGreaterThan(k, 0, "k (%d) must be positive", k);
+        this.hashFunction = checkNotNull(hashFunction, "hashFunction");
+    }
+
+    /**
+     * Creates a new {@code HeavyHitters}, that hashes the elements with the hasher of the {@code sketch}, from the
+     * content written by the {@code funnel}.
+     * <p>
+     * The funnel must write the same content for equal elements, and should write different contents for different
+     * elements.
+     *
+     * @param sketch the sketch used to estimate the frequencies
+     * @param k      the maximum number of tracked elements
+     * @param funnel the funnel that streams the content of an element
+     * @param <K>    the type of tracked elements
+     *
+     * @return a new tracker
+     *
+     * @throws IllegalArgumentException if {@code k} is not positive
+     * @see Funnels#fields(Class)
+     */
+    @Nonnull
+    public static <K> HeavyHitters<K> create(CountMinSketch sketch, @Nonnegative int k, Funnel<? super K> funnel) {
+        final Hasher hasher = checkNotNull(sketch, "sketch").hasher();
+        checkNotNull(funnel, "funnel");
+
+        return create(sketch, k, e -> hasher.hash(e, funnel).toLong());
+    }
+
+    /**
+     * Creates a new {@code HeavyHitters}.
+     *
+     * @param sketch       the sketch used to estimate the frequencies
+     * @param k            the maximum number of tracked elements
+     * @param hashFunction the function used to calculate the 64-bit hash value of an element; must return the same
+     *                     value for equal elements
+     * @param <K>          the type of tracked elements
+     *
+     * @return a new tracker
+     *
+     * @throws IllegalArgumentException if {@code k} is not positive
+     */
+    @Nonnull
+    public static <K> HeavyHitters<K> create(CountMinSketch sketch, @Nonnegative int k, ToLongFunction<? super K> hashFunction) {
+        return new HeavyHitters<>(sketch, k, hashFunction);
+    }
+
+    /**
+     * Adds one occurrence of an element.
+     *
+     * @param element the element to add
+     *
+     * @return the new estimated frequency of the element
+     */
+    @Nonnegative
+    public long add(K element) {
+        checkNotNull(element, "element");
+
+        final long hash = hashFunction.applyAsLong(element);
+        final long frequency = sketch.addHash(hash);
+
+        if (sketch.decayCount() != thresholdDecays) {
+            threshold = 0;
+        }
+
+        if (frequency > threshold && !candidates.containsKey(element)) {
+            offer(element, hash, frequency);
+        }
+
+        return frequency;
+    }
+
+    /**
+     * Returns the tracked elements and their estimated frequency, from the most frequent to the least frequent.
+     *
+     * @return an ordered list of entries
+     */
+    @Nonnull
+    public List<Map.Entry<K, Long>> top() {
+        return candidates.entrySet().stream()
+                .map(e -> new AbstractMap.SimpleImmutableEntry<>(e.getKey(), sketch.estimateHash(e.getValue())))
+                .sorted(Comparator.comparingLong(Map.Entry<K, Long>::getValue).reversed())
+                .limit(k)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the tracked elements, in no particular order.
+     *
+     * @return an unmodifiable set of elements
+     */
+    @Nonnull
+    public Set<K> elements() {
+        return Collections.unmodifiableSet(candidates.keySet());
+    }
+
+    /**
+     * Returns the maximum number of tracked elements.
+     *
+     * @return the number of heavy hitters
+     */
+    @Nonnegative
+    public int k() {
+        return k;
+    }
+
+    /**
+     * Returns the sketch used to estimate the frequencies.
+     *
+     * @return the sketch
+     */
+    @Nonnull
+    public CountMinSketch sketch() {
+        return sketch;
+    }
+
+    /**
+     * Adds an element to the candidates, if there is still room or if it is more frequent than the least frequent
+     * candidate.
+     *
+     * @param element   the element to add
+     * @param hash      the hash value of the element
+     * @param frequency the estimated frequency of the element
+     */
+    private synchronized void offer(K element, long hash, @Nonnegative long frequency) {
+        if (candidates.containsKey(element)) {
+            return;
+        }
+
+        if (candidates.size() < k) {
+            candidates.put(element, hash);
+        }
+        else {
+            K minElement = null;
+            long minFrequency = Long.MAX_VALUE;
+            for (Map.Entry<K, Long> e : candidates.entrySet()) {
+                final long f = sketch.estimateHash(e.getValue());
+                if (f < minFrequency) {
+                    minFrequency = f;
+                    minElement = e.getKey();
+                }
+            }
+
+            if (minElement != null && frequency > minFrequency) {
+                candidates.remove(minElement);
+                candidates.put(element, hash);
+            }
+        }
+
+        if (candidates.size() == k) {
+            thresholdDecays = sketch.decayCount();
+            threshold = candidates.values().stream()
+                    .mapToLong(sketch::estimateHash)
+                    .min()
+                    .orElse(0);
+        }
+    }
+}
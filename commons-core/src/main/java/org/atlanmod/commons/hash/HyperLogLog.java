@@ -0,0 +1,406 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import org.atlanmod.commons.io.serializer.AbstractBinarySerializer;
+import org.atlanmod.commons.io.serializer.BinarySerializer;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.WillNotClose;
+import javax.annotation.concurrent.ThreadSafe;
+
+import static org.atlanmod.commons.Guards.checkArgument;
+import static org.atlanmod.commons.Guards.checkNotNull;
+
+/**
+ * A HyperLogLog sketch, that estimates the number of distinct elements of a stream in a fixed amount of memory.
+ * <p>
+ * The sketch is made of {@code 2^precision} registers of one byte each, and has a standard error of {@code 1.04 /
+ * sqrt(2^precision)}: the default precision ({@value #DEFAULT_PRECISION}) uses 16 KiB for an error of about 0.8%. Each
+ * element is reduced to a single 64-bit hash value, with {@link Hasher#hashToLong(String)}: the first {@code precision}
+ * bits select a register, and the remaining bits give its rank.
+ * <p>
+ * Registers are updated atomically, so that elements can be added concurrently without locking. Sketches with the same
+ * precision can be merged, e.g. to combine per-thread or per-node sketches, and are serialized with 6 bits per register.
+ * <pre>{@code
+ * HyperLogLog hll = HyperLogLog.create(StandardHashers.XX);
+ * stream.forEach(hll::add);
+ *
+ * long distinct = hll.cardinality();
+ * }</pre>
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+public final class HyperLogLog {
+
+    /**
+     * The default precision.
+     */
+    public static final int DEFAULT_PRECISION = 14;
+
+    /**
+     * The minimum precision.
+     */
+    public static final int MIN_PRECISION = 4;
+
+    /**
+     * The maximum precision.
+     */
+    public static final int MAX_PRECISION = 18;
+
+    /**
+     * The number of bits used to serialize a register.
+     */
+    private static final int REGISTER_BITS = 6;
+
+    /**
+     * The handle used to atomically update the registers.
+     */
+    private static final VarHandle REGISTERS = MethodHandles.arrayElementVarHandle(byte[].class);
+
+    /**
+     * The hasher used to hash the elements.
+     */
+    @Nonnull
+    private final Hasher hasher;
+
+    /**
+     * The number of bits of the hash value used to select a register.
+     */
+    @Nonnegative
+    private final int precision;
+
+    /**
+     * The registers, each holding the maximum rank observed for the hash values it has been selected for.
+     */
+    @Nonnull
+    private final byte[] registers;
+
+    /**
+     * Constructs a new {@code HyperLogLog}.
+     *
+     * @param hasher    the hasher used to hash the elements
+     * @param precision the number of bits used to select a register
+     */
+    private HyperLogLog(Hasher hasher, @Nonnegative int precision) {
+        this.hasher = checkNotNull(hasher, "hasher");
+        this.precision = checkPrecision(precision);
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * Creates a new {@code HyperLogLog} with the {@link #DEFAULT_PRECISION}.
+     *
+     * @param hasher the hasher used to hash the elements; must produce well-distributed 64-bit values
+     *
+     * @return a new sketch
+     */
+    @Nonnull
+    public static HyperLogLog create(Hasher hasher) {
+        return create(hasher, DEFAULT_PRECISION);
+    }
+
+    /**
+     * Creates a new {@code HyperLogLog} with the given {@code precision}.
+     *
+     * @param hasher    the hasher used to hash the elements; must produce well-distributed 64-bit values
+     * @param precision the number of bits used to select a register, between {@value #MIN_PRECISION} and {@value
+     *                  #MAX_PRECISION}
+     *
+     * @return a new sketch
+     *
+     * @throws IllegalArgumentException if {@code precision} is out of range
+     */
+    @Nonnull
+    public static HyperLogLog create(Hasher hasher, @Nonnegative int precision) {
+        return new HyperLogLog(hasher, precision);
+    }
+
+    /**
+     * Returns a serializer of sketches that use the given {@code hasher}. The hasher is not serialized: a sketch must be
+     * deserialized with the same hasher it has been created with.
+     *
+     * @param hasher the hasher used to hash the elements of the deserialized sketches
+     *
+     * @return a serializer
+     */
+    @Nonnull
+    public static BinarySerializer<HyperLogLog> serializer(Hasher hasher) {
+        return new HyperLogLogSerializer(hasher);
+    }
+
+    /**
+     * Checks that the {@code precision} is in range.
+     *
+     * @param precision the precision to check
+     *
+     * @return the {@code precision}
+     *
+     * @throws IllegalArgumentException if {@code precision} is out of range
+     */
+    private static int checkPrecision(int precision) {
+        checkArgument(precision >= MIN_PRECISION && precision <= MAX_PRECISION,
+                "precision (%d) must be between %d and %d", precision, MIN_PRECISION, MAX_PRECISION);
+
+        return precision;
+    }
+
+    /**
+     * Adds an element, from its pre-calculated 64-bit hash value.
+     *
+     * @param hash the hash value of the element
+     *
+     * @return {@code true} if the state of this sketch has changed
+     */
+    public boolean addHash(long hash) {
+        final int index = (int) (hash >>> (Long.SIZE - precision));
+        final int rank = Math.min(Long.numberOfLeadingZeros(hash << precision), Long.SIZE - precision) + 1;
+
+        return updateRegister(index, rank);
+    }
+
+    /**
+     * Adds an element, from its pre-calculated hash code.
+     *
+     * @param hashCode the hash code of the element
+     *
+     * @return {@code true} if the state of this sketch has changed
+     */
+    public boolean addHash(HashCode hashCode) {
+        return addHash(checkNotNull(hashCode, "hashCode").toLong());
+    }
+
+    /**
+     * Adds an element.
+     *
+     * @param data the element to add
+     *
+     * @return {@code true} if the state of this sketch has changed
+     */
+    public boolean add(int data) {
+        return addHash(hasher.hashToLong(data));
+    }
+
+    /**
+     * Adds an element.
+     *
+     * @param data the element to add
+     *
+     * @return {@code true} if the state of this sketch has changed
+     */
+    public boolean add(long data) {
+        return addHash(hasher.hashToLong(data));
+    }
+
+    /**
+     * Adds an element.
+     *
+     * @param data the element to add
+     *
+     * @return {@code true} if the state of this sketch has changed
+     */
+    public boolean add(String data) {
+        return addHash(hasher.hashToLong(data));
+    }
+
+    /**
+     * Adds an element.
+     *
+     * @param data the element to add
+     *
+     * @return {@code true} if the state of this sketch has changed
+     */
+    public boolean add(byte[] data) {
+        return addHash(hasher.hashToLong(data));
+    }
+
+    /**
+     * Estimates the number of distinct elements that have been added to this sketch.
+     *
+     * @return the estimated cardinality
+     */
+    @Nonnegative
+    public long cardinality() {
+        final int m = registers.length;
+
+        double sum = 0;
+        int zeros = 0;
+        for (int i = 0; i < m; i++) {
+            final int value = (byte) REGISTERS.getVolatile(registers, i);
+            sum += 1.0 / (1L << value);
+            if (value == 0) {
+                zeros++;
+            }
+        }
+
+        final double estimate = alpha(m) * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            // Small range correction: linear counting
+            return Math.round(m * Math.log((double) m / zeros));
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * Returns the number of bits of the hash value used to select a register.
+     *
+     * @return the precision
+     */
+    @Nonnegative
+    public int precision() {
+        return precision;
+    }
+
+    /**
+     * Returns the standard error of the estimations of this sketch.
+     *
+     * @return the relative standard error
+     */
+    public double standardError() {
+        return 1.04 / Math.sqrt(registers.length);
+    }
+
+    /**
+     * Adds all elements of {@code other} to this sketch, by keeping the maximum of their registers. The {@code other}
+     * sketch is not modified.
+     *
+     * @param other the sketch to merge into this one; must have the same precision and hasher
+     *
+     * @throws IllegalArgumentException if {@code other} does not have the same precision
+     */
+    public void merge(HyperLogLog other) {
+        checkNotNull(other, "other");
+        checkArgument(other.precision == precision, "Cannot merge sketches of different precisions (%d != %d)", precision, other.precision);
+
+        for (int i = 0; i < registers.length; i++) {
+            updateRegister(i, (byte) REGISTERS.getVolatile(other.registers, i));
+        }
+    }
+
+    /**
+     * Atomically sets the register at the specified {@code index} to {@code rank}, if it is greater than its current
+     * value.
+     *
+     * @param index the index of the register
+     * @param rank  the new value of the register
+     *
+     * @return {@code true} if the register has changed
+     */
+    private boolean updateRegister(@Nonnegative int index, int rank) {
+        byte current;
+        do {
+            current = (byte) REGISTERS.getVolatile(registers, index);
+            if (current >= rank) {
+                return false;
+            }
+        }
+        while (!REGISTERS.compareAndSet(registers, index, current, (byte) rank));
+
+        return true;
+    }
+
+    /**
+     * Returns the bias correction constant for {@code m} registers.
+     *
+     * @param m the number of registers
+     *
+     * @return the correction constant
+     */
+    private static double alpha(@Nonnegative int m) {
+        switch (m) {
+            case 16:
+                return 0.673;
+            case 32:
+                return 0.697;
+            case 64:
+                return 0.709;
+            default:
+                return 0.7213 / (1 + 1.079 / m);
+        }
+    }
+
+    /**
+     * A {@link BinarySerializer} of {@link HyperLogLog}s, that writes their precision followed by their registers,
+     * packed on 6 bits each.
+     */
+    private static final class HyperLogLogSerializer extends AbstractBinarySerializer<HyperLogLog> {
+
+        @SuppressWarnings("JavaDoc")
+        private static final long serialVersionUID = -1920384765510983425L;
+
+        /**
+         * The mask of a serialized register.
+         */
+        private static final int REGISTER_MASK = (1 << REGISTER_BITS) - 1;
+
+        /**
+         * The hasher used to hash the elements of the deserialized sketches.
+         */
+        @Nonnull
+        private final transient Hasher hasher;
+
+        /**
+         * Constructs a new {@code HyperLogLogSerializer}.
+         *
+         * @param hasher the hasher used to hash the elements of the deserialized sketches
+         */
+        HyperLogLogSerializer(Hasher hasher) {
+            this.hasher = checkNotNull(hasher, "hasher");
+        }
+
+        @Override
+        public void serialize(HyperLogLog hll, @WillNotClose DataOutput out) throws IOException {
+            out.writeByte(hll.precision);
+
+            int buffer = 0;
+            int bufferedBits = 0;
+            for (int i = 0; i < hll.registers.length; i++) {
+                buffer = (buffer << REGISTER_BITS) | ((byte) REGISTERS.getVolatile(hll.registers, i) & REGISTER_MASK);
+                bufferedBits += REGISTER_BITS;
+
+                while (bufferedBits >= Byte.SIZE) {
+                    bufferedBits -= Byte.SIZE;
+                    out.writeByte(buffer >>> bufferedBits);
+                }
+            }
+
+            if (bufferedBits > 0) {
+                out.writeByte(buffer << (Byte.SIZE - bufferedBits));
+            }
+        }
+
+        @Nonnull
+        @Override
+        public HyperLogLog deserialize(@WillNotClose DataInput in) throws IOException {
+            HyperLogLog hll = new HyperLogLog(hasher, in.readUnsignedByte());
+
+            int buffer = 0;
+            int bufferedBits = 0;
+            for (int i = 0; i < hll.registers.length; i++) {
+                while (bufferedBits < REGISTER_BITS) {
+                    buffer = (buffer << Byte.SIZE) | in.readUnsignedByte();
+                    bufferedBits += Byte.SIZE;
+                }
+
+                bufferedBits -= REGISTER_BITS;
+                hll.registers[i] = (byte) ((buffer >>> bufferedBits) & REGISTER_MASK);
+            }
+
+            return hll;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.ThreadSafe;
+
+import static org.atlanmod.commons.Guards.checkNotNull;
+import static org.atlanmod.commons.Guards.checkState;
+
+/**
+ * A {@link ShardRouter} based on jump consistent hashing.
+ * <p>
+ * The nodes are an immutable list, replaced on each membership update (copy-on-write): lookups are lock-free, and
+ * updates are serialized.
+ *
+ * @param <N> the type of nodes
+ * @see <a href="https://arxiv.org/abs/1406.2294">A Fast, Minimal Memory, Consistent Hash Algorithm</a>
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+final class JumpRouter<N> implements ShardRouter<N> {
+
+    /**
+     * The hasher used to hash the keys.
+     */
+    @Nonnull
+    private final Hasher hasher;
+
+    /**
+     * The current nodes, indexed by their bucket.
+     */
+    @Nonnull
+    private volatile List<N> nodes = Collections.emptyList();
+
+    /**
+     * Constructs a new {@code JumpRouter}.
+     *
+     * @param hasher the hasher used to hash the keys
+     */
+    JumpRouter(Hasher hasher) {
+        this.hasher = checkNotNull(hasher, "hasher");
+    }
+
+    /**
+     * Returns the bucket of a key, between {@code 0} and {@code buckets} exclusive.
+     *
+     * @param key     the hash value of the key
+     * @param buckets the number of buckets
+     *
+     * @return the bucket of the key
+     */
+    @Nonnegative
+    static int bucket(long key, @Nonnegative int buckets) {
+        long k = key;
+        long b = -1;
+        long j = 0;
+        while (j < buckets) {
+            b = j;
+            k = k * 2862933555777941757L + 1;
+            j = (long) ((b + 1) * ((double) (1L << 31) / (double) ((k >>> 33) + 1)));
+        }
+        return (int) b;
+    }
+
+    @Nonnull
+    @Override
+    public Hasher hasher() {
+        return hasher;
+    }
+
+    @Nonnull
+    @Override
+    public N routeHash(long hash) {
+        final List<N> current = nodes;
+        checkState(!current.isEmpty(), "No node to route to");
+
+        return current.get(bucket(hash, current.size()));
+    }
+
+    @Override
+    public synchronized boolean add(N node) {
+        checkNotNull(node, "node");
+
+        if (nodes.contains(node)) {
+            return false;
+        }
+
+        List<N> newNodes = new ArrayList<>(nodes);
+        newNodes.add(node);
+        nodes = Collections.unmodifiableList(newNodes);
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * If the removed node is not the last one, the following nodes are shifted, and all their keys are moved.
+     */
+    @Override
+    public synchronized boolean remove(N node) {
+        checkNotNull(node, "node");
+
+        if (!nodes.contains(node)) {
+            return false;
+        }
+
+        List<N> newNodes = new ArrayList<>(nodes);
+        newNodes.remove(node);
+        nodes = Collections.unmodifiableList(newNodes);
+        return true;
+    }
+
+    @Nonnull
+    @Override
+    public List<N> nodes() {
+        return nodes;
+    }
+}
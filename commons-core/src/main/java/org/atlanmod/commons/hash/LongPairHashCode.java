@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * An immutable hash code with a representation of two {@link Long}s (128 bits).
+ * <p>
+ * The byte array and hexadecimal representations are in big-endian order, as the canonical form of {@code XXH3
+ * 128-bit}; the reference implementation of {@code MurmurHash3 128-bit} writes the same value in little-endian order.
+ */
+@Immutable
+@ParametersAreNonnullByDefault
+final class LongPairHashCode implements HashCode {
+
+    @SuppressWarnings("JavaDoc")
+    private static final long serialVersionUID = -2470917336227318410L;
+
+    /**
+     * The 64 most significant bits of this hash code.
+     */
+    private final long high;
+
+    /**
+     * The 64 least significant bits of this hash code.
+     */
+    private final long low;
+
+    /**
+     * Constructs a new {@code HashCode} with the given values.
+     *
+     * @param high the 64 most significant bits of this hash code
+     * @param low  the 64 least significant bits of this hash code
+     */
+    public LongPairHashCode(long high, long low) {
+        this.high = high;
+        this.low = low;
+    }
+
+    /**
+     * Returns the 64 most significant bits of this hash code.
+     *
+     * @return the most significant bits
+     */
+    long high() {
+        return high;
+    }
+
+    /**
+     * Returns the 64 least significant bits of this hash code.
+     *
+     * @return the least significant bits
+     */
+    long low() {
+        return low;
+    }
+
+    @Nonnegative
+    @Override
+    public int bits() {
+        return Long.SIZE * 2;
+    }
+
+    @Nonnull
+    @Override
+    public byte[] toBytes() {
+        byte[] bytes = new byte[Long.BYTES * 2];
+
+        final int last = Long.BYTES - 1;
+        for (int i = last; i >= 0; i--) {
+            bytes[i] = (byte) (high >> Byte.SIZE * (last - i));
+            bytes[Long.BYTES + i] = (byte) (low >> Byte.SIZE * (last - i));
+        }
+
+        return bytes;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The value is the 64 least significant bits of this hash code, which are the first 64-bit word computed by the
+     * 128-bit algorithms: {@code h1} for {@code MurmurHash3}, and {@code low64} for {@code XXH3}.
+     */
+    @Override
+    public long toLong() {
+        return low;
+    }
+
+    @Nonnull
+    @Override
+    public String toHexString() {
+        return String.format("%016x%016x", high, low);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(high) + Long.hashCode(low);
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        LongPairHashCode that = (LongPairHashCode) o;
+        return high == that.high && low == that.low;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("HashCode {%s}", toHexString());
+    }
+}
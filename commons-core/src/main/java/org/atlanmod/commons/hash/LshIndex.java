@@ -0,0 +1,288 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.ThreadSafe;
+
+import static org.atlanmod.commons.Guards.checkArgument;
+import static org.atlanmod.commons.Guards.checkGreaterThan;
+import static org.atlanmod.commons.Guards.checkNotNull;
+
+/**
+ * A locality-sensitive hashing index, that finds the items with a similar signature in sub-linear time, using the
+ * banding technique.
+ * <p>
+ * Each signature of {@code bands * rows} values is split into {@code bands} bands of {@code rows} values; two items are
+ * candidates if they have at least one identical band. With {@link MinHash} signatures, two sets with a Jaccard
+ * similarity {@code s} are candidates with a probability of {@code 1 - (1 - s^rows)^bands}: this S-curve has its
+ * threshold around {@code (1 / bands)^(1 / rows)}. A query only visits one bucket per band, whatever the number of
+ * indexed items.
+ * <p>
+ * This index also keeps the signature of each item, so that the candidates can be filtered by their estimated
+ * similarity with {@link #similar(long[], double)}. {@link SimHash} fingerprints can be indexed after having been split
+ * with {@link SimHash#bands(long, int)}, with one row per band.
+ * <pre>{@code
+ * MinHash minHash = MinHash.create(128);
+ * LshIndex<String> index = LshIndex.create(32, 4);
+ *
+ * documents.forEach((id, tokens) -> index.put(id, minHash.signature(tokens)));
+ * Set<String> nearDuplicates = index.similar(minHash.signature(query), 0.8);
+ * }</pre>
+ *
+ * @param <K> the type of indexed items
+ * @see MinHash
+ * @see SimHash
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+public final class LshIndex<K> {
+
+    /**
+     * The number of bands.
+     */
+    @Nonnegative
+    private final int bands;
+
+    /**
+     * The number of values per band.
+     */
+    @Nonnegative
+    private final int rows;
+
+    /**
+     * The buckets of each band: the items associated with the hash value of their band.
+     */
+    @Nonnull
+    private final Map<Long, Set<K>>[] buckets;
+
+    /**
+     * The signature of each indexed item.
+     */
+    @Nonnull
+    private final Map<K, long[]> signatures = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new {@code LshIndex}.
+     *
+     * @param bands the number of bands
+     * @param rows  the number of values per band
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private LshIndex(@Nonnegative int bands, @Nonnegative int rows) {
+        this.bands = checkGreaterThan(bands, 0, "bands (%d) must be positive", bands);
+        this.rows = checkGreaterThan(rows, 0, "rows (%d) must be positive", rows);
+
+        this.buckets = new Map[bands];
+        for (int i = 0; i < bands; i++) {
+            buckets[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    /**
+     * Creates a new {@code LshIndex} for signatures of {@code bands * rows} values.
+     *
+     * @param bands the number of bands
+     * @param rows  the number of values per band
+     * @param <K>   the type of indexed items
+     *
+     * @return a new index
+     *
+     * @throws IllegalArgumentException if {@code bands} or {@code rows} is not positive
+     */
+    @Nonnull
+    public static <K> LshIndex<K> create(@Nonnegative int bands, @Nonnegative int rows) {
+        return new LshIndex<>(bands, rows);
+    }
+
+    /**
+     * Returns the number of bands.
+     *
+     * @return the number of bands
+     */
+    @Nonnegative
+    public int bands() {
+        return bands;
+    }
+
+    /**
+     * Returns the number of values per band.
+     *
+     * @return the number of rows
+     */
+    @Nonnegative
+    public int rows() {
+        return rows;
+    }
+
+    /**
+     * Returns the number of indexed items.
+     *
+     * @return the number of items
+     */
+    @Nonnegative
+    public int size() {
+        return signatures.size();
+    }
+
+    /**
+     * Indexes an item with its signature, replacing its previous signature if any.
+     *
+     * @param key       the item to index
+     * @param signature the signature of the item
+     *
+     * @throws IllegalArgumentException if the length of {@code signature} is not {@code bands * rows}
+     */
+    public void put(K key, long[] signature) {
+        checkNotNull(key, "key");
+        checkSignature(signature);
+
+        final long[] copy = signature.clone();
+
+        // The buckets are updated while the key is locked, so that a concurrent update of the same key cannot leave it
+        // in the buckets of a replaced signature
+        signatures.compute(key, (k, previous) -> {
+            if (previous != null) {
+                removeFromBuckets(k, previous);
+            }
+            addToBuckets(k, copy);
+            return copy;
+        });
+    }
+
+    /**
+     * Removes an item from this index.
+     *
+     * @param key the item to remove
+     *
+     * @return {@code true} if the item was indexed
+     */
+    public boolean remove(K key) {
+        checkNotNull(key, "key");
+
+        final boolean[] removed = new boolean[1];
+        signatures.computeIfPresent(key, (k, previous) -> {
+            removeFromBuckets(k, previous);
+            removed[0] = true;
+            return null;
+        });
+        return removed[0];
+    }
+
+    /**
+     * Returns the items that have at least one identical band with the given {@code signature}.
+     *
+     * @param signature the signature to look for
+     *
+     * @return a new set of candidates
+     *
+     * @throws IllegalArgumentException if the length of {@code signature} is not {@code bands * rows}
+     */
+    @Nonnull
+    public Set<K> candidates(long[] signature) {
+        checkSignature(signature);
+
+        Set<K> candidates = new HashSet<>();
+        for (int band = 0; band < bands; band++) {
+            final Set<K> bucket = buckets[band].get(bandHash(signature, band));
+            if (bucket != null) {
+                candidates.addAll(bucket);
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Returns the candidates whose estimated {@linkplain MinHash#similarity(long[], long[]) similarity} with the given
+     * {@code signature} is at least {@code threshold}.
+     *
+     * @param signature the signature to look for
+     * @param threshold the minimum similarity, between {@code 0} and {@code 1}
+     *
+     * @return a new set of similar items
+     *
+     * @throws IllegalArgumentException if the length of {@code signature} is not {@code bands * rows}
+     */
+    @Nonnull
+    public Set<K> similar(long[] signature, double threshold) {
+        return candidates(signature).stream()
+                .filter(k -> {
+                    final long[] other = signatures.get(k);
+                    return other != null && MinHash.similarity(signature, other) >= threshold;
+                })
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Adds an item to the buckets of its signature.
+     *
+     * @param key       the item to add
+     * @param signature the signature of the item
+     */
+    private void addToBuckets(K key, long[] signature) {
+        for (int band = 0; band < bands; band++) {
+            buckets[band].compute(bandHash(signature, band), (h, bucket) -> {
+                Set<K> result = bucket != null ? bucket : ConcurrentHashMap.newKeySet();
+                result.add(key);
+                return result;
+            });
+        }
+    }
+
+    /**
+     * Removes an item from the buckets of its signature.
+     *
+     * @param key       the item to remove
+     * @param signature the signature of the item
+     */
+    private void removeFromBuckets(K key, long[] signature) {
+        for (int band = 0; band < bands; band++) {
+            buckets[band].computeIfPresent(bandHash(signature, band), (h, bucket) -> {
+                bucket.remove(key);
+                return bucket.isEmpty() ? null : bucket;
+            });
+        }
+    }
+
+    /**
+     * Checks that the {@code signature} has the expected length.
+     *
+     * @param signature the signature to check
+     */
+    private void checkSignature(long[] signature) {
+        checkNotNull(signature, "signature");
+        checkArgument(signature.length == bands * rows, "signature length (%d) must be bands * rows (%d)", signature.length, bands * rows);
+    }
+
+    /**
+     * Calculates the hash value of a band of a signature.
+     *
+     * @param signature the signature
+     * @param band      the index of the band
+     *
+     * @return the hash value of the band
+     */
+    private long bandHash(long[] signature, @Nonnegative int band) {
+        final int from = band * rows;
+
+        long hash = rows;
+        for (int i = from; i < from + rows; i++) {
+            hash = Mixers.mix(hash + signature[i]);
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import net.openhft.hashing.LongHashFunction;
+
+import java.util.Arrays;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.ThreadSafe;
+
+import static org.atlanmod.commons.Guards.checkArgument;
+import static org.atlanmod.commons.Guards.checkGreaterThan;
+import static org.atlanmod.commons.Guards.checkNotNull;
+
+/**
+ * A generator of MinHash signatures, that estimate the Jaccard similarity between sets of tokens.
+ * <p>
+ * A signature is made of the minimum hash value of the tokens for each function of a family of {@code numHashes}
+ * independent hash functions; here, xxHash with different seeds. The probability that two signatures have the same value
+ * at a given index is equal to the Jaccard similarity of their sets, which can therefore be estimated from the
+ * signatures only, with a standard error of {@code 1 / sqrt(numHashes)}. Signatures can be indexed by a {@link LshIndex}
+ * to find similar sets without pairwise comparisons.
+ * <pre>{@code
+ * MinHash minHash = MinHash.create(128);
+ * long[] first = minHash.signature(Arrays.asList(firstDocument.split(" ")));
+ * long[] second = minHash.signature(Arrays.asList(secondDocument.split(" ")));
+ *
+ * double similarity = MinHash.similarity(first, second);
+ * }</pre>
+ *
+ * @see LshIndex
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+public final class MinHash {
+
+    /**
+     * The default seed of the family of hash functions.
+     */
+    public static final long DEFAULT_SEED = 0x6d696e68617368L;
+
+    /**
+     * The family of hash functions.
+     */
+    @Nonnull
+    private final Hasher[] hashers;
+
+    /**
+     * Constructs a new {@code MinHash}.
+     *
+     * @param numHashes the number of hash functions, i.e. the length of the signatures
+     * @param seed      the seed of the family of hash functions
+     */
+    private MinHash(@Nonnegative int numHashes, long seed) {
+        checkGreaterThan(numHashes, 0, "numHashes (%d) must be positive", numHashes);
+
+        this.hashers = new Hasher[numHashes];
+        for (int i = 0; i < numHashes; i++) {
+            hashers[i] = new ZeroAllocationHasher(LongHashFunction.xx(Mixers.mix(seed + i)));
+        }
+    }
+
+    /**
+     * Creates a new {@code MinHash} with the {@link #DEFAULT_SEED}.
+     *
+     * @param numHashes the number of hash functions, i.e. the length of the signatures
+     *
+     * @return a new signature generator
+     *
+     * @throws IllegalArgumentException if {@code numHashes} is not positive
+     */
+    @Nonnull
+    public static MinHash create(@Nonnegative int numHashes) {
+        return create(numHashes, DEFAULT_SEED);
+    }
+
+    /**
+     * Creates a new {@code MinHash}. Signatures can only be compared if they have been generated with the same number
+     * of hash functions and the same seed.
+     *
+     * @param numHashes the number of hash functions, i.e. the length of the signatures
+     * @param seed      the seed of the family of hash functions
+     *
+     * @return a new signature generator
+     *
+     * @throws IllegalArgumentException if {@code numHashes} is not positive
+     */
+    @Nonnull
+    public static MinHash create(@Nonnegative int numHashes, long seed) {
+        return new MinHash(numHashes, seed);
+    }
+
+    /**
+     * Estimates the Jaccard similarity between the sets represented by two signatures.
+     *
+     * @param first  the first signature
+     * @param second the second signature
+     *
+     * @return the estimated similarity, between {@code 0} and {@code 1}
+     *
+     * @throws IllegalArgumentException if the signatures do not have the same length
+     */
+    public static double similarity(long[] first, long[] second) {
+        checkNotNull(first, "first");
+        checkNotNull(second, "second");
+        checkArgument(first.length == second.length, "Cannot compare signatures of different lengths (%d != %d)", first.length, second.length);
+
+        int equal = 0;
+        for (int i = 0; i < first.length; i++) {
+            if (first[i] == second[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / first.length;
+    }
+
+    /**
+     * Returns the number of hash functions, i.e. the length of the signatures.
+     *
+     * @return the number of hash functions
+     */
+    @Nonnegative
+    public int numHashes() {
+        return hashers.length;
+    }
+
+    /**
+     * Calculates the signature of a set of tokens. Duplicate tokens are ignored.
+     *
+     * @param tokens the tokens of the set
+     *
+     * @return the signature
+     */
+    @Nonnull
+    public long[] signature(Iterable<String> tokens) {
+        checkNotNull(tokens, "tokens");
+
+        long[] signature = newSignature();
+        for (String token : tokens) {
+            for (int i = 0; i < hashers.length; i++) {
+                signature[i] = Math.min(signature[i], hashers[i].hashToLong(token));
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * Calculates the signature of a set of tokens. Duplicate tokens are ignored.
+     *
+     * @param tokens the tokens of the set
+     *
+     * @return the signature
+     */
+    @Nonnull
+    public long[] signature(long[] tokens) {
+        checkNotNull(tokens, "tokens");
+
+        long[] signature = newSignature();
+        for (long token : tokens) {
+            for (int i = 0; i < hashers.length; i++) {
+                signature[i] = Math.min(signature[i], hashers[i].hashToLong(token));
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * Creates the signature of an empty set.
+     *
+     * @return a new signature
+     */
+    @Nonnull
+    private long[] newSignature() {
+        long[] signature = new long[hashers.length];
+        Arrays.fill(signature, Long.MAX_VALUE);
+        return signature;
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import org.atlanmod.commons.Throwables;
+import org.atlanmod.commons.annotation.Static;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * Static utility methods to mix 64-bit hash values.
+ */
+@Static
+@ParametersAreNonnullByDefault
+final class Mixers {
+
+    private Mixers() {
+        throw Throwables.notInstantiableClass(getClass());
+    }
+
+    /**
+     * Mixes the bits of a 64-bit value, using the finalizer of MurmurHash3. This allows to derive a second,
+     * independent hash value from a hash value, or to spread the bits of a poorly-distributed value.
+     *
+     * @param value the value to mix
+     *
+     * @return the mixed value
+     */
+    public static long mix(long value) {
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
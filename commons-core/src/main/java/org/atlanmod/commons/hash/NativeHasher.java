@@ -10,25 +10,38 @@ package org.atlanmod.commons.hash;
 
 import org.atlanmod.commons.Throwables;
 
+import java.nio.ByteBuffer;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 
 import javax.annotation.Nonnull;
 import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.ThreadSafe;
 
 import static org.atlanmod.commons.Guards.checkNotNull;
+import static org.atlanmod.commons.Guards.checkPositionIndex;
 
 /**
  * A {@link Hasher} that delegate its calls to a {@link MessageDigest} from the Java API.
+ * <p>
+ * A {@link MessageDigest} is stateful and cannot be shared between threads: each thread uses its own instance, created
+ * on first use, so concurrent calls never corrupt each other and never contend on a lock.
  */
+@ThreadSafe
 @ParametersAreNonnullByDefault
 final class NativeHasher implements Hasher {
 
     /**
-     * The delegated hash function.
+     * The name of the algorithm of this hasher.
      */
     @Nonnull
-    private final MessageDigest digest;
+    private final String algorithm;
+
+    /**
+     * The delegated hash function, one per thread.
+     */
+    @Nonnull
+    private final ThreadLocal<MessageDigest> digest;
 
     /**
      * Constructs a new {@code NativeHasher}.
@@ -38,7 +51,11 @@ final class NativeHasher implements Hasher {
     public NativeHasher(String algorithm) {
         checkNotNull(algorithm, "algorithm");
 
-        this.digest = create(algorithm);
+        // Fail fast if the algorithm is not supported
+        create(algorithm);
+
+        this.algorithm = algorithm;
+        this.digest = ThreadLocal.withInitial(() -> create(algorithm));
     }
 
     /**
@@ -61,8 +78,34 @@ final class NativeHasher implements Hasher {
     @Nonnull
     @Override
     public HashCode hash(byte[] data) {
-        HashCode h = new BinaryHashCode(digest.digest(data));
-        digest.reset();
-        return h;
+        return new BinaryHashCode(digest.get().digest(data));
+    }
+
+    @Nonnull
+    @Override
+    public HashCode hash(byte[] data, int offset, int length) {
+        checkPositionIndex(offset, data.length);
+        checkPositionIndex(length, data.length - offset);
+
+        MessageDigest md = digest.get();
+        md.update(data, offset, length);
+        return new BinaryHashCode(md.digest());
+    }
+
+    @Nonnull
+    @Override
+    public HashCode hash(ByteBuffer data) {
+        final int position = data.position();
+
+        MessageDigest md = digest.get();
+        md.update(data);
+        data.position(position);
+        return new BinaryHashCode(md.digest());
+    }
+
+    @Nonnull
+    @Override
+    public HashSink newSink() {
+        return new DigestHashSink(this, create(algorithm));
     }
 }
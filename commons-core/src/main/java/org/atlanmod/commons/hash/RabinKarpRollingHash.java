@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * A Rabin-Karp {@link RollingHash}: a polynomial hash modulo {@code 2^64}, where the oldest byte is removed by
+ * subtracting its contribution.
+ */
+@NotThreadSafe
+@ParametersAreNonnullByDefault
+final class RabinKarpRollingHash extends AbstractWindowedRollingHash {
+
+    /**
+     * The base of the polynomial; an odd number, with its high and low bits set.
+     */
+    private static final long BASE = 0x100000001b3L;
+
+    /**
+     * The factor of the oldest byte of a full window, i.e. {@code BASE^(windowSize - 1)}.
+     */
+    private final long outFactor;
+
+    /**
+     * Constructs a new {@code RabinKarpRollingHash}.
+     *
+     * @param windowSize the number of bytes in the window
+     */
+    RabinKarpRollingHash(@Nonnegative int windowSize) {
+        super(windowSize);
+
+        long factor = 1;
+        for (int i = 1; i < windowSize; i++) {
+            factor *= BASE;
+        }
+        this.outFactor = factor;
+    }
+
+    @Override
+    protected void append(byte in) {
+        value = value * BASE + term(in);
+    }
+
+    @Override
+    protected void roll(byte out, byte in) {
+        value = (value - term(out) * outFactor) * BASE + term(in);
+    }
+
+    /**
+     * Returns the term of a byte in the polynomial; never {@code 0}, so that a sequence of zeros has a non-null hash.
+     *
+     * @param data the byte
+     *
+     * @return the term of the byte
+     */
+    private static long term(byte data) {
+        return (data & 0xff) + 1;
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import static org.atlanmod.commons.Guards.checkNotNull;
+import static org.atlanmod.commons.Guards.checkState;
+
+/**
+ * A {@link ShardRouter} based on rendezvous (highest random weight) hashing.
+ * <p>
+ * The nodes and their hash values are an immutable snapshot, replaced on each membership update (copy-on-write):
+ * lookups are lock-free, and updates are serialized.
+ *
+ * @param <N> the type of nodes
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+final class RendezvousRouter<N> implements ShardRouter<N> {
+
+    /**
+     * The hasher used to hash the keys and the nodes.
+     */
+    @Nonnull
+    private final Hasher hasher;
+
+    /**
+     * The current nodes.
+     */
+    @Nonnull
+    private volatile Members<N> members;
+
+    /**
+     * Constructs a new {@code RendezvousRouter}.
+     *
+     * @param hasher the hasher used to hash the keys and the nodes
+     */
+    RendezvousRouter(Hasher hasher) {
+        this.hasher = checkNotNull(hasher, "hasher");
+        this.members = new Members<>(Collections.emptyList(), new long[0]);
+    }
+
+    @Nonnull
+    @Override
+    public Hasher hasher() {
+        return hasher;
+    }
+
+    @Nonnull
+    @Override
+    public N routeHash(long hash) {
+        final Members<N> current = members;
+        checkState(!current.nodes.isEmpty(), "No node to route to");
+
+        int best = 0;
+        long bestWeight = Long.MIN_VALUE;
+        for (int i = 0; i < current.hashes.length; i++) {
+            final long weight = Mixers.mix(hash ^ current.hashes[i]);
+            if (weight > bestWeight) {
+                bestWeight = weight;
+                best = i;
+            }
+        }
+        return current.nodes.get(best);
+    }
+
+    @Override
+    public synchronized boolean add(N node) {
+        checkNotNull(node, "node");
+
+        if (members.nodes.contains(node)) {
+            return false;
+        }
+
+        List<N> nodes = new ArrayList<>(members.nodes);
+        nodes.add(node);
+        members = build(nodes);
+        return true;
+    }
+
+    @Override
+    public synchronized boolean remove(N node) {
+        checkNotNull(node, "node");
+
+        if (!members.nodes.contains(node)) {
+            return false;
+        }
+
+        List<N> nodes = new ArrayList<>(members.nodes);
+        nodes.remove(node);
+        members = build(nodes);
+        return true;
+    }
+
+    @Nonnull
+    @Override
+    public List<N> nodes() {
+        return members.nodes;
+    }
+
+    /**
+     * Builds a new snapshot with the given {@code nodes}.
+     *
+     * @param nodes the nodes
+     *
+     * @return a new snapshot
+     */
+    @Nonnull
+    private Members<N> build(List<N> nodes) {
+        long[] hashes = new long[nodes.size()];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = hasher.hashToLong(nodes.get(i).toString());
+        }
+        return new Members<>(Collections.unmodifiableList(nodes), hashes);
+    }
+
+    /**
+     * An immutable snapshot of the nodes.
+     *
+     * @param <N> the type of nodes
+     */
+    @Immutable
+    private static final class Members<N> {
+
+        /**
+         * The nodes, in insertion order.
+         */
+        @Nonnull
+        final List<N> nodes;
+
+        /**
+         * The hash value of each node.
+         */
+        @Nonnull
+        final long[] hashes;
+
+        /**
+         * Constructs a new {@code Members}.
+         *
+         * @param nodes  the nodes
+         * @param hashes the hash value of each node
+         */
+        Members(List<N> nodes, long[] hashes) {
+            this.nodes = nodes;
+            this.hashes = hashes;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * A hash function over a sliding window of bytes, whose value is updated in constant time each time a byte enters the
+ * window, and another leaves it.
+ * <p>
+ * Rolling hashes are not meant to identify data, but to detect positions that only depend on the local content, such as
+ * the boundaries of a {@link ContentDefinedChunker}. Instances of this interface are stateful, and therefore not
+ * thread-safe.
+ *
+ * @see ContentDefinedChunker
+ */
+@NotThreadSafe
+@ParametersAreNonnullByDefault
+public interface RollingHash {
+
+    /**
+     * Creates a new Rabin-Karp rolling hash, i.e. a polynomial hash over a window of {@code windowSize} bytes.
+     *
+     * @param windowSize the number of bytes in the window
+     *
+     * @return a new rolling hash
+     *
+     * @throws IllegalArgumentException if {@code windowSize} is not positive
+     */
+    @Nonnull
+    static RollingHash rabinKarp(@Nonnegative int windowSize) {
+        return new RabinKarpRollingHash(windowSize);
+    }
+
+    /**
+     * Creates a new buzhash rolling hash, i.e. a cyclic polynomial hash over a window of {@code windowSize} bytes, based
+     * on rotations and a random substitution table.
+     *
+     * @param windowSize the number of bytes in the window
+     *
+     * @return a new rolling hash
+     *
+     * @throws IllegalArgumentException if {@code windowSize} is not positive
+     */
+    @Nonnull
+    static RollingHash buzhash(@Nonnegative int windowSize) {
+        return new BuzRollingHash(windowSize);
+    }
+
+    /**
+     * Creates a new Gear rolling hash, as used by FastCDC: each byte is added to the value shifted by one bit, so that a
+     * byte leaves the window after {@value Long#SIZE} bytes, without having to be removed explicitly. This is the fastest
+     * rolling hash.
+     *
+     * @return a new rolling hash
+     */
+    @Nonnull
+    static RollingHash gear() {
+        return new GearRollingHash();
+    }
+
+    /**
+     * Returns the number of bytes that influence the value of this hash.
+     *
+     * @return the size of the window
+     */
+    @Nonnegative
+    int windowSize();
+
+    /**
+     * Adds a byte to the window, and removes the oldest one if the window is full.
+     *
+     * @param data the byte to add
+     *
+     * @return the new value of this hash
+     */
+    long update(byte data);
+
+    /**
+     * Returns the current value of this hash.
+     *
+     * @return the value of this hash
+     */
+    long value();
+
+    /**
+     * Empties the window, as if this hash had just been created.
+     */
+    void reset();
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import java.util.List;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A router of keys to a set of nodes (e.g. shards or servers), that only moves a minimal fraction of the keys when nodes
+ * are added or removed, unlike {@code hash % n}.
+ * <p>
+ * Keys are hashed to a 64-bit value with the {@link Hasher} of the router; a key can also be routed from a
+ * pre-calculated hash value with {@link #routeHash(long)}. Lookups are allocation-free, and can run concurrently with
+ * membership updates: they always see a consistent set of nodes.
+ * <p>
+ * Nodes are identified by their {@link Object#toString()} representation, which must therefore be unique and stable
+ * across processes for the routing to be reproducible.
+ *
+ * @param <N> the type of nodes
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+public interface ShardRouter<N> {
+
+    /**
+     * Creates a new consistent-hash ring, where each node is placed at {@code virtualNodes} positions on a ring of
+     * 64-bit values, and each key is routed to the next node on the ring. Lookups are {@code O(log(n * virtualNodes))}.
+     * When a node is added or removed, only the keys between its positions and the previous ones are moved.
+     *
+     * @param hasher       the hasher used to hash the keys and the nodes
+     * @param virtualNodes the number of positions of each node on the ring; more positions give a more even
+     *                     distribution
+     * @param <N>          the type of nodes
+     *
+     * @return a new router, without nodes
+     *
+     * @throws IllegalArgumentException if {@code virtualNodes} is not positive
+     */
+    @Nonnull
+    static <N> ShardRouter<N> consistentHash(Hasher hasher, @Nonnegative int virtualNodes) {
+        return new ConsistentHashRouter<>(hasher, virtualNodes);
+    }
+
+    /**
+     * Creates a new rendezvous (highest random weight) router, where each key is routed to the node with the highest
+     * combined hash of the key and the node. It needs no virtual nodes and gives an even distribution, but lookups are
+     * {@code O(n)}: it is meant for small sets of nodes.
+     *
+     * @param hasher the hasher used to hash the keys and the nodes
+     * @param <N>    the type of nodes
+     *
+     * @return a new router, without nodes
+     */
+    @Nonnull
+    static <N> ShardRouter<N> rendezvous(Hasher hasher) {
+        return new RendezvousRouter<>(hasher);
+    }
+
+    /**
+     * Creates a new jump consistent hash router, where each key is routed to a bucket in {@code O(log n)} without any
+     * memory overhead. Nodes are numbered by insertion order: only adding or removing the last node keeps the number of
+     * moved keys minimal.
+     *
+     * @param hasher the hasher used to hash the keys
+     * @param <N>    the type of nodes
+     *
+     * @return a new router, without nodes
+     *
+     * @see <a href="https://arxiv.org/abs/1406.2294">A Fast, Minimal Memory, Consistent Hash Algorithm</a>
+     */
+    @Nonnull
+    static <N> ShardRouter<N> jump(Hasher hasher) {
+        return new JumpRouter<>(hasher);
+    }
+
+    /**
+     * Returns the hasher used to hash the keys.
+     *
+     * @return the hasher
+     */
+    @Nonnull
+    Hasher hasher();
+
+    /**
+     * Routes a key from its pre-calculated 64-bit hash value.
+     *
+     * @param hash the hash value of the key
+     *
+     * @return the node of the key
+     *
+     * @throws IllegalStateException if this router has no nodes
+     */
+    @Nonnull
+    N routeHash(long hash);
+
+    /**
+     * Routes a key.
+     *
+     * @param key the key to route
+     *
+     * @return the node of the key
+     *
+     * @throws IllegalStateException if this router has no nodes
+     */
+    @Nonnull
+    default N route(String key) {
+        return routeHash(hasher().hashToLong(key));
+    }
+
+    /**
+     * Routes a key.
+     *
+     * @param key the key to route
+     *
+     * @return the node of the key
+     *
+     * @throws IllegalStateException if this router has no nodes
+     */
+    @Nonnull
+    default N route(long key) {
+        return routeHash(hasher().hashToLong(key));
+    }
+
+    /**
+     * Routes a key.
+     *
+     * @param key the key to route
+     *
+     * @return the node of the key
+     *
+     * @throws IllegalStateException if this router has no nodes
+     */
+    @Nonnull
+    default N route(byte[] key) {
+        return routeHash(hasher().hashToLong(key));
+    }
+
+    /**
+     * Adds a node to this router.
+     *
+     * @param node the node to add
+     *
+     * @return {@code true} if the node has been added, {@code false} if it was already present
+     */
+    boolean add(N node);
+
+    /**
+     * Removes a node from this router.
+     *
+     * @param node the node to remove
+     *
+     * @return {@code true} if the node has been removed, {@code false} if it was not present
+     */
+    boolean remove(N node);
+
+    /**
+     * Returns the current nodes of this router.
+     *
+     * @return an immutable snapshot of the nodes
+     */
+    @Nonnull
+    List<N> nodes();
+}
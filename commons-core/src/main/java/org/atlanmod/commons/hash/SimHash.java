@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import net.openhft.hashing.LongHashFunction;
+
+import java.util.Map;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.ThreadSafe;
+
+import static org.atlanmod.commons.Guards.checkArgument;
+import static org.atlanmod.commons.Guards.checkNotNull;
+
+/**
+ * A generator of SimHash fingerprints, that estimate the cosine similarity between weighted sets of tokens.
+ * <p>
+ * A fingerprint is a 64-bit value, whose bit {@code i} is set if the sum of the weights of the tokens having their bit
+ * {@code i} set is greater than the sum of the weights of the other tokens. Similar sets have fingerprints that differ
+ * by a few bits only: their {@linkplain #distance(long, long) Hamming distance} is small. Fingerprints can be indexed by
+ * a {@link LshIndex}, after having been split with {@link #bands(long, int)}.
+ * <pre>{@code
+ * SimHash simHash = SimHash.create();
+ * long first = simHash.fingerprint(Arrays.asList(firstDocument.split(" ")));
+ * long second = simHash.fingerprint(Arrays.asList(secondDocument.split(" ")));
+ *
+ * boolean nearDuplicates = SimHash.distance(first, second) <= 3;
+ * }</pre>
+ *
+ * @see LshIndex
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+public final class SimHash {
+
+    /**
+     * The default seed of the hash function.
+     */
+    public static final long DEFAULT_SEED = 0x73696d68617368L;
+
+    /**
+     * The hash function of the tokens.
+     */
+    @Nonnull
+    private final Hasher hasher;
+
+    /**
+     * Constructs a new {@code SimHash}.
+     *
+     * @param seed the seed of the hash function
+     */
+    private SimHash(long seed) {
+        this.hasher = new ZeroAllocationHasher(LongHashFunction.xx(seed));
+    }
+
+    /**
+     * Creates a new {@code SimHash} with the {@link #DEFAULT_SEED}.
+     *
+     * @return a new fingerprint generator
+     */
+    @Nonnull
+    public static SimHash create() {
+        return create(DEFAULT_SEED);
+    }
+
+    /**
+     * Creates a new {@code SimHash}. Fingerprints can only be compared if they have been generated with the same seed.
+     *
+     * @param seed the seed of the hash function
+     *
+     * @return a new fingerprint generator
+     */
+    @Nonnull
+    public static SimHash create(long seed) {
+        return new SimHash(seed);
+    }
+
+    /**
+     * Returns the number of different bits between two fingerprints.
+     *
+     * @param first  the first fingerprint
+     * @param second the second fingerprint
+     *
+     * @return the Hamming distance, between {@code 0} and {@code 64}
+     */
+    @Nonnegative
+    public static int distance(long first, long second) {
+        return Long.bitCount(first ^ second);
+    }
+
+    /**
+     * Estimates the similarity between the sets represented by two fingerprints.
+     *
+     * @param first  the first fingerprint
+     * @param second the second fingerprint
+     *
+     * @return the estimated similarity, between {@code 0} and {@code 1}
+     */
+    public static double similarity(long first, long second) {
+        return 1 - (double) distance(first, second) / Long.SIZE;
+    }
+
+    /**
+     * Splits a fingerprint into {@code bands} contiguous groups of bits, to be indexed by a {@link LshIndex} with one row
+     * per band. Two fingerprints that differ by less than {@code bands} bits have at least one identical band.
+     *
+     * @param fingerprint the fingerprint to split
+     * @param bands       the number of bands; a divisor of {@code 64}
+     *
+     * @return the value of each band
+     *
+     * @throws IllegalArgumentException if {@code bands} is not a divisor of {@code 64}
+     */
+    @Nonnull
+    public static long[] bands(long fingerprint, @Nonnegative int bands) {
+        checkArgument(bands > 0 && Long.SIZE % bands == 0, "bands (%d) must be a divisor of 64", bands);
+
+        final int width = Long.SIZE / bands;
+        final long mask = width == Long.SIZE ? -1L : (1L << width) - 1;
+
+        long[] values = new long[bands];
+        for (int i = 0; i < bands; i++) {
+            values[i] = (fingerprint >>> (i * width)) & mask;
+        }
+        return values;
+    }
+
+    /**
+     * Calculates the fingerprint of a set of tokens, where each token has a weight of {@code 1}. Duplicate tokens are
+     * counted for each occurrence.
+     *
+     * @param tokens the tokens of the set
+     *
+     * @return the fingerprint
+     */
+    public long fingerprint(Iterable<String> tokens) {
+        checkNotNull(tokens, "tokens");
+
+        long[] weights = new long[Long.SIZE];
+        for (String token : tokens) {
+            accumulate(weights, hasher.hashToLong(token), 1);
+        }
+        return fingerprint(weights);
+    }
+
+    /**
+     * Calculates the fingerprint of a weighted set of tokens.
+     *
+     * @param tokens the tokens of the set, associated with their weight
+     *
+     * @return the fingerprint
+     */
+    public long fingerprint(Map<String, ? extends Number> tokens) {
+        checkNotNull(tokens, "tokens");
+
+        long[] weights = new long[Long.SIZE];
+        tokens.forEach((token, weight) -> accumulate(weights, hasher.hashToLong(token), weight.longValue()));
+        return fingerprint(weights);
+    }
+
+    /**
+     * Adds the {@code weight} of a token to the {@code weights} of each bit set in its hash value, and subtracts it from
+     * the others.
+     *
+     * @param weights the weight of each bit
+     * @param hash    the hash value of the token
+     * @param weight  the weight of the token
+     */
+    private static void accumulate(long[] weights, long hash, long weight) {
+        for (int i = 0; i < Long.SIZE; i++) {
+            weights[i] += ((hash >>> i) & 1) != 0 ? weight : -weight;
+        }
+    }
+
+    /**
+     * Builds a fingerprint from the accumulated {@code weights} of each bit.
+     *
+     * @param weights the weight of each bit
+     *
+     * @return the fingerprint
+     */
+    private static long fingerprint(long[] weights) {
+        long fingerprint = 0;
+        for (int i = 0; i < Long.SIZE; i++) {
+            if (weights[i] > 0) {
+                fingerprint |= 1L << i;
+            }
+        }
+        return fingerprint;
+    }
+}
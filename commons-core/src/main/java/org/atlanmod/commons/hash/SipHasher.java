@@ -0,0 +1,251 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import org.atlanmod.commons.primitive.Strings;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.ThreadSafe;
+
+import static org.atlanmod.commons.Guards.checkPositionIndex;
+
+/**
+ * A {@link Hasher} that uses the {@code SipHash-2-4} keyed algorithm (64 bits).
+ * <p>
+ * SipHash is a pseudo-random function: without the 128-bit key, the hash values cannot be predicted, so an attacker
+ * cannot craft colliding inputs to degrade a hash table to linear time. Words are read in little-endian order, as
+ * specified by the reference implementation; primitive values are hashed from their big-endian encoding, as the other
+ * {@link Hasher}s.
+ *
+ * @see <a href="https://www.aumasson.jp/siphash/siphash.pdf">SipHash: a fast short-input PRF</a>
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+final class SipHasher implements Hasher {
+
+    /**
+     * The view used to read little-endian words from {@code byte} arrays.
+     */
+    private static final VarHandle ARRAY_WORDS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * The view used to read little-endian words from buffers.
+     */
+    private static final VarHandle BUFFER_WORDS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * The first half of the key.
+     */
+    private final long k0;
+
+    /**
+     * The second half of the key.
+     */
+    private final long k1;
+
+    /**
+     * Constructs a new {@code SipHasher}.
+     *
+     * @param k0 the first half of the key
+     * @param k1 the second half of the key
+     */
+    public SipHasher(long k0, long k1) {
+        this.k0 = k0;
+        this.k1 = k1;
+    }
+
+    @Nonnull
+    @Override
+    public HashCode hash(int data) {
+        return new LongHashCode(hashToLong(data));
+    }
+
+    @Nonnull
+    @Override
+    public HashCode hash(long data) {
+        return new LongHashCode(hashToLong(data));
+    }
+
+    @Nonnull
+    @Override
+    public HashCode hash(byte[] data) {
+        return new LongHashCode(hashToLong(data));
+    }
+
+    @Nonnull
+    @Override
+    public HashCode hash(byte[] data, int offset, int length) {
+        checkPositionIndex(offset, data.length);
+        checkPositionIndex(length, data.length - offset);
+
+        return new LongHashCode(sipHash(data, offset, length));
+    }
+
+    @Nonnull
+    @Override
+    public HashCode hash(ByteBuffer data) {
+        return new LongHashCode(hashToLong(data));
+    }
+
+    @Override
+    public long hashToLong(int data) {
+        final State state = new State(k0, k1);
+        return state.finish(((long) Integer.BYTES << 56) | (Integer.reverseBytes(data) & 0xffffffffL));
+    }
+
+    @Override
+    public long hashToLong(long data) {
+        final State state = new State(k0, k1);
+        state.compress(Long.reverseBytes(data));
+        return state.finish((long) Long.BYTES << 56);
+    }
+
+    @Override
+    public long hashToLong(String data) {
+        return hashToLong(Strings.toBytes(data));
+    }
+
+    @Override
+    public long hashToLong(byte[] data) {
+        return sipHash(data, 0, data.length);
+    }
+
+    @Override
+    public long hashToLong(ByteBuffer data) {
+        if (data.hasArray()) {
+            return sipHash(data.array(), data.arrayOffset() + data.position(), data.remaining());
+        }
+
+        final int offset = data.position();
+        final int length = data.remaining();
+        final int end = offset + (length & ~7);
+
+        final State state = new State(k0, k1);
+        for (int i = offset; i < end; i += Long.BYTES) {
+            state.compress((long) BUFFER_WORDS.get(data, i));
+        }
+
+        long last = (long) length << 56;
+        for (int i = length & 7; i > 0; i--) {
+            last |= (data.get(end + i - 1) & 0xffL) << Byte.SIZE * (i - 1);
+        }
+        return state.finish(last);
+    }
+
+    /**
+     * Calculates the SipHash of {@code length} bytes of {@code data}, starting at {@code offset}.
+     *
+     * @param data   the {@code byte} array to hash
+     * @param offset the index of the first byte to hash
+     * @param length the number of bytes to hash
+     *
+     * @return the hash value
+     */
+    private long sipHash(byte[] data, @Nonnegative int offset, @Nonnegative int length) {
+        final int end = offset + (length & ~7);
+
+        final State state = new State(k0, k1);
+        for (int i = offset; i < end; i += Long.BYTES) {
+            state.compress((long) ARRAY_WORDS.get(data, i));
+        }
+
+        // The last block contains the remaining bytes, and the length of the input in its highest byte
+        long last = (long) length << 56;
+        for (int i = length & 7; i > 0; i--) {
+            last |= (data[end + i - 1] & 0xffL) << Byte.SIZE * (i - 1);
+        }
+        return state.finish(last);
+    }
+
+    /**
+     * The internal state of a SipHash computation.
+     * <p>
+     * Instances never escape the hashing methods, so they are usually scalar-replaced by the JIT compiler.
+     */
+    private static final class State {
+
+        private long v0;
+        private long v1;
+        private long v2;
+        private long v3;
+
+        /**
+         * Constructs a new {@code State} initialized with the given key.
+         *
+         * @param k0 the first half of the key
+         * @param k1 the second half of the key
+         */
+        State(long k0, long k1) {
+            v0 = k0 ^ 0x736f6d6570736575L;
+            v1 = k1 ^ 0x646f72616e646f6dL;
+            v2 = k0 ^ 0x6c7967656e657261L;
+            v3 = k1 ^ 0x7465646279746573L;
+        }
+
+        /**
+         * Processes a 64-bit block, with 2 compression rounds.
+         *
+         * @param m the block to process
+         */
+        void compress(long m) {
+            v3 ^= m;
+            round();
+            round();
+            v0 ^= m;
+        }
+
+        /**
+         * Processes the last block, with 4 finalization rounds, and returns the hash value.
+         *
+         * @param last the last block, containing the length of the input
+         *
+         * @return the hash value
+         */
+        long finish(long last) {
+            compress(last);
+
+            v2 ^= 0xff;
+            round();
+            round();
+            round();
+            round();
+            return v0 ^ v1 ^ v2 ^ v3;
+        }
+
+        /**
+         * Applies a {@code SipRound} to this state.
+         */
+        private void round() {
+            v0 += v1;
+            v1 = Long.rotateLeft(v1, 13);
+            v1 ^= v0;
+            v0 = Long.rotateLeft(v0, 32);
+
+            v2 += v3;
+            v3 = Long.rotateLeft(v3, 16);
+            v3 ^= v2;
+
+            v0 += v3;
+            v3 = Long.rotateLeft(v3, 21);
+            v3 ^= v0;
+
+            v2 += v1;
+            v1 = Long.rotateLeft(v1, 17);
+            v1 ^= v2;
+            v2 = Long.rotateLeft(v2, 32);
+        }
+    }
+}
@@ -9,20 +9,31 @@
 package org.atlanmod.commons.hash;
 
 import net.openhft.hashing.LongHashFunction;
+import net.openhft.hashing.LongTupleHashFunction;
 
 import org.atlanmod.commons.Throwables;
 import org.atlanmod.commons.annotation.Static;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.security.SecureRandom;
 import java.util.Arrays;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nonnull;
 import javax.annotation.ParametersAreNonnullByDefault;
 
+import static org.atlanmod.commons.Guards.checkArgument;
+import static org.atlanmod.commons.Guards.checkNotNull;
+
 /**
  * Constants definitions for the default {@link Hasher} instances.
+ * <p>
+ * The constants are unseeded: anyone who knows the algorithm can craft inputs that collide. When the hashed values come
+ * from an untrusted source, prefer a hasher seeded with a secret random value, such as {@link #xx(long)}, or a keyed
+ * function such as {@link #sipHash24(long, long)}.
  */
 @Static
 @ParametersAreNonnullByDefault
@@ -86,10 +97,204 @@ public final class StandardHashers {
     @Nonnull
     public static final Hasher FARM_UO = new ZeroAllocationHasher(LongHashFunction.farmUo());
 
+    /**
+     * A {@link Hasher} that uses the {@code MurmurHash3 128-bit} algorithm (128 bits), in its x64 variant.
+     *
+     * @see <a href="https://github.com/aappleby/smhasher/blob/master/src/MurmurHash3.cpp">aappleby/smhasher/../MurmurHash3.cpp</a>
+     */
+    @Nonnull
+    public static final Hasher MURMUR3_128 = new ZeroAllocationTupleHasher(LongTupleHashFunction.murmur_3());
+
+    /**
+     * A {@link Hasher} that uses the {@code XXH3 128-bit} algorithm (128 bits).
+     *
+     * @see <a href="https://github.com/Cyan4973/xxHash">Cyan4973/xxHash</a>
+     */
+    @Nonnull
+    public static final Hasher XX_128 = new ZeroAllocationTupleHasher(LongTupleHashFunction.xx128());
+
+    /**
+     * A {@link Hasher} that uses the {@code CRC-32C} checksum (32 bits), with the Castagnoli polynomial.
+     * <p>
+     * This checksum is not a hash function: it is designed to detect accidental corruptions, and is computed by
+     * dedicated CPU instructions on most platforms.
+     *
+     * @see java.util.zip.CRC32C
+     */
+    @Nonnull
+    public static final Hasher CRC32C = new ChecksumHasher(java.util.zip.CRC32C::new);
+
+    /**
+     * A {@link Hasher} that uses the {@code Adler-32} checksum (32 bits).
+     * <p>
+     * This checksum is not a hash function: it is faster than {@link #CRC32C} when no dedicated CPU instruction is
+     * available, but detects fewer corruptions on short inputs.
+     *
+     * @see java.util.zip.Adler32
+     */
+    @Nonnull
+    public static final Hasher ADLER32 = new ChecksumHasher(java.util.zip.Adler32::new);
+
     private StandardHashers() {
         throw Throwables.notInstantiableClass(getClass());
     }
 
+    /**
+     * Creates a {@link Hasher} that uses the {@code MurmurHash3 64-bit} algorithm (64 bits), with the given
+     * {@code seed}.
+     *
+     * @param seed the seed of the hash function
+     *
+     * @return a new hasher
+     *
+     * @see #MURMUR3
+     */
+    @Nonnull
+    public static Hasher murmur3(long seed) {
+        return new ZeroAllocationHasher(LongHashFunction.murmur_3(seed));
+    }
+
+    /**
+     * Creates a {@link Hasher} that uses the {@code xxHash} algorithm (64 bits), with the given {@code seed}.
+     *
+     * @param seed the seed of the hash function
+     *
+     * @return a new hasher
+     *
+     * @see #XX
+     */
+    @Nonnull
+    public static Hasher xx(long seed) {
+        return new ZeroAllocationHasher(LongHashFunction.xx(seed));
+    }
+
+    /**
+     * Creates a {@link Hasher} that uses the {@code CityHash} algorithm (64 bits), with the given {@code seed}.
+     *
+     * @param seed the seed of the hash function
+     *
+     * @return a new hasher
+     *
+     * @see #CITY
+     */
+    @Nonnull
+    public static Hasher city(long seed) {
+        return new ZeroAllocationHasher(LongHashFunction.city_1_1(seed));
+    }
+
+    /**
+     * Creates a {@link Hasher} that uses the {@code FarmHash NA} algorithm (64 bits), with the given {@code seed}.
+     *
+     * @param seed the seed of the hash function
+     *
+     * @return a new hasher
+     *
+     * @see #FARM_NA
+     */
+    @Nonnull
+    public static Hasher farmNa(long seed) {
+        return new ZeroAllocationHasher(LongHashFunction.farmNa(seed));
+    }
+
+    /**
+     * Creates a {@link Hasher} that uses the {@code FarmHash UO} algorithm (64 bits), with the given {@code seed}.
+     *
+     * @param seed the seed of the hash function
+     *
+     * @return a new hasher
+     *
+     * @see #FARM_UO
+     */
+    @Nonnull
+    public static Hasher farmUo(long seed) {
+        return new ZeroAllocationHasher(LongHashFunction.farmUo(seed));
+    }
+
+    /**
+     * Creates a {@link Hasher} that uses the {@code MurmurHash3 128-bit} algorithm (128 bits), with the given
+     * {@code seed}.
+     *
+     * @param seed the seed of the hash function
+     *
+     * @return a new hasher
+     *
+     * @see #MURMUR3_128
+     */
+    @Nonnull
+    public static Hasher murmur3_128(long seed) {
+        return new ZeroAllocationTupleHasher(LongTupleHashFunction.murmur_3(seed));
+    }
+
+    /**
+     * Creates a {@link Hasher} that uses the {@code XXH3 128-bit} algorithm (128 bits), with the given {@code seed}.
+     *
+     * @param seed the seed of the hash function
+     *
+     * @return a new hasher
+     *
+     * @see #XX_128
+     */
+    @Nonnull
+    public static Hasher xx128(long seed) {
+        return new ZeroAllocationTupleHasher(LongTupleHashFunction.xx128(seed));
+    }
+
+    /**
+     * Creates a {@link Hasher} that uses the {@code SipHash-2-4} keyed algorithm (64 bits), with the given 128-bit
+     * key.
+     * <p>
+     * Unlike seeded non-cryptographic functions, SipHash is designed so that the hash values do not leak the key: it
+     * keeps hash tables that are indexed by untrusted input safe from hash-flooding, as long as the key is secret.
+     *
+     * @param k0 the first half of the key, i.e. its first 8 bytes in little-endian order
+     * @param k1 the second half of the key, i.e. its last 8 bytes in little-endian order
+     *
+     * @return a new hasher
+     *
+     * @see <a href="https://www.aumasson.jp/siphash/siphash.pdf">SipHash: a fast short-input PRF</a>
+     */
+    @Nonnull
+    public static Hasher sipHash24(long k0, long k1) {
+        return new SipHasher(k0, k1);
+    }
+
+    /**
+     * Creates a {@link Hasher} that uses the {@code SipHash-2-4} keyed algorithm (64 bits), with the given 128-bit
+     * key.
+     *
+     * @param key the 16 bytes of the key
+     *
+     * @return a new hasher
+     *
+     * @throws IllegalArgumentException if {@code key} is not 16 bytes long
+     * @see #sipHash24(long, long)
+     */
+    @Nonnull
+    public static Hasher sipHash24(byte[] key) {
+        checkNotNull(key, "key");
+        checkArgument(key.length == Long.BYTES * 2, "key length (%d) must be 16", key.length);
+
+        final ByteBuffer buffer = ByteBuffer.wrap(key).order(ByteOrder.LITTLE_ENDIAN);
+        return sipHash24(buffer.getLong(0), buffer.getLong(Long.BYTES));
+    }
+
+    /**
+     * Creates a {@link Hasher} that uses the {@code SipHash-2-4} keyed algorithm (64 bits), with a random key
+     * generated by a {@link SecureRandom}.
+     * <p>
+     * The hash values are only consistent within the returned instance: they must not be persisted, nor shared
+     * between processes.
+     *
+     * @return a new hasher
+     *
+     * @see #sipHash24(long, long)
+     */
+    @Nonnull
+    public static Hasher sipHash24() {
+        final SecureRandom random = new SecureRandom();
+        return sipHash24(random.nextLong(), random.nextLong());
+    }
+
     /**
      * Returns a {@link Hasher} with the specified {@code name}.
      *
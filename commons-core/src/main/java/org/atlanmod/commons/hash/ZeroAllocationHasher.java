@@ -10,14 +10,21 @@ package org.atlanmod.commons.hash;
 
 import net.openhft.hashing.LongHashFunction;
 
+import java.nio.ByteBuffer;
+
 import javax.annotation.Nonnull;
 import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.ThreadSafe;
 
 /**
  * A {@link Hasher} that delegate its calls to a {@link LongHashFunction}.
+ * <p>
+ * Strings are hashed as their {@code UTF-16} code units in little-endian order, without being encoded first; the sinks
+ * of this hasher write them the same way.
  *
  * @see <a href="https://github.com/OpenHFT/Zero-Allocation-Hashing">OpenHFT/Zero-Allocation-Hashing</a>.
  */
+@ThreadSafe
 @ParametersAreNonnullByDefault
 final class ZeroAllocationHasher implements Hasher {
 
@@ -96,6 +103,55 @@ final class ZeroAllocationHasher implements Hasher {
         return createHashCode(delegate.hashBytes(data));
     }
 
+    @Nonnull
+    @Override
+    public HashCode hash(byte[] data, int offset, int length) {
+        return createHashCode(delegate.hashBytes(data, offset, length));
+    }
+
+    @Nonnull
+    @Override
+    public HashCode hash(ByteBuffer data) {
+        return createHashCode(delegate.hashBytes(data));
+    }
+
+    @Nonnull
+    @Override
+    public HashCode hash(ByteBuffer data, int offset, int length) {
+        return createHashCode(delegate.hashBytes(data, offset, length));
+    }
+
+    @Override
+    public long hashToLong(int data) {
+        return delegate.hashInt(data);
+    }
+
+    @Override
+    public long hashToLong(long data) {
+        return delegate.hashLong(data);
+    }
+
+    @Override
+    public long hashToLong(String data) {
+        return delegate.hashChars(data);
+    }
+
+    @Override
+    public long hashToLong(byte[] data) {
+        return delegate.hashBytes(data);
+    }
+
+    @Override
+    public long hashToLong(ByteBuffer data) {
+        return delegate.hashBytes(data);
+    }
+
+    @Nonnull
+    @Override
+    public HashSink newSink() {
+        return new BufferedHashSink(this, true);
+    }
+
     /**
      * Creates a new {@link HashCode} from a long {@code hashCode}.
      *
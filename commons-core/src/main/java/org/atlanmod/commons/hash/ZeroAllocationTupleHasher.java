@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import net.openhft.hashing.LongTupleHashFunction;
+
+import java.nio.ByteBuffer;
+
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.ThreadSafe;
+
+import static org.atlanmod.commons.Guards.checkArgument;
+import static org.atlanmod.commons.Guards.checkNotNull;
+
+/**
+ * A {@link Hasher} that delegate its calls to a 128-bit {@link LongTupleHashFunction}.
+ * <p>
+ * Strings are hashed as their {@code UTF-16} code units in little-endian order, without being encoded first; the sinks
+ * of this hasher write them the same way.
+ *
+ * @see <a href="https://github.com/OpenHFT/Zero-Allocation-Hashing">OpenHFT/Zero-Allocation-Hashing</a>.
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+final class ZeroAllocationTupleHasher implements Hasher {
+
+    /**
+     * The delegated hash function.
+     */
+    @Nonnull
+    private final LongTupleHashFunction delegate;
+
+    /**
+     * Constructs a new {@code ZeroAllocationTupleHasher}.
+     *
+     * @param delegate the delegated hash function; must produce 128-bit results
+     */
+    public ZeroAllocationTupleHasher(LongTupleHashFunction delegate) {
+        checkNotNull(delegate, "delegate");
+        checkArgument(delegate.bitsLength() == Long.SIZE * 2, "delegate must produce 128-bit results (%d)", delegate.bitsLength());
+
+        this.delegate = delegate;
+    }
+
+    @Nonnull
+    @Override
+    public HashCode hash(byte data) {
+        long[] result = delegate.newResultArray();
+        delegate.hashByte(data, result);
+        return createHashCode(result);
+    }
+
+    @Nonnull
+    @Override
+    public HashCode hash(boolean data) {
+        long[] result = delegate.newResultArray();
+        delegate.hashBoolean(data, result);
+        return createHashCode(result);
+    }
+
+    @Nonnull
+    @Override
+    public HashCode hash(char data) {
+        long[] result = delegate.newResultArray();
+        delegate.hashChar(data, result);
+        return createHashCode(result);
+    }
+
+    @Nonnull
+    @Override
+    public HashCode hash(short data) {
+        long[] result = delegate.newResultArray();
+        delegate.hashShort(data, result);
+        return createHashCode(result);
+    }
+
+    @Nonnull
+    @Override
+    public HashCode hash(int data) {
+        long[] result = delegate.newResultArray();
+        delegate.hashInt(data, result);
+        return createHashCode(result);
+    }
+
+    @Nonnull
+    @Override
+    public HashCode hash(long data) {
+        long[] result = delegate.newResultArray();
+        delegate.hashLong(data, result);
+        return createHashCode(result);
+    }
+
+    @Nonnull
+    @Override
+    public HashCode hash(float data) {
+        return hash(Float.floatToRawIntBits(data));
+    }
+
+    @Nonnull
+    @Override
+    public HashCode hash(double data) {
+        return hash(Double.doubleToRawLongBits(data));
+    }
+
+    @Nonnull
+    @Override
+    public HashCode hash(String data) {
+        long[] result = delegate.newResultArray();
+        delegate.hashChars(data, result);
+        return createHashCode(result);
+    }
+
+    @Nonnull
+    @Override
+    public HashCode hash(byte[] data) {
+        long[] result = delegate.newResultArray();
+        delegate.hashBytes(data, result);
+        return createHashCode(result);
+    }
+
+    @Nonnull
+    @Override
+    public HashCode hash(byte[] data, int offset, int length) {
+        long[] result = delegate.newResultArray();
+        delegate.hashBytes(data, offset, length, result);
+        return createHashCode(result);
+    }
+
+    @Nonnull
+    @Override
+    public HashCode hash(ByteBuffer data) {
+        long[] result = delegate.newResultArray();
+        delegate.hashBytes(data, result);
+        return createHashCode(result);
+    }
+
+    @Nonnull
+    @Override
+    public HashCode hash(ByteBuffer data, int offset, int length) {
+        long[] result = delegate.newResultArray();
+        delegate.hashBytes(data, offset, length, result);
+        return createHashCode(result);
+    }
+
+    @Nonnull
+    @Override
+    public HashSink newSink() {
+        return new BufferedHashSink(this, true);
+    }
+
+    /**
+     * Creates a new {@link HashCode} from the {@code result} of the hash function.
+     *
+     * @param result the result of the hash function, with the 64 least significant bits first
+     *
+     * @return a new {@link HashCode} instance
+     */
+    @Nonnull
+    private HashCode createHashCode(long[] result) {
+        return new LongPairHashCode(result[1], result[0]);
+    }
+}
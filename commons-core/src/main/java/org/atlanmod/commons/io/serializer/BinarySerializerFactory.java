@@ -56,6 +56,23 @@ public class BinarySerializerFactory {
         return (BinarySerializer<T>) anySerializer;
     }
 
+    /**
+     * Gets a {@link BinarySerializer} that frames the output of the {@code delegate} with its length and a {@code
+     * CRC-32C} checksum, so that corrupted records are detected on deserialization.
+     * <p>
+     * The checksum is computed by dedicated CPU instructions on most platforms, so this framing is much cheaper than
+     * a cryptographic digest. Corrupted records are reported by a {@link java.io.StreamCorruptedException}.
+     *
+     * @param delegate the serializer of the payloads
+     * @param <T>      the type of (de)serialized objects
+     *
+     * @return a new serializer
+     */
+    @Nonnull
+    public <T> BinarySerializer<T> checksummed(BinarySerializer<T> delegate) {
+        return new ChecksummedBinarySerializer<>(delegate);
+    }
+
     /**
      * The initialization-on-demand holder of the singleton of this class.
      */
@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.io.serializer;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.WillNotClose;
+
+import static org.atlanmod.commons.Guards.checkNotNull;
+
+/**
+ * A {@link BinarySerializer} that frames the output of another serializer with its length and a {@code CRC-32C}
+ * checksum, in order to detect corrupted records.
+ * <p>
+ * Each record is written as a 4-byte length, followed by the payload, and by the {@code CRC-32C} of both the length and
+ * the payload; all integers are big-endian. The checksum is computed by dedicated CPU instructions on most platforms,
+ * so corruptions are detected at memory bandwidth. A corrupted record is reported by a {@link
+ * StreamCorruptedException}, before being deserialized by the delegated serializer.
+ *
+ * @param <T> the type of (de)serialized objects
+ * @see BinarySerializerFactory#checksummed(BinarySerializer)
+ */
+@ParametersAreNonnullByDefault
+final class ChecksummedBinarySerializer<T> extends AbstractBinarySerializer<T> {
+
+    @SuppressWarnings("JavaDoc")
+    private static final long serialVersionUID = -2316071840936563284L;
+
+    /**
+     * The number of bytes added around each payload.
+     */
+    private static final int FRAME_OVERHEAD = Integer.BYTES * 2;
+
+    /**
+     * The maximum number of bytes allocated at once when reading a payload from a stream, so that a corrupted length
+     * fails on the end of the stream instead of allocating a large array.
+     */
+    private static final int READ_CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * The serializer of the payloads.
+     */
+    @Nonnull
+    private final BinarySerializer<T> delegate;
+
+    /**
+     * Constructs a new {@code ChecksummedBinarySerializer}.
+     *
+     * @param delegate the serializer of the payloads
+     */
+    public ChecksummedBinarySerializer(BinarySerializer<T> delegate) {
+        this.delegate = checkNotNull(delegate, "delegate");
+    }
+
+    @Nonnull
+    @Override
+    public byte[] serialize(T t) throws IOException {
+        final byte[] payload = delegate.serialize(t);
+
+        ByteBuffer frame = ByteBuffer.allocate(payload.length + FRAME_OVERHEAD);
+        frame.putInt(payload.length);
+        frame.put(payload);
+        frame.putInt(checksum(frame.array(), 0, Integer.BYTES + payload.length));
+        return frame.array();
+    }
+
+    @Nonnull
+    @Override
+    public T deserialize(byte[] data) throws IOException {
+        if (data.length < FRAME_OVERHEAD) {
+            throw new StreamCorruptedException(String.format("Truncated record: %d bytes", data.length));
+        }
+
+        ByteBuffer frame = ByteBuffer.wrap(data);
+        final int length = frame.getInt(0);
+        if (length != data.length - FRAME_OVERHEAD) {
+            throw new StreamCorruptedException(String.format("Invalid record length: %d (expected %d)", length, data.length - FRAME_OVERHEAD));
+        }
+
+        checkChecksum(frame.getInt(Integer.BYTES + length), checksum(data, 0, Integer.BYTES + length));
+        return delegate.deserialize(Arrays.copyOfRange(data, Integer.BYTES, Integer.BYTES + length));
+    }
+
+    @Override
+    public void serialize(T t, @WillNotClose OutputStream os) throws IOException {
+        DataOutputStream out = new DataOutputStream(os);
+        serialize(t, (DataOutput) out);
+        out.flush();
+    }
+
+    @Override
+    public void serialize(T t, @WillNotClose DataOutput out) throws IOException {
+        out.write(serialize(t));
+    }
+
+    @Nonnull
+    @Override
+    public T deserialize(@WillNotClose InputStream is) throws IOException {
+        return deserialize((DataInput) new DataInputStream(is));
+    }
+
+    @Nonnull
+    @Override
+    public T deserialize(@WillNotClose DataInput in) throws IOException {
+        // Frames are written as raw bytes: some implementations of DataInput encode integers differently
+        byte[] header = new byte[Integer.BYTES];
+        in.readFully(header);
+
+        final int length = ByteBuffer.wrap(header).getInt();
+        if (length < 0) {
+            throw new StreamCorruptedException(String.format("Invalid record length: %d", length));
+        }
+
+        return deserialize(readFrame(in, length));
+    }
+
+    /**
+     * Reads the remaining of a frame, whose length has already been read, and returns the complete frame.
+     *
+     * @param in     the input stream
+     * @param length the length of the payload
+     *
+     * @return the frame, including its length and its checksum
+     *
+     * @throws IOException if the stream ends before the end of the frame
+     */
+    @Nonnull
+    private static byte[] readFrame(DataInput in, @Nonnegative int length) throws IOException {
+        final long frameLength = (long) length + FRAME_OVERHEAD;
+        if (frameLength > Integer.MAX_VALUE) {
+            throw new StreamCorruptedException(String.format("Invalid record length: %d", length));
+        }
+
+        byte[] frame = new byte[(int) Math.min(frameLength, READ_CHUNK_SIZE)];
+        ByteBuffer.wrap(frame).putInt(length);
+
+        int position = Integer.BYTES;
+        while (position < frameLength) {
+            if (position == frame.length) {
+                frame = Arrays.copyOf(frame, (int) Math.min(frameLength, (long) frame.length * 2));
+            }
+
+            final int count = frame.length - position;
+            in.readFully(frame, position, count);
+            position += count;
+        }
+        return frame;
+    }
+
+    /**
+     * Calculates the {@code CRC-32C} checksum of a range of {@code data}.
+     *
+     * @param data   the data
+     * @param offset the index of the first byte
+     * @param length the number of bytes
+     *
+     * @return the checksum
+     */
+    private static int checksum(byte[] data, @Nonnegative int offset, @Nonnegative int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(data, offset, length);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Checks that the checksum read from a record is equal to the checksum calculated from its content.
+     *
+     * @param expected the checksum read from the record
+     * @param actual   the checksum calculated from the content of the record
+     *
+     * @throws StreamCorruptedException if the checksums are different
+     */
+    private static void checkChecksum(int expected, int actual) throws StreamCorruptedException {
+        if (expected != actual) {
+            throw new StreamCorruptedException(String.format("Checksum mismatch: %08x (expected %08x)", actual, expected));
+        }
+    }
+}
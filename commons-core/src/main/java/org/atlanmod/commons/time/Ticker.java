@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.time;
+
+import javax.annotation.Nonnull;
+
+/**
+ * A time source that returns a time value representing the number of nanoseconds elapsed since some fixed but
+ * arbitrary point in time.
+ * <p>
+ * Tickers can only be used to measure elapsed time, like {@link System#nanoTime()}. A custom ticker makes the
+ * time-based behaviors testable, without waiting for the time to pass.
+ */
+@FunctionalInterface
+public interface Ticker {
+
+    /**
+     * Returns a ticker that reads the current time using {@link System#nanoTime()}.
+     *
+     * @return the system ticker
+     */
+    @Nonnull
+    static Ticker systemTicker() {
+        return System::nanoTime;
+    }
+
+    /**
+     * Returns the number of nanoseconds elapsed since this ticker's fixed point of reference.
+     *
+     * @return the current time, in nanoseconds
+     */
+    long read();
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.AbstractTest;
+import org.atlanmod.commons.io.serializer.BinarySerializerFactory;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * A test-case that checks the behavior of {@link AsyncCache}.
+ */
+@ParametersAreNonnullByDefault
+class AsyncCacheTest extends AbstractTest {
+
+    private ExecutorService executor;
+
+    private AtomicInteger loads;
+
+    private CountDownLatch gate;
+
+    private AsyncCache<Integer, String> cache;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+        loads = new AtomicInteger();
+        gate = new CountDownLatch(1);
+
+        cache = CacheBuilder.builder()
+                .executor(executor)
+                .buildAsync(key -> {
+                    loads.incrementAndGet();
+                    try {
+                        gate.await();
+                    }
+                    catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return "Value" + key;
+                });
+    }
+
+    @AfterEach
+    void tearDown() {
+        gate.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testInvalidBuilder() {
+        assertThat(catchThrowable(() -> CacheBuilder.builder().executor(executor).executor(executor)))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(catchThrowable(() -> CacheBuilder.builder().offHeap(64 * 1024, BinarySerializerFactory.getInstance().forAny()).buildAsync(key -> key)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void testGetAsync() throws Exception {
+        CompletableFuture<String> future = cache.getAsync(0);
+
+        assertThat(future).isNotDone();
+        assertThat(cache.getIfPresent(0)).isSameAs(future);
+        assertThat(cache.getIfPresent(1)).isNull();
+
+        gate.countDown();
+
+        assertThat(future.get(1, TimeUnit.SECONDS)).isEqualTo("Value0");
+        assertThat(cache.getAsync(0).get()).isEqualTo("Value0");
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void testSharedInFlightFuture() throws Exception {
+        List<CompletableFuture<String>> futures = IntStream.range(0, 10)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> cache.getAsync(0)).join())
+                .collect(Collectors.toList());
+
+        gate.countDown();
+
+        for (CompletableFuture<String> future : futures) {
+            assertThat(future.get(1, TimeUnit.SECONDS)).isEqualTo("Value0");
+        }
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void testGetAsyncWithFunction() throws Exception {
+        assertThat(cache.getAsync(0, key -> "Other" + key).get(1, TimeUnit.SECONDS)).isEqualTo("Other0");
+        assertThat(cache.getAsync(0).get()).isEqualTo("Other0");
+        assertThat(loads).hasValue(0);
+    }
+
+    @Test
+    void testGetAllAsync() throws Exception {
+        cache.put(0, CompletableFuture.completedFuture("Present0"));
+
+        CompletableFuture<Map<Integer, String>> future = cache.getAllAsync(Arrays.asList(0, 1, 2));
+        gate.countDown();
+
+        assertThat(future.get(1, TimeUnit.SECONDS))
+                .hasSize(3)
+                .containsEntry(0, "Present0")
+                .containsEntry(1, "Value1")
+                .containsEntry(2, "Value2");
+    }
+
+    @Test
+    void testGetAllAsyncBulk() throws Exception {
+        AtomicInteger bulkLoads = new AtomicInteger();
+
+        AsyncCache<Integer, String> bulkCache = CacheBuilder.builder()
+                .executor(executor)
+                .buildAsync(key -> "Value" + key, keys -> {
+                    bulkLoads.incrementAndGet();
+                    return keys.stream().collect(Collectors.toMap(k -> k, k -> "Value" + k));
+                });
+
+        List<Integer> keys = IntStream.range(0, 100).boxed().collect(Collectors.toList());
+
+        assertThat(bulkCache.getAllAsync(keys).get(1, TimeUnit.SECONDS)).hasSize(100).containsEntry(42, "Value42");
+        assertThat(bulkLoads).hasValue(1);
+    }
+
+    @Test
+    void testAsyncLoader() throws Exception {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            AsyncCache<Integer, String> io = CacheBuilder.builder()
+                    .buildAsync((Integer key, Executor e) -> {
+                        CompletableFuture<String> future = new CompletableFuture<>();
+                        scheduler.schedule(() -> future.complete("Value" + key), 50, TimeUnit.MILLISECONDS);
+                        return future;
+                    });
+
+            List<CompletableFuture<String>> futures = IntStream.range(0, 100)
+                    .mapToObj(io::getAsync)
+                    .collect(Collectors.toList());
+
+            // The loads do not block any thread, so they overlap
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(1, TimeUnit.SECONDS);
+            assertThat(futures.get(42).get()).isEqualTo("Value42");
+        }
+        finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    void testSynchronous() {
+        gate.countDown();
+
+        Cache<Integer, String> synchronous = cache.synchronous();
+
+        assertThat(synchronous.get(0)).isEqualTo("Value0");
+        assertThat(cache.getIfPresent(0)).isNotNull();
+
+        synchronous.invalidate(0);
+        assertThat(cache.getIfPresent(0)).isNull();
+    }
+}
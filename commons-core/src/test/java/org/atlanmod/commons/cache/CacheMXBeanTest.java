@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.AbstractTest;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.management.Attribute;
+import javax.management.JMX;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * A test-case that checks the management of {@link Cache}s through {@link CacheMXBean}.
+ */
+@ParametersAreNonnullByDefault
+class CacheMXBeanTest extends AbstractTest {
+
+    private final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+    @Test
+    void testRegister() throws Exception {
+        Cache<Integer, String> cache = CacheBuilder.builder()
+                .maximumSize(100)
+                .executor(Runnable::run)
+                .registerMBean("testRegister")
+                .build(key -> "Value" + key);
+
+        ObjectName name = new ObjectName("org.atlanmod.commons.cache:type=Cache,name=\"testRegister\"");
+        assertThat(server.isRegistered(name)).isTrue();
+
+        for (int i = 0; i < 10; i++) {
+            cache.get(i);
+            cache.get(i);
+        }
+
+        assertThat(server.getAttribute(name, "Size")).isEqualTo(10L);
+        assertThat(server.getAttribute(name, "MaximumSize")).isEqualTo(100L);
+        assertThat(server.getAttribute(name, "Weighted")).isEqualTo(false);
+        assertThat(server.getAttribute(name, "HitCount")).isEqualTo(10L);
+        assertThat(server.getAttribute(name, "MissCount")).isEqualTo(10L);
+        assertThat(server.getAttribute(name, "HitRate")).isEqualTo(0.5);
+
+        server.setAttribute(name, new Attribute("MaximumSize", 5L));
+        server.invoke(name, "cleanUp", new Object[0], new String[0]);
+        assertThat(cache.size()).isEqualTo(5);
+        assertThat(server.getAttribute(name, "EvictionCount")).isEqualTo(5L);
+
+        server.invoke(name, "invalidateAll", new Object[0], new String[0]);
+        assertThat(cache.size()).isEqualTo(0);
+    }
+
+    @Test
+    void testProxy() throws Exception {
+        AsyncCache<Integer, String> cache = CacheBuilder.builder()
+                .executor(Runnable::run)
+                .registerMBean("testProxy")
+                .buildAsync(key -> "Value" + key);
+
+        CacheMXBean bean = JMX.newMXBeanProxy(server, new ObjectName("org.atlanmod.commons.cache:type=Cache,name=\"testProxy\""), CacheMXBean.class);
+
+        cache.getAsync(0).join();
+        assertThat(bean.getSize()).isEqualTo(1);
+        assertThat(bean.getLoadSuccessCount()).isEqualTo(1);
+
+        // An unbounded cache has no maximum to change
+        assertThat(bean.getMaximumSize()).isEqualTo(-1);
+        assertThat(catchThrowable(() -> bean.setMaximumSize(10))).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void testReplace() throws Exception {
+        Cache<Integer, String> first = CacheBuilder.builder().registerMBean("testReplace").build();
+        Cache<Integer, String> second = CacheBuilder.builder().registerMBean("testReplace").build();
+
+        second.put(0, "Value0");
+
+        ObjectName name = new ObjectName("org.atlanmod.commons.cache:type=Cache,name=\"testReplace\"");
+        assertThat(server.getAttribute(name, "Size")).isEqualTo(1L);
+        assertThat(first.size()).isEqualTo(0);
+    }
+
+    @Test
+    void testRegisterTwice() {
+        assertThat(catchThrowable(() -> CacheBuilder.builder().registerMBean("name").registerMBean("other")))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
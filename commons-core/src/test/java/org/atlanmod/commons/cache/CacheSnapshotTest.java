@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.AbstractFileBasedTest;
+import org.atlanmod.commons.io.serializer.BinarySerializer;
+import org.atlanmod.commons.io.serializer.BinarySerializerFactory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * A test-case that checks the warm-up of a {@link Cache} from a {@link CacheSnapshot}.
+ */
+@ParametersAreNonnullByDefault
+class CacheSnapshotTest extends AbstractFileBasedTest {
+
+    private final BinarySerializer<Integer> keySerializer = BinarySerializerFactory.getInstance().forAny();
+
+    private final BinarySerializer<String> valueSerializer = BinarySerializerFactory.getInstance().forAny();
+
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        file = currentTempFile().toPath();
+    }
+
+    @Test
+    void testRestoreKeys() throws Exception {
+        Cache<Integer, String> previous = CacheBuilder.builder().build();
+        for (int i = 0; i < 50; i++) {
+            previous.put(i, "Value" + i);
+        }
+
+        CacheSnapshot<Integer, String> snapshot = new CacheSnapshot<>(file, 10, keySerializer, null);
+        snapshot.save(previous, null);
+        assertThat(snapshot.read()).hasSize(10);
+
+        AtomicInteger loads = new AtomicInteger();
+        Cache<Integer, String> cache = CacheBuilder.builder()
+                .snapshot(file, 10, keySerializer)
+                .executor(Runnable::run)
+                .build(key -> {
+                    loads.incrementAndGet();
+                    return "Value" + key;
+                });
+
+        // The keys are loaded before the cache is returned
+        assertThat(cache.size()).isEqualTo(10);
+        assertThat(loads.get()).isEqualTo(10);
+        for (Integer key : snapshot.read().keySet()) {
+            assertThat(cache.contains(key)).isTrue();
+            assertThat(cache.get(key)).isEqualTo("Value" + key);
+        }
+        assertThat(loads.get()).isEqualTo(10);
+    }
+
+    @Test
+    void testRestoreValues() throws Exception {
+        Cache<Integer, String> previous = CacheBuilder.builder().build();
+        for (int i = 0; i < 5; i++) {
+            previous.put(i, "Value" + i);
+        }
+
+        new CacheSnapshot<>(file, 10, keySerializer, valueSerializer).save(previous, null);
+
+        Cache<Integer, String> cache = CacheBuilder.builder()
+                .snapshot(file, 10, keySerializer, valueSerializer)
+                .build();
+
+        assertThat(cache.size()).isEqualTo(5);
+        for (int i = 0; i < 5; i++) {
+            assertThat(cache.get(i)).isEqualTo("Value" + i);
+        }
+    }
+
+    @Test
+    void testRestoreAsync() throws Exception {
+        Cache<Integer, String> previous = CacheBuilder.builder().build();
+        previous.put(0, "Value0");
+        previous.put(1, "Value1");
+
+        new CacheSnapshot<Integer, String>(file, 10, keySerializer, null).save(previous, null);
+
+        AsyncCache<Integer, String> cache = CacheBuilder.builder()
+                .snapshot(file, 10, keySerializer)
+                .executor(Runnable::run)
+                .buildAsync(key -> "Value" + key);
+
+        assertThat(cache.synchronous().size()).isEqualTo(2);
+        assertThat(cache.getIfPresent(1)).isNotNull();
+    }
+
+    @Test
+    void testMissingOrInvalidFile() throws Exception {
+        Cache<Integer, String> cache = CacheBuilder.builder()
+                .snapshot(file, 10, keySerializer)
+                .build(key -> "Value" + key);
+        assertThat(cache.size()).isEqualTo(0);
+
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9});
+        cache = CacheBuilder.builder()
+                .snapshot(file, 10, keySerializer)
+                .build(key -> "Value" + key);
+        assertThat(cache.size()).isEqualTo(0);
+
+        // A snapshot of keys cannot be restored as a snapshot of entries
+        new CacheSnapshot<Integer, String>(file, 10, keySerializer, null).save(cache, null);
+        cache = CacheBuilder.builder()
+                .snapshot(file, 10, keySerializer, valueSerializer)
+                .build();
+        assertThat(cache.size()).isEqualTo(0);
+    }
+
+    @Test
+    void testInvalidConfigurations() {
+        Throwable thrown;
+
+        thrown = catchThrowable(() -> CacheBuilder.builder().snapshot(file, -1, keySerializer));
+        assertThat(thrown).isExactlyInstanceOf(IllegalArgumentException.class);
+
+        thrown = catchThrowable(() -> CacheBuilder.builder().snapshot(file, 10, keySerializer).snapshot(file, 10, keySerializer));
+        assertThat(thrown).isExactlyInstanceOf(IllegalStateException.class);
+
+        thrown = catchThrowable(() -> CacheBuilder.builder().snapshot(file, 10, keySerializer).build());
+        assertThat(thrown).isExactlyInstanceOf(IllegalStateException.class);
+
+        CacheBuilder<Object, Object> builder = CacheBuilder.builder().snapshot(file, 10, keySerializer, valueSerializer);
+        builder.build();
+        thrown = catchThrowable(builder::build);
+        assertThat(thrown).isExactlyInstanceOf(IllegalStateException.class);
+    }
+}
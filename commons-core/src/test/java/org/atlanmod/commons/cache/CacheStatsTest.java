@@ -14,6 +14,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.ParametersAreNonnullByDefault;
 
@@ -188,4 +192,100 @@ class CacheStatsTest extends AbstractTest {
         //noinspection EqualsReplaceableByObjectsCall
         assertThat(stats.equals(new CacheStats(30, 10, 15, 5, 2000, 0))).isFalse();
     }
+
+    @Test
+    void testEvictionCauses() {
+        Cache<Integer, String> cache = CacheBuilder.builder()
+                .maximumSize(10)
+                .executor(Runnable::run)
+                .recordStats()
+                .build();
+
+        for (int i = 0; i < 100; i++) {
+            cache.put(i, "Value" + i);
+        }
+        cache.cleanUp();
+
+        CacheStats result = cache.stats();
+        assertThat(result.evictionCount()).isEqualTo(90);
+        assertThat(result.evictionCount(EvictionCause.SIZE)).isEqualTo(90);
+        assertThat(result.evictionCount(EvictionCause.WEIGHT)).isEqualTo(0);
+        assertThat(result.evictionCount(EvictionCause.EXPIRED)).isEqualTo(0);
+        assertThat(result.evictionWeight()).isEqualTo(90);
+    }
+
+    @Test
+    void testWeightEvictionCauses() {
+        Cache<Integer, String> cache = CacheBuilder.builder()
+                .maximumWeight(100, (k, v) -> 10)
+                .executor(Runnable::run)
+                .recordStats()
+                .build();
+
+        for (int i = 0; i < 20; i++) {
+            cache.put(i, "Value" + i);
+        }
+        cache.cleanUp();
+
+        CacheStats result = cache.stats();
+        assertThat(result.evictionCount(EvictionCause.WEIGHT)).isEqualTo(10);
+        assertThat(result.evictionCount(EvictionCause.SIZE)).isEqualTo(0);
+        assertThat(result.evictionWeight()).isEqualTo(100);
+    }
+
+    @Test
+    void testLoadLatencies() {
+        Cache<Integer, String> cache = CacheBuilder.builder()
+                .recordStats()
+                .build(key -> "Value" + key);
+
+        for (int i = 0; i < 10; i++) {
+            cache.get(i);
+        }
+
+        CacheStats before = cache.stats();
+        assertThat(before.loadLatencies().count()).isEqualTo(10);
+        assertThat(before.loadLatencies().max()).isGreaterThanOrEqualTo(before.loadLatencies().percentile(50));
+
+        for (int i = 10; i < 15; i++) {
+            cache.get(i);
+        }
+
+        CacheStats delta = cache.stats().minus(before);
+        assertThat(delta.loadCount()).isEqualTo(5);
+        assertThat(delta.loadLatencies().count()).isEqualTo(5);
+    }
+
+    @Test
+    void testReportStats() throws InterruptedException {
+        List<CacheStats> reports = new ArrayList<>();
+        CountDownLatch latch = new CountDownLatch(2);
+
+        Cache<Integer, String> cache = CacheBuilder.builder()
+                .reportStats(Duration.ofMillis(50), s -> {
+                    synchronized (reports) {
+                        reports.add(s);
+                    }
+                    latch.countDown();
+                })
+                .build(key -> "Value" + key);
+
+        for (int i = 0; i < 10; i++) {
+            cache.get(i);
+            cache.get(i);
+        }
+
+        assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+
+        synchronized (reports) {
+            // Each report contains the statistics of its period only
+            long hitCount = reports.stream().mapToLong(CacheStats::hitCount).sum();
+            long missCount = reports.stream().mapToLong(CacheStats::missCount).sum();
+            assertThat(hitCount).isEqualTo(10);
+            assertThat(missCount).isEqualTo(10);
+        }
+
+        assertThat(catchThrowable(() -> CacheBuilder.builder().reportStats(Duration.ZERO, s -> {})))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
 }
\ No newline at end of file
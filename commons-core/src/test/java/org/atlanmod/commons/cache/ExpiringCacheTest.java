@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.AbstractTest;
+import org.atlanmod.commons.io.serializer.BinarySerializerFactory;
+import org.atlanmod.commons.time.Ticker;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * A test-case that checks the expiration and refresh policies of {@link Cache}.
+ */
+@ParametersAreNonnullByDefault
+class ExpiringCacheTest extends AbstractTest {
+
+    private AtomicLong time;
+
+    private Ticker ticker;
+
+    @BeforeEach
+    void setUp() {
+        time = new AtomicLong();
+        ticker = time::get;
+    }
+
+    private void advance(Duration duration) {
+        time.addAndGet(duration.toNanos());
+    }
+
+    @Test
+    void testExpireAfterWrite() {
+        Cache<Integer, String> cache = CacheBuilder.builder()
+                .expireAfterWrite(Duration.ofMinutes(1))
+                .ticker(ticker)
+                .executor(Runnable::run)
+                .build();
+
+        cache.put(0, "Value0");
+        advance(Duration.ofSeconds(30));
+        assertThat(cache.get(0)).isEqualTo("Value0");
+
+        advance(Duration.ofSeconds(30));
+        assertThat(cache.get(0)).isNull();
+        assertThat(cache.contains(0)).isFalse();
+    }
+
+    @Test
+    void testExpireAfterAccess() {
+        Cache<Integer, String> cache = CacheBuilder.builder()
+                .expireAfterAccess(Duration.ofMinutes(1))
+                .ticker(ticker)
+                .executor(Runnable::run)
+                .build();
+
+        cache.put(0, "Value0");
+        for (int i = 0; i < 3; i++) {
+            advance(Duration.ofSeconds(45));
+            assertThat(cache.get(0)).isEqualTo("Value0");
+        }
+
+        advance(Duration.ofMinutes(1));
+        assertThat(cache.get(0)).isNull();
+    }
+
+    @Test
+    void testExpireAfterVariable() {
+        Cache<Integer, String> cache = CacheBuilder.builder()
+                .expireAfter(Expiry.<Integer, String>afterWrite((k, v) -> Duration.ofSeconds(k)))
+                .ticker(ticker)
+                .executor(Runnable::run)
+                .build();
+
+        cache.put(10, "Value10");
+        cache.put(60, "Value60");
+
+        advance(Duration.ofSeconds(30));
+        assertThat(cache.get(10)).isNull();
+        assertThat(cache.get(60)).isEqualTo("Value60");
+
+        advance(Duration.ofSeconds(30));
+        assertThat(cache.get(60)).isNull();
+    }
+
+    @Test
+    void testExpireAfterWriteLoading() {
+        AtomicInteger loads = new AtomicInteger();
+
+        Cache<Integer, String> cache = CacheBuilder.builder()
+                .expireAfterWrite(Duration.ofMinutes(1))
+                .ticker(ticker)
+                .executor(Runnable::run)
+                .build(key -> "Value" + key + '-' + loads.incrementAndGet());
+
+        assertThat(cache.get(0)).isEqualTo("Value0-1");
+        assertThat(cache.get(0)).isEqualTo("Value0-1");
+
+        advance(Duration.ofMinutes(1));
+        assertThat(cache.get(0)).isEqualTo("Value0-2");
+    }
+
+    @Test
+    void testRefreshAfterWrite() {
+        AtomicInteger loads = new AtomicInteger();
+
+        Cache<Integer, String> cache = CacheBuilder.builder()
+                .refreshAfterWrite(Duration.ofMinutes(1))
+                .ticker(ticker)
+                .executor(Runnable::run)
+                .build(key -> "Value" + key + '-' + loads.incrementAndGet());
+
+        assertThat(cache.get(0)).isEqualTo("Value0-1");
+
+        advance(Duration.ofSeconds(30));
+        assertThat(cache.get(0)).isEqualTo("Value0-1");
+        assertThat(loads.get()).isEqualTo(1);
+
+        // The stale value is returned while the new one is loading: the direct executor completes the reload before
+        // the next read
+        advance(Duration.ofSeconds(31));
+        assertThat(cache.get(0)).isEqualTo("Value0-1");
+        assertThat(cache.get(0)).isEqualTo("Value0-2");
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void testRefreshAfterWriteAsync() {
+        AtomicInteger loads = new AtomicInteger();
+
+        AsyncCache<Integer, String> cache = CacheBuilder.builder()
+                .refreshAfterWrite(Duration.ofMinutes(1))
+                .ticker(ticker)
+                .executor(Runnable::run)
+                .buildAsync(key -> "Value" + key + '-' + loads.incrementAndGet());
+
+        assertThat(cache.getAsync(0).join()).isEqualTo("Value0-1");
+
+        advance(Duration.ofSeconds(61));
+        assertThat(cache.getAsync(0).join()).isEqualTo("Value0-1");
+        assertThat(cache.getAsync(0).join()).isEqualTo("Value0-2");
+    }
+
+    @Test
+    void testRefresh() {
+        AtomicInteger loads = new AtomicInteger();
+
+        Cache<Integer, String> cache = CacheBuilder.builder()
+                .executor(Runnable::run)
+                .build(key -> "Value" + key + '-' + loads.incrementAndGet());
+
+        assertThat(cache.get(0)).isEqualTo("Value0-1");
+
+        cache.refresh(0);
+        assertThat(cache.get(0)).isEqualTo("Value0-2");
+    }
+
+    @Test
+    void testRefreshWithoutLoader() {
+        Cache<Integer, String> cache = CacheBuilder.builder().build();
+
+        cache.put(0, "Value0");
+        cache.refresh(0);
+        assertThat(cache.get(0)).isEqualTo("Value0");
+    }
+
+    @Test
+    void testInvalidConfigurations() {
+        Throwable thrown;
+
+        thrown = catchThrowable(() -> CacheBuilder.builder().expireAfterWrite(Duration.ofSeconds(-1)));
+        assertThat(thrown).isExactlyInstanceOf(IllegalArgumentException.class);
+
+        thrown = catchThrowable(() -> CacheBuilder.builder().refreshAfterWrite(Duration.ZERO));
+        assertThat(thrown).isExactlyInstanceOf(IllegalArgumentException.class);
+
+        thrown = catchThrowable(() -> CacheBuilder.builder().refreshAfterWrite(Duration.ofMinutes(1)).build());
+        assertThat(thrown).isExactlyInstanceOf(IllegalStateException.class);
+
+        thrown = catchThrowable(() -> CacheBuilder.builder()
+                .expireAfterWrite(Duration.ofMinutes(1))
+                .expireAfter(Expiry.afterWrite((k, v) -> Duration.ofMinutes(1))));
+        assertThat(thrown).isExactlyInstanceOf(IllegalStateException.class);
+
+        thrown = catchThrowable(() -> CacheBuilder.builder()
+                .offHeap(1 << 20, BinarySerializerFactory.getInstance().forAny())
+                .refreshAfterWrite(Duration.ofMinutes(1)));
+        assertThat(thrown).isExactlyInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.AbstractTest;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * A test-case that checks the behavior of {@link LatencyHistogram}.
+ */
+@ParametersAreNonnullByDefault
+class LatencyHistogramTest extends AbstractTest {
+
+    private static LatencyHistogram histogramOf(long... latencies) {
+        long[] counts = new long[LatencyHistogram.BUCKETS];
+        for (long latency : latencies) {
+            counts[LatencyHistogram.bucketOf(latency)]++;
+        }
+        return new LatencyHistogram(counts);
+    }
+
+    @Test
+    void testBuckets() {
+        for (int i = 0; i < LatencyHistogram.BUCKETS; i++) {
+            long lower = LatencyHistogram.lowerBoundOf(i);
+            long upper = LatencyHistogram.upperBoundOf(i);
+
+            assertThat(LatencyHistogram.bucketOf(lower)).isEqualTo(i);
+            assertThat(LatencyHistogram.bucketOf(upper)).isEqualTo(i);
+            assertThat(upper - lower).isLessThanOrEqualTo(Math.max(0, lower / LatencyHistogram.SUB_BUCKETS));
+        }
+
+        assertThat(LatencyHistogram.bucketOf(-1)).isEqualTo(0);
+        assertThat(LatencyHistogram.bucketOf(Long.MAX_VALUE)).isEqualTo(LatencyHistogram.BUCKETS - 1);
+    }
+
+    @Test
+    void testEmpty() {
+        LatencyHistogram histogram = LatencyHistogram.empty();
+
+        assertThat(histogram.count()).isEqualTo(0);
+        assertThat(histogram.percentile(99)).isEqualTo(Duration.ZERO);
+        assertThat(histogram.max()).isEqualTo(Duration.ZERO);
+    }
+
+    @Test
+    void testPercentile() {
+        long[] latencies = new long[100];
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = (i + 1) * 1_000_000L;
+        }
+        LatencyHistogram histogram = histogramOf(latencies);
+
+        assertThat(histogram.count()).isEqualTo(100);
+
+        // Percentiles are overestimated by less than 1/8
+        assertThat(histogram.percentile(50).toNanos()).isBetween(50_000_000L, 50_000_000L * 9 / 8);
+        assertThat(histogram.percentile(99).toNanos()).isBetween(99_000_000L, 99_000_000L * 9 / 8);
+        assertThat(histogram.max().toNanos()).isBetween(100_000_000L, 100_000_000L * 9 / 8);
+
+        assertThat(catchThrowable(() -> histogram.percentile(0))).isInstanceOf(IllegalArgumentException.class);
+        assertThat(catchThrowable(() -> histogram.percentile(101))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testMinusPlus() {
+        LatencyHistogram first = histogramOf(10, 100, 1000);
+        LatencyHistogram second = histogramOf(10, 100, 1000, 10_000, 100_000);
+
+        LatencyHistogram delta = second.minus(first);
+        assertThat(delta).isEqualTo(histogramOf(10_000, 100_000));
+        assertThat(first.minus(second)).isEqualTo(LatencyHistogram.empty());
+
+        assertThat(first.plus(delta)).isEqualTo(second);
+        assertThat(first.plus(delta).hashCode()).isEqualTo(second.hashCode());
+    }
+}
@@ -15,7 +15,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -133,6 +135,27 @@ class LoadingCacheTest extends AbstractTest {
         assertThat(cache.get(1)).isEqualTo(value1);
     }
 
+    @Test
+    void testContainsDoesNotLoad() {
+        AtomicInteger loads = new AtomicInteger();
+
+        Cache<Integer, String> counting = CacheBuilder.builder()
+                .recordStats()
+                .build(key -> {
+                    loads.incrementAndGet();
+                    return "Value" + key;
+                });
+
+        assertThat(counting.contains(0)).isFalse();
+        assertThat(loads).hasValue(0);
+        assertThat(counting.stats().requestCount()).isEqualTo(0);
+
+        assertThat(counting.get(0)).isEqualTo("Value0");
+        assertThat(counting.contains(0)).isTrue();
+        assertThat(loads).hasValue(1);
+        assertThat(counting.stats().requestCount()).isEqualTo(1);
+    }
+
     @Test
     void testInvalidateAll() {
         String value0 = "Value0";
@@ -166,6 +189,41 @@ class LoadingCacheTest extends AbstractTest {
         original.forEach((key, value) -> assertThat(result.get(key)).isEqualTo(value));
     }
 
+    @Test
+    void testGetAllBulk() {
+        AtomicInteger singleLoads = new AtomicInteger();
+        AtomicInteger bulkLoads = new AtomicInteger();
+
+        Cache<Integer, String> bulkCache = CacheBuilder.builder()
+                .build(key -> {
+                    singleLoads.incrementAndGet();
+                    return "Value" + key;
+                }, keys -> {
+                    bulkLoads.incrementAndGet();
+                    Map<Integer, String> values = keys.stream()
+                            .filter(k -> k % 2 == 0)
+                            .collect(Collectors.toMap(k -> k, k -> "Value" + k));
+                    values.put(-1, "Extra");
+                    return values;
+                });
+
+        bulkCache.get(0);
+        assertThat(singleLoads).hasValue(1);
+
+        List<Integer> keys = IntStream.range(0, 500).boxed().collect(Collectors.toList());
+        Map<Integer, String> result = bulkCache.getAll(keys);
+
+        assertThat(bulkLoads).hasValue(1);
+        assertThat(singleLoads).hasValue(1);
+        assertThat(result).hasSize(250).containsEntry(498, "Value498").doesNotContainKey(-1);
+
+        // Unrequested entries are cached
+        assertThat(bulkCache.asMap()).containsEntry(-1, "Extra");
+
+        bulkCache.getAll(keys.subList(0, 10));
+        assertThat(bulkLoads).hasValue(2);
+    }
+
     @Test
     void stats() throws Exception {
         CacheStats stats = cache.stats();
@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.AbstractTest;
+import org.atlanmod.commons.io.serializer.BinarySerializer;
+import org.atlanmod.commons.io.serializer.BinarySerializerFactory;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * A test-case that checks the behavior of {@link OffHeapCache}.
+ */
+@ParametersAreNonnullByDefault
+class OffHeapCacheTest extends AbstractTest {
+
+    private static final long MAXIMUM_BYTES = 64 * 1024;
+
+    private final BinarySerializer<String> serializer = BinarySerializerFactory.getInstance().forAny();
+
+    private Cache<Integer, String> cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = CacheBuilder.builder()
+                .offHeap(MAXIMUM_BYTES, serializer)
+                .recordStats()
+                .build();
+
+        assertThat(cache.size()).isEqualTo(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.invalidateAll();
+        cache.cleanUp();
+
+        assertThat(store().usedBlocks()).isEqualTo(0);
+    }
+
+    @Test
+    void testInvalidBuilder() {
+        assertThat(catchThrowable(() -> CacheBuilder.builder().offHeap(100, serializer)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(catchThrowable(() -> CacheBuilder.builder().maximumSize(5).offHeap(MAXIMUM_BYTES, serializer)))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(catchThrowable(() -> CacheBuilder.builder().offHeap(MAXIMUM_BYTES, serializer).softValues()))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(catchThrowable(() -> CacheBuilder.builder().offHeap(MAXIMUM_BYTES, serializer).offHeap(MAXIMUM_BYTES, serializer)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void testGetPut() {
+        String value0 = "Value0";
+
+        cache.put(0, value0);
+
+        assertThat(cache.get(0)).isEqualTo(value0).isNotSameAs(value0);
+        assertThat(cache.contains(0)).isTrue();
+        assertThat(cache.size()).isEqualTo(1);
+
+        cache.put(0, "Value1");
+
+        assertThat(cache.get(0)).isEqualTo("Value1");
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void testGetWithFunction() {
+        assertThat(cache.get(0)).isNull();
+
+        assertThat(cache.get(0, key -> "Value" + key)).isEqualTo("Value0");
+        assertThat(cache.get(0, key -> "Other" + key)).isEqualTo("Value0");
+        assertThat(cache.size()).isEqualTo(1);
+
+        assertThat(cache.get(1, key -> null)).isNull();
+        assertThat(cache.contains(1)).isFalse();
+    }
+
+    @Test
+    void testGetPutAllKeys() {
+        Map<Integer, String> original = new HashMap<>();
+        original.put(0, "Value0");
+        original.put(1, "Value1");
+        original.put(2, "Value2");
+
+        cache.putAll(original);
+
+        assertThat(cache.size()).isEqualTo(3);
+
+        Map<Integer, String> result = cache.getAll(IntStream.of(0, 2, 3).boxed().collect(Collectors.toList()));
+
+        assertThat(result).hasSize(2).containsEntry(0, "Value0").containsEntry(2, "Value2");
+    }
+
+    @Test
+    void testInvalidate() {
+        cache.put(0, "Value0");
+        cache.put(1, "Value1");
+
+        cache.invalidate(0);
+
+        assertThat(cache.get(0)).isNull();
+        assertThat(cache.get(1)).isEqualTo("Value1");
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void testEvictionByBytes() {
+        String prefix = String.join("", Collections.nCopies(1000, "x"));
+
+        IntStream.range(0, 1000).forEach(i -> cache.put(i, prefix + i));
+        cache.cleanUp();
+
+        assertThat(cache.size()).isGreaterThan(0).isLessThan(1000);
+        assertThat(store().usedBlocks()).isLessThanOrEqualTo(store().capacity());
+
+        cache.asMap().forEach((key, value) -> assertThat(value).isEqualTo(prefix + key));
+        assertThat(cache.stats().evictionCount()).isGreaterThan(0);
+    }
+
+    @Test
+    void testTooLargeValue() {
+        String value = String.join("", Collections.nCopies((int) MAXIMUM_BYTES, "x"));
+
+        cache.put(0, "Value0");
+        cache.put(0, value);
+
+        assertThat(cache.get(0)).isNull();
+        assertThat(cache.get(1, key -> value)).isEqualTo(value);
+        assertThat(cache.contains(1)).isFalse();
+    }
+
+    @Test
+    void testAsMap() {
+        ConcurrentMap<Integer, String> map = cache.asMap();
+
+        assertThat(map.put(0, "Value0")).isNull();
+        assertThat(map.put(0, "Value1")).isEqualTo("Value0");
+        assertThat(map.putIfAbsent(0, "Value2")).isEqualTo("Value1");
+        assertThat(map.replace(0, "Value1", "Value3")).isTrue();
+        assertThat(map.replace(0, "Value1", "Value4")).isFalse();
+        assertThat(map.get(0)).isEqualTo("Value3");
+
+        assertThat(map.remove(0, "Value1")).isFalse();
+        assertThat(map.remove(0)).isEqualTo("Value3");
+        assertThat(map).isEmpty();
+
+        map.put(1, "Value1");
+        map.put(2, "Value2");
+        map.entrySet().removeIf(e -> e.getKey() == 1);
+
+        assertThat(map).containsOnlyKeys(2);
+        assertThat(cache.get(2)).isEqualTo("Value2");
+    }
+
+    @Test
+    void testConcurrentAccess() throws Exception {
+        String prefix = String.join("", Collections.nCopies(500, "x"));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                final Random random = new Random(t);
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        int key = random.nextInt(200);
+                        if (random.nextBoolean()) {
+                            cache.put(key, prefix + key);
+                        }
+                        else {
+                            String value = cache.get(key);
+                            assertThat(value == null || value.equals(prefix + key)).isTrue();
+                        }
+                    }
+                }));
+            }
+
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testLoading() {
+        Cache<Integer, String> loading = CacheBuilder.builder()
+                .offHeap(MAXIMUM_BYTES, serializer)
+                .recordStats()
+                .build(key -> "Value" + key);
+
+        // Neither loads the value, nor records a lookup
+        assertThat(loading.contains(0)).isFalse();
+        assertThat(loading.size()).isEqualTo(0);
+        assertThat(loading.stats().requestCount()).isEqualTo(0);
+
+        assertThat(loading.get(0)).isEqualTo("Value0");
+        assertThat(loading.getAll(IntStream.of(1, 2).boxed().collect(Collectors.toList())))
+                .containsEntry(1, "Value1")
+                .containsEntry(2, "Value2");
+        assertThat(loading.size()).isEqualTo(3);
+    }
+
+    private OffHeapStore store() {
+        return ((OffHeapCache<Integer, String>) cache).store;
+    }
+}
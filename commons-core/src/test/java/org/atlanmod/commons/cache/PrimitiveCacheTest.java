@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.AbstractTest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * A test-case that checks the behavior of {@link LongCache} and {@link IntCache}.
+ */
+@ParametersAreNonnullByDefault
+class PrimitiveCacheTest extends AbstractTest {
+
+    @Test
+    void testLongCache() {
+        LongCache<String> cache = PrimitiveCacheBuilder.builder().buildLong();
+
+        cache.put(0L, "Value0");
+        cache.put(-1L, "Value-1");
+        cache.put(Long.MAX_VALUE, "ValueMax");
+
+        assertThat(cache.get(0L)).isEqualTo("Value0");
+        assertThat(cache.get(-1L)).isEqualTo("Value-1");
+        assertThat(cache.get(Long.MAX_VALUE)).isEqualTo("ValueMax");
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.size()).isEqualTo(3);
+
+        cache.put(0L, "Value0'");
+        cache.putIfAbsent(-1L, "Value-1'");
+        assertThat(cache.get(0L)).isEqualTo("Value0'");
+        assertThat(cache.get(-1L)).isEqualTo("Value-1");
+
+        cache.invalidate(0L);
+        assertThat(cache.contains(0L)).isFalse();
+        assertThat(cache.contains(-1L)).isTrue();
+
+        cache.invalidateAll();
+        assertThat(cache.size()).isEqualTo(0);
+        assertThat(cache.get(-1L)).isNull();
+    }
+
+    @Test
+    void testIntCache() {
+        AtomicInteger loads = new AtomicInteger();
+        IntCache<String> cache = PrimitiveCacheBuilder.builder().buildInt(key -> "Value" + key + '-' + loads.incrementAndGet());
+
+        assertThat(cache.get(-5)).isEqualTo("Value-5-1");
+        assertThat(cache.get(-5)).isEqualTo("Value-5-1");
+        assertThat(cache.get(7, key -> "Other")).isEqualTo("Other");
+        assertThat(cache.contains(7)).isTrue();
+        assertThat(loads.get()).isEqualTo(1);
+
+        cache.invalidate(-5);
+        assertThat(cache.get(-5)).isEqualTo("Value-5-2");
+    }
+
+    @Test
+    void testMappingFunction() {
+        LongCache<String> cache = PrimitiveCacheBuilder.builder().recordStats().buildLong();
+
+        assertThat(cache.get(0L, key -> "Value" + key)).isEqualTo("Value0");
+        assertThat(cache.get(0L, key -> "Other")).isEqualTo("Value0");
+        assertThat(cache.get(1L, key -> null)).isNull();
+        assertThat(cache.contains(1L)).isFalse();
+
+        assertThat(catchThrowable(() -> cache.get(2L, key -> {
+            throw new IllegalStateException();
+        }))).isExactlyInstanceOf(IllegalStateException.class);
+        assertThat(cache.contains(2L)).isFalse();
+
+        CacheStats stats = cache.stats();
+        assertThat(stats.hitCount()).isEqualTo(1);
+        assertThat(stats.missCount()).isEqualTo(3);
+        assertThat(stats.loadSuccessCount()).isEqualTo(1);
+        assertThat(stats.loadFailureCount()).isEqualTo(2);
+        assertThat(stats.loadLatencies().count()).isEqualTo(3);
+    }
+
+    @Test
+    void testStatsNotRecorded() {
+        LongCache<String> cache = PrimitiveCacheBuilder.builder().buildLong(key -> "Value" + key);
+
+        cache.get(0L);
+        cache.get(0L);
+        assertThat(cache.stats()).isEqualTo(CacheStats.empty());
+    }
+
+    @Test
+    void testMaximumSize() {
+        LongCache<String> cache = PrimitiveCacheBuilder.builder()
+                .maximumSize(100)
+                .recordStats()
+                .buildLong(key -> "Value" + key);
+
+        for (long i = 0; i < 1000; i++) {
+            assertThat(cache.get(i)).isEqualTo("Value" + i);
+        }
+
+        assertThat(cache.size()).isEqualTo(100);
+        assertThat(cache.stats().evictionCount()).isEqualTo(900);
+        assertThat(cache.stats().evictionCount(EvictionCause.SIZE)).isEqualTo(900);
+    }
+
+    @Test
+    void testMaximumSizeZero() {
+        LongCache<String> cache = PrimitiveCacheBuilder.builder().maximumSize(0).buildLong(key -> "Value" + key);
+
+        assertThat(cache.get(0L)).isEqualTo("Value0");
+        assertThat(cache.size()).isEqualTo(0);
+    }
+
+    @Test
+    void testClockEviction() {
+        LongCache<String> cache = PrimitiveCacheBuilder.builder()
+                .maximumSize(16)
+                .concurrencyLevel(1)
+                .buildLong();
+
+        for (long i = 0; i < 16; i++) {
+            cache.put(i, "Value" + i);
+        }
+
+        // Only the last entry has not been used since its insertion
+        for (long i = 0; i < 15; i++) {
+            cache.get(i);
+        }
+
+        cache.put(16L, "Value16");
+        assertThat(cache.contains(15L)).isFalse();
+        for (long i = 0; i < 15; i++) {
+            assertThat(cache.contains(i)).isTrue();
+        }
+        assertThat(cache.contains(16L)).isTrue();
+    }
+
+    @Test
+    void testRandomOperations() {
+        LongCache<Long> cache = PrimitiveCacheBuilder.builder().concurrencyLevel(1).buildLong();
+        Map<Long, Long> expected = new HashMap<>();
+
+        // A narrow range of keys produces long clusters of collisions
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            long key = random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                cache.invalidate(key);
+                expected.remove(key);
+            }
+            else {
+                cache.put(key, (long) i);
+                expected.put(key, (long) i);
+            }
+        }
+
+        assertThat(cache.size()).isEqualTo(expected.size());
+        for (long key = 0; key < 2_000; key++) {
+            assertThat(cache.get(key)).isEqualTo(expected.get(key));
+        }
+    }
+
+    @Test
+    void testConcurrentAccess() throws Exception {
+        LongCache<Long> cache = PrimitiveCacheBuilder.builder().concurrencyLevel(4).buildLong();
+        final int count = 10_000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                final long offset = (long) t * count;
+                futures.add(executor.submit(() -> {
+                    for (long i = offset; i < offset + count; i++) {
+                        cache.put(i, i);
+                        assertThat(cache.get(i)).isEqualTo(i);
+                        if (i % 2 == 0) {
+                            cache.invalidate(i);
+                        }
+                    }
+                }));
+            }
+
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(cache.size()).isEqualTo(2L * count);
+        for (long i = 0; i < 4L * count; i++) {
+            assertThat(cache.get(i)).isEqualTo(i % 2 == 0 ? null : i);
+        }
+    }
+
+    @Test
+    void testInvalidConfigurations() {
+        Throwable thrown;
+
+        thrown = catchThrowable(() -> PrimitiveCacheBuilder.builder().maximumSize(-1));
+        assertThat(thrown).isExactlyInstanceOf(IllegalArgumentException.class);
+
+        thrown = catchThrowable(() -> PrimitiveCacheBuilder.builder().maximumSize(10).maximumSize(20));
+        assertThat(thrown).isExactlyInstanceOf(IllegalStateException.class);
+
+        thrown = catchThrowable(() -> PrimitiveCacheBuilder.builder().concurrencyLevel(0));
+        assertThat(thrown).isExactlyInstanceOf(IllegalArgumentException.class);
+
+        thrown = catchThrowable(() -> PrimitiveCacheBuilder.builder().buildLong().put(0L, null));
+        assertThat(thrown).isExactlyInstanceOf(NullPointerException.class);
+    }
+}
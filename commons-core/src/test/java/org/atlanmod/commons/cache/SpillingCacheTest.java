@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.AbstractFileBasedTest;
+import org.atlanmod.commons.io.serializer.BinarySerializer;
+import org.atlanmod.commons.io.serializer.BinarySerializerFactory;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * A test-case that checks the behavior of {@link SpillingCache}.
+ */
+@ParametersAreNonnullByDefault
+class SpillingCacheTest extends AbstractFileBasedTest {
+
+    private static final long MAXIMUM_BYTES = 64 * 1024;
+
+    private final BinarySerializer<String> serializer = BinarySerializerFactory.getInstance().forAny();
+
+    private Path directory;
+
+    private SpillingCache<Integer, String> cache;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        directory = currentTempFile().toPath();
+
+        cache = (SpillingCache<Integer, String>) CacheBuilder.builder()
+                .maximumSize(10)
+                .spillToDisk(directory, MAXIMUM_BYTES, serializer)
+                .<Integer, String>build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.invalidateAll();
+        cache.disk.close();
+
+        assertThat(cache.disk.directory()).doesNotExist();
+    }
+
+    @Test
+    void testInvalidBuilder() {
+        assertThat(catchThrowable(() -> CacheBuilder.builder().spillToDisk(directory, 1024, serializer)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(catchThrowable(() -> CacheBuilder.builder().offHeap(MAXIMUM_BYTES, serializer).spillToDisk(directory, MAXIMUM_BYTES, serializer)))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(catchThrowable(() -> CacheBuilder.builder().spillToDisk(directory, MAXIMUM_BYTES, serializer).offHeap(MAXIMUM_BYTES, serializer)))
+                .isInstanceOf(IllegalStateException.class);
+
+        CacheBuilder<Object, Object> builder = CacheBuilder.builder().spillToDisk(directory, MAXIMUM_BYTES, serializer);
+        ((SpillingCache<?, ?>) builder.build()).disk.close();
+
+        assertThat(catchThrowable(builder::build))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void testSpillAndPromote() {
+        IntStream.range(0, 100).forEach(i -> cache.put(i, "Value" + i));
+        cache.cleanUp();
+
+        assertThat(cache.disk.size()).isGreaterThan(0);
+        assertThat(cache.size()).isEqualTo(100);
+        assertThat(Files.exists(cache.disk.directory())).isTrue();
+
+        IntStream.range(0, 100).forEach(i -> {
+            assertThat(cache.contains(i)).isTrue();
+            assertThat(cache.get(i)).isEqualTo("Value" + i);
+        });
+    }
+
+    @Test
+    void testWritesRemoveSpilledValues() {
+        IntStream.range(0, 100).forEach(i -> cache.put(i, "Value" + i));
+        cache.cleanUp();
+
+        IntStream.range(0, 100).forEach(i -> cache.put(i, "Other" + i));
+        IntStream.range(0, 100).forEach(i -> assertThat(cache.get(i)).isEqualTo("Other" + i));
+
+        IntStream.range(0, 50).forEach(cache::invalidate);
+        IntStream.range(0, 50).forEach(i -> assertThat(cache.get(i)).isNull());
+
+        cache.asMap().remove(60);
+        assertThat(cache.get(60)).isNull();
+        assertThat(cache.contains(60)).isFalse();
+    }
+
+    @Test
+    void testGetAll() {
+        IntStream.range(0, 100).forEach(i -> cache.put(i, "Value" + i));
+        cache.cleanUp();
+
+        Map<Integer, String> result = cache.getAll(IntStream.of(0, 50, 99, 100).boxed().collect(Collectors.toList()));
+
+        assertThat(result).hasSize(3)
+                .containsEntry(0, "Value0")
+                .containsEntry(50, "Value50")
+                .containsEntry(99, "Value99");
+    }
+
+    @Test
+    void testBudgetAndCompaction() {
+        String prefix = String.join("", Collections.nCopies(3000, "x"));
+
+        IntStream.range(0, 200).forEach(i -> cache.put(i, prefix + i));
+        cache.cleanUp();
+
+        assertThat(cache.disk.bytes()).isLessThanOrEqualTo(MAXIMUM_BYTES);
+        assertThat(cache.get(199)).isEqualTo(prefix + 199);
+
+        int segments = cache.disk.segmentCount();
+        IntStream.range(0, 200).forEach(cache::invalidate);
+        cache.cleanUp();
+
+        assertThat(cache.disk.size()).isEqualTo(0);
+        assertThat(cache.disk.segmentCount()).isLessThan(segments);
+    }
+
+    @Test
+    void testCompactionWithConcurrentWrites() throws Exception {
+        DiskStore<Integer, String> disk = cache.disk;
+        String prefix = String.join("", Collections.nCopies(1000, "x"));
+
+        IntStream.range(0, 40).forEach(i -> disk.put(i, prefix + i));
+        IntStream.range(0, 40).filter(i -> i % 4 != 0).forEach(disk::remove);
+
+        Thread compaction = new Thread(disk::compact);
+        compaction.start();
+        IntStream.range(0, 40).filter(i -> i % 8 == 0).forEach(i -> disk.put(i, "Other" + i));
+        compaction.join();
+        disk.compact();
+
+        IntStream.range(0, 40).filter(i -> i % 4 == 0).forEach(i ->
+                assertThat(disk.take(i)).isEqualTo(i % 8 == 0 ? "Other" + i : prefix + i));
+        assertThat(disk.size()).isEqualTo(0);
+
+        try (Stream<Path> files = Files.list(disk.directory())) {
+            assertThat(files.count()).isEqualTo(disk.segmentCount());
+        }
+    }
+
+    @Test
+    void testLoading() {
+        AtomicInteger loads = new AtomicInteger();
+
+        Cache<Integer, String> loading = CacheBuilder.builder()
+                .maximumSize(5)
+                .spillToDisk(directory, MAXIMUM_BYTES, serializer)
+                .build(key -> {
+                    loads.incrementAndGet();
+                    return "Value" + key;
+                });
+
+        try {
+            IntStream.range(0, 20).forEach(i -> assertThat(loading.get(i)).isEqualTo("Value" + i));
+            loading.cleanUp();
+            IntStream.range(0, 20).forEach(i -> assertThat(loading.get(i)).isEqualTo("Value" + i));
+
+            assertThat(loads).hasValue(20);
+        }
+        finally {
+            ((SpillingCache<?, ?>) loading).disk.close();
+        }
+    }
+}
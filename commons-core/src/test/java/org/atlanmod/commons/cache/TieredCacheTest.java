@@ -0,0 +1,299 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import org.atlanmod.commons.AbstractTest;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * A test-case that checks the behavior of a {@link Cache} built with {@link TieredCacheBuilder}.
+ */
+@ParametersAreNonnullByDefault
+class TieredCacheTest extends AbstractTest {
+
+    private Cache<Integer, String> near;
+
+    private Cache<Integer, String> shared;
+
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        loads = new AtomicInteger();
+        near = CacheBuilder.builder().maximumSize(10).build();
+        shared = CacheBuilder.builder().build(key -> "Value" + key + '-' + loads.incrementAndGet());
+    }
+
+    @Test
+    void testReadThroughPromotion() {
+        Cache<Integer, String> cache = TieredCacheBuilder.<Integer, String>builder()
+                .tier(near)
+                .tier(shared)
+                .recordStats()
+                .build();
+
+        // Loaded by the last tier, and promoted
+        assertThat(cache.get(0)).isEqualTo("Value0-1");
+        assertThat(near.contains(0)).isTrue();
+
+        // Served by the nearest tier
+        assertThat(cache.get(0)).isEqualTo("Value0-1");
+        assertThat(loads.get()).isEqualTo(1);
+
+        // Served by the last tier
+        shared.put(1, "Value1");
+        assertThat(cache.get(1, key -> "Other")).isEqualTo("Value1");
+        assertThat(near.get(1)).isEqualTo("Value1");
+
+        CacheStats stats = cache.stats();
+        assertThat(stats.hitCount()).isEqualTo(1);
+        assertThat(stats.missCount()).isEqualTo(2);
+    }
+
+    @Test
+    void testGetAll() {
+        Cache<Integer, String> cache = TieredCacheBuilder.<Integer, String>builder()
+                .tier(near)
+                .tier(shared)
+                .build();
+
+        near.put(0, "Near0");
+        shared.put(1, "Shared1");
+
+        Map<Integer, String> values = cache.getAll(Arrays.asList(0, 1, 2));
+        assertThat(values).containsEntry(0, "Near0").containsEntry(1, "Shared1").containsEntry(2, "Value2-1");
+        assertThat(near.contains(1)).isTrue();
+        assertThat(near.contains(2)).isTrue();
+    }
+
+    @Test
+    void testWriteThrough() {
+        Cache<Integer, String> cache = TieredCacheBuilder.<Integer, String>builder()
+                .tier(near)
+                .tier(shared)
+                .build();
+
+        cache.put(0, "Value0");
+        assertThat(near.get(0)).isEqualTo("Value0");
+        assertThat(shared.get(0)).isEqualTo("Value0");
+        assertThat(cache.size()).isEqualTo(1);
+
+        cache.putIfAbsent(0, "Other");
+        assertThat(cache.get(0)).isEqualTo("Value0");
+
+        cache.invalidate(0);
+        assertThat(near.contains(0)).isFalse();
+        assertThat(shared.contains(0)).isFalse();
+
+        cache.putAll(Map.of(1, "Value1", 2, "Value2"));
+        cache.invalidateAll(Arrays.asList(1, 2));
+        assertThat(cache.contains(1)).isFalse();
+        assertThat(cache.contains(2)).isFalse();
+    }
+
+    @Test
+    void testWriteBehind() {
+        List<Runnable> pending = new ArrayList<>();
+
+        Cache<Integer, String> cache = TieredCacheBuilder.<Integer, String>builder()
+                .tier(near)
+                .tier(shared)
+                .writeBehind(pending::add)
+                .build();
+
+        cache.put(0, "Value0");
+        cache.put(0, "Value0'");
+        cache.invalidate(1);
+        assertThat(near.get(0)).isEqualTo("Value0'");
+        assertThat(shared.contains(0)).isFalse();
+
+        // The writes are applied in order, by a single task
+        assertThat(pending).hasSize(1);
+        pending.get(0).run();
+        assertThat(shared.get(0)).isEqualTo("Value0'");
+
+        cache.invalidate(0);
+        assertThat(near.contains(0)).isFalse();
+        assertThat(shared.contains(0)).isTrue();
+
+        // Pending writes are applied by cleanUp
+        cache.cleanUp();
+        assertThat(shared.contains(0)).isFalse();
+    }
+
+    @Test
+    void testInvalidateBeforeWriteBehind() {
+        List<Runnable> pending = new ArrayList<>();
+
+        Cache<Integer, String> cache = TieredCacheBuilder.<Integer, String>builder()
+                .tier(near)
+                .tier(shared)
+                .writeBehind(pending::add)
+                .build();
+
+        cache.put(0, "Value0");
+        cache.put(1, "Value1");
+        cache.cleanUp();
+
+        // The deleted value must not be promoted from the last tier before the invalidation is applied to it
+        cache.invalidate(0);
+        assertThat(cache.get(0)).isEqualTo("Value0-1");
+        assertThat(near.get(0)).isEqualTo("Value0-1");
+        assertThat(shared.get(0)).isEqualTo("Value0-1");
+
+        cache.invalidate(1);
+        assertThat(cache.contains(1)).isFalse();
+        assertThat(cache.asMap().get(1)).isNull();
+
+        cache.put(2, "Value2");
+        cache.cleanUp();
+        cache.invalidateAll();
+        assertThat(cache.getAll(Arrays.asList(2, 3))).containsEntry(2, "Value2-2").containsEntry(3, "Value3-3");
+    }
+
+    @Test
+    void testPromotionRacingWithWrites() {
+        AtomicReference<Runnable> concurrentWrite = new AtomicReference<>(() -> {});
+
+        Cache<Integer, String> last = new CaffeineManualCache<>(Caffeine.newBuilder().<Integer, String>build(), StatsRecorder.disabled()) {
+            @Override
+            public String get(Integer key) {
+                String value = super.get(key);
+                concurrentWrite.getAndSet(() -> {}).run();
+                return value;
+            }
+        };
+
+        Cache<Integer, String> cache = TieredCacheBuilder.<Integer, String>builder()
+                .tier(near)
+                .tier(last)
+                .build();
+
+        cache.put(0, "Value0");
+        near.invalidate(0);
+
+        // The value read before the invalidation must not be promoted after it
+        concurrentWrite.set(() -> cache.invalidate(0));
+        assertThat(cache.get(0)).isEqualTo("Value0");
+        assertThat(near.contains(0)).isFalse();
+        assertThat(cache.get(0)).isNull();
+
+        cache.put(1, "Value1");
+        near.invalidate(1);
+
+        // The value read before the replacement must not overwrite it
+        concurrentWrite.set(() -> cache.put(1, "Value1'"));
+        assertThat(cache.get(1)).isEqualTo("Value1");
+        assertThat(near.get(1)).isNotEqualTo("Value1");
+        assertThat(cache.get(1)).isEqualTo("Value1'");
+    }
+
+    @Test
+    void testPutIfAbsent() {
+        Cache<Integer, String> cache = TieredCacheBuilder.<Integer, String>builder()
+                .tier(near)
+                .tier(shared)
+                .writeBehind(Runnable::run)
+                .build();
+
+        // A stale value in the nearest tier does not prevent the write
+        near.put(0, "Stale0");
+        cache.putIfAbsent(0, "Value0");
+        assertThat(near.contains(0)).isFalse();
+        assertThat(cache.get(0)).isEqualTo("Value0");
+
+        cache.putIfAbsent(0, "Other");
+        assertThat(cache.get(0)).isEqualTo("Value0");
+        assertThat(shared.get(0)).isEqualTo("Value0");
+    }
+
+    @Test
+    void testInvalidateAll() {
+        Cache<Integer, String> cache = TieredCacheBuilder.<Integer, String>builder()
+                .tier(near)
+                .tier(shared)
+                .build();
+
+        for (int i = 0; i < 5; i++) {
+            cache.get(i);
+        }
+
+        cache.invalidateAll();
+        assertThat(near.size()).isEqualTo(0);
+        assertThat(shared.size()).isEqualTo(0);
+    }
+
+    @Test
+    void testAsMap() {
+        Cache<Integer, String> cache = TieredCacheBuilder.<Integer, String>builder()
+                .tier(near)
+                .tier(shared)
+                .build();
+
+        cache.put(0, "Value0");
+        assertThat(cache.asMap().get(0)).isEqualTo("Value0");
+
+        assertThat(cache.asMap().replace(0, "Value0'")).isEqualTo("Value0");
+        assertThat(near.contains(0)).isFalse();
+        assertThat(cache.get(0)).isEqualTo("Value0'");
+
+        assertThat(cache.asMap().remove(0)).isEqualTo("Value0'");
+        assertThat(cache.contains(0)).isFalse();
+    }
+
+    @Test
+    void testThreeTiers() {
+        Cache<Integer, String> middle = CacheBuilder.builder().maximumSize(100).build();
+
+        Cache<Integer, String> cache = TieredCacheBuilder.<Integer, String>builder()
+                .tier(near)
+                .tier(middle)
+                .tier(shared)
+                .build();
+
+        middle.put(0, "Middle0");
+        assertThat(cache.get(0)).isEqualTo("Middle0");
+        assertThat(near.get(0)).isEqualTo("Middle0");
+        assertThat(shared.contains(0)).isFalse();
+
+        assertThat(cache.get(1)).isEqualTo("Value1-1");
+        assertThat(middle.get(1)).isEqualTo("Value1-1");
+        assertThat(near.get(1)).isEqualTo("Value1-1");
+    }
+
+    @Test
+    void testInvalidConfigurations() {
+        Throwable thrown;
+
+        thrown = catchThrowable(() -> TieredCacheBuilder.<Integer, String>builder().tier(near).build());
+        assertThat(thrown).isExactlyInstanceOf(IllegalStateException.class);
+
+        thrown = catchThrowable(() -> TieredCacheBuilder.<Integer, String>builder().tier(near).tier(near));
+        assertThat(thrown).isExactlyInstanceOf(IllegalArgumentException.class);
+
+        thrown = catchThrowable(() -> TieredCacheBuilder.<Integer, String>builder().writeBehind(Runnable::run).writeBehind(Runnable::run));
+        assertThat(thrown).isExactlyInstanceOf(IllegalStateException.class);
+    }
+}
@@ -9,6 +9,7 @@
 package org.atlanmod.commons.hash;
 
 import org.atlanmod.commons.AbstractTest;
+import org.atlanmod.commons.primitive.Longs;
 import org.atlanmod.commons.primitive.Strings;
 
 import org.junit.jupiter.api.Test;
@@ -35,6 +36,15 @@ class BinaryHashCodeTest extends AbstractTest {
         assertThat(HASH.toBytes()).isEqualTo(Strings.toBytes("HashCode0"));
     }
 
+    @Test
+    void testToLong() {
+        assertThat(HASH.toLong()).isEqualTo(0x48617368436f6465L);
+
+        assertThat(new BinaryHashCode(Longs.toBytes(123456789L)).toLong()).isEqualTo(123456789L);
+
+        assertThat(new BinaryHashCode(Strings.toBytes("HC")).toLong()).isEqualTo(0x4843L);
+    }
+
     @Test
     void testToHexString() {
         assertThat(HASH.toHexString()).isEqualToIgnoringCase("48617368436f646530");
@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import org.atlanmod.commons.AbstractTest;
+import org.atlanmod.commons.io.serializer.BinarySerializer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * A test-case that checks the behavior of {@link BloomFilter}.
+ */
+@ParametersAreNonnullByDefault
+class BloomFilterTest extends AbstractTest {
+
+    private static final int COUNT = 10_000;
+
+    private static final double FPP = 0.01;
+
+    @Test
+    void testInvalidParameters() {
+        assertThat(catchThrowable(() -> BloomFilter.create(StandardHashers.XX, 0, FPP)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(catchThrowable(() -> BloomFilter.create(StandardHashers.XX, COUNT, 0)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(catchThrowable(() -> BloomFilter.create(StandardHashers.XX, COUNT, 1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testSizing() {
+        BloomFilter filter = BloomFilter.create(StandardHashers.XX, COUNT, FPP);
+
+        assertThat(filter.bitSize()).isGreaterThanOrEqualTo(95851);
+        assertThat(filter.hashFunctions()).isEqualTo(7);
+        assertThat(filter.isOffHeap()).isFalse();
+        assertThat(filter.expectedFpp()).isZero();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"XX", "MURMUR3", "MURMUR3_128", "XX_128"})
+    void testPutAndMightContain(String name) {
+        Hasher hasher = StandardHashers.forName(name);
+
+        BloomFilter filter = BloomFilter.create(hasher, COUNT, FPP);
+        for (int i = 0; i < COUNT; i++) {
+            filter.put("element" + i);
+        }
+
+        assertThat(filter.put("element0")).isFalse();
+
+        for (int i = 0; i < COUNT; i++) {
+            assertThat(filter.mightContain("element" + i)).isTrue();
+        }
+
+        long falsePositives = IntStream.range(COUNT, COUNT * 2)
+                .filter(i -> filter.mightContain("element" + i))
+                .count();
+
+        assertThat((double) falsePositives / COUNT).isLessThan(FPP * 2);
+        assertThat(filter.expectedFpp()).isBetween(FPP / 2, FPP * 2);
+        assertThat(filter.approximateElementCount()).isBetween((long) (COUNT * 0.95), (long) (COUNT * 1.05));
+    }
+
+    @Test
+    void testPutHash() {
+        BloomFilter filter = BloomFilter.create(StandardHashers.MURMUR3_128, COUNT, FPP);
+
+        HashCode hashCode = StandardHashers.MURMUR3_128.hash("foo");
+        filter.putHash(hashCode);
+
+        assertThat(filter.mightContainHash(hashCode)).isTrue();
+        assertThat(filter.mightContainHash(new BinaryHashCode(hashCode.toBytes()))).isTrue();
+
+        filter.putHash(42L);
+        assertThat(filter.mightContainHash(42L)).isTrue();
+        assertThat(filter.mightContainHash(new LongHashCode(42L))).isTrue();
+    }
+
+    @Test
+    void testOffHeap() {
+        BloomFilter onHeap = BloomFilter.create(StandardHashers.XX, COUNT, FPP);
+        BloomFilter offHeap = BloomFilter.createOffHeap(StandardHashers.XX, COUNT, FPP);
+
+        assertThat(offHeap.isOffHeap()).isTrue();
+        assertThat(offHeap.bitSize()).isEqualTo(onHeap.bitSize());
+
+        for (int i = 0; i < COUNT; i++) {
+            onHeap.put(i);
+            offHeap.put(i);
+        }
+
+        for (int i = 0; i < COUNT * 2; i++) {
+            assertThat(offHeap.mightContain(i)).isEqualTo(onHeap.mightContain(i));
+        }
+    }
+
+    @Test
+    void testConcurrentPut() throws Exception {
+        BloomFilter filter = BloomFilter.createOffHeap(StandardHashers.XX, COUNT, FPP);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                final int offset = t;
+                futures.add(executor.submit(() -> {
+                    for (long i = offset; i < COUNT; i += 4) {
+                        filter.put(i);
+                    }
+                }));
+            }
+
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        for (long i = 0; i < COUNT; i++) {
+            assertThat(filter.mightContain(i)).isTrue();
+        }
+    }
+
+    @Test
+    void testMerge() {
+        BloomFilter first = BloomFilter.create(StandardHashers.XX, COUNT, FPP);
+        BloomFilter second = BloomFilter.createOffHeap(StandardHashers.XX, COUNT, FPP);
+
+        first.put("foo");
+        second.put("bar");
+
+        assertThat(first.isCompatible(second)).isTrue();
+        first.merge(second);
+
+        assertThat(first.mightContain("foo")).isTrue();
+        assertThat(first.mightContain("bar")).isTrue();
+        assertThat(second.mightContain("foo")).isFalse();
+
+        BloomFilter other = BloomFilter.create(StandardHashers.XX, COUNT * 2, FPP);
+        assertThat(first.isCompatible(other)).isFalse();
+        assertThat(catchThrowable(() -> first.merge(other)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testSerialize() throws Exception {
+        BinarySerializer<BloomFilter> serializer = BloomFilter.serializer(StandardHashers.XX);
+
+        BloomFilter filter = BloomFilter.createOffHeap(StandardHashers.XX, COUNT, FPP);
+        for (int i = 0; i < COUNT; i++) {
+            filter.put("element" + i);
+        }
+
+        BloomFilter result = serializer.deserialize(serializer.serialize(filter));
+
+        assertThat(result.bitSize()).isEqualTo(filter.bitSize());
+        assertThat(result.hashFunctions()).isEqualTo(filter.hashFunctions());
+        assertThat(result.isOffHeap()).isTrue();
+        assertThat(result.isCompatible(filter)).isTrue();
+
+        for (int i = 0; i < COUNT * 2; i++) {
+            assertThat(result.mightContain("element" + i)).isEqualTo(filter.mightContain("element" + i));
+        }
+    }
+}
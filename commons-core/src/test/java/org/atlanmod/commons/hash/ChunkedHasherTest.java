@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import org.atlanmod.commons.AbstractFileBasedTest;
+import org.atlanmod.commons.collect.MoreArrays;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * A test-case that checks the behavior of {@link ChunkedHasher}.
+ */
+@ParametersAreNonnullByDefault
+class ChunkedHasherTest extends AbstractFileBasedTest {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private final ChunkedHasher hasher = ChunkedHasher.of(StandardHashers.SHA256, CHUNK_SIZE);
+
+    private byte[] data;
+
+    @BeforeEach
+    void setUp() {
+        data = new byte[10 * CHUNK_SIZE + 123];
+        new Random(42).nextBytes(data);
+    }
+
+    @Test
+    void testInvalidChunkSize() {
+        assertThat(catchThrowable(() -> ChunkedHasher.of(StandardHashers.XX, 0)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testChunks() {
+        ChunkedHashCode hashCode = hasher.hash(ByteBuffer.wrap(data));
+
+        assertThat(hashCode.length()).isEqualTo(data.length);
+        assertThat(hashCode.chunkSize()).isEqualTo(CHUNK_SIZE);
+        assertThat(hashCode.chunkCount()).isEqualTo(11);
+        assertThat(hashCode.bits()).isEqualTo(256);
+
+        assertThat(hashCode.chunk(0)).isEqualTo(StandardHashers.SHA256.hash(data, 0, CHUNK_SIZE));
+        assertThat(hashCode.chunk(10)).isEqualTo(StandardHashers.SHA256.hash(data, 10 * CHUNK_SIZE, 123));
+        assertThat(hashCode.chunks()).hasSize(11);
+
+        assertThat(catchThrowable(() -> hashCode.chunk(11)))
+                .isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    void testSingleChunk() {
+        ChunkedHashCode hashCode = ChunkedHasher.of(StandardHashers.XX).hash(ByteBuffer.wrap(data));
+
+        assertThat(hashCode.chunkCount()).isEqualTo(1);
+        assertThat(hashCode.chunk(0)).isEqualTo(StandardHashers.XX.hash(data));
+
+        // The root is a leaf
+        HashCode leaf = StandardHashers.XX.newSink().putByte((byte) 0).putBytes(StandardHashers.XX.hash(data).toBytes()).hash();
+        assertThat(hashCode.root()).isEqualTo(leaf);
+    }
+
+    @Test
+    void testLeafIsNotNode() {
+        ChunkedHasher hasher = ChunkedHasher.of(StandardHashers.SHA256, 128);
+
+        ChunkedHashCode tree = hasher.hash(ByteBuffer.wrap(data, 0, 256));
+        assertThat(tree.chunkCount()).isEqualTo(2);
+
+        // A chunk made of the content of the root node of the tree
+        byte[] forged = MoreArrays.addAll(new byte[]{1}, MoreArrays.addAll(tree.chunk(0).toBytes(), tree.chunk(1).toBytes()));
+        ChunkedHashCode single = hasher.hash(ByteBuffer.wrap(forged));
+        assertThat(single.chunkCount()).isEqualTo(1);
+
+        assertThat(single.root()).isNotEqualTo(tree.root());
+    }
+
+    @Test
+    void testEmpty() {
+        ChunkedHashCode hashCode = hasher.hash(ByteBuffer.allocate(0));
+
+        assertThat(hashCode.chunkCount()).isEqualTo(0);
+        assertThat(hashCode.root()).isEqualTo(StandardHashers.SHA256.hash(new byte[0]));
+    }
+
+    @Test
+    void testDirectBuffer() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(data.length);
+        buffer.put(data).flip();
+
+        assertThat(hasher.hash(buffer)).isEqualTo(hasher.hash(ByteBuffer.wrap(data)));
+        assertThat(buffer.position()).isEqualTo(0);
+    }
+
+    @Test
+    void testFile() throws Exception {
+        Path file = currentTempFile().toPath();
+        Files.write(file, data);
+
+        ChunkedHashCode expected = hasher.hash(ByteBuffer.wrap(data));
+        ChunkedHashCode actual = hasher.hash(file);
+
+        assertThat(actual).isEqualTo(expected);
+        assertThat(actual.chunks()).isEqualTo(expected.chunks());
+    }
+
+    @Test
+    void testResume() throws Exception {
+        Path file = currentTempFile().toPath();
+        Files.write(file, data);
+
+        ChunkedHashCode expected = hasher.hash(file);
+
+        assertThat(hasher.hash(file, expected.chunks().subList(0, 4))).isEqualTo(expected);
+
+        assertThat(catchThrowable(() -> hasher.hash(file, ChunkedHasher.of(StandardHashers.SHA256, 10).hash(file).chunks())))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testDiff() {
+        ChunkedHashCode before = hasher.hash(ByteBuffer.wrap(data));
+
+        data[5 * CHUNK_SIZE + 10]++;
+        ChunkedHashCode after = hasher.hash(ByteBuffer.wrap(data));
+
+        assertThat(after).isNotEqualTo(before);
+        assertThat(after.diff(before)).containsExactly(5);
+
+        ChunkedHashCode shorter = hasher.hash(ByteBuffer.wrap(data, 0, 9 * CHUNK_SIZE));
+        assertThat(after.diff(shorter)).containsExactly(9, 10);
+
+        assertThat(catchThrowable(() -> after.diff(ChunkedHasher.of(StandardHashers.SHA256, 10).hash(ByteBuffer.wrap(data)))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
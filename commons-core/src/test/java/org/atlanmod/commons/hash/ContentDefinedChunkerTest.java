@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import org.atlanmod.commons.AbstractFileBasedTest;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * A test-case that checks the behavior of {@link ContentDefinedChunker}.
+ */
+@ParametersAreNonnullByDefault
+class ContentDefinedChunkerTest extends AbstractFileBasedTest {
+
+    private byte[] data;
+
+    private static Stream<Arguments> allChunkers() {
+        return Stream.of(
+                Arguments.of("rabinKarp", chunker(() -> RollingHash.rabinKarp(48))),
+                Arguments.of("buzhash", chunker(() -> RollingHash.buzhash(48))),
+                Arguments.of("gear", chunker(RollingHash::gear))
+        );
+    }
+
+    private static ContentDefinedChunker chunker(Supplier<RollingHash> rollingHashes) {
+        return ContentDefinedChunker.of(StandardHashers.XX, rollingHashes, 2048, 8192, 65536);
+    }
+
+    @BeforeEach
+    void setUp() {
+        data = new byte[1_000_000];
+        new Random(42).nextBytes(data);
+    }
+
+    @Test
+    void testInvalidSizes() {
+        assertThat(catchThrowable(() -> ContentDefinedChunker.of(StandardHashers.XX, RollingHash::gear, 0, 8192, 65536)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(catchThrowable(() -> ContentDefinedChunker.of(StandardHashers.XX, RollingHash::gear, 2048, 8000, 65536)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(catchThrowable(() -> ContentDefinedChunker.of(StandardHashers.XX, RollingHash::gear, 2048, 8192, 4096)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @ParameterizedTest(name = "[{index}] {0}")
+    @MethodSource("allChunkers")
+    void testSplit(@SuppressWarnings("unused") String name, ContentDefinedChunker chunker) {
+        List<ContentDefinedChunker.Chunk> chunks = chunker.split(ByteBuffer.wrap(data));
+
+        long offset = 0;
+        for (ContentDefinedChunker.Chunk chunk : chunks) {
+            assertThat(chunk.offset()).isEqualTo(offset);
+            assertThat(chunk.length()).isLessThanOrEqualTo(65536);
+            if (chunk.offset() + chunk.length() < data.length) {
+                assertThat(chunk.length()).isGreaterThanOrEqualTo(2048);
+            }
+            assertThat(chunk.hash()).isEqualTo(StandardHashers.XX.hash(data, (int) offset, chunk.length()));
+            offset += chunk.length();
+        }
+
+        assertThat(offset).isEqualTo(data.length);
+        assertThat(data.length / chunks.size()).isBetween(4096, 16384);
+    }
+
+    @ParameterizedTest(name = "[{index}] {0}")
+    @MethodSource("allChunkers")
+    void testSplitStream(@SuppressWarnings("unused") String name, ContentDefinedChunker chunker) throws Exception {
+        List<ContentDefinedChunker.Chunk> chunks = new ArrayList<>();
+        chunker.split(new ByteArrayInputStream(data), chunks::add);
+
+        assertThat(chunks).isEqualTo(chunker.split(ByteBuffer.wrap(data)));
+    }
+
+    @ParameterizedTest(name = "[{index}] {0}")
+    @MethodSource("allChunkers")
+    void testSplitFile(@SuppressWarnings("unused") String name, ContentDefinedChunker chunker) throws Exception {
+        Path file = currentTempFile().toPath();
+        Files.write(file, data);
+
+        assertThat(chunker.split(file)).isEqualTo(chunker.split(ByteBuffer.wrap(data)));
+    }
+
+    @ParameterizedTest(name = "[{index}] {0}")
+    @MethodSource("allChunkers")
+    void testInsertion(@SuppressWarnings("unused") String name, ContentDefinedChunker chunker) {
+        List<ContentDefinedChunker.Chunk> before = chunker.split(ByteBuffer.wrap(data));
+
+        byte[] modified = new byte[data.length + 10];
+        System.arraycopy(data, 0, modified, 0, data.length / 2);
+        System.arraycopy(data, data.length / 2, modified, data.length / 2 + 10, data.length / 2);
+
+        Set<HashCode> hashes = before.stream().map(ContentDefinedChunker.Chunk::hash).collect(Collectors.toSet());
+        long changed = chunker.split(ByteBuffer.wrap(modified)).stream()
+                .filter(c -> !hashes.contains(c.hash()))
+                .count();
+
+        // Only the chunks around the insertion have changed
+        assertThat(changed).isBetween(1L, 3L);
+    }
+
+    @Test
+    void testBufferIsNotModified() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(100);
+        buffer.put(new byte[100]).flip().position(10);
+
+        List<ContentDefinedChunker.Chunk> chunks = ContentDefinedChunker.of(StandardHashers.XX).split(buffer);
+
+        assertThat(chunks).containsExactly(new ContentDefinedChunker.Chunk(0, 90, StandardHashers.XX.hash(new byte[90])));
+        assertThat(buffer.position()).isEqualTo(10);
+        assertThat(buffer.limit()).isEqualTo(100);
+    }
+
+    @Test
+    void testFixedSize() throws Exception {
+        ContentDefinedChunker chunker = ContentDefinedChunker.of(StandardHashers.XX, RollingHash::gear, 64, 64, 64);
+
+        List<Integer> lengths = new ArrayList<>();
+        chunker.split(new ByteArrayInputStream(new byte[200]), c -> lengths.add(c.length()));
+
+        assertThat(lengths).containsExactly(64, 64, 64, 8);
+    }
+
+    @Test
+    void testEmpty() {
+        assertThat(ContentDefinedChunker.of(StandardHashers.XX).split(ByteBuffer.allocate(0))).isEmpty();
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import org.atlanmod.commons.AbstractTest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * A test-case that checks the behavior of {@link CountMinSketch}.
+ */
+@ParametersAreNonnullByDefault
+class CountMinSketchTest extends AbstractTest {
+
+    private static final int COUNT = 100_000;
+
+    @Test
+    void testInvalidParameters() {
+        assertThat(catchThrowable(() -> CountMinSketch.create(StandardHashers.XX, 0, 10)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(catchThrowable(() -> CountMinSketch.create(StandardHashers.XX, 0, 0.99)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(catchThrowable(() -> CountMinSketch.create(StandardHashers.XX, 0.01, 1)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(catchThrowable(() -> CountMinSketch.create(StandardHashers.XX, 0.01, 0.99, -1)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(catchThrowable(() -> CountMinSketch.create(StandardHashers.XX, 65, 10)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testSizing() {
+        CountMinSketch sketch = CountMinSketch.create(StandardHashers.XX, 0.001, 0.99);
+
+        assertThat(sketch.width()).isEqualTo(2719);
+        assertThat(sketch.depth()).isEqualTo(5);
+        assertThat(sketch.totalCount()).isZero();
+    }
+
+    @Test
+    void testEstimate() {
+        CountMinSketch sketch = CountMinSketch.create(StandardHashers.XX, 0.001, 0.99);
+
+        Random random = new Random(42);
+        Map<Integer, Integer> actual = new HashMap<>();
+        for (int i = 0; i < COUNT; i++) {
+            int value = random.nextInt(10_000);
+            actual.merge(value, 1, Integer::sum);
+            sketch.add(value);
+        }
+
+        assertThat(sketch.totalCount()).isEqualTo(COUNT);
+
+        final long maxError = (long) (0.001 * COUNT);
+        actual.forEach((value, count) -> assertThat(sketch.estimate(value)).isBetween((long) count, count + maxError));
+
+        assertThat(sketch.estimate("unknown")).isLessThanOrEqualTo(maxError);
+    }
+
+    @Test
+    void testAddCount() {
+        CountMinSketch sketch = CountMinSketch.create(StandardHashers.XX, 4, 100);
+
+        assertThat(sketch.addHash(42L, 10)).isEqualTo(10);
+        assertThat(sketch.addHash(42L)).isEqualTo(11);
+        assertThat(sketch.estimateHash(42L)).isEqualTo(11);
+
+        assertThat(catchThrowable(() -> sketch.addHash(42L, -1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testDecay() {
+        CountMinSketch sketch = CountMinSketch.create(StandardHashers.XX, 4, 100);
+
+        sketch.addHash(42L, 100);
+        sketch.decay();
+
+        assertThat(sketch.estimateHash(42L)).isEqualTo(50);
+        assertThat(sketch.totalCount()).isEqualTo(50);
+        assertThat(sketch.decayCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testAutomaticDecay() {
+        CountMinSketch sketch = CountMinSketch.create(StandardHashers.XX, 0.01, 0.9, 1000);
+
+        for (int i = 0; i < 2500; i++) {
+            sketch.add("foo");
+        }
+
+        assertThat(sketch.decayCount()).isEqualTo(2);
+        assertThat(sketch.estimate("foo")).isEqualTo(1250);
+    }
+
+    @Test
+    void testAutomaticDecayAfterBulkAdd() {
+        CountMinSketch sketch = CountMinSketch.create(StandardHashers.XX, 0.01, 0.9, 10);
+
+        // A single add spanning several periods decays once per period
+        sketch.addHash(42L, 25);
+        assertThat(sketch.decayCount()).isEqualTo(2);
+
+        for (int i = 0; i < 1000; i++) {
+            sketch.addHash(42L);
+        }
+        assertThat(sketch.decayCount()).isEqualTo(102);
+    }
+
+    @Test
+    void testConcurrentAdd() throws Exception {
+        CountMinSketch sketch = CountMinSketch.create(StandardHashers.XX, 0.001, 0.99);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < COUNT; i++) {
+                        sketch.add(i % 10);
+                    }
+                }));
+            }
+
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(sketch.totalCount()).isEqualTo(4L * COUNT);
+        for (int i = 0; i < 10; i++) {
+            assertThat(sketch.estimate(i)).isGreaterThanOrEqualTo(4L * COUNT / 10);
+        }
+    }
+
+    @Test
+    void testConcurrentAddWithCollisions() throws Exception {
+        // A narrow sketch, where the counters are shared by many elements
+        CountMinSketch sketch = CountMinSketch.create(StandardHashers.XX, 4, 16);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < COUNT; i++) {
+                        sketch.add(i % 100);
+                    }
+                }));
+            }
+
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(sketch.estimate(i)).isGreaterThanOrEqualTo(8L * COUNT / 100);
+        }
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import org.atlanmod.commons.AbstractTest;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * A test-case that checks the behavior of {@link Funnels}.
+ */
+@ParametersAreNonnullByDefault
+class FunnelsTest extends AbstractTest {
+
+    private final Hasher hasher = StandardHashers.XX;
+
+    @Test
+    void testConstructor() throws Exception {
+        Constructor<?> constructor = Funnels.class.getDeclaredConstructor();
+        constructor.setAccessible(true);
+
+        assertThat(catchThrowable(constructor::newInstance))
+                .isInstanceOf(InvocationTargetException.class)
+                .hasCauseExactlyInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void testCached() {
+        assertThat(Funnels.fields(Person.class)).isSameAs(Funnels.fields(Person.class));
+    }
+
+    @Test
+    void testInvalidType() {
+        assertThat(catchThrowable(() -> Funnels.fields(int.class)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(catchThrowable(() -> Funnels.fields(Object[].class)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(catchThrowable(() -> Funnels.fields(Runnable.class)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testEqualObjects() {
+        Funnel<Person> funnel = Funnels.fields(Person.class);
+
+        Person person0 = new Person(1L, "Alice", 30);
+        person0.tags = Arrays.asList("foo", "bar");
+        person0.friend = new Person(2L, "Bob", 40);
+
+        Person person1 = new Person(1L, "Alice", 30);
+        person1.tags = Arrays.asList("foo", "bar");
+        person1.friend = new Person(2L, "Bob", 40);
+
+        assertThat(hasher.hash(person0, funnel)).isEqualTo(hasher.hash(person1, funnel));
+
+        // Transient fields are ignored
+        person1.cache = 42;
+        assertThat(hasher.hash(person0, funnel)).isEqualTo(hasher.hash(person1, funnel));
+    }
+
+    @Test
+    void testDifferentObjects() {
+        Funnel<Person> funnel = Funnels.fields(Person.class);
+
+        Person person = new Person(1L, "Alice", 30);
+        person.friend = new Person(2L, "Bob", 40);
+
+        HashCode expected = hasher.hash(person, funnel);
+
+        // Inherited field
+        assertThat(hasher.hash(new Person(2L, "Alice", 30), funnel)).isNotEqualTo(expected);
+
+        // Nested object
+        person.friend.age = 41;
+        assertThat(hasher.hash(person, funnel)).isNotEqualTo(expected);
+
+        // Enum
+        person.friend.age = 40;
+        person.color = Color.BLUE;
+        assertThat(hasher.hash(person, funnel)).isNotEqualTo(expected);
+    }
+
+    @Test
+    void testNullValues() {
+        Funnel<Person> funnel = Funnels.fields(Person.class);
+
+        Person person0 = new Person(1L, null, 30);
+        Person person1 = new Person(1L, "", 30);
+
+        assertThat(hasher.hash(person0, funnel)).isEqualTo(hasher.hash(new Person(1L, null, 30), funnel));
+        assertThat(hasher.hash(person0, funnel)).isNotEqualTo(hasher.hash(person1, funnel));
+
+        person0.tags = Arrays.asList("foo", null);
+        person1.name = null;
+        person1.tags = Arrays.asList(null, "foo");
+        assertThat(hasher.hash(person0, funnel)).isNotEqualTo(hasher.hash(person1, funnel));
+
+        assertThat(catchThrowable(() -> hasher.hash(null, funnel)))
+                .isInstanceOf(NullPointerException.class);
+    }
+
+    @Test
+    void testUnambiguousStrings() {
+        Funnel<Pair> funnel = Funnels.fields(Pair.class);
+
+        assertThat(hasher.hash(new Pair("ab", "c"), funnel)).isNotEqualTo(hasher.hash(new Pair("a", "bc"), funnel));
+    }
+
+    @Test
+    void testNamedFields() {
+        Funnel<Person> funnel = Funnels.fields(Person.class, "name", "id");
+        Funnel<Person> expected = (p, sink) -> sink.putBoolean(true).putInt(p.name.length()).putString(p.name).putLong(((Identified) p).id);
+
+        Person person = new Person(1L, "Alice", 30);
+        assertThat(hasher.hash(person, funnel)).isEqualTo(hasher.hash(person, expected));
+
+        // Other fields are ignored
+        person.age = 31;
+        assertThat(hasher.hash(person, funnel)).isEqualTo(hasher.hash(person, expected));
+
+        assertThat(catchThrowable(() -> Funnels.fields(Person.class, "unknown")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testJdkValues() {
+        Funnel<Values> funnel = Funnels.fields(Values.class);
+
+        Values values0 = new Values();
+        values0.uuid = new UUID(1L, 2L);
+        values0.text = new StringBuilder("foo");
+        values0.chars = new char[]{'a', 'b'};
+        values0.set = new HashSet<>(Arrays.asList("a", "b", "c"));
+        values0.map = new HashMap<>(Map.of("a", 1, "b", 2));
+
+        // Same contents, with another capacity and another insertion order
+        Values values1 = new Values();
+        values1.uuid = new UUID(1L, 2L);
+        values1.text = "foo";
+        values1.chars = new char[]{'a', 'b'};
+        values1.set = new LinkedHashSet<>(Arrays.asList("c", "b", "a"));
+        values1.map = new HashMap<>(64);
+        values1.map.put("b", 2);
+        values1.map.put("a", 1);
+
+        HashCode expected = hasher.hash(values0, funnel);
+        assertThat(hasher.hash(values1, funnel)).isEqualTo(expected);
+
+        values1.uuid = new UUID(1L, 3L);
+        assertThat(hasher.hash(values1, funnel)).isNotEqualTo(expected);
+
+        values1.uuid = new UUID(1L, 2L);
+        values1.map.put("a", 2);
+        assertThat(hasher.hash(values1, funnel)).isNotEqualTo(expected);
+    }
+
+    @Test
+    void testUnorderedValuesWithKeyedHasher() {
+        Funnel<Values> funnel = Funnels.fields(Values.class);
+
+        Values values0 = new Values();
+        values0.set = new HashSet<>(Arrays.asList("a", "b", "c"));
+
+        Values values1 = new Values();
+        values1.set = new LinkedHashSet<>(Arrays.asList("c", "b", "a"));
+
+        // The elements are hashed with the hasher of the sink, and its key
+        Hasher hasher0 = StandardHashers.sipHash24(1L, 2L);
+        Hasher hasher1 = StandardHashers.sipHash24(3L, 4L);
+        assertThat(hasher0.hash(values1, funnel)).isEqualTo(hasher0.hash(values0, funnel));
+        assertThat(hasher1.hash(values1, funnel)).isEqualTo(hasher1.hash(values0, funnel));
+        assertThat(hasher1.hash(values0, funnel)).isNotEqualTo(hasher0.hash(values0, funnel));
+
+        HashSink sink = hasher0.newSink();
+        assertThat(sink.hasher()).isSameAs(hasher0);
+
+        sink = StandardHashers.SHA256.newSink();
+        assertThat(sink.hasher()).isSameAs(StandardHashers.SHA256);
+        assertThat(sink.putObject(values0, funnel).hash()).isEqualTo(StandardHashers.SHA256.hash(values1, funnel));
+    }
+
+    @Test
+    void testJdkClasses() {
+        assertThat(catchThrowable(() -> Funnels.fields(ArrayList.class)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(catchThrowable(() -> Funnels.fields(Tags.class)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        // Other classes of the JDK are never reflected
+        Values values = new Values();
+        values.other = Optional.of("foo");
+        assertThat(catchThrowable(() -> hasher.hash(values, Funnels.fields(Values.class))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("java.util.Optional");
+    }
+
+    @Test
+    void testSink() {
+        Funnel<Person> funnel = Funnels.fields(Person.class);
+        Person person = new Person(1L, "Alice", 30);
+
+        HashCode hashCode = hasher.newSink()
+                .putInt(42)
+                .putObject(person, funnel)
+                .hash();
+
+        HashSink sink = hasher.newSink().putInt(42);
+        funnel.funnel(person, sink);
+        assertThat(hashCode).isEqualTo(sink.hash());
+    }
+
+    enum Color {
+        RED, BLUE
+    }
+
+    static class Identified {
+
+        private final long id;
+
+        Identified(long id) {
+            this.id = id;
+        }
+    }
+
+    static class Person extends Identified {
+
+        private String name;
+        private int age;
+        private double score;
+        private boolean active;
+        private Color color = Color.RED;
+        private List<String> tags;
+        private Person friend;
+        private transient int cache;
+
+        Person(long id, String name, int age) {
+            super(id);
+            this.name = name;
+            this.age = age;
+        }
+    }
+
+    static class Values {
+
+        private UUID uuid;
+        private CharSequence text;
+        private char[] chars;
+        private Set<String> set;
+        private Map<String, Integer> map;
+        private Object other;
+    }
+
+    static class Tags extends ArrayList<String> {
+    }
+
+    static class Pair {
+
+        private final String first;
+        private final String second;
+
+        Pair(String first, String second) {
+            this.first = first;
+            this.second = second;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import org.atlanmod.commons.AbstractTest;
+import org.atlanmod.commons.collect.MoreArrays;
+import org.atlanmod.commons.primitive.Booleans;
+import org.atlanmod.commons.primitive.Chars;
+import org.atlanmod.commons.primitive.Doubles;
+import org.atlanmod.commons.primitive.Floats;
+import org.atlanmod.commons.primitive.Ints;
+import org.atlanmod.commons.primitive.Longs;
+import org.atlanmod.commons.primitive.Shorts;
+import org.atlanmod.commons.primitive.Strings;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * A test-case that checks the behavior of {@link HashSink}.
+ */
+@ParametersAreNonnullByDefault
+class HashSinkTest extends AbstractTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"MD5", "SHA256", "MURMUR3", "XX"})
+    void testPrimitives(String name) {
+        Hasher hasher = StandardHashers.forName(name);
+
+        byte[] expected = MoreArrays.addAll(Booleans.toBytes(true), (byte) 7);
+        expected = MoreArrays.addAll(expected, Chars.toBytes('c'));
+        expected = MoreArrays.addAll(expected, Shorts.toBytes((short) 12));
+        expected = MoreArrays.addAll(expected, Ints.toBytes(42));
+        expected = MoreArrays.addAll(expected, Longs.toBytes(-42L));
+        expected = MoreArrays.addAll(expected, Floats.toBytes(1.5f));
+        expected = MoreArrays.addAll(expected, Doubles.toBytes(-2.5d));
+
+        HashCode actual = hasher.newSink()
+                .putBoolean(true)
+                .putByte((byte) 7)
+                .putChar('c')
+                .putShort((short) 12)
+                .putInt(42)
+                .putLong(-42L)
+                .putFloat(1.5f)
+                .putDouble(-2.5d)
+                .hash();
+
+        assertThat(actual).isEqualTo(hasher.hash(expected));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"MD5", "SHA256", "MURMUR3", "XX", "CITY", "FARM_NA", "FARM_UO", "MURMUR3_128", "XX_128", "CRC32C", "ADLER32"})
+    void testStrings(String name) {
+        Hasher hasher = StandardHashers.forName(name);
+
+        String ascii = "Lorem ipsum";
+        String unicode = "été € 𝄞";
+
+        HashCode actual = hasher.newSink()
+                .putString(ascii)
+                .putString(unicode)
+                .hash();
+
+        assertThat(actual).isEqualTo(hasher.hash(ascii + unicode));
+        assertThat(actual.toLong()).isEqualTo(hasher.hashToLong(ascii + unicode));
+
+        // Strings are written with the encoding of the hasher, between other values
+        assertThat(hasher.newSink().putInt(1).putString(unicode).hash())
+                .isEqualTo(hasher.newSink().putInt(1).putBytes(bytesOf(hasher, unicode)).hash());
+    }
+
+    /**
+     * Returns the representation of {@code data} hashed by {@code hasher}.
+     *
+     * @param hasher the hasher
+     * @param data   the string to encode
+     *
+     * @return the encoded string
+     */
+    private static byte[] bytesOf(Hasher hasher, String data) {
+        Charset charset = hasher instanceof ZeroAllocationHasher || hasher instanceof ZeroAllocationTupleHasher
+                ? StandardCharsets.UTF_16LE
+                : StandardCharsets.UTF_8;
+
+        byte[] bytes = data.getBytes(charset);
+        assertThat(hasher.hash(bytes)).isEqualTo(hasher.hash(data));
+        return bytes;
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"SHA1", "CITY"})
+    void testBytesAndReuse(String name) {
+        Hasher hasher = StandardHashers.forName(name);
+
+        byte[] data = Strings.toBytes("Lorem ipsum dolor sit amet, consectetur adipiscing elit volutpat");
+
+        HashSink sink = hasher.newSink();
+        assertThat(sink.putBytes(data, 0, 10).putBytes(data, 10, data.length - 10).hash()).isEqualTo(hasher.hash(data));
+
+        // The sink is reset after each call
+        assertThat(sink.putBytes(data).hash()).isEqualTo(hasher.hash(data));
+        assertThat(sink.hash()).isEqualTo(hasher.hash(new byte[0]));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"SHA1", "CITY"})
+    void testInvalidBounds(String name) {
+        HashSink sink = StandardHashers.forName(name).newSink();
+
+        assertThat(catchThrowable(() -> sink.putBytes(new byte[4], 2, 3)))
+                .isInstanceOf(IndexOutOfBoundsException.class);
+
+        assertThat(catchThrowable(() -> sink.putBytes(new byte[4], -1, 2)))
+                .isInstanceOf(IndexOutOfBoundsException.class);
+
+        assertThat(catchThrowable(() -> sink.putBytes(new byte[4], 1, -1)))
+                .isInstanceOf(IndexOutOfBoundsException.class);
+    }
+}
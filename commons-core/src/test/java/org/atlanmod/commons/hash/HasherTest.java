@@ -9,13 +9,26 @@
 package org.atlanmod.commons.hash;
 
 import org.atlanmod.commons.AbstractTest;
+import org.atlanmod.commons.primitive.Ints;
+import org.atlanmod.commons.primitive.Longs;
+import org.atlanmod.commons.primitive.Strings;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.Nonnull;
 import javax.annotation.ParametersAreNonnullByDefault;
@@ -106,4 +119,262 @@ class HasherTest extends AbstractTest {
     void testFarmHashUO() {
         assertThat(hashWith(StandardHashers.FARM_UO, "FARM_UO").toHexString()).isEqualToIgnoringCase("ea848ff9a62510e3");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testCrc32C() {
+        assertThat(hashWith(StandardHashers.CRC32C, "CRC32C").toHexString()).isEqualToIgnoringCase("38f2d619");
+    }
+
+    @Test
+    void testAdler32() {
+        assertThat(hashWith(StandardHashers.ADLER32, "ADLER32").toHexString()).isEqualToIgnoringCase("0c2c1868");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"CRC32C", "ADLER32"})
+    void testChecksumSink(String name) {
+        Hasher hasher = StandardHashers.forName(name);
+
+        HashCode hashCode = hasher.hash(DATA);
+        assertThat(hashCode.bits()).isEqualTo(32);
+        assertThat(hashCode.toLong()).isBetween(0L, 0xffffffffL);
+
+        HashSink sink = hasher.newSink();
+        assertThat(sink.putString(DATA).hash()).isEqualTo(hashCode);
+
+        // The sink is reset after each calculation
+        assertThat(sink.putString(DATA).hash()).isEqualTo(hashCode);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"MURMUR3_128", "XX_128"})
+    void test128Bits(String name) {
+        Hasher hasher = StandardHashers.forName(name);
+
+        HashCode hashCode = hasher.hash(DATA);
+        assertThat(hashCode.bits()).isEqualTo(128);
+        assertThat(hashCode.toBytes()).hasSize(16);
+        assertThat(hashCode.toHexString()).hasSize(32);
+        assertThat(hashCode).isEqualTo(hasher.hash(DATA));
+        assertThat(hashCode).isNotEqualTo(hasher.hash(DATA + '.'));
+
+        assertThat(hasher.newSink().putString(DATA).hash()).isEqualTo(hashCode);
+    }
+
+    @Test
+    void test128BitsKnownAnswers() {
+        // h1 = e34bbc7bbc071b6c, h2 = 7a433ca9c49a9347
+        HashCode murmur3 = StandardHashers.MURMUR3_128.hash(Strings.toBytes("The quick brown fox jumps over the lazy dog"));
+        assertThat(murmur3.toHexString()).isEqualToIgnoringCase("7a433ca9c49a9347e34bbc7bbc071b6c");
+        assertThat(murmur3.toLong()).isEqualTo(0xe34bbc7bbc071b6cL);
+        assertThat(murmur3.toLong()).isEqualTo(StandardHashers.MURMUR3.hashToLong(Strings.toBytes("The quick brown fox jumps over the lazy dog")));
+
+        // low64 = 6001c324468d497f, high64 = 99aa06d3014798d8
+        HashCode xx128 = StandardHashers.XX_128.hash(new byte[0]);
+        assertThat(xx128.toHexString()).isEqualToIgnoringCase("99aa06d3014798d86001c324468d497f");
+        assertThat(xx128.toBytes()).startsWith((byte) 0x99, (byte) 0xaa).endsWith((byte) 0x49, (byte) 0x7f);
+        assertThat(xx128.toLong()).isEqualTo(0x6001c324468d497fL);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"MD5", "SHA1", "SHA256", "MURMUR3", "XX", "CITY", "FARM_NA", "FARM_UO", "MURMUR3_128", "XX_128", "CRC32C", "ADLER32"})
+    void testRange(String name) {
+        Hasher hasher = StandardHashers.forName(name);
+
+        byte[] data = Strings.toBytes("__" + DATA + "__");
+        HashCode expected = hasher.hash(Strings.toBytes(DATA));
+
+        assertThat(hasher.hash(data, 2, data.length - 4)).isEqualTo(expected);
+
+        assertThat(catchThrowable(() -> hasher.hash(data, 2, data.length)))
+                .isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"MD5", "SHA1", "SHA256", "MURMUR3", "XX", "CITY", "FARM_NA", "FARM_UO", "MURMUR3_128", "XX_128", "CRC32C", "ADLER32"})
+    void testByteBuffer(String name) {
+        Hasher hasher = StandardHashers.forName(name);
+
+        byte[] data = Strings.toBytes("__" + DATA + "__");
+        HashCode expected = hasher.hash(Strings.toBytes(DATA));
+
+        ByteBuffer heapBuffer = ByteBuffer.wrap(data, 2, data.length - 4);
+        assertThat(hasher.hash(heapBuffer)).isEqualTo(expected);
+        assertThat(heapBuffer.position()).isEqualTo(2);
+
+        ByteBuffer directBuffer = ByteBuffer.allocateDirect(data.length);
+        directBuffer.put(data).position(2).limit(data.length - 2);
+        assertThat(hasher.hash(directBuffer)).isEqualTo(expected);
+        assertThat(hasher.hash(directBuffer.asReadOnlyBuffer())).isEqualTo(expected);
+        assertThat(directBuffer.position()).isEqualTo(2);
+        assertThat(directBuffer.limit()).isEqualTo(data.length - 2);
+
+        directBuffer.clear();
+        assertThat(hasher.hash(directBuffer, 2, data.length - 4)).isEqualTo(expected);
+        assertThat(directBuffer.position()).isEqualTo(0);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"MD5", "SHA1", "SHA256", "MURMUR3", "XX", "CITY", "FARM_NA", "FARM_UO", "MURMUR3_128", "XX_128", "CRC32C", "ADLER32"})
+    void testHashToLong(String name) {
+        Hasher hasher = StandardHashers.forName(name);
+
+        assertThat(hasher.hashToLong(42)).isEqualTo(hasher.hash(42).toLong());
+        assertThat(hasher.hashToLong(42L)).isEqualTo(hasher.hash(42L).toLong());
+        assertThat(hasher.hashToLong(DATA)).isEqualTo(hasher.hash(DATA).toLong());
+        assertThat(hasher.hashToLong(Strings.toBytes(DATA))).isEqualTo(hasher.hash(Strings.toBytes(DATA)).toLong());
+        assertThat(hasher.hashToLong(ByteBuffer.wrap(Strings.toBytes(DATA)))).isEqualTo(hasher.hash(Strings.toBytes(DATA)).toLong());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"MD5", "SHA1", "SHA256", "MURMUR3", "XX", "CITY", "FARM_NA", "FARM_UO", "MURMUR3_128", "XX_128", "CRC32C", "ADLER32"})
+    void testHashAllToLong(String name) {
+        Hasher hasher = StandardHashers.forName(name);
+
+        long[] results = new long[4];
+
+        hasher.hashAllToLong(new int[]{1, 2, 3}, results);
+        assertThat(results).containsExactly(hasher.hashToLong(1), hasher.hashToLong(2), hasher.hashToLong(3), 0L);
+
+        hasher.hashAllToLong(new long[]{1L, 2L, 3L, 4L}, results);
+        assertThat(results).containsExactly(hasher.hashToLong(1L), hasher.hashToLong(2L), hasher.hashToLong(3L), hasher.hashToLong(4L));
+
+        hasher.hashAllToLong(new String[]{"a", "b"}, results);
+        assertThat(results).startsWith(hasher.hashToLong("a"), hasher.hashToLong("b"));
+
+        assertThat(catchThrowable(() -> hasher.hashAllToLong(new int[5], results)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testSeeded() {
+        List<Hasher> seeded = List.of(
+                StandardHashers.murmur3(42L),
+                StandardHashers.xx(42L),
+                StandardHashers.city(42L),
+                StandardHashers.farmNa(42L),
+                StandardHashers.farmUo(42L),
+                StandardHashers.murmur3_128(42L),
+                StandardHashers.xx128(42L));
+
+        List<Hasher> unseeded = List.of(
+                StandardHashers.MURMUR3,
+                StandardHashers.XX,
+                StandardHashers.CITY,
+                StandardHashers.FARM_NA,
+                StandardHashers.FARM_UO,
+                StandardHashers.MURMUR3_128,
+                StandardHashers.XX_128);
+
+        for (int i = 0; i < seeded.size(); i++) {
+            Hasher hasher = seeded.get(i);
+            assertThat(hasher.hash(DATA)).isEqualTo(hasher.hash(DATA));
+            assertThat(hasher.hash(DATA)).isNotEqualTo(unseeded.get(i).hash(DATA));
+        }
+
+        assertThat(StandardHashers.xx(42L).hash(DATA)).isEqualTo(StandardHashers.xx(42L).hash(DATA));
+        assertThat(StandardHashers.xx(42L).hash(DATA)).isNotEqualTo(StandardHashers.xx(43L).hash(DATA));
+    }
+
+    @Test
+    void testSipHash() {
+        byte[] key = new byte[16];
+        for (int i = 0; i < key.length; i++) {
+            key[i] = (byte) i;
+        }
+
+        Hasher hasher = StandardHashers.sipHash24(key);
+        assertThat(StandardHashers.sipHash24(0x0706050403020100L, 0x0f0e0d0c0b0a0908L).hash(DATA)).isEqualTo(hasher.hash(DATA));
+
+        // Reference vectors of SipHash-2-4, for the messages (0, 1, ..., n - 1)
+        byte[] message = new byte[63];
+        for (int i = 0; i < message.length; i++) {
+            message[i] = (byte) i;
+        }
+
+        assertThat(hasher.hash(message, 0, 0).toLong()).isEqualTo(0x726fdb47dd0e0e31L);
+        assertThat(hasher.hash(message, 0, 15).toLong()).isEqualTo(0xa129ca6149be45e5L);
+        assertThat(hasher.hash(message, 0, 63).toLong()).isEqualTo(0x958a324ceb064572L);
+
+        assertThat(hasher.hash(DATA)).isNotEqualTo(StandardHashers.sipHash24().hash(DATA));
+
+        assertThat(catchThrowable(() -> StandardHashers.sipHash24(new byte[8])))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testSipHashConsistency() {
+        Hasher hasher = StandardHashers.sipHash24();
+
+        assertThat(hasher.hashToLong(42)).isEqualTo(hasher.hash(Ints.toBytes(42)).toLong());
+        assertThat(hasher.hashToLong(42L)).isEqualTo(hasher.hash(Longs.toBytes(42L)).toLong());
+        assertThat(hasher.hashToLong(DATA)).isEqualTo(hasher.hash(Strings.toBytes(DATA)).toLong());
+        assertThat(hasher.newSink().putString(DATA).hash()).isEqualTo(hasher.hash(DATA));
+
+        byte[] data = Strings.toBytes("__" + DATA + "_.__");
+        HashCode expected = hasher.hash(DATA + "_.");
+
+        assertThat(hasher.hash(data, 2, data.length - 4)).isEqualTo(expected);
+        assertThat(hasher.hash(ByteBuffer.wrap(data, 2, data.length - 4))).isEqualTo(expected);
+
+        ByteBuffer directBuffer = ByteBuffer.allocateDirect(data.length);
+        directBuffer.put(data).position(2).limit(data.length - 2);
+        assertThat(hasher.hash(directBuffer)).isEqualTo(expected);
+        assertThat(hasher.hash(directBuffer.asReadOnlyBuffer())).isEqualTo(expected);
+        assertThat(directBuffer.position()).isEqualTo(2);
+    }
+
+    @Test
+    void testConcurrentNativeHashers() throws Exception {
+        for (Hasher hasher : new Hasher[]{StandardHashers.MD5, StandardHashers.SHA1, StandardHashers.SHA256}) {
+            assertThat(hashConcurrently(hasher)).isTrue();
+        }
+    }
+
+    @Test
+    void testConcurrentZeroAllocationHashers() throws Exception {
+        for (Hasher hasher : new Hasher[]{StandardHashers.MURMUR3, StandardHashers.XX, StandardHashers.CITY}) {
+            assertThat(hashConcurrently(hasher)).isTrue();
+        }
+    }
+
+    /**
+     * Hashes {@link #DATA} from several threads in parallel with the same {@code hasher}, and checks that every
+     * result is identical to the one computed by a single thread.
+     *
+     * @param hasher the {@link Hasher} to use
+     *
+     * @return {@code true} if no result has been corrupted by concurrent calls
+     */
+    private static boolean hashConcurrently(Hasher hasher) throws Exception {
+        final int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        final int iterations = 10_000;
+
+        final HashCode expected = hasher.hash(DATA);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            Callable<Boolean> task = () -> {
+                boolean valid = true;
+                for (int i = 0; i < iterations; i++) {
+                    valid &= expected.equals(hasher.hash(DATA));
+                }
+                return valid;
+            };
+
+            List<Future<Boolean>> results = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(task));
+            }
+
+            boolean valid = true;
+            for (Future<Boolean> result : results) {
+                valid &= result.get(30, TimeUnit.SECONDS);
+            }
+            return valid;
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import org.atlanmod.commons.AbstractTest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * A test-case that checks the behavior of {@link HeavyHitters}.
+ */
+@ParametersAreNonnullByDefault
+class HeavyHittersTest extends AbstractTest {
+
+    @Test
+    void testInvalidParameters() {
+        CountMinSketch sketch = CountMinSketch.create(StandardHashers.XX, 0.001, 0.99);
+
+        assertThat(catchThrowable(() -> HeavyHitters.create(sketch, 0, Integer::longValue)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(catchThrowable(() -> HeavyHitters.create(sketch, 1, (Funnel<Object>) null)))
+                .isInstanceOf(NullPointerException.class);
+    }
+
+    @Test
+    void testTop() {
+        HeavyHitters<String> hitters = HeavyHitters.create(CountMinSketch.create(StandardHashers.XX, 0.001, 0.99), 3, (key, sink) -> sink.putString(key));
+
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            String key = i % 10 < 3
+                    ? "hot" + (i % 10)
+                    : "cold" + random.nextInt(100_000);
+
+            hitters.add(key);
+        }
+
+        List<Map.Entry<String, Long>> top = hitters.top();
+        assertThat(top).hasSize(3);
+        assertThat(top.stream().map(Map.Entry::getKey).collect(Collectors.toSet())).containsExactlyInAnyOrder("hot0", "hot1", "hot2");
+        assertThat(top.get(0).getValue()).isGreaterThanOrEqualTo(top.get(2).getValue());
+        assertThat(top.get(2).getValue()).isGreaterThanOrEqualTo(10_000);
+
+        assertThat(hitters.elements()).hasSize(3);
+    }
+
+    @Test
+    void testDecay() {
+        HeavyHitters<Integer> hitters = HeavyHitters.create(CountMinSketch.create(StandardHashers.XX, 0.001, 0.99), 1, Integer::longValue);
+
+        for (int i = 0; i < 100; i++) {
+            hitters.add(1);
+        }
+        hitters.sketch().decay();
+
+        assertThat(hitters.top()).hasSize(1);
+        assertThat(hitters.top().get(0).getValue()).isEqualTo(50);
+
+        for (int i = 0; i < 60; i++) {
+            hitters.add(2);
+        }
+        assertThat(hitters.top().get(0).getKey()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import org.atlanmod.commons.AbstractTest;
+import org.atlanmod.commons.io.serializer.BinarySerializer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * A test-case that checks the behavior of {@link HyperLogLog}.
+ */
+@ParametersAreNonnullByDefault
+class HyperLogLogTest extends AbstractTest {
+
+    private static final int COUNT = 100_000;
+
+    @Test
+    void testInvalidPrecision() {
+        assertThat(catchThrowable(() -> HyperLogLog.create(StandardHashers.XX, HyperLogLog.MIN_PRECISION - 1)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(catchThrowable(() -> HyperLogLog.create(StandardHashers.XX, HyperLogLog.MAX_PRECISION + 1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testEmpty() {
+        HyperLogLog hll = HyperLogLog.create(StandardHashers.XX);
+
+        assertThat(hll.cardinality()).isZero();
+        assertThat(hll.precision()).isEqualTo(HyperLogLog.DEFAULT_PRECISION);
+        assertThat(hll.standardError()).isCloseTo(0.008125, within(1e-6));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"XX", "MURMUR3", "CITY", "FARM_NA", "SHA1"})
+    void testCardinality(String name) {
+        HyperLogLog hll = HyperLogLog.create(StandardHashers.forName(name));
+
+        for (int i = 0; i < COUNT; i++) {
+            hll.add("element" + i);
+        }
+
+        assertThat(hll.add("element0")).isFalse();
+        assertThat(hll.cardinality()).isCloseTo(COUNT, within((long) (COUNT * 0.03)));
+    }
+
+    @Test
+    void testSmallCardinality() {
+        HyperLogLog hll = HyperLogLog.create(StandardHashers.XX);
+
+        for (int i = 0; i < 100; i++) {
+            hll.add(i);
+            hll.add(i);
+        }
+
+        assertThat(hll.cardinality()).isCloseTo(100, within(2L));
+    }
+
+    @Test
+    void testConcurrentAdd() throws Exception {
+        HyperLogLog hll = HyperLogLog.create(StandardHashers.XX);
+        HyperLogLog expected = HyperLogLog.create(StandardHashers.XX);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                final int offset = t;
+                futures.add(executor.submit(() -> {
+                    for (long i = offset; i < COUNT; i += 4) {
+                        hll.add(i);
+                    }
+                }));
+            }
+
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        for (long i = 0; i < COUNT; i++) {
+            expected.add(i);
+        }
+
+        assertThat(hll.cardinality()).isEqualTo(expected.cardinality());
+    }
+
+    @Test
+    void testMerge() {
+        HyperLogLog first = HyperLogLog.create(StandardHashers.XX);
+        HyperLogLog second = HyperLogLog.create(StandardHashers.XX);
+
+        for (int i = 0; i < COUNT; i++) {
+            first.add(i);
+            second.add(i + COUNT / 2);
+        }
+
+        first.merge(second);
+        assertThat(first.cardinality()).isCloseTo(COUNT * 3 / 2, within((long) (COUNT * 0.05)));
+
+        assertThat(catchThrowable(() -> first.merge(HyperLogLog.create(StandardHashers.XX, 10))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testSerialize() throws Exception {
+        BinarySerializer<HyperLogLog> serializer = HyperLogLog.serializer(StandardHashers.XX);
+
+        HyperLogLog hll = HyperLogLog.create(StandardHashers.XX, 10);
+        for (int i = 0; i < COUNT; i++) {
+            hll.add(i);
+        }
+
+        HyperLogLog result = serializer.deserialize(serializer.serialize(hll));
+
+        assertThat(result.precision()).isEqualTo(10);
+        assertThat(result.cardinality()).isEqualTo(hll.cardinality());
+    }
+}
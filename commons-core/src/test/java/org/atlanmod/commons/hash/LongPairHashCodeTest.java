@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import org.atlanmod.commons.AbstractTest;
+import org.atlanmod.commons.collect.MoreArrays;
+import org.atlanmod.commons.primitive.Longs;
+
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A test-case that checks the behavior of {@link LongPairHashCode}.
+ */
+@ParametersAreNonnullByDefault
+class LongPairHashCodeTest extends AbstractTest {
+
+    private final static HashCode HASH = new LongPairHashCode(123456789, 987654321);
+
+    @Test
+    void testBits() {
+        assertThat(HASH.bits()).isEqualTo(128);
+    }
+
+    @Test
+    void testToBytes() {
+        assertThat(HASH.toBytes()).isEqualTo(MoreArrays.addAll(Longs.toBytes(123456789), Longs.toBytes(987654321)));
+    }
+
+    @Test
+    void testToLong() {
+        assertThat(HASH.toLong()).isEqualTo(987654321);
+    }
+
+    @Test
+    void testToHexString() {
+        assertThat(HASH.toHexString()).isEqualToIgnoringCase("00000000075bcd15000000003ade68b1");
+    }
+
+    @Test
+    void testHashCode() {
+        assertThat(HASH.hashCode()).isEqualTo(new LongPairHashCode(123456789, 987654321).hashCode());
+        assertThat(HASH.hashCode()).isNotEqualTo(new LongPairHashCode(987654321, 123456789).hashCode());
+    }
+
+    @Test
+    void testEquals() {
+        //noinspection EqualsWithItself
+        assertThat(HASH.equals(HASH)).isTrue();
+
+        //noinspection ObjectEqualsCanBeEquality,ConstantConditions
+        assertThat(HASH.equals(null)).isFalse();
+
+        assertThat(HASH.equals(new LongPairHashCode(123456789, 987654321))).isTrue();
+
+        assertThat(HASH.equals(new LongPairHashCode(25, 0))).isFalse();
+
+        assertThat(HASH.equals(new LongPairHashCode(123456789, 0))).isFalse();
+    }
+}
\ No newline at end of file
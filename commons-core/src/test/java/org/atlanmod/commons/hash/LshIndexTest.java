@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import org.atlanmod.commons.AbstractTest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * A test-case that checks the behavior of {@link LshIndex}.
+ */
+@ParametersAreNonnullByDefault
+class LshIndexTest extends AbstractTest {
+
+    private final MinHash minHash = MinHash.create(128);
+
+    private static List<String> tokens(Random random, int count) {
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tokens.add("token" + random.nextInt(1_000_000));
+        }
+        return tokens;
+    }
+
+    @Test
+    void testInvalidParameters() {
+        assertThat(catchThrowable(() -> LshIndex.create(0, 4)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        LshIndex<Integer> index = LshIndex.create(32, 4);
+        assertThat(catchThrowable(() -> index.put(0, new long[64])))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testSimilar() {
+        Random random = new Random(42);
+        LshIndex<Integer> index = LshIndex.create(32, 4);
+
+        for (int i = 0; i < 1000; i++) {
+            index.put(i, minHash.signature(tokens(random, 200)));
+        }
+
+        List<String> document = tokens(random, 200);
+        List<String> nearDuplicate = new ArrayList<>(document.subList(0, 180));
+        nearDuplicate.addAll(tokens(random, 20));
+        index.put(-1, minHash.signature(nearDuplicate));
+
+        assertThat(index.size()).isEqualTo(1001);
+        assertThat(index.candidates(minHash.signature(document))).contains(-1).hasSizeLessThan(10);
+        assertThat(index.similar(minHash.signature(document), 0.6)).containsExactly(-1);
+    }
+
+    @Test
+    void testRemoveAndReplace() {
+        LshIndex<String> index = LshIndex.create(64, 2);
+
+        long[] signature = minHash.signature(tokens(new Random(42), 100));
+        index.put("foo", signature);
+        assertThat(index.candidates(signature)).containsExactly("foo");
+
+        index.put("foo", minHash.signature(tokens(new Random(43), 100)));
+        assertThat(index.candidates(signature)).isEmpty();
+        assertThat(index.size()).isEqualTo(1);
+
+        assertThat(index.remove("foo")).isTrue();
+        assertThat(index.remove("foo")).isFalse();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void testConcurrentReplace() throws Exception {
+        LshIndex<String> index = LshIndex.create(64, 2);
+
+        List<long[]> signatures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            signatures.add(minHash.signature(tokens(new Random(t), 100)));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (long[] signature : signatures) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        index.put("foo", signature);
+                        if (i % 3 == 0) {
+                            index.remove("foo");
+                        }
+                    }
+                }));
+            }
+
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        // The item is not left in the buckets of a replaced signature
+        index.remove("foo");
+        for (long[] signature : signatures) {
+            assertThat(index.candidates(signature)).isEmpty();
+        }
+    }
+
+    @Test
+    void testSimHashBands() {
+        SimHash simHash = SimHash.create();
+        LshIndex<String> index = LshIndex.create(8, 1);
+
+        final long fingerprint = simHash.fingerprint(tokens(new Random(42), 100));
+        index.put("near", SimHash.bands(fingerprint ^ 0b101, 8));
+        index.put("far", SimHash.bands(~fingerprint, 8));
+
+        assertThat(index.candidates(SimHash.bands(fingerprint, 8))).containsExactly("near");
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import org.atlanmod.commons.AbstractTest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * A test-case that checks the behavior of {@link MinHash}.
+ */
+@ParametersAreNonnullByDefault
+class MinHashTest extends AbstractTest {
+
+    private final MinHash minHash = MinHash.create(256);
+
+    private static List<String> tokens(Random random, int count) {
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tokens.add("token" + random.nextInt(1_000_000));
+        }
+        return tokens;
+    }
+
+    @Test
+    void testInvalidNumHashes() {
+        assertThat(catchThrowable(() -> MinHash.create(0)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testSignature() {
+        long[] signature = minHash.signature(Arrays.asList("foo", "bar", "baz"));
+
+        assertThat(signature).hasSize(256);
+        assertThat(minHash.numHashes()).isEqualTo(256);
+
+        assertThat(minHash.signature(Arrays.asList("baz", "foo", "bar", "foo"))).isEqualTo(signature);
+        assertThat(MinHash.create(256).signature(Arrays.asList("foo", "bar", "baz"))).isEqualTo(signature);
+        assertThat(MinHash.create(256, 42L).signature(Arrays.asList("foo", "bar", "baz"))).isNotEqualTo(signature);
+    }
+
+    @Test
+    void testSimilarity() {
+        Random random = new Random(42);
+
+        List<String> first = tokens(random, 300);
+        List<String> second = new ArrayList<>(first.subList(0, 200));
+        second.addAll(tokens(random, 100));
+
+        // Jaccard similarity: 200 / 400
+        assertThat(MinHash.similarity(minHash.signature(first), minHash.signature(second))).isCloseTo(0.5, within(0.1));
+        assertThat(MinHash.similarity(minHash.signature(first), minHash.signature(first))).isEqualTo(1);
+        assertThat(MinHash.similarity(minHash.signature(first), minHash.signature(tokens(random, 300)))).isLessThan(0.05);
+    }
+
+    @Test
+    void testLongTokens() {
+        long[] tokens = {1, 2, 3, 4};
+
+        assertThat(minHash.signature(tokens)).isEqualTo(minHash.signature(new long[]{4, 3, 2, 1}));
+        assertThat(minHash.signature(new long[0])).containsOnly(Long.MAX_VALUE);
+        assertThat(minHash.signature(Collections.emptyList())).containsOnly(Long.MAX_VALUE);
+    }
+
+    @Test
+    void testDifferentLengths() {
+        assertThat(catchThrowable(() -> MinHash.similarity(new long[2], new long[3])))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
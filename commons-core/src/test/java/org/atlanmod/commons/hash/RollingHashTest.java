@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import org.atlanmod.commons.AbstractTest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Random;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * A test-case that checks the behavior of {@link RollingHash}.
+ */
+@ParametersAreNonnullByDefault
+class RollingHashTest extends AbstractTest {
+
+    private static Stream<Arguments> allRollingHashes() {
+        return Stream.of(
+                Arguments.of("rabinKarp", (Supplier<RollingHash>) () -> RollingHash.rabinKarp(48)),
+                Arguments.of("buzhash", (Supplier<RollingHash>) () -> RollingHash.buzhash(48)),
+                Arguments.of("gear", (Supplier<RollingHash>) RollingHash::gear)
+        );
+    }
+
+    @Test
+    void testInvalidWindowSize() {
+        assertThat(catchThrowable(() -> RollingHash.rabinKarp(0)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(catchThrowable(() -> RollingHash.buzhash(0)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @ParameterizedTest(name = "[{index}] {0}")
+    @MethodSource("allRollingHashes")
+    void testRolling(@SuppressWarnings("unused") String name, Supplier<RollingHash> supplier) {
+        byte[] data = new byte[1000];
+        new Random(42).nextBytes(data);
+
+        RollingHash rolling = supplier.get();
+        for (byte b : data) {
+            rolling.update(b);
+        }
+
+        // The value only depends on the last bytes of the window
+        RollingHash fresh = supplier.get();
+        for (int i = data.length - fresh.windowSize(); i < data.length; i++) {
+            fresh.update(data[i]);
+        }
+
+        assertThat(rolling.value()).isEqualTo(fresh.value());
+    }
+
+    @ParameterizedTest(name = "[{index}] {0}")
+    @MethodSource("allRollingHashes")
+    void testReset(@SuppressWarnings("unused") String name, Supplier<RollingHash> supplier) {
+        RollingHash hash = supplier.get();
+
+        final long first = hash.update((byte) 1);
+        hash.update((byte) 2);
+
+        hash.reset();
+        assertThat(hash.value()).isZero();
+        assertThat(hash.update((byte) 1)).isEqualTo(first);
+    }
+
+    @ParameterizedTest(name = "[{index}] {0}")
+    @MethodSource("allRollingHashes")
+    void testZeros(@SuppressWarnings("unused") String name, Supplier<RollingHash> supplier) {
+        RollingHash hash = supplier.get();
+
+        for (int i = 0; i < 100; i++) {
+            hash.update((byte) 0);
+        }
+
+        assertThat(hash.value()).isNotZero();
+    }
+}
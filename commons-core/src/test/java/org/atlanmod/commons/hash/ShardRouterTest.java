@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import org.atlanmod.commons.AbstractTest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * A test-case that checks the behavior of {@link ShardRouter}.
+ */
+@ParametersAreNonnullByDefault
+class ShardRouterTest extends AbstractTest {
+
+    private static final int KEYS = 100_000;
+
+    private static Stream<Arguments> allRouters() {
+        return Stream.of(
+                Arguments.of("consistentHash", (Supplier<ShardRouter<String>>) () -> ShardRouter.consistentHash(StandardHashers.XX, 160)),
+                Arguments.of("rendezvous", (Supplier<ShardRouter<String>>) () -> ShardRouter.rendezvous(StandardHashers.XX)),
+                Arguments.of("jump", (Supplier<ShardRouter<String>>) () -> ShardRouter.jump(StandardHashers.XX))
+        );
+    }
+
+    private static ShardRouter<String> withNodes(Supplier<ShardRouter<String>> supplier, int count) {
+        ShardRouter<String> router = supplier.get();
+        for (int i = 0; i < count; i++) {
+            router.add("node" + i);
+        }
+        return router;
+    }
+
+    @Test
+    void testInvalidVirtualNodes() {
+        assertThat(catchThrowable(() -> ShardRouter.consistentHash(StandardHashers.XX, 0)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @ParameterizedTest(name = "[{index}] {0}")
+    @MethodSource("allRouters")
+    void testEmpty(@SuppressWarnings("unused") String name, Supplier<ShardRouter<String>> supplier) {
+        ShardRouter<String> router = supplier.get();
+
+        assertThat(router.nodes()).isEmpty();
+        assertThat(catchThrowable(() -> router.route("foo")))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @ParameterizedTest(name = "[{index}] {0}")
+    @MethodSource("allRouters")
+    void testMembership(@SuppressWarnings("unused") String name, Supplier<ShardRouter<String>> supplier) {
+        ShardRouter<String> router = supplier.get();
+
+        assertThat(router.add("foo")).isTrue();
+        assertThat(router.add("foo")).isFalse();
+        assertThat(router.add("bar")).isTrue();
+        assertThat(router.nodes()).containsExactly("foo", "bar");
+
+        assertThat(router.remove("foo")).isTrue();
+        assertThat(router.remove("foo")).isFalse();
+        assertThat(router.nodes()).containsExactly("bar");
+        assertThat(router.route("foo")).isEqualTo("bar");
+    }
+
+    @ParameterizedTest(name = "[{index}] {0}")
+    @MethodSource("allRouters")
+    void testDistribution(@SuppressWarnings("unused") String name, Supplier<ShardRouter<String>> supplier) {
+        ShardRouter<String> router = withNodes(supplier, 10);
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            counts.merge(router.route("key" + i), 1, Integer::sum);
+        }
+
+        assertThat(counts).hasSize(10);
+        assertThat(counts.values()).allMatch(c -> c > KEYS / 10 * 0.8 && c < KEYS / 10 * 1.2);
+    }
+
+    @ParameterizedTest(name = "[{index}] {0}")
+    @MethodSource("allRouters")
+    void testMinimalMovement(@SuppressWarnings("unused") String name, Supplier<ShardRouter<String>> supplier) {
+        ShardRouter<String> router = withNodes(supplier, 10);
+
+        String[] before = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            before[i] = router.route("key" + i);
+        }
+
+        router.add("node10");
+
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String node = router.route("key" + i);
+            if (!node.equals(before[i])) {
+                // Keys only move to the new node
+                assertThat(node).isEqualTo("node10");
+                moved++;
+            }
+        }
+        assertThat(moved).isBetween(KEYS / 11 / 2, KEYS / 11 * 2);
+
+        router.remove("node10");
+        for (int i = 0; i < KEYS; i++) {
+            assertThat(router.route("key" + i)).isEqualTo(before[i]);
+        }
+    }
+
+    @ParameterizedTest(name = "[{index}] {0}")
+    @MethodSource("allRouters")
+    void testRouteHash(@SuppressWarnings("unused") String name, Supplier<ShardRouter<String>> supplier) {
+        ShardRouter<String> router = withNodes(supplier, 5);
+
+        assertThat(router.route("foo")).isEqualTo(router.routeHash(StandardHashers.XX.hashToLong("foo")));
+        assertThat(router.route(42L)).isEqualTo(router.routeHash(StandardHashers.XX.hashToLong(42L)));
+        assertThat(router.route(new byte[]{1, 2})).isEqualTo(router.routeHash(StandardHashers.XX.hashToLong(new byte[]{1, 2})));
+    }
+
+    @ParameterizedTest(name = "[{index}] {0}")
+    @MethodSource("allRouters")
+    void testConcurrentUpdates(@SuppressWarnings("unused") String name, Supplier<ShardRouter<String>> supplier) throws Exception {
+        ShardRouter<String> router = withNodes(supplier, 1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> writer = executor.submit(() -> {
+                for (int i = 1; i < 100; i++) {
+                    router.add("node" + i);
+                }
+            });
+            Future<?> reader = executor.submit(() -> {
+                for (int i = 0; i < KEYS; i++) {
+                    assertThat(router.route("key" + i)).startsWith("node");
+                }
+            });
+
+            writer.get();
+            reader.get();
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(router.nodes()).hasSize(100);
+    }
+
+    @Test
+    void testJumpBucket() {
+        // Reference values of the algorithm published by Lamping and Veach, with unsigned 64-bit keys
+        assertThat(JumpRouter.bucket(0, 1)).isEqualTo(0);
+        assertThat(JumpRouter.bucket(0, 1000)).isEqualTo(0);
+        assertThat(JumpRouter.bucket(1, 2)).isEqualTo(0);
+        assertThat(JumpRouter.bucket(1, 10)).isEqualTo(6);
+        assertThat(JumpRouter.bucket(1, 1000)).isEqualTo(549);
+        assertThat(JumpRouter.bucket(42, 10)).isEqualTo(2);
+        assertThat(JumpRouter.bucket(42, 1000)).isEqualTo(571);
+        assertThat(JumpRouter.bucket(123456789, 100)).isEqualTo(34);
+        assertThat(JumpRouter.bucket(0xDEADBEEFL, 1024)).isEqualTo(285);
+        assertThat(JumpRouter.bucket(0xFFFFFFFFFFFFFFFFL, 100000)).isEqualTo(18311);
+        assertThat(JumpRouter.bucket(0x8000000000000000L, 7)).isEqualTo(5);
+
+        for (long key = 0; key < 1000; key++) {
+            final int bucket = JumpRouter.bucket(key, 10);
+            assertThat(bucket).isBetween(0, 9);
+
+            // Growing the number of buckets either keeps the bucket, or moves the key to the new bucket
+            final int grown = JumpRouter.bucket(key, 11);
+            assertThat(grown).isIn(bucket, 10);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import org.atlanmod.commons.AbstractTest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * A test-case that checks the behavior of {@link SimHash}.
+ */
+@ParametersAreNonnullByDefault
+class SimHashTest extends AbstractTest {
+
+    private final SimHash simHash = SimHash.create();
+
+    private static List<String> tokens(Random random, int count) {
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tokens.add("token" + random.nextInt(1_000_000));
+        }
+        return tokens;
+    }
+
+    @Test
+    void testFingerprint() {
+        Random random = new Random(42);
+
+        List<String> first = tokens(random, 300);
+        List<String> second = new ArrayList<>(first.subList(0, 280));
+        second.addAll(tokens(random, 20));
+
+        final long fingerprint = simHash.fingerprint(first);
+
+        assertThat(SimHash.distance(fingerprint, simHash.fingerprint(second))).isLessThan(16);
+        assertThat(SimHash.distance(fingerprint, simHash.fingerprint(tokens(random, 300)))).isGreaterThan(16);
+        assertThat(SimHash.similarity(fingerprint, fingerprint)).isEqualTo(1);
+    }
+
+    @Test
+    void testWeightedFingerprint() {
+        Map<String, Integer> weighted = new HashMap<>();
+        weighted.put("foo", 2);
+        weighted.put("bar", 1);
+
+        assertThat(simHash.fingerprint(weighted)).isEqualTo(simHash.fingerprint(Arrays.asList("foo", "bar", "foo")));
+    }
+
+    @Test
+    void testBands() {
+        long[] bands = SimHash.bands(0x0123456789abcdefL, 4);
+
+        assertThat(bands).containsExactly(0xcdefL, 0x89abL, 0x4567L, 0x0123L);
+        assertThat(SimHash.bands(-1L, 1)).containsExactly(-1L);
+
+        assertThat(catchThrowable(() -> SimHash.bands(0L, 5)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
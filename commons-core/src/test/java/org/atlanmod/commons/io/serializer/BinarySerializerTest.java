@@ -10,13 +10,19 @@ package org.atlanmod.commons.io.serializer;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.StreamCorruptedException;
 import java.util.Arrays;
 import java.util.List;
 
 import javax.annotation.ParametersAreNonnullByDefault;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
 
 /**
  * A test-case that checks the behavior of {@link BinarySerializer} instances.
@@ -43,4 +49,55 @@ class BinarySerializerTest extends AbstractSerializerTest {
 
         assertThat(result).containsExactly(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testChecksummed() throws IOException {
+        BinarySerializer<List<Integer>> serializer = BinarySerializerFactory.getInstance().checksummed(BinarySerializerFactory.getInstance().forAny());
+
+        List<Integer> object = Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+
+        assertThat(process(object, serializer)).containsExactly(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+        assertThat(processWithStream(object, serializer)).containsExactly(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+    }
+
+    @Test
+    void testChecksummedSequence() throws IOException {
+        BinarySerializer<String> serializer = BinarySerializerFactory.getInstance().checksummed(BinarySerializerFactory.getInstance().forAny());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        serializer.serialize("foo", out);
+        serializer.serialize("bar", out);
+
+        InputStream in = new ByteArrayInputStream(out.toByteArray());
+        assertThat(serializer.deserialize(in)).isEqualTo("foo");
+        assertThat(serializer.deserialize(in)).isEqualTo("bar");
+    }
+
+    @Test
+    void testChecksummedCorrupted() throws IOException {
+        BinarySerializer<String> serializer = BinarySerializerFactory.getInstance().checksummed(BinarySerializerFactory.getInstance().forAny());
+
+        byte[] data = serializer.serialize("Lorem ipsum dolor sit amet");
+
+        // Corrupted payload
+        data[6] ^= 1;
+        assertThat(catchThrowable(() -> serializer.deserialize(data)))
+                .isInstanceOf(StreamCorruptedException.class);
+
+        assertThat(catchThrowable(() -> serializer.deserialize(new ByteArrayInputStream(data))))
+                .isInstanceOf(StreamCorruptedException.class);
+
+        // Corrupted length
+        data[6] ^= 1;
+        data[0] = 0x7f;
+        assertThat(catchThrowable(() -> serializer.deserialize(data)))
+                .isInstanceOf(StreamCorruptedException.class);
+
+        assertThat(catchThrowable(() -> serializer.deserialize(new ByteArrayInputStream(data))))
+                .isInstanceOf(EOFException.class);
+
+        // Truncated record
+        assertThat(catchThrowable(() -> serializer.deserialize(new byte[3])))
+                .isInstanceOf(StreamCorruptedException.class);
+    }
+}